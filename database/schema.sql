@@ -1,5 +1,6 @@
 -- Bank Management System Database Schema
 -- Created for interview project demonstration
+-- Later schema changes live in src/main/resources/db/migration and are applied at startup
 
 CREATE DATABASE IF NOT EXISTS bank_management;
 USE bank_management;
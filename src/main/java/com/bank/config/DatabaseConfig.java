@@ -11,6 +11,29 @@ import java.util.Properties;
  */
 public class DatabaseConfig {
     private static final String CONFIG_FILE = "database.properties";
+    private static final String[] OVERRIDE_PREFIXES = {
+        "db.",
+        "retry.",
+        "accountNumber.",
+        "archive.",
+        "reconcile.",
+        "velocity.",
+        "limits.",
+        "standing.",
+        "storage.",
+        "outbox.",
+        "trace.",
+        "fx.",
+        "diagnostics.",
+        "batch.",
+        "descriptions.",
+        "emailFilter.",
+        "ministatement.",
+        "report.",
+        "customerCache.",
+        "admission.",
+        "payout.",
+    };
     private static Properties properties;
     
     static {
@@ -31,6 +54,20 @@ public class DatabaseConfig {
             System.err.println("Error loading database properties: " + e.getMessage());
             setDefaultProperties();
         }
+        applySystemOverrides();
+    }
+    
+    /**
+     * JVM system properties (e.g. -Ddb.url=...) take precedence over the file
+     */
+    private static void applySystemOverrides() {
+        for (String key : System.getProperties().stringPropertyNames()) {
+            for (String prefix : OVERRIDE_PREFIXES) {
+                if (key.startsWith(prefix)) {
+                    properties.setProperty(key, System.getProperty(key));
+                }
+            }
+        }
     }
     
     private static void setDefaultProperties() {
@@ -55,4 +92,34 @@ public class DatabaseConfig {
     public static String getDriver() {
         return properties.getProperty("db.driver");
     }
+    
+    public static String getProperty(String key, String defaultValue) {
+        return properties.getProperty(key, defaultValue);
+    }
+    
+    public static int getIntProperty(String key, int defaultValue) {
+        String value = properties.getProperty(key);
+        if (value == null || value.trim().isEmpty()) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            System.err.println("Invalid value for " + key + ": " + value);
+            return defaultValue;
+        }
+    }
+    
+    public static long getLongProperty(String key, long defaultValue) {
+        String value = properties.getProperty(key);
+        if (value == null || value.trim().isEmpty()) {
+            return defaultValue;
+        }
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            System.err.println("Invalid value for " + key + ": " + value);
+            return defaultValue;
+        }
+    }
 }
@@ -1,180 +1,74 @@
 package com.bank.dao;
 
+import com.bank.exception.VersionConflictException;
 import com.bank.model.Account;
-import com.bank.util.DatabaseConnection;
-import java.sql.*;
-import java.util.ArrayList;
+import java.sql.SQLException;
 import java.util.List;
 
 /**
  * Data Access Object for Account operations
- * Handles all database operations related to accounts
+ * Implemented by JdbcAccountDAO and by the in-memory engine in com.bank.dao.memory
+ *
+ * Balance and status updates made inside a business transaction (see
+ * UnitOfWork) take effect together when it commits.
  */
-public class AccountDAO {
-    
+public interface AccountDAO {
     /**
      * Create a new account
+     * @return the generated account ID
      */
-    public int createAccount(Account account) throws SQLException {
-        String sql = "INSERT INTO accounts (customer_id, account_number, account_type, balance, status) " +
-                     "VALUES (?, ?, ?, ?, ?)";
-        
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
-            
-            pstmt.setInt(1, account.getCustomerId());
-            pstmt.setString(2, account.getAccountNumber());
-            pstmt.setString(3, account.getAccountType().name());
-            pstmt.setDouble(4, account.getBalance());
-            pstmt.setString(5, account.getStatus().name());
-            
-            int affectedRows = pstmt.executeUpdate();
-            
-            if (affectedRows == 0) {
-                throw new SQLException("Creating account failed, no rows affected.");
-            }
-            
-            try (ResultSet generatedKeys = pstmt.getGeneratedKeys()) {
-                if (generatedKeys.next()) {
-                    int accountId = generatedKeys.getInt(1);
-                    DatabaseConnection.commit();
-                    return accountId;
-                } else {
-                    throw new SQLException("Creating account failed, no ID obtained.");
-                }
-            }
-        }
-    }
+    int createAccount(Account account) throws SQLException;
     
     /**
      * Get account by ID
+     * @return the account, or null if it does not exist
      */
-    public Account getAccountById(int accountId) throws SQLException {
-        String sql = "SELECT * FROM accounts WHERE account_id = ?";
-        
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            
-            pstmt.setInt(1, accountId);
-            
-            try (ResultSet rs = pstmt.executeQuery()) {
-                if (rs.next()) {
-                    return mapResultSetToAccount(rs);
-                }
-                return null;
-            }
-        }
-    }
+    Account getAccountById(int accountId) throws SQLException;
     
     /**
      * Get account by account number
+     * @return the account, or null if no account has this number
      */
-    public Account getAccountByNumber(String accountNumber) throws SQLException {
-        String sql = "SELECT * FROM accounts WHERE account_number = ?";
-        
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            
-            pstmt.setString(1, accountNumber);
-            
-            try (ResultSet rs = pstmt.executeQuery()) {
-                if (rs.next()) {
-                    return mapResultSetToAccount(rs);
-                }
-                return null;
-            }
-        }
-    }
+    Account getAccountByNumber(String accountNumber) throws SQLException;
     
     /**
-     * Get all accounts for a customer
+     * Get the accounts with the given IDs in one read, ordered by ID
+     * IDs of accounts that do not exist are left out.
      */
-    public List<Account> getAccountsByCustomerId(int customerId) throws SQLException {
-        String sql = "SELECT * FROM accounts WHERE customer_id = ? ORDER BY account_id";
-        List<Account> accounts = new ArrayList<>();
-        
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            
-            pstmt.setInt(1, customerId);
-            
-            try (ResultSet rs = pstmt.executeQuery()) {
-                while (rs.next()) {
-                    accounts.add(mapResultSetToAccount(rs));
-                }
-            }
-        }
-        
-        return accounts;
-    }
+    List<Account> getAccountsByIds(List<Integer> accountIds) throws SQLException;
     
     /**
-     * Update account balance
+     * Get all accounts for a customer, ordered by ID
      */
-    public boolean updateBalance(int accountId, double newBalance) throws SQLException {
-        String sql = "UPDATE accounts SET balance = ? WHERE account_id = ?";
-        
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            
-            pstmt.setDouble(1, newBalance);
-            pstmt.setInt(2, accountId);
-            
-            int affectedRows = pstmt.executeUpdate();
-            DatabaseConnection.commit();
-            return affectedRows > 0;
-        }
-    }
+    List<Account> getAccountsByCustomerId(int customerId) throws SQLException;
     
     /**
-     * Update account status
+     * Update account balance, if the account is still at the version it was
+     * read at, and move it to the next version
+     * @return false if the account does not exist
+     * @throws VersionConflictException if the account has another version
      */
-    public boolean updateAccountStatus(int accountId, Account.AccountStatus status) throws SQLException {
-        String sql = "UPDATE accounts SET status = ? WHERE account_id = ?";
-        
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            
-            pstmt.setString(1, status.name());
-            pstmt.setInt(2, accountId);
-            
-            int affectedRows = pstmt.executeUpdate();
-            DatabaseConnection.commit();
-            return affectedRows > 0;
-        }
-    }
+    boolean updateBalance(int accountId, double newBalance, long expectedVersion) throws SQLException;
     
     /**
-     * Get account balance
+     * Update the balances of several accounts in one batch, each to the
+     * balance set on it, if each is still at the version it was read at
+     * @throws VersionConflictException if any account has another version or no longer exists
+     */
+    void updateBalances(List<Account> accounts) throws SQLException;
+    
+    /**
+     * Update account status, if the account is still at the version it was
+     * read at, and move it to the next version
+     * @return false if the account does not exist
+     * @throws VersionConflictException if the account has another version
      */
-    public double getBalance(int accountId) throws SQLException {
-        String sql = "SELECT balance FROM accounts WHERE account_id = ?";
-        
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            
-            pstmt.setInt(1, accountId);
-            
-            try (ResultSet rs = pstmt.executeQuery()) {
-                if (rs.next()) {
-                    return rs.getDouble("balance");
-                }
-                throw new SQLException("Account not found");
-            }
-        }
-    }
+    boolean updateAccountStatus(int accountId, Account.AccountStatus status, long expectedVersion) 
+            throws SQLException;
     
     /**
-     * Map ResultSet to Account object
+     * Get account balance
+     * @throws SQLException if the account does not exist
      */
-    private Account mapResultSetToAccount(ResultSet rs) throws SQLException {
-        Account account = new Account();
-        account.setAccountId(rs.getInt("account_id"));
-        account.setCustomerId(rs.getInt("customer_id"));
-        account.setAccountNumber(rs.getString("account_number"));
-        account.setAccountType(Account.AccountType.valueOf(rs.getString("account_type")));
-        account.setBalance(rs.getDouble("balance"));
-        account.setStatus(Account.AccountStatus.valueOf(rs.getString("status")));
-        return account;
-    }
+    double getBalance(int accountId) throws SQLException;
 }
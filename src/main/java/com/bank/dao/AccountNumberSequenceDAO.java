@@ -0,0 +1,44 @@
+package com.bank.dao;
+
+import com.bank.util.DatabaseConnection;
+import java.sql.*;
+
+/**
+ * Data Access Object for the account number sequence
+ * Reserves contiguous blocks of sequence values
+ */
+public class AccountNumberSequenceDAO {
+    // LAST_INSERT_ID(expr) hands the new value back through the generated keys,
+    // so the block is reserved and read in one statement
+    static final String SQL_RESERVE_BLOCK = "UPDATE account_number_sequence " +
+            "SET next_value = LAST_INSERT_ID(next_value + ?) WHERE name = ?";
+    
+    /**
+     * Reserve a block of sequence values
+     * @return the first value of the block; the block covers [first, first + size)
+     */
+    public long reserveBlock(String sequenceName, int size) throws SQLException {
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(SQL_RESERVE_BLOCK, Statement.RETURN_GENERATED_KEYS)) {
+            
+            pstmt.setInt(1, size);
+            pstmt.setString(2, sequenceName);
+            
+            int affectedRows = pstmt.executeUpdate();
+            
+            if (affectedRows == 0) {
+                throw new SQLException("Sequence " + sequenceName + " not found");
+            }
+            
+            try (ResultSet generatedKeys = pstmt.getGeneratedKeys()) {
+                if (generatedKeys.next()) {
+                    long nextValue = generatedKeys.getLong(1);
+                    DatabaseConnection.commit();
+                    return nextValue - size;
+                } else {
+                    throw new SQLException("Reserving sequence block failed, no value obtained.");
+                }
+            }
+        }
+    }
+}
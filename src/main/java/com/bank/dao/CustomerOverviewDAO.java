@@ -0,0 +1,20 @@
+package com.bank.dao;
+
+import com.bank.model.CustomerOverview;
+import java.sql.SQLException;
+
+/**
+ * Data Access Object for the customer overview screen
+ * Implemented by JdbcCustomerOverviewDAO and by the in-memory engine in com.bank.dao.memory
+ *
+ * Like TransactionDAO.getTransactionHistory, recent transactions come from
+ * the archive when an account has too few in the hot table.
+ */
+public interface CustomerOverviewDAO {
+    /**
+     * Get a customer with their accounts and recent transactions
+     * @param transactionsPerAccount newest ledger entries to load for each account
+     * @return the overview, or null if the customer does not exist
+     */
+    CustomerOverview getCustomerOverview(int customerId, int transactionsPerAccount) throws SQLException;
+}
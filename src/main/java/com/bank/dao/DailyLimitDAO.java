@@ -0,0 +1,103 @@
+package com.bank.dao;
+
+import com.bank.model.DailyLimitUsage;
+import com.bank.util.DatabaseConnection;
+import java.sql.*;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Data Access Object for daily limit usage
+ * Stores the compact per-day totals shared by every process; processes add
+ * to them rather than overwrite them, or raise them to what the ledger shows
+ */
+public class DailyLimitDAO {
+    private static final int BATCH_SIZE = 500;
+    
+    // SQL statements, package-private so the query plan tests can EXPLAIN them
+    static final String SQL_SELECT_USAGE = "SELECT account_id, withdrawn, transferred FROM daily_limit_usage " +
+            "WHERE usage_date = ?";
+    static final String SQL_ADD_USAGE = "INSERT INTO daily_limit_usage (account_id, usage_date, withdrawn, transferred) " +
+            "VALUES (?, ?, ?, ?) " +
+            "ON DUPLICATE KEY UPDATE withdrawn = withdrawn + VALUES(withdrawn), " +
+            "transferred = transferred + VALUES(transferred)";
+    static final String SQL_RAISE_USAGE = "INSERT INTO daily_limit_usage (account_id, usage_date, withdrawn, transferred) " +
+            "VALUES (?, ?, ?, ?) " +
+            "ON DUPLICATE KEY UPDATE withdrawn = GREATEST(withdrawn, VALUES(withdrawn)), " +
+            "transferred = GREATEST(transferred, VALUES(transferred))";
+    static final String SQL_DELETE_USAGE_BEFORE = "DELETE FROM daily_limit_usage WHERE usage_date < ?";
+    
+    /**
+     * Get the stored totals of every account for one day
+     */
+    public List<DailyLimitUsage> getUsage(LocalDate day) throws SQLException {
+        List<DailyLimitUsage> usage = new ArrayList<>();
+        
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(SQL_SELECT_USAGE)) {
+            
+            pstmt.setDate(1, Date.valueOf(day));
+            
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    usage.add(new DailyLimitUsage(rs.getInt(1), day, rs.getDouble(2), rs.getDouble(3)));
+                }
+            }
+        }
+        
+        return usage;
+    }
+    
+    /**
+     * Add amounts to the stored totals of the same account and day
+     */
+    public void addUsage(Collection<DailyLimitUsage> usage) throws SQLException {
+        write(SQL_ADD_USAGE, usage);
+    }
+    
+    /**
+     * Raise the stored totals of the same account and day to at least the given amounts
+     */
+    public void raiseUsage(Collection<DailyLimitUsage> usage) throws SQLException {
+        write(SQL_RAISE_USAGE, usage);
+    }
+    
+    /**
+     * Delete the usage of days before the given one
+     */
+    public int deleteUsageBefore(LocalDate day) throws SQLException {
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(SQL_DELETE_USAGE_BEFORE)) {
+            
+            pstmt.setDate(1, Date.valueOf(day));
+            int affectedRows = pstmt.executeUpdate();
+            DatabaseConnection.commit();
+            return affectedRows;
+        }
+    }
+    
+    /**
+     * Run an upsert of per-day totals in batches
+     */
+    private void write(String sql, Collection<DailyLimitUsage> usage) throws SQLException {
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            
+            int batched = 0;
+            for (DailyLimitUsage entry : usage) {
+                pstmt.setInt(1, entry.getAccountId());
+                pstmt.setDate(2, Date.valueOf(entry.getUsageDate()));
+                pstmt.setDouble(3, entry.getWithdrawn());
+                pstmt.setDouble(4, entry.getTransferred());
+                pstmt.addBatch();
+                if (++batched % BATCH_SIZE == 0) {
+                    pstmt.executeBatch();
+                }
+            }
+            pstmt.executeBatch();
+            DatabaseConnection.commit();
+        }
+    }
+}
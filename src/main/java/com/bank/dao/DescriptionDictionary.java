@@ -0,0 +1,198 @@
+package com.bank.dao;
+
+import com.bank.config.DatabaseConfig;
+import com.bank.model.Transaction;
+import com.bank.util.DatabaseConnection;
+import java.sql.*;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Dictionary of transaction descriptions
+ * Descriptions the application generates ("Deposit", "Transfer to ACC001",
+ * ...; see Transaction.setGeneratedDescription) are stored once in
+ * transaction_descriptions as a template and a parameter; ledger rows
+ * reference them by description_id and leave description NULL. Free text
+ * from callers is stored inline as before, so the dictionary grows with
+ * accounts, not with user input.
+ *
+ * Both directions are cached in memory, so reading history maps each ID to
+ * one shared String instead of building a new one per row. When the caches
+ * reach descriptions.cacheSize entries, an arbitrary eighth of them is
+ * dropped.
+ *
+ * Cache misses are looked up on the caller's connection. Only entries it
+ * cannot see go to a dedicated thread with its own auto-commit connection:
+ * new entries, which must not be added in the caller's business transaction
+ * since an ID handed out here must stay valid even if the transfer that
+ * first used it rolls back, and entries added after the caller's snapshot.
+ */
+public final class DescriptionDictionary {
+    private static final int MAX_PARAMETER_LENGTH = 255;
+    private static final int CACHE_SIZE = DatabaseConfig.getIntProperty("descriptions.cacheSize", 50_000);
+    
+    // SQL statements, package-private so the query plan tests can EXPLAIN them
+    static final String SQL_SELECT_ID = "SELECT description_id FROM transaction_descriptions " +
+            "WHERE template = ? AND parameter = ?";
+    static final String SQL_SELECT_BY_ID = "SELECT template, parameter FROM transaction_descriptions " +
+            "WHERE description_id = ?";
+    static final String SQL_INSERT = "INSERT IGNORE INTO transaction_descriptions (template, parameter) VALUES (?, ?)";
+    
+    private static final Map<String, Integer> idsByText = new ConcurrentHashMap<>();
+    private static final Map<Integer, String> textsById = new ConcurrentHashMap<>();
+    private static final ExecutorService writer = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "description-dictionary");
+        thread.setDaemon(true);
+        return thread;
+    });
+    
+    private DescriptionDictionary() {
+    }
+    
+    /**
+     * Get the dictionary ID for a transaction's description, adding it if needed
+     * @return the ID, or 0 if the description was not generated from a
+     *         template and is to be stored inline
+     */
+    static int idOf(Transaction transaction) throws SQLException {
+        String template = transaction.getDescriptionTemplate();
+        String parameter = transaction.getDescriptionParameter();
+        if (template == null || parameter.length() > MAX_PARAMETER_LENGTH) {
+            return 0;
+        }
+        String description = transaction.getDescription();
+        Integer cached = idsByText.get(description);
+        if (cached != null) {
+            return cached;
+        }
+        
+        int descriptionId = selectId(template, parameter);
+        if (descriptionId == 0) {
+            descriptionId = onWriter(() -> {
+                try {
+                    int existing = selectId(template, parameter);
+                    if (existing > 0) {
+                        return existing;
+                    }
+                    try (Connection conn = DatabaseConnection.getConnection();
+                         PreparedStatement pstmt = conn.prepareStatement(SQL_INSERT)) {
+                        pstmt.setString(1, template);
+                        pstmt.setString(2, parameter);
+                        pstmt.executeUpdate();
+                    }
+                    int inserted = selectId(template, parameter);
+                    if (inserted == 0) {
+                        throw new SQLException("Adding description failed, no ID obtained.");
+                    }
+                    return inserted;
+                } catch (SQLException e) {
+                    DatabaseConnection.closeConnection(); // reconnect on the next miss
+                    throw e;
+                }
+            });
+        }
+        remember(descriptionId, description);
+        return descriptionId;
+    }
+    
+    /**
+     * Get the description for a dictionary ID, as a shared instance
+     */
+    static String textOf(int descriptionId) throws SQLException {
+        String cached = textsById.get(descriptionId);
+        if (cached != null) {
+            return cached;
+        }
+        
+        String description = selectText(descriptionId);
+        if (description == null) {
+            // Added after the caller's snapshot; read it with auto-commit
+            description = onWriter(() -> {
+                try {
+                    String added = selectText(descriptionId);
+                    if (added == null) {
+                        throw new SQLException("Description " + descriptionId + " not found");
+                    }
+                    return added;
+                } catch (SQLException e) {
+                    DatabaseConnection.closeConnection();
+                    throw e;
+                }
+            });
+        }
+        remember(descriptionId, description);
+        return description;
+    }
+    
+    static String render(String template, String parameter) {
+        return template.replace(Transaction.DESCRIPTION_PLACEHOLDER, parameter);
+    }
+    
+    private static String selectText(int descriptionId) throws SQLException {
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(SQL_SELECT_BY_ID)) {
+            pstmt.setInt(1, descriptionId);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next() ? render(rs.getString(1), rs.getString(2)) : null;
+            }
+        }
+    }
+    
+    private static int selectId(String template, String parameter) throws SQLException {
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(SQL_SELECT_ID)) {
+            pstmt.setString(1, template);
+            pstmt.setString(2, parameter);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next() ? rs.getInt(1) : 0;
+            }
+        }
+    }
+    
+    private static void remember(int descriptionId, String description) {
+        if (textsById.size() >= CACHE_SIZE) {
+            evict(CACHE_SIZE / 8 + 1);
+        }
+        String shared = textsById.putIfAbsent(descriptionId, description);
+        idsByText.put(shared != null ? shared : description, descriptionId);
+    }
+    
+    /**
+     * Drop about the given number of entries; which ones depends on the
+     * map's hash order, so frequently used entries are as likely to go as
+     * any other and come back on their next miss
+     */
+    private static void evict(int count) {
+        Iterator<Map.Entry<Integer, String>> entries = textsById.entrySet().iterator();
+        for (int i = 0; i < count && entries.hasNext(); i++) {
+            Map.Entry<Integer, String> entry = entries.next();
+            entries.remove();
+            idsByText.remove(entry.getValue(), entry.getKey());
+        }
+    }
+    
+    private static <T> T onWriter(SqlCall<T> call) throws SQLException {
+        Future<T> result = writer.submit(call::run);
+        try {
+            return result.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof SQLException) {
+                throw (SQLException) e.getCause();
+            }
+            throw new SQLException("Description dictionary failed", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted waiting for the description dictionary", e);
+        }
+    }
+    
+    @FunctionalInterface
+    private interface SqlCall<T> {
+        T run() throws SQLException;
+    }
+}
@@ -0,0 +1,31 @@
+package com.bank.dao;
+
+import com.bank.model.FxRate;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * Data Access Object for FX rates
+ * Implemented by JdbcFxRateDAO and by the in-memory engine in com.bank.dao.memory
+ *
+ * Rates are never updated in place: each save adds the given rates under a
+ * new, higher version, and a pair's current rate is its newest row.
+ */
+public interface FxRateDAO {
+    /**
+     * Get the highest saved rate version
+     * @return the version, or 0 if no rates have been saved
+     */
+    long getLatestVersion() throws SQLException;
+    
+    /**
+     * Get the current rate of every currency pair
+     */
+    List<FxRate> getLatestRates() throws SQLException;
+    
+    /**
+     * Save rates together under the next version; their versions are ignored
+     * @return the version they were saved under
+     */
+    long saveRates(List<FxRate> rates) throws SQLException;
+}
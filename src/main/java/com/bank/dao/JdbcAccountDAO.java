@@ -0,0 +1,286 @@
+package com.bank.dao;
+
+import com.bank.exception.VersionConflictException;
+import com.bank.model.Account;
+import com.bank.util.DatabaseConnection;
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * JDBC implementation of AccountDAO
+ * Handles all database operations related to accounts
+ * Updates are optimistic: they match the version the caller read rather
+ * than locking the row when it is read.
+ */
+public class JdbcAccountDAO implements AccountDAO {
+    // Column list read by mapResultSetToAccount, which maps by position
+    static final String ACCOUNT_COLUMNS =
+            "account_id, customer_id, account_number, account_type, balance, status, currency, version";
+    
+    // SQL statements, package-private so the query plan tests can EXPLAIN them
+    static final String SQL_INSERT = "INSERT INTO accounts (customer_id, account_number, account_type, balance, status, " +
+            "currency) VALUES (?, ?, ?, ?, ?, ?)";
+    static final String SQL_SELECT_BY_ID = "SELECT " + ACCOUNT_COLUMNS + " FROM accounts WHERE account_id = ?";
+    static final String SQL_SELECT_BY_NUMBER = "SELECT " + ACCOUNT_COLUMNS + " FROM accounts WHERE account_number = ?";
+    static final String SQL_SELECT_BY_CUSTOMER = "SELECT " + ACCOUNT_COLUMNS +
+            " FROM accounts WHERE customer_id = ? ORDER BY account_id";
+    static final String SQL_UPDATE_BALANCE = "UPDATE accounts SET balance = ?, version = version + 1 " +
+            "WHERE account_id = ? AND version = ?";
+    static final String SQL_UPDATE_STATUS = "UPDATE accounts SET status = ?, version = version + 1 " +
+            "WHERE account_id = ? AND version = ?";
+    static final String SQL_SELECT_VERSION = "SELECT version FROM accounts WHERE account_id = ?";
+    static final String SQL_SELECT_BALANCE = "SELECT balance FROM accounts WHERE account_id = ?";
+    
+    /**
+     * Create a new account
+     */
+    @Override
+    public int createAccount(Account account) throws SQLException {
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(SQL_INSERT, Statement.RETURN_GENERATED_KEYS)) {
+            
+            pstmt.setInt(1, account.getCustomerId());
+            pstmt.setString(2, account.getAccountNumber());
+            pstmt.setString(3, account.getAccountType().name());
+            pstmt.setDouble(4, account.getBalance());
+            pstmt.setString(5, account.getStatus().name());
+            pstmt.setString(6, account.getCurrency());
+            
+            int affectedRows = pstmt.executeUpdate();
+            
+            if (affectedRows == 0) {
+                throw new SQLException("Creating account failed, no rows affected.");
+            }
+            
+            try (ResultSet generatedKeys = pstmt.getGeneratedKeys()) {
+                if (generatedKeys.next()) {
+                    int accountId = generatedKeys.getInt(1);
+                    DatabaseConnection.commit();
+                    return accountId;
+                } else {
+                    throw new SQLException("Creating account failed, no ID obtained.");
+                }
+            }
+        }
+    }
+    
+    /**
+     * Get account by ID
+     */
+    @Override
+    public Account getAccountById(int accountId) throws SQLException {
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(SQL_SELECT_BY_ID)) {
+            
+            pstmt.setInt(1, accountId);
+            
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (rs.next()) {
+                    return mapResultSetToAccount(rs, 1);
+                }
+                return null;
+            }
+        }
+    }
+    
+    /**
+     * Get account by account number
+     */
+    @Override
+    public Account getAccountByNumber(String accountNumber) throws SQLException {
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(SQL_SELECT_BY_NUMBER)) {
+            
+            pstmt.setString(1, accountNumber);
+            
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (rs.next()) {
+                    return mapResultSetToAccount(rs, 1);
+                }
+                return null;
+            }
+        }
+    }
+    
+    /**
+     * Get several accounts by ID
+     */
+    @Override
+    public List<Account> getAccountsByIds(List<Integer> accountIds) throws SQLException {
+        List<Account> accounts = new ArrayList<>(accountIds.size());
+        if (accountIds.isEmpty()) {
+            return accounts;
+        }
+        
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(selectByIdsSql(accountIds.size()))) {
+            
+            for (int i = 0; i < accountIds.size(); i++) {
+                pstmt.setInt(i + 1, accountIds.get(i));
+            }
+            
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    accounts.add(mapResultSetToAccount(rs, 1));
+                }
+            }
+        }
+        
+        return accounts;
+    }
+    
+    /**
+     * Get all accounts for a customer
+     */
+    @Override
+    public List<Account> getAccountsByCustomerId(int customerId) throws SQLException {
+        List<Account> accounts = new ArrayList<>();
+        
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(SQL_SELECT_BY_CUSTOMER)) {
+            
+            pstmt.setInt(1, customerId);
+            
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    accounts.add(mapResultSetToAccount(rs, 1));
+                }
+            }
+        }
+        
+        return accounts;
+    }
+    
+    /**
+     * Update account balance at the expected version
+     */
+    @Override
+    public boolean updateBalance(int accountId, double newBalance, long expectedVersion) throws SQLException {
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(SQL_UPDATE_BALANCE)) {
+            
+            pstmt.setDouble(1, newBalance);
+            pstmt.setInt(2, accountId);
+            pstmt.setLong(3, expectedVersion);
+            
+            int affectedRows = pstmt.executeUpdate();
+            DatabaseConnection.commit();
+            return affectedRows > 0 || checkConflict(accountId);
+        }
+    }
+    
+    /**
+     * Update several account balances at their expected versions
+     */
+    @Override
+    public void updateBalances(List<Account> accounts) throws SQLException {
+        if (accounts.isEmpty()) {
+            return;
+        }
+        
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(SQL_UPDATE_BALANCE)) {
+            
+            for (Account account : accounts) {
+                pstmt.setDouble(1, account.getBalance());
+                pstmt.setInt(2, account.getAccountId());
+                pstmt.setLong(3, account.getVersion());
+                pstmt.addBatch();
+            }
+            
+            int[] affectedRows = pstmt.executeBatch();
+            DatabaseConnection.commit();
+            for (int i = 0; i < affectedRows.length; i++) {
+                if (affectedRows[i] == 0) {
+                    throw new VersionConflictException("Account " + accounts.get(i).getAccountId() +
+                        " was changed by a concurrent transaction");
+                }
+            }
+        }
+    }
+    
+    /**
+     * Update account status at the expected version
+     */
+    @Override
+    public boolean updateAccountStatus(int accountId, Account.AccountStatus status, long expectedVersion) 
+            throws SQLException {
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(SQL_UPDATE_STATUS)) {
+            
+            pstmt.setString(1, status.name());
+            pstmt.setInt(2, accountId);
+            pstmt.setLong(3, expectedVersion);
+            
+            int affectedRows = pstmt.executeUpdate();
+            DatabaseConnection.commit();
+            return affectedRows > 0 || checkConflict(accountId);
+        }
+    }
+    
+    /**
+     * Tell why a versioned update matched no row
+     * @return false if the account does not exist
+     * @throws VersionConflictException if it exists at another version
+     */
+    private boolean checkConflict(int accountId) throws SQLException {
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(SQL_SELECT_VERSION)) {
+            
+            pstmt.setInt(1, accountId);
+            
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (!rs.next()) {
+                    return false;
+                }
+                throw new VersionConflictException("Account " + accountId + " was changed by a concurrent transaction");
+            }
+        }
+    }
+    
+    /**
+     * Get account balance
+     */
+    @Override
+    public double getBalance(int accountId) throws SQLException {
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(SQL_SELECT_BALANCE)) {
+            
+            pstmt.setInt(1, accountId);
+            
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (rs.next()) {
+                    return rs.getDouble(1);
+                }
+                throw new SQLException("Account not found");
+            }
+        }
+    }
+    
+    /**
+     * SELECT statement for the given number of account IDs
+     */
+    static String selectByIdsSql(int count) {
+        return "SELECT " + ACCOUNT_COLUMNS + " FROM accounts WHERE account_id IN (" +
+            String.join(", ", Collections.nCopies(count, "?")) + ") ORDER BY account_id";
+    }
+    
+    /**
+     * Map ResultSet to Account object
+     * Reads ACCOUNT_COLUMNS by position, starting at the given column
+     */
+    static Account mapResultSetToAccount(ResultSet rs, int first) throws SQLException {
+        Account account = new Account();
+        account.setAccountId(rs.getInt(first));
+        account.setCustomerId(rs.getInt(first + 1));
+        account.setAccountNumber(rs.getString(first + 2));
+        account.setAccountType(Account.AccountType.valueOf(rs.getString(first + 3)));
+        account.setBalance(rs.getDouble(first + 4));
+        account.setStatus(Account.AccountStatus.valueOf(rs.getString(first + 5)));
+        account.setCurrency(rs.getString(first + 6));
+        account.setVersion(rs.getLong(first + 7));
+        return account;
+    }
+}
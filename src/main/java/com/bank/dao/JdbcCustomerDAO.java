@@ -0,0 +1,238 @@
+package com.bank.dao;
+
+import com.bank.model.Customer;
+import com.bank.model.CustomerSummary;
+import com.bank.util.DatabaseConnection;
+import java.sql.*;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * JDBC implementation of CustomerDAO
+ * Handles all database operations related to customers
+ */
+public class JdbcCustomerDAO implements CustomerDAO {
+    // Column list read by mapResultSetToCustomer, which maps by position
+    static final String CUSTOMER_COLUMNS =
+            "customer_id, first_name, last_name, email, phone, address, date_of_birth";
+    static final String SUMMARY_COLUMNS = "customer_id, first_name, last_name, email, phone";
+    
+    // SQL statements, package-private so the query plan tests can EXPLAIN them
+    static final String SQL_INSERT = "INSERT INTO customers (first_name, last_name, email, phone, address, date_of_birth) " +
+            "VALUES (?, ?, ?, ?, ?, ?)";
+    static final String SQL_SELECT_BY_ID = "SELECT " + CUSTOMER_COLUMNS + " FROM customers WHERE customer_id = ?";
+    static final String SQL_SELECT_BY_EMAIL = "SELECT " + CUSTOMER_COLUMNS + " FROM customers WHERE email = ?";
+    static final String SQL_SELECT_ALL = "SELECT " + CUSTOMER_COLUMNS + " FROM customers ORDER BY customer_id";
+    static final String SQL_SELECT_SUMMARIES = "SELECT " + SUMMARY_COLUMNS + " FROM customers ORDER BY customer_id";
+    static final String SQL_COUNT = "SELECT COUNT(*) FROM customers";
+    static final String SQL_SELECT_EMAILS_AFTER = "SELECT customer_id, email FROM customers WHERE customer_id > ? " +
+            "ORDER BY customer_id";
+    static final String SQL_UPDATE = "UPDATE customers SET first_name = ?, last_name = ?, email = ?, " +
+            "phone = ?, address = ?, date_of_birth = ? WHERE customer_id = ?";
+    static final String SQL_DELETE = "DELETE FROM customers WHERE customer_id = ?";
+    
+    /**
+     * Create a new customer
+     */
+    @Override
+    public int createCustomer(Customer customer) throws SQLException {
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(SQL_INSERT, Statement.RETURN_GENERATED_KEYS)) {
+            
+            pstmt.setString(1, customer.getFirstName());
+            pstmt.setString(2, customer.getLastName());
+            pstmt.setString(3, customer.getEmail());
+            pstmt.setString(4, customer.getPhone());
+            pstmt.setString(5, customer.getAddress());
+            pstmt.setDate(6, Date.valueOf(customer.getDateOfBirth()));
+            
+            int affectedRows = pstmt.executeUpdate();
+            
+            if (affectedRows == 0) {
+                throw new SQLException("Creating customer failed, no rows affected.");
+            }
+            
+            try (ResultSet generatedKeys = pstmt.getGeneratedKeys()) {
+                if (generatedKeys.next()) {
+                    int customerId = generatedKeys.getInt(1);
+                    DatabaseConnection.commit();
+                    return customerId;
+                } else {
+                    throw new SQLException("Creating customer failed, no ID obtained.");
+                }
+            }
+        }
+    }
+    
+    /**
+     * Get customer by ID
+     */
+    @Override
+    public Customer getCustomerById(int customerId) throws SQLException {
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(SQL_SELECT_BY_ID)) {
+            
+            pstmt.setInt(1, customerId);
+            
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (rs.next()) {
+                    return mapResultSetToCustomer(rs, 1);
+                }
+                return null;
+            }
+        }
+    }
+    
+    /**
+     * Get customer by email
+     */
+    @Override
+    public Customer getCustomerByEmail(String email) throws SQLException {
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(SQL_SELECT_BY_EMAIL)) {
+            
+            pstmt.setString(1, email);
+            
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (rs.next()) {
+                    return mapResultSetToCustomer(rs, 1);
+                }
+                return null;
+            }
+        }
+    }
+    
+    /**
+     * Get all customers
+     */
+    @Override
+    public List<Customer> getAllCustomers() throws SQLException {
+        List<Customer> customers = new ArrayList<>();
+        
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(SQL_SELECT_ALL);
+             ResultSet rs = pstmt.executeQuery()) {
+            
+            while (rs.next()) {
+                customers.add(mapResultSetToCustomer(rs, 1));
+            }
+        }
+        
+        return customers;
+    }
+    
+    /**
+     * Get lightweight summaries of all customers for list screens
+     */
+    @Override
+    public List<CustomerSummary> getCustomerSummaries() throws SQLException {
+        List<CustomerSummary> customers = new ArrayList<>();
+        
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(SQL_SELECT_SUMMARIES);
+             ResultSet rs = pstmt.executeQuery()) {
+            
+            while (rs.next()) {
+                customers.add(new CustomerSummary(
+                    rs.getInt(1),
+                    rs.getString(2),
+                    rs.getString(3),
+                    rs.getString(4),
+                    rs.getString(5)
+                ));
+            }
+        }
+        
+        return customers;
+    }
+    
+    /**
+     * Count all customers
+     */
+    @Override
+    public int countCustomers() throws SQLException {
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(SQL_COUNT);
+             ResultSet rs = pstmt.executeQuery()) {
+            
+            rs.next();
+            return rs.getInt(1);
+        }
+    }
+    
+    /**
+     * Stream customer emails above an ID, without buffering the result
+     */
+    @Override
+    public void streamEmails(int afterCustomerId, ObjIntConsumer<String> handler) throws SQLException {
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(SQL_SELECT_EMAILS_AFTER,
+                     ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            
+            pstmt.setFetchSize(Integer.MIN_VALUE); // Connector/J: stream rows instead of buffering the result
+            pstmt.setInt(1, afterCustomerId);
+            
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    handler.accept(rs.getString(2), rs.getInt(1));
+                }
+            }
+        }
+    }
+    
+    /**
+     * Update customer information
+     */
+    @Override
+    public boolean updateCustomer(Customer customer) throws SQLException {
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(SQL_UPDATE)) {
+            
+            pstmt.setString(1, customer.getFirstName());
+            pstmt.setString(2, customer.getLastName());
+            pstmt.setString(3, customer.getEmail());
+            pstmt.setString(4, customer.getPhone());
+            pstmt.setString(5, customer.getAddress());
+            pstmt.setDate(6, Date.valueOf(customer.getDateOfBirth()));
+            pstmt.setInt(7, customer.getCustomerId());
+            
+            int affectedRows = pstmt.executeUpdate();
+            DatabaseConnection.commit();
+            return affectedRows > 0;
+        }
+    }
+    
+    /**
+     * Delete customer
+     */
+    @Override
+    public boolean deleteCustomer(int customerId) throws SQLException {
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(SQL_DELETE)) {
+            
+            pstmt.setInt(1, customerId);
+            
+            int affectedRows = pstmt.executeUpdate();
+            DatabaseConnection.commit();
+            return affectedRows > 0;
+        }
+    }
+    
+    /**
+     * Map ResultSet to Customer object
+     * Reads CUSTOMER_COLUMNS by position, starting at the given column
+     */
+    static Customer mapResultSetToCustomer(ResultSet rs, int first) throws SQLException {
+        Customer customer = new Customer();
+        customer.setCustomerId(rs.getInt(first));
+        customer.setFirstName(rs.getString(first + 1));
+        customer.setLastName(rs.getString(first + 2));
+        customer.setEmail(rs.getString(first + 3));
+        customer.setPhone(rs.getString(first + 4));
+        customer.setAddress(rs.getString(first + 5));
+        customer.setDateOfBirth(rs.getDate(first + 6).toLocalDate());
+        return customer;
+    }
+}
@@ -0,0 +1,169 @@
+package com.bank.dao;
+
+import com.bank.model.Account;
+import com.bank.model.CustomerOverview;
+import com.bank.model.Transaction;
+import com.bank.util.DatabaseConnection;
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * JDBC implementation of CustomerOverviewDAO
+ * Loads a customer, all of their accounts and the last N transactions of
+ * each account in a single round trip. Once the archiver has run, accounts
+ * with fewer than N hot rows are topped up from the archive in one more.
+ */
+public class JdbcCustomerOverviewDAO implements CustomerOverviewDAO {
+    // One row per (account, recent transaction); a LATERAL derived table takes
+    // the newest N rows of each account straight off idx_account_date.
+    // Columns 1-7 follow JdbcCustomerDAO.CUSTOMER_COLUMNS, 8-15 JdbcAccountDAO.ACCOUNT_COLUMNS
+    // and 16-25 JdbcTransactionDAO.TRANSACTION_COLUMNS so the shared mappers can be used.
+    static final String SQL_SELECT_OVERVIEW =
+            "SELECT c.customer_id, c.first_name, c.last_name, c.email, c.phone, c.address, c.date_of_birth, " +
+            "a.account_id, a.customer_id, a.account_number, a.account_type, a.balance, a.status, a.currency, a.version, " +
+            "t.transaction_id, t.account_id, t.transaction_type, t.amount, t.balance_after, " +
+            "t.description, t.related_account_id, t.transaction_date, t.fx_rate_version, t.description_id " +
+            "FROM customers c " +
+            "LEFT JOIN accounts a ON a.customer_id = c.customer_id " +
+            "LEFT JOIN LATERAL (" +
+            "SELECT " + JdbcTransactionDAO.TRANSACTION_COLUMNS + " FROM transactions tx " +
+            "WHERE tx.account_id = a.account_id " +
+            "ORDER BY tx.transaction_date DESC, tx.transaction_id DESC LIMIT ?" +
+            ") t ON TRUE " +
+            "WHERE c.customer_id = ?";
+    private static final int ACCOUNT_FIRST_COLUMN = 8;
+    private static final int TRANSACTION_FIRST_COLUMN = 16;
+    
+    // The newest N archived rows of each listed account; the derived table's
+    // columns follow JdbcTransactionDAO.TRANSACTION_COLUMNS
+    private static final String SQL_SELECT_ARCHIVED_PREFIX =
+            "SELECT t.* FROM accounts a " +
+            "JOIN LATERAL (" +
+            "SELECT " + JdbcTransactionDAO.TRANSACTION_COLUMNS + " FROM transactions_archive tx " +
+            "WHERE tx.account_id = a.account_id " +
+            "ORDER BY tx.transaction_date DESC, tx.transaction_id DESC LIMIT ?" +
+            ") t ON TRUE " +
+            "WHERE a.account_id IN (";
+    
+    private static final Comparator<Transaction> NEWEST_FIRST =
+        Comparator.comparing(Transaction::getTransactionDate, Comparator.nullsLast(Comparator.reverseOrder()))
+            .thenComparing(Comparator.comparingInt(Transaction::getTransactionId).reversed());
+    
+    /**
+     * Get a customer with their accounts and recent transactions
+     */
+    @Override
+    public CustomerOverview getCustomerOverview(int customerId, int transactionsPerAccount) throws SQLException {
+        CustomerOverview overview = null;
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(SQL_SELECT_OVERVIEW)) {
+            
+            pstmt.setInt(1, transactionsPerAccount);
+            pstmt.setInt(2, customerId);
+            
+            try (ResultSet rs = pstmt.executeQuery()) {
+                Map<Integer, Account> accounts = new HashMap<>();
+                
+                while (rs.next()) {
+                    if (overview == null) {
+                        overview = new CustomerOverview(JdbcCustomerDAO.mapResultSetToCustomer(rs, 1));
+                    }
+                    
+                    int accountId = rs.getInt(ACCOUNT_FIRST_COLUMN);
+                    if (rs.wasNull()) {
+                        continue; // customer without accounts
+                    }
+                    if (!accounts.containsKey(accountId)) {
+                        Account account = JdbcAccountDAO.mapResultSetToAccount(rs, ACCOUNT_FIRST_COLUMN);
+                        accounts.put(accountId, account);
+                        overview.addAccount(account);
+                    }
+                    
+                    if (rs.getObject(TRANSACTION_FIRST_COLUMN) != null) {
+                        overview.addRecentTransaction(
+                            JdbcTransactionDAO.mapResultSetToTransaction(rs, TRANSACTION_FIRST_COLUMN));
+                    }
+                }
+                
+                if (overview != null) {
+                    // Rows arrive in join order; order the graph in memory instead of a filesort
+                    overview.getAccounts().sort(Comparator.comparingInt(Account::getAccountId));
+                    for (Account account : overview.getAccounts()) {
+                        overview.getRecentTransactions(account.getAccountId()).sort(NEWEST_FIRST);
+                    }
+                }
+            }
+        }
+        
+        if (overview != null && transactionsPerAccount > 0) {
+            appendArchived(overview, transactionsPerAccount);
+        }
+        return overview;
+    }
+    
+    /**
+     * Fill up the accounts with fewer than transactionsPerAccount hot rows
+     * with their newest archived rows, after the hot ones. As in
+     * JdbcTransactionDAO, a row moved in between may show up in both reads;
+     * the archived copy is dropped.
+     */
+    private void appendArchived(CustomerOverview overview, int transactionsPerAccount) throws SQLException {
+        List<Integer> shortAccountIds = new ArrayList<>();
+        for (Account account : overview.getAccounts()) {
+            if (overview.getRecentTransactions(account.getAccountId()).size() < transactionsPerAccount) {
+                shortAccountIds.add(account.getAccountId());
+            }
+        }
+        if (shortAccountIds.isEmpty() || LedgerArchiveDAO.getArchiveCutoff() == null) {
+            return;
+        }
+        
+        Map<Integer, List<Transaction>> archived = new HashMap<>();
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(archivedSql(shortAccountIds.size()))) {
+            
+            pstmt.setInt(1, transactionsPerAccount);
+            for (int i = 0; i < shortAccountIds.size(); i++) {
+                pstmt.setInt(i + 2, shortAccountIds.get(i));
+            }
+            
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    Transaction transaction = JdbcTransactionDAO.mapResultSetToTransaction(rs, 1);
+                    archived.computeIfAbsent(transaction.getAccountId(), id -> new ArrayList<>()).add(transaction);
+                }
+            }
+        }
+        
+        for (Map.Entry<Integer, List<Transaction>> entry : archived.entrySet()) {
+            List<Transaction> recent = overview.getRecentTransactions(entry.getKey());
+            Set<Integer> seen = new HashSet<>();
+            for (Transaction transaction : recent) {
+                seen.add(transaction.getTransactionId());
+            }
+            entry.getValue().sort(NEWEST_FIRST);
+            for (Transaction transaction : entry.getValue()) {
+                if (recent.size() >= transactionsPerAccount) {
+                    break;
+                }
+                if (seen.add(transaction.getTransactionId())) {
+                    overview.addRecentTransaction(transaction);
+                }
+            }
+        }
+    }
+    
+    /**
+     * Archive query for the given number of account IDs
+     */
+    static String archivedSql(int count) {
+        return SQL_SELECT_ARCHIVED_PREFIX + String.join(", ", Collections.nCopies(count, "?")) + ")";
+    }
+}
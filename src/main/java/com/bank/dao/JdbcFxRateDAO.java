@@ -0,0 +1,91 @@
+package com.bank.dao;
+
+import com.bank.model.FxRate;
+import com.bank.util.DatabaseConnection;
+import java.math.BigDecimal;
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * JDBC implementation of FxRateDAO
+ */
+public class JdbcFxRateDAO implements FxRateDAO {
+    // SQL statements, package-private so the query plan tests can EXPLAIN them
+    static final String SQL_SELECT_LATEST_VERSION = "SELECT COALESCE(MAX(version), 0) FROM fx_rates";
+    static final String SQL_SELECT_LATEST_RATES = "SELECT r.from_currency, r.to_currency, r.rate, r.version " +
+            "FROM fx_rates r WHERE r.version = (SELECT MAX(v.version) FROM fx_rates v " +
+            "WHERE v.from_currency = r.from_currency AND v.to_currency = r.to_currency)";
+    static final String SQL_LOCK_LATEST_VERSION = "SELECT COALESCE(MAX(version), 0) FROM fx_rates FOR UPDATE";
+    static final String SQL_INSERT = "INSERT INTO fx_rates (from_currency, to_currency, version, rate) " +
+            "VALUES (?, ?, ?, ?)";
+    
+    @Override
+    public long getLatestVersion() throws SQLException {
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(SQL_SELECT_LATEST_VERSION);
+             ResultSet rs = pstmt.executeQuery()) {
+            
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+    
+    @Override
+    public List<FxRate> getLatestRates() throws SQLException {
+        List<FxRate> rates = new ArrayList<>();
+        
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(SQL_SELECT_LATEST_RATES);
+             ResultSet rs = pstmt.executeQuery()) {
+            
+            while (rs.next()) {
+                rates.add(new FxRate(
+                    rs.getString(1),
+                    rs.getString(2),
+                    rs.getBigDecimal(3).movePointRight(FxRate.SCALE_DIGITS).longValueExact(),
+                    rs.getLong(4)
+                ));
+            }
+        }
+        
+        return rates;
+    }
+    
+    /**
+     * Save rates under the next version
+     * The version is read with a locking read, so concurrent saves queue up
+     * instead of colliding on the same version.
+     */
+    @Override
+    public long saveRates(List<FxRate> rates) throws SQLException {
+        DatabaseConnection.beginTransaction();
+        try {
+            Connection conn = DatabaseConnection.getConnection();
+            long version;
+            
+            try (PreparedStatement pstmt = conn.prepareStatement(SQL_LOCK_LATEST_VERSION);
+                 ResultSet rs = pstmt.executeQuery()) {
+                rs.next();
+                version = rs.getLong(1) + 1;
+            }
+            
+            try (PreparedStatement pstmt = conn.prepareStatement(SQL_INSERT)) {
+                for (FxRate rate : rates) {
+                    pstmt.setString(1, rate.getFromCurrency());
+                    pstmt.setString(2, rate.getToCurrency());
+                    pstmt.setLong(3, version);
+                    pstmt.setBigDecimal(4, BigDecimal.valueOf(rate.getScaledRate(), FxRate.SCALE_DIGITS));
+                    pstmt.addBatch();
+                }
+                pstmt.executeBatch();
+            }
+            
+            DatabaseConnection.commitTransaction();
+            return version;
+        } catch (SQLException e) {
+            DatabaseConnection.rollbackTransaction();
+            throw e;
+        }
+    }
+}
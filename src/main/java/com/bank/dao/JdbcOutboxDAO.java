@@ -0,0 +1,94 @@
+package com.bank.dao;
+
+import com.bank.model.OutboxEvent;
+import com.bank.util.DatabaseConnection;
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * JDBC implementation of OutboxDAO
+ * Events are inserted with the ledger rows of the same business transaction
+ * and deleted in bulk once the relay has published them.
+ */
+public class JdbcOutboxDAO implements OutboxDAO {
+    // SQL statements, package-private so the query plan tests can EXPLAIN them
+    static final String SQL_INSERT = "INSERT INTO outbox_events (event_type, account_id, payload, created_at) " +
+            "VALUES (?, ?, ?, ?)";
+    static final String SQL_SELECT_BATCH = "SELECT event_id, event_type, account_id, payload, created_at " +
+            "FROM outbox_events ORDER BY event_id LIMIT ?";
+    
+    @Override
+    public void createEvents(List<OutboxEvent> events) throws SQLException {
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(SQL_INSERT)) {
+            
+            for (OutboxEvent event : events) {
+                pstmt.setString(1, event.getEventType());
+                pstmt.setInt(2, event.getAccountId());
+                pstmt.setString(3, event.getPayload());
+                pstmt.setTimestamp(4, Timestamp.valueOf(event.getCreatedAt()));
+                pstmt.addBatch();
+            }
+            pstmt.executeBatch();
+            DatabaseConnection.commit();
+        }
+    }
+    
+    @Override
+    public List<OutboxEvent> getNextBatch(int limit) throws SQLException {
+        List<OutboxEvent> events = new ArrayList<>();
+        
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(SQL_SELECT_BATCH)) {
+            
+            pstmt.setInt(1, limit);
+            
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    events.add(new OutboxEvent(
+                        rs.getLong(1),
+                        rs.getString(2),
+                        rs.getInt(3),
+                        rs.getString(4),
+                        rs.getTimestamp(5).toLocalDateTime()
+                    ));
+                }
+            }
+        }
+        
+        return events;
+    }
+    
+    /**
+     * Delete published events by ID
+     * Not by ID range: a row with a lower ID can commit after the batch was
+     * read, and must stay until it has been published itself.
+     */
+    @Override
+    public int deleteEvents(List<OutboxEvent> events) throws SQLException {
+        if (events.isEmpty()) {
+            return 0;
+        }
+        
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(deleteSql(events.size()))) {
+            
+            for (int i = 0; i < events.size(); i++) {
+                pstmt.setLong(i + 1, events.get(i).getEventId());
+            }
+            
+            int affectedRows = pstmt.executeUpdate();
+            DatabaseConnection.commit();
+            return affectedRows;
+        }
+    }
+    
+    /**
+     * DELETE statement for the given number of event IDs
+     */
+    static String deleteSql(int count) {
+        return "DELETE FROM outbox_events WHERE event_id IN (" + String.join(", ", Collections.nCopies(count, "?")) + ")";
+    }
+}
@@ -0,0 +1,252 @@
+package com.bank.dao;
+
+import com.bank.model.BulkPayout;
+import com.bank.model.Payout;
+import com.bank.util.DatabaseConnection;
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * JDBC implementation of PayoutDAO
+ * A payout's payments are addressed by payment number, so a chunk of them
+ * is one range of the (payout_id, payment_no) primary key.
+ */
+public class JdbcPayoutDAO implements PayoutDAO {
+    // Column list read by mapResultSetToPayout, which maps by position
+    static final String PAYOUT_COLUMNS =
+            "payout_id, source_account_id, amount, description, payment_count, debit_transaction_id, " +
+            "status, refund_transaction_id, created_at";
+    
+    // SQL statements, package-private so the query plan tests can EXPLAIN them
+    static final String SQL_INSERT_PAYOUT = "INSERT INTO bulk_payouts (source_account_id, amount, description, " +
+            "payment_count, debit_transaction_id, status, created_at) VALUES (?, ?, ?, ?, ?, ?, ?)";
+    static final String SQL_INSERT_PAYMENT = "INSERT INTO bulk_payout_payments (payout_id, payment_no, " +
+            "account_id, amount) VALUES (?, ?, ?, ?)";
+    static final String SQL_SELECT_UNFINISHED = "SELECT " + PAYOUT_COLUMNS + " FROM bulk_payouts " +
+            "WHERE status = 'CREDITING' ORDER BY payout_id";
+    static final String SQL_LOCK_PAYOUT = "SELECT " + PAYOUT_COLUMNS + " FROM bulk_payouts " +
+            "WHERE payout_id = ? FOR UPDATE";
+    static final String SQL_CLAIM_PENDING = "SELECT payment_no, account_id, amount FROM bulk_payout_payments " +
+            "WHERE payout_id = ? AND payment_no BETWEEN ? AND ? AND status = 'PENDING' ORDER BY payment_no FOR UPDATE";
+    static final String SQL_MARK_FAILED = "UPDATE bulk_payout_payments SET status = 'FAILED', reason = ? " +
+            "WHERE payout_id = ? AND payment_no = ?";
+    static final String SQL_MARK_CREDITED = "UPDATE bulk_payout_payments SET status = 'CREDITED' " +
+            "WHERE payout_id = ? AND payment_no BETWEEN ? AND ? AND status = 'PENDING'";
+    static final String SQL_FAIL_PENDING = "UPDATE bulk_payout_payments SET status = 'FAILED', reason = ? " +
+            "WHERE payout_id = ? AND payment_no BETWEEN ? AND ? AND status = 'PENDING'";
+    static final String SQL_SELECT_FAILED = "SELECT payment_no, account_id, amount, reason FROM bulk_payout_payments " +
+            "WHERE payout_id = ? AND status = 'FAILED' ORDER BY payment_no";
+    static final String SQL_COMPLETE_PAYOUT = "UPDATE bulk_payouts SET status = 'COMPLETED', refund_transaction_id = ? " +
+            "WHERE payout_id = ? AND status = 'CREDITING' AND NOT EXISTS (SELECT 1 FROM bulk_payout_payments " +
+            "WHERE payout_id = ? AND status = 'PENDING')";
+    static final String SQL_MARK_REFUNDED = "UPDATE bulk_payout_payments SET status = 'REFUNDED' " +
+            "WHERE payout_id = ? AND status = 'FAILED'";
+    
+    @Override
+    public int createPayout(BulkPayout payout, List<Payout> payments) throws SQLException {
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            int payoutId;
+            try (PreparedStatement pstmt = conn.prepareStatement(SQL_INSERT_PAYOUT, Statement.RETURN_GENERATED_KEYS)) {
+                pstmt.setInt(1, payout.getSourceAccountId());
+                pstmt.setDouble(2, payout.getAmount());
+                pstmt.setString(3, payout.getDescription());
+                pstmt.setInt(4, payout.getPaymentCount());
+                pstmt.setInt(5, payout.getDebitTransactionId());
+                pstmt.setString(6, payout.getStatus().name());
+                pstmt.setTimestamp(7, Timestamp.valueOf(payout.getCreatedAt()));
+                pstmt.executeUpdate();
+                
+                try (ResultSet generatedKeys = pstmt.getGeneratedKeys()) {
+                    if (!generatedKeys.next()) {
+                        throw new SQLException("Creating payout failed, no ID obtained.");
+                    }
+                    payoutId = generatedKeys.getInt(1);
+                }
+            }
+            
+            try (PreparedStatement pstmt = conn.prepareStatement(SQL_INSERT_PAYMENT)) {
+                for (Payout payment : payments) {
+                    pstmt.setInt(1, payoutId);
+                    pstmt.setInt(2, payment.getPaymentNo());
+                    pstmt.setInt(3, payment.getAccountId());
+                    pstmt.setDouble(4, payment.getAmount());
+                    pstmt.addBatch();
+                }
+                pstmt.executeBatch();
+            }
+            DatabaseConnection.commit();
+            return payoutId;
+        }
+    }
+    
+    @Override
+    public List<BulkPayout> getUnfinishedPayouts() throws SQLException {
+        List<BulkPayout> payouts = new ArrayList<>();
+        
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(SQL_SELECT_UNFINISHED);
+             ResultSet rs = pstmt.executeQuery()) {
+            
+            while (rs.next()) {
+                payouts.add(mapResultSetToPayout(rs));
+            }
+        }
+        
+        return payouts;
+    }
+    
+    @Override
+    public BulkPayout lockPayout(int payoutId) throws SQLException {
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(SQL_LOCK_PAYOUT)) {
+            
+            pstmt.setInt(1, payoutId);
+            
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next() ? mapResultSetToPayout(rs) : null;
+            }
+        }
+    }
+    
+    @Override
+    public List<Payout> claimPendingPayments(int payoutId, int firstPaymentNo, int lastPaymentNo) 
+            throws SQLException {
+        List<Payout> payments = new ArrayList<>();
+        
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(SQL_CLAIM_PENDING)) {
+            
+            pstmt.setInt(1, payoutId);
+            pstmt.setInt(2, firstPaymentNo);
+            pstmt.setInt(3, lastPaymentNo);
+            
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    payments.add(mapResultSetToPayment(rs, Payout.Status.PENDING));
+                }
+            }
+        }
+        
+        return payments;
+    }
+    
+    @Override
+    public void markFailed(int payoutId, List<Payout> payments) throws SQLException {
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(SQL_MARK_FAILED)) {
+            
+            for (Payout payment : payments) {
+                pstmt.setString(1, payment.getReason());
+                pstmt.setInt(2, payoutId);
+                pstmt.setInt(3, payment.getPaymentNo());
+                pstmt.addBatch();
+            }
+            pstmt.executeBatch();
+            DatabaseConnection.commit();
+        }
+    }
+    
+    @Override
+    public void markCredited(int payoutId, int firstPaymentNo, int lastPaymentNo) throws SQLException {
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(SQL_MARK_CREDITED)) {
+            
+            pstmt.setInt(1, payoutId);
+            pstmt.setInt(2, firstPaymentNo);
+            pstmt.setInt(3, lastPaymentNo);
+            pstmt.executeUpdate();
+            DatabaseConnection.commit();
+        }
+    }
+    
+    @Override
+    public void failPending(int payoutId, int firstPaymentNo, int lastPaymentNo, String reason) 
+            throws SQLException {
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(SQL_FAIL_PENDING)) {
+            
+            pstmt.setString(1, reason);
+            pstmt.setInt(2, payoutId);
+            pstmt.setInt(3, firstPaymentNo);
+            pstmt.setInt(4, lastPaymentNo);
+            pstmt.executeUpdate();
+            DatabaseConnection.commit();
+        }
+    }
+    
+    @Override
+    public List<Payout> getFailedPayments(int payoutId) throws SQLException {
+        List<Payout> payments = new ArrayList<>();
+        
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(SQL_SELECT_FAILED)) {
+            
+            pstmt.setInt(1, payoutId);
+            
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    Payout payment = mapResultSetToPayment(rs, Payout.Status.FAILED);
+                    payment.setReason(rs.getString(4));
+                    payments.add(payment);
+                }
+            }
+        }
+        
+        return payments;
+    }
+    
+    @Override
+    public boolean completePayout(int payoutId, Integer refundTransactionId) throws SQLException {
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            try (PreparedStatement pstmt = conn.prepareStatement(SQL_COMPLETE_PAYOUT)) {
+                if (refundTransactionId != null) {
+                    pstmt.setInt(1, refundTransactionId);
+                } else {
+                    pstmt.setNull(1, Types.INTEGER);
+                }
+                pstmt.setInt(2, payoutId);
+                pstmt.setInt(3, payoutId);
+                if (pstmt.executeUpdate() == 0) {
+                    return false;
+                }
+            }
+            
+            try (PreparedStatement pstmt = conn.prepareStatement(SQL_MARK_REFUNDED)) {
+                pstmt.setInt(1, payoutId);
+                pstmt.executeUpdate();
+            }
+            DatabaseConnection.commit();
+            return true;
+        }
+    }
+    
+    /**
+     * Map ResultSet to BulkPayout object
+     * Reads PAYOUT_COLUMNS by position
+     */
+    private static BulkPayout mapResultSetToPayout(ResultSet rs) throws SQLException {
+        BulkPayout payout = new BulkPayout();
+        payout.setPayoutId(rs.getInt(1));
+        payout.setSourceAccountId(rs.getInt(2));
+        payout.setAmount(rs.getDouble(3));
+        payout.setDescription(rs.getString(4));
+        payout.setPaymentCount(rs.getInt(5));
+        payout.setDebitTransactionId(rs.getInt(6));
+        payout.setStatus(BulkPayout.Status.valueOf(rs.getString(7)));
+        int refundTransactionId = rs.getInt(8);
+        payout.setRefundTransactionId(rs.wasNull() ? null : refundTransactionId);
+        payout.setCreatedAt(rs.getTimestamp(9).toLocalDateTime());
+        return payout;
+    }
+    
+    /**
+     * Map the payment_no, account_id and amount columns to a Payout
+     */
+    private static Payout mapResultSetToPayment(ResultSet rs, Payout.Status status) throws SQLException {
+        Payout payment = new Payout(rs.getInt(2), rs.getDouble(3));
+        payment.setPaymentNo(rs.getInt(1));
+        payment.setStatus(status);
+        return payment;
+    }
+}
@@ -0,0 +1,289 @@
+package com.bank.dao;
+
+import com.bank.model.Transaction;
+import com.bank.util.DatabaseConnection;
+import java.sql.*;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * JDBC implementation of TransactionDAO
+ * Handles all database operations related to transactions
+ * Generated descriptions are stored as DescriptionDictionary IDs.
+ */
+public class JdbcTransactionDAO implements TransactionDAO {
+    // Column list read by mapResultSetToTransaction, which maps by position
+    static final String TRANSACTION_COLUMNS =
+            "transaction_id, account_id, transaction_type, amount, balance_after, " +
+            "description, related_account_id, transaction_date, fx_rate_version, description_id";
+    
+    // SQL statements, package-private so the query plan tests can EXPLAIN them
+    static final String SQL_INSERT = "INSERT INTO transactions (account_id, transaction_type, amount, " +
+            "balance_after, description, related_account_id, transaction_date, fx_rate_version, description_id) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    static final String SQL_SELECT_BY_ID = "SELECT " + TRANSACTION_COLUMNS + " FROM transactions WHERE transaction_id = ?";
+    static final String SQL_SELECT_BY_ACCOUNT = "SELECT " + TRANSACTION_COLUMNS + " FROM transactions " +
+            "WHERE account_id = ? ORDER BY transaction_date DESC, transaction_id DESC";
+    static final String SQL_SELECT_HISTORY = "SELECT " + TRANSACTION_COLUMNS + " FROM transactions WHERE account_id = ? " +
+            "ORDER BY transaction_date DESC, transaction_id DESC LIMIT ?";
+    static final String SQL_SELECT_RANGE = "SELECT " + TRANSACTION_COLUMNS + " FROM transactions " +
+            "WHERE account_id = ? AND transaction_date >= ? AND transaction_date < ? " +
+            "ORDER BY transaction_date DESC, transaction_id DESC";
+    static final String SQL_SELECT_OUTFLOWS_SINCE = "SELECT " + TRANSACTION_COLUMNS + " FROM transactions " +
+            "WHERE transaction_date >= ? AND transaction_type IN ('WITHDRAWAL', 'TRANSFER_OUT')";
+    
+    // The same reads against the archive of months older than the hot window
+    static final String SQL_SELECT_ARCHIVE_BY_ID = SQL_SELECT_BY_ID.replace("FROM transactions", "FROM transactions_archive");
+    static final String SQL_SELECT_ARCHIVE_BY_ACCOUNT = SQL_SELECT_BY_ACCOUNT.replace("FROM transactions", "FROM transactions_archive");
+    static final String SQL_SELECT_ARCHIVE_HISTORY = SQL_SELECT_HISTORY.replace("FROM transactions", "FROM transactions_archive");
+    static final String SQL_SELECT_ARCHIVE_RANGE = SQL_SELECT_RANGE.replace("FROM transactions", "FROM transactions_archive");
+    
+    /**
+     * Create a new transaction
+     */
+    @Override
+    public int createTransaction(Transaction transaction) throws SQLException {
+        int descriptionId = DescriptionDictionary.idOf(transaction);
+        
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(SQL_INSERT, Statement.RETURN_GENERATED_KEYS)) {
+            
+            bind(pstmt, transaction, descriptionId);
+            
+            int affectedRows = pstmt.executeUpdate();
+            
+            if (affectedRows == 0) {
+                throw new SQLException("Creating transaction failed, no rows affected.");
+            }
+            
+            try (ResultSet generatedKeys = pstmt.getGeneratedKeys()) {
+                if (generatedKeys.next()) {
+                    int transactionId = generatedKeys.getInt(1);
+                    DatabaseConnection.commit();
+                    return transactionId;
+                } else {
+                    throw new SQLException("Creating transaction failed, no ID obtained.");
+                }
+            }
+        }
+    }
+    
+    /**
+     * Create several transactions with one batched insert
+     */
+    @Override
+    public void createTransactions(List<Transaction> transactions) throws SQLException {
+        if (transactions.isEmpty()) {
+            return;
+        }
+        int[] descriptionIds = new int[transactions.size()];
+        for (int i = 0; i < descriptionIds.length; i++) {
+            descriptionIds[i] = DescriptionDictionary.idOf(transactions.get(i));
+        }
+        
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(SQL_INSERT, Statement.RETURN_GENERATED_KEYS)) {
+            
+            for (int i = 0; i < descriptionIds.length; i++) {
+                bind(pstmt, transactions.get(i), descriptionIds[i]);
+                pstmt.addBatch();
+            }
+            pstmt.executeBatch();
+            
+            try (ResultSet generatedKeys = pstmt.getGeneratedKeys()) {
+                for (Transaction transaction : transactions) {
+                    if (!generatedKeys.next()) {
+                        throw new SQLException("Creating transactions failed, not every ID obtained.");
+                    }
+                    transaction.setTransactionId(generatedKeys.getInt(1));
+                }
+            }
+            DatabaseConnection.commit();
+        }
+    }
+    
+    /**
+     * Set the SQL_INSERT parameters for one transaction
+     */
+    private static void bind(PreparedStatement pstmt, Transaction transaction, int descriptionId) throws SQLException {
+        pstmt.setInt(1, transaction.getAccountId());
+        pstmt.setString(2, transaction.getTransactionType().name());
+        pstmt.setDouble(3, transaction.getAmount());
+        pstmt.setDouble(4, transaction.getBalanceAfter());
+        if (descriptionId > 0) {
+            pstmt.setNull(5, Types.VARCHAR);
+            pstmt.setInt(9, descriptionId);
+        } else {
+            pstmt.setString(5, transaction.getDescription());
+            pstmt.setNull(9, Types.INTEGER);
+        }
+        
+        if (transaction.getRelatedAccountId() != null) {
+            pstmt.setInt(6, transaction.getRelatedAccountId());
+        } else {
+            pstmt.setNull(6, Types.INTEGER);
+        }
+        
+        pstmt.setTimestamp(7, Timestamp.valueOf(transaction.getTransactionDate()));
+        
+        if (transaction.getFxRateVersion() != null) {
+            pstmt.setLong(8, transaction.getFxRateVersion());
+        } else {
+            pstmt.setNull(8, Types.BIGINT);
+        }
+    }
+    
+    /**
+     * Get transaction by ID
+     * Falls back to the archive when the row is no longer hot.
+     */
+    @Override
+    public Transaction getTransactionById(int transactionId) throws SQLException {
+        List<Transaction> hot = query(SQL_SELECT_BY_ID, transactionId);
+        if (!hot.isEmpty()) {
+            return hot.get(0);
+        }
+        if (LedgerArchiveDAO.getArchiveCutoff() == null) {
+            return null;
+        }
+        List<Transaction> archived = query(SQL_SELECT_ARCHIVE_BY_ID, transactionId);
+        return archived.isEmpty() ? null : archived.get(0);
+    }
+    
+    /**
+     * Get all transactions for an account, newest first
+     * Archived rows are all older than hot ones, so the archive is appended.
+     */
+    @Override
+    public List<Transaction> getTransactionsByAccountId(int accountId) throws SQLException {
+        List<Transaction> transactions = query(SQL_SELECT_BY_ACCOUNT, accountId);
+        if (LedgerArchiveDAO.getArchiveCutoff() != null) {
+            appendArchived(transactions, query(SQL_SELECT_ARCHIVE_BY_ACCOUNT, accountId));
+        }
+        return transactions;
+    }
+    
+    /**
+     * Get transaction history with pagination
+     * Only reads the archive when the hot table has fewer than limit rows.
+     */
+    @Override
+    public List<Transaction> getTransactionHistory(int accountId, int limit) throws SQLException {
+        List<Transaction> transactions = query(SQL_SELECT_HISTORY, accountId, limit);
+        if (transactions.size() < limit && LedgerArchiveDAO.getArchiveCutoff() != null) {
+            appendArchived(transactions, query(SQL_SELECT_ARCHIVE_HISTORY, accountId, limit - transactions.size()));
+        }
+        return transactions;
+    }
+    
+    /**
+     * Get transactions dated in [from, to), newest first
+     * The archive is only read when the range starts before the archive cutoff.
+     * The hot table is always read: it may still hold older rows while the
+     * archiver is running, and an index probe outside its range is cheap.
+     */
+    @Override
+    public List<Transaction> getTransactionsBetween(int accountId, LocalDateTime from, LocalDateTime to) 
+            throws SQLException {
+        Timestamp fromTs = Timestamp.valueOf(from);
+        Timestamp toTs = Timestamp.valueOf(to);
+        
+        List<Transaction> transactions = query(SQL_SELECT_RANGE, accountId, fromTs, toTs);
+        LocalDateTime cutoff = LedgerArchiveDAO.getArchiveCutoff();
+        if (cutoff != null && from.isBefore(cutoff)) {
+            appendArchived(transactions, query(SQL_SELECT_ARCHIVE_RANGE, accountId, fromTs, toTs));
+        }
+        return transactions;
+    }
+    
+    /**
+     * Get withdrawals and outgoing transfers of all accounts dated since the given time
+     * Meant for short, recent windows, which are always hot.
+     */
+    @Override
+    public List<Transaction> getOutflowsSince(LocalDateTime since) throws SQLException {
+        return query(SQL_SELECT_OUTFLOWS_SINCE, Timestamp.valueOf(since));
+    }
+    
+    /**
+     * Append archived rows after the hot ones. The hot table is always read
+     * first, so a row moved in between shows up twice rather than not at all;
+     * such duplicates are dropped here.
+     */
+    private void appendArchived(List<Transaction> transactions, List<Transaction> archived) {
+        if (archived.isEmpty()) {
+            return;
+        }
+        Set<Integer> seen = new HashSet<>();
+        for (Transaction transaction : transactions) {
+            seen.add(transaction.getTransactionId());
+        }
+        for (Transaction transaction : archived) {
+            if (seen.add(transaction.getTransactionId())) {
+                transactions.add(transaction);
+            }
+        }
+    }
+    
+    /**
+     * Run a transaction query and map every row
+     */
+    private List<Transaction> query(String sql, Object... params) throws SQLException {
+        List<Transaction> transactions = new ArrayList<>();
+        
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            
+            for (int i = 0; i < params.length; i++) {
+                pstmt.setObject(i + 1, params[i]);
+            }
+            
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    transactions.add(mapResultSetToTransaction(rs, 1));
+                }
+            }
+        }
+        
+        return transactions;
+    }
+    
+    /**
+     * Map ResultSet to Transaction object
+     * Reads TRANSACTION_COLUMNS by position, starting at the given column.
+     * Dictionary descriptions come from DescriptionDictionary's cache, so
+     * rows with the same description share one String.
+     */
+    static Transaction mapResultSetToTransaction(ResultSet rs, int first) throws SQLException {
+        Transaction transaction = new Transaction();
+        transaction.setTransactionId(rs.getInt(first));
+        transaction.setAccountId(rs.getInt(first + 1));
+        transaction.setTransactionType(
+            Transaction.TransactionType.valueOf(rs.getString(first + 2))
+        );
+        transaction.setAmount(rs.getDouble(first + 3));
+        transaction.setBalanceAfter(rs.getDouble(first + 4));
+        int descriptionId = rs.getInt(first + 9);
+        transaction.setDescription(rs.wasNull() ? rs.getString(first + 5) : DescriptionDictionary.textOf(descriptionId));
+        
+        int relatedAccountId = rs.getInt(first + 6);
+        if (!rs.wasNull()) {
+            transaction.setRelatedAccountId(relatedAccountId);
+        }
+        
+        Timestamp timestamp = rs.getTimestamp(first + 7);
+        if (timestamp != null) {
+            transaction.setTransactionDate(timestamp.toLocalDateTime());
+        }
+        
+        long fxRateVersion = rs.getLong(first + 8);
+        if (!rs.wasNull()) {
+            transaction.setFxRateVersion(fxRateVersion);
+        }
+        
+        return transaction;
+    }
+}
@@ -0,0 +1,25 @@
+package com.bank.dao;
+
+import com.bank.util.DatabaseConnection;
+import java.sql.SQLException;
+
+/**
+ * JDBC implementation of UnitOfWork
+ * Runs the business transaction on the current thread's DatabaseConnection
+ */
+public class JdbcUnitOfWork implements UnitOfWork {
+    @Override
+    public void begin() throws SQLException {
+        DatabaseConnection.beginTransaction();
+    }
+    
+    @Override
+    public void commit() throws SQLException {
+        DatabaseConnection.commitTransaction();
+    }
+    
+    @Override
+    public void rollback() throws SQLException {
+        DatabaseConnection.rollbackTransaction();
+    }
+}
@@ -0,0 +1,115 @@
+package com.bank.dao;
+
+import com.bank.util.DatabaseConnection;
+import java.sql.*;
+import java.time.LocalDateTime;
+
+/**
+ * Data Access Object for the ledger archive
+ * Moves old rows from transactions to transactions_archive and tracks the
+ * archive cutoff that JdbcTransactionDAO uses to decide which tables to read
+ */
+public class LedgerArchiveDAO {
+    // How stale a reader's view of the cutoff may be
+    public static final long CUTOFF_CACHE_MILLIS = 60_000;
+    
+    // SQL statements, package-private so the query plan tests can EXPLAIN them
+    static final String SQL_SELECT_CUTOFF = "SELECT archived_before FROM transaction_archive_state WHERE id = 1";
+    static final String SQL_UPDATE_CUTOFF = "UPDATE transaction_archive_state SET archived_before = ? " +
+            "WHERE id = 1 AND (archived_before IS NULL OR archived_before < ?)";
+    // A chunk is the oldest N rows by idx_transaction_date; copy and delete use the
+    // same predicate, so they always agree on which rows move
+    static final String SQL_SELECT_CHUNK_END = "SELECT MAX(transaction_id) FROM (" +
+            "SELECT transaction_id FROM transactions WHERE transaction_date < ? " +
+            "ORDER BY transaction_date, transaction_id LIMIT ?) chunk";
+    static final String SQL_COPY_CHUNK = "INSERT INTO transactions_archive (" + JdbcTransactionDAO.TRANSACTION_COLUMNS + ") " +
+            "SELECT " + JdbcTransactionDAO.TRANSACTION_COLUMNS + " FROM transactions " +
+            "WHERE transaction_date < ? AND transaction_id <= ?";
+    static final String SQL_DELETE_CHUNK = "DELETE FROM transactions WHERE transaction_date < ? AND transaction_id <= ?";
+    
+    private static volatile LocalDateTime cachedCutoff;
+    private static volatile long cutoffLoadedAt;
+    
+    /**
+     * Get the archive cutoff: rows dated before it may be archived
+     * Cached for a minute, since it only moves when the archiver runs.
+     * @return the cutoff, or null if nothing has been archived
+     */
+    public static LocalDateTime getArchiveCutoff() throws SQLException {
+        if (System.currentTimeMillis() - cutoffLoadedAt < CUTOFF_CACHE_MILLIS) {
+            return cachedCutoff;
+        }
+        
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(SQL_SELECT_CUTOFF);
+             ResultSet rs = pstmt.executeQuery()) {
+            Timestamp timestamp = rs.next() ? rs.getTimestamp(1) : null;
+            cachedCutoff = timestamp != null ? timestamp.toLocalDateTime() : null;
+            cutoffLoadedAt = System.currentTimeMillis();
+            return cachedCutoff;
+        }
+    }
+    
+    /**
+     * Advance the archive cutoff. It never moves backwards.
+     * Must happen before rows are moved so readers start consulting the archive first.
+     * @return true if the cutoff moved
+     */
+    public boolean advanceCutoff(LocalDateTime cutoff) throws SQLException {
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(SQL_UPDATE_CUTOFF)) {
+            
+            pstmt.setTimestamp(1, Timestamp.valueOf(cutoff));
+            pstmt.setTimestamp(2, Timestamp.valueOf(cutoff));
+            int affectedRows = pstmt.executeUpdate();
+            DatabaseConnection.commit();
+            cutoffLoadedAt = 0; // reload on next read
+            return affectedRows > 0;
+        }
+    }
+    
+    /**
+     * Move the oldest rows dated before the cutoff into the archive
+     * Copy and delete commit together, so a row is never in both tables or neither.
+     * @return number of rows moved; 0 when no rows before the cutoff remain
+     */
+    public int moveChunk(LocalDateTime cutoff, int chunkSize) throws SQLException {
+        Timestamp before = Timestamp.valueOf(cutoff);
+        DatabaseConnection.beginTransaction();
+        try {
+            Connection conn = DatabaseConnection.getConnection();
+            int lastId;
+            try (PreparedStatement pstmt = conn.prepareStatement(SQL_SELECT_CHUNK_END)) {
+                pstmt.setTimestamp(1, before);
+                pstmt.setInt(2, chunkSize);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    rs.next();
+                    lastId = rs.getInt(1);
+                    if (rs.wasNull()) {
+                        DatabaseConnection.commitTransaction();
+                        return 0;
+                    }
+                }
+            }
+            
+            try (PreparedStatement pstmt = conn.prepareStatement(SQL_COPY_CHUNK)) {
+                pstmt.setTimestamp(1, before);
+                pstmt.setInt(2, lastId);
+                pstmt.executeUpdate();
+            }
+            
+            int moved;
+            try (PreparedStatement pstmt = conn.prepareStatement(SQL_DELETE_CHUNK)) {
+                pstmt.setTimestamp(1, before);
+                pstmt.setInt(2, lastId);
+                moved = pstmt.executeUpdate();
+            }
+            
+            DatabaseConnection.commitTransaction();
+            return moved;
+        } catch (SQLException e) {
+            DatabaseConnection.rollbackTransaction();
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.bank.dao;
+
+import com.bank.model.OutboxEvent;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * Data Access Object for the transactional outbox
+ * Implemented by JdbcOutboxDAO and by the in-memory engine in com.bank.dao.memory
+ *
+ * Events created inside a business transaction (see UnitOfWork) are stored
+ * if and only if it commits.
+ */
+public interface OutboxDAO {
+    /**
+     * Store events; their IDs are assigned by the store
+     */
+    void createEvents(List<OutboxEvent> events) throws SQLException;
+    
+    /**
+     * Get the oldest stored events, ordered by ID
+     */
+    List<OutboxEvent> getNextBatch(int limit) throws SQLException;
+    
+    /**
+     * Delete published events
+     * @return number of events deleted
+     */
+    int deleteEvents(List<OutboxEvent> events) throws SQLException;
+}
@@ -0,0 +1,68 @@
+package com.bank.dao;
+
+import com.bank.model.BulkPayout;
+import com.bank.model.Payout;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * Data Access Object for bulk payouts and their payments
+ * Implemented by JdbcPayoutDAO and by the in-memory engine in com.bank.dao.memory
+ *
+ * Changes made inside a business transaction (see UnitOfWork) are stored if
+ * and only if it commits, together with the ledger rows they describe.
+ */
+public interface PayoutDAO {
+    /**
+     * Store a payout, CREDITING, and its payments, PENDING, under their payment numbers
+     * @return the payout ID assigned by the store
+     */
+    int createPayout(BulkPayout payout, List<Payout> payments) throws SQLException;
+    
+    /**
+     * Get payouts still CREDITING, ordered by ID
+     */
+    List<BulkPayout> getUnfinishedPayouts() throws SQLException;
+    
+    /**
+     * Get a payout, locking it until the business transaction ends
+     * @return the payout, or null if it does not exist
+     */
+    BulkPayout lockPayout(int payoutId) throws SQLException;
+    
+    /**
+     * Get the PENDING payments numbered firstPaymentNo to lastPaymentNo,
+     * ordered by number and locked until the business transaction ends, so
+     * that no other transaction credits them too
+     */
+    List<Payout> claimPendingPayments(int payoutId, int firstPaymentNo, int lastPaymentNo) throws SQLException;
+    
+    /**
+     * Mark payments FAILED with their reasons
+     */
+    void markFailed(int payoutId, List<Payout> payments) throws SQLException;
+    
+    /**
+     * Mark the payments numbered firstPaymentNo to lastPaymentNo that are
+     * still PENDING as CREDITED
+     */
+    void markCredited(int payoutId, int firstPaymentNo, int lastPaymentNo) throws SQLException;
+    
+    /**
+     * Mark the payments numbered firstPaymentNo to lastPaymentNo that are
+     * still PENDING as FAILED, all for the same reason
+     */
+    void failPending(int payoutId, int firstPaymentNo, int lastPaymentNo, String reason) throws SQLException;
+    
+    /**
+     * Get the FAILED payments of a payout, ordered by number
+     */
+    List<Payout> getFailedPayments(int payoutId) throws SQLException;
+    
+    /**
+     * Mark a CREDITING payout COMPLETED and its FAILED payments REFUNDED
+     * @param refundTransactionId the refund's ledger row, or null if no payment failed
+     * @return false, changing nothing, if it is not CREDITING or has PENDING payments
+     */
+    boolean completePayout(int payoutId, Integer refundTransactionId) throws SQLException;
+}
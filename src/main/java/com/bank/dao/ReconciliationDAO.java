@@ -0,0 +1,265 @@
+package com.bank.dao;
+
+import com.bank.model.ReconciliationCheckpoint;
+import com.bank.model.Transaction;
+import com.bank.util.DatabaseConnection;
+import java.sql.*;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Data Access Object for ledger reconciliation
+ * Streams account ledgers in posting order and keeps the checkpoints that
+ * let the next run continue where this one stopped
+ */
+public class ReconciliationDAO {
+    private static final int BATCH_SIZE = 1000;
+    
+    // SQL statements, package-private so the query plan tests can EXPLAIN them
+    static final String SQL_SELECT_VERIFIED_BEFORE = "SELECT verified_before FROM reconciliation_state WHERE id = 1";
+    static final String SQL_UPDATE_VERIFIED_BEFORE = "UPDATE reconciliation_state SET verified_before = ? WHERE id = 1";
+    static final String SQL_SELECT_ALL_ACCOUNTS = "SELECT account_id FROM accounts ORDER BY account_id";
+    static final String SQL_SELECT_TOUCHED_ACCOUNTS = "SELECT DISTINCT account_id FROM transactions " +
+            "WHERE transaction_date >= ? AND transaction_date < ?";
+    static final String SQL_SELECT_CHECKPOINT = "SELECT account_id, last_transaction_date, last_transaction_id, " +
+            "last_balance_after FROM reconciliation_checkpoint WHERE account_id = ?";
+    static final String SQL_UPSERT_CHECKPOINT = "INSERT INTO reconciliation_checkpoint (account_id, " +
+            "last_transaction_date, last_transaction_id, last_balance_after) VALUES (?, ?, ?, ?) " +
+            "ON DUPLICATE KEY UPDATE last_transaction_date = VALUES(last_transaction_date), " +
+            "last_transaction_id = VALUES(last_transaction_id), last_balance_after = VALUES(last_balance_after)";
+    static final String SQL_SELECT_BALANCE = "SELECT balance FROM accounts WHERE account_id = ?";
+    // Ascending walk of idx_account_date, the order balance_after was computed in
+    static final String SQL_SELECT_LEDGER = "SELECT " + JdbcTransactionDAO.TRANSACTION_COLUMNS + " FROM transactions " +
+            "WHERE account_id = ? AND transaction_date >= ? AND transaction_date < ? " +
+            "ORDER BY transaction_date, transaction_id";
+    static final String SQL_SELECT_LAST_BALANCE_AFTER = "SELECT balance_after FROM transactions WHERE account_id = ? " +
+            "ORDER BY transaction_date DESC, transaction_id DESC LIMIT 1";
+    static final String SQL_SELECT_ARCHIVE_LEDGER = SQL_SELECT_LEDGER.replace("FROM transactions", "FROM transactions_archive");
+    static final String SQL_SELECT_ARCHIVE_LAST_BALANCE_AFTER =
+            SQL_SELECT_LAST_BALANCE_AFTER.replace("FROM transactions", "FROM transactions_archive");
+    static final String SQL_SELECT_PENDING_LEGS = "SELECT transaction_id, account_id, related_account_id, " +
+            "transaction_type, amount, transaction_date, fx_rate_version FROM reconciliation_pending_leg";
+    static final String SQL_DELETE_PENDING_LEGS = "DELETE FROM reconciliation_pending_leg";
+    static final String SQL_INSERT_PENDING_LEG = "INSERT INTO reconciliation_pending_leg (transaction_id, " +
+            "account_id, related_account_id, transaction_type, amount, transaction_date, fx_rate_version) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?)";
+    
+    /**
+     * Get the date before which the ledger has been reconciled
+     * @return the date, or null if reconciliation has never run
+     */
+    public LocalDateTime getVerifiedBefore() throws SQLException {
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(SQL_SELECT_VERIFIED_BEFORE);
+             ResultSet rs = pstmt.executeQuery()) {
+            Timestamp timestamp = rs.next() ? rs.getTimestamp(1) : null;
+            return timestamp != null ? timestamp.toLocalDateTime() : null;
+        }
+    }
+    
+    /**
+     * Get the IDs of all accounts
+     */
+    public List<Integer> getAllAccountIds() throws SQLException {
+        return queryIds(SQL_SELECT_ALL_ACCOUNTS);
+    }
+    
+    /**
+     * Get the IDs of accounts with ledger rows dated in [from, to)
+     */
+    public List<Integer> getAccountsTouchedBetween(LocalDateTime from, LocalDateTime to) throws SQLException {
+        return queryIds(SQL_SELECT_TOUCHED_ACCOUNTS, Timestamp.valueOf(from), Timestamp.valueOf(to));
+    }
+    
+    /**
+     * Get the checkpoint of an account
+     * @return the checkpoint, or null if the account has never been verified
+     */
+    public ReconciliationCheckpoint getCheckpoint(int accountId) throws SQLException {
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(SQL_SELECT_CHECKPOINT)) {
+            
+            pstmt.setInt(1, accountId);
+            
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (rs.next()) {
+                    return new ReconciliationCheckpoint(
+                        rs.getInt(1),
+                        rs.getTimestamp(2).toLocalDateTime(),
+                        rs.getInt(3),
+                        rs.getDouble(4)
+                    );
+                }
+            }
+        }
+        return null;
+    }
+    
+    /**
+     * Get the stored balance of an account
+     * @return the balance, or null if the account no longer exists
+     */
+    public Double getAccountBalance(int accountId) throws SQLException {
+        return queryDouble(SQL_SELECT_BALANCE, accountId);
+    }
+    
+    /**
+     * Get balance_after of the newest ledger row of an account, hot or archived
+     * @return the balance, or null if the account has no ledger rows
+     */
+    public Double getLastBalanceAfter(int accountId) throws SQLException {
+        Double balance = queryDouble(SQL_SELECT_LAST_BALANCE_AFTER, accountId);
+        if (balance == null && LedgerArchiveDAO.getArchiveCutoff() != null) {
+            balance = queryDouble(SQL_SELECT_ARCHIVE_LAST_BALANCE_AFTER, accountId);
+        }
+        return balance;
+    }
+    
+    /**
+     * Stream the ledger rows of an account dated in [from, to), oldest first
+     * Rows are handed over one at a time and never collected, so a long ledger
+     * costs no more memory than a short one.
+     * @param archived read transactions_archive instead of transactions
+     */
+    public void streamLedger(int accountId, LocalDateTime from, LocalDateTime to, boolean archived,
+                             Consumer<Transaction> handler) throws SQLException {
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(archived ? SQL_SELECT_ARCHIVE_LEDGER : SQL_SELECT_LEDGER,
+                     ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            
+            pstmt.setFetchSize(Integer.MIN_VALUE); // Connector/J: stream rows instead of buffering the result
+            pstmt.setInt(1, accountId);
+            pstmt.setTimestamp(2, Timestamp.valueOf(from));
+            pstmt.setTimestamp(3, Timestamp.valueOf(to));
+            
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    handler.accept(JdbcTransactionDAO.mapResultSetToTransaction(rs, 1));
+                }
+            }
+        }
+    }
+    
+    /**
+     * Get the transfer legs still waiting for their counterpart
+     */
+    public List<Transaction> getPendingLegs() throws SQLException {
+        List<Transaction> legs = new ArrayList<>();
+        
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(SQL_SELECT_PENDING_LEGS);
+             ResultSet rs = pstmt.executeQuery()) {
+            
+            while (rs.next()) {
+                Transaction leg = new Transaction();
+                leg.setTransactionId(rs.getInt(1));
+                leg.setAccountId(rs.getInt(2));
+                leg.setRelatedAccountId(rs.getInt(3));
+                leg.setTransactionType(Transaction.TransactionType.valueOf(rs.getString(4)));
+                leg.setAmount(rs.getDouble(5));
+                leg.setTransactionDate(rs.getTimestamp(6).toLocalDateTime());
+                long fxRateVersion = rs.getLong(7);
+                if (!rs.wasNull()) {
+                    leg.setFxRateVersion(fxRateVersion);
+                }
+                legs.add(leg);
+            }
+        }
+        
+        return legs;
+    }
+    
+    /**
+     * Record the outcome of a run: checkpoints, pending legs and the new
+     * verified_before date commit together, so an interrupted run leaves the
+     * previous state intact and the next run simply repeats it
+     */
+    public void saveRun(LocalDateTime verifiedBefore, Collection<ReconciliationCheckpoint> checkpoints,
+                        Collection<Transaction> pendingLegs) throws SQLException {
+        DatabaseConnection.beginTransaction();
+        try {
+            Connection conn = DatabaseConnection.getConnection();
+            
+            try (PreparedStatement pstmt = conn.prepareStatement(SQL_UPSERT_CHECKPOINT)) {
+                int batched = 0;
+                for (ReconciliationCheckpoint checkpoint : checkpoints) {
+                    pstmt.setInt(1, checkpoint.getAccountId());
+                    pstmt.setTimestamp(2, Timestamp.valueOf(checkpoint.getLastTransactionDate()));
+                    pstmt.setInt(3, checkpoint.getLastTransactionId());
+                    pstmt.setDouble(4, checkpoint.getLastBalanceAfter());
+                    pstmt.addBatch();
+                    if (++batched % BATCH_SIZE == 0) {
+                        pstmt.executeBatch();
+                    }
+                }
+                pstmt.executeBatch();
+            }
+            
+            try (PreparedStatement pstmt = conn.prepareStatement(SQL_DELETE_PENDING_LEGS)) {
+                pstmt.executeUpdate();
+            }
+            try (PreparedStatement pstmt = conn.prepareStatement(SQL_INSERT_PENDING_LEG)) {
+                for (Transaction leg : pendingLegs) {
+                    pstmt.setInt(1, leg.getTransactionId());
+                    pstmt.setInt(2, leg.getAccountId());
+                    pstmt.setInt(3, leg.getRelatedAccountId());
+                    pstmt.setString(4, leg.getTransactionType().name());
+                    pstmt.setDouble(5, leg.getAmount());
+                    pstmt.setTimestamp(6, Timestamp.valueOf(leg.getTransactionDate()));
+                    if (leg.getFxRateVersion() != null) {
+                        pstmt.setLong(7, leg.getFxRateVersion());
+                    } else {
+                        pstmt.setNull(7, Types.BIGINT);
+                    }
+                    pstmt.addBatch();
+                }
+                pstmt.executeBatch();
+            }
+            
+            try (PreparedStatement pstmt = conn.prepareStatement(SQL_UPDATE_VERIFIED_BEFORE)) {
+                pstmt.setTimestamp(1, Timestamp.valueOf(verifiedBefore));
+                pstmt.executeUpdate();
+            }
+            
+            DatabaseConnection.commitTransaction();
+        } catch (SQLException e) {
+            DatabaseConnection.rollbackTransaction();
+            throw e;
+        }
+    }
+    
+    private List<Integer> queryIds(String sql, Object... params) throws SQLException {
+        List<Integer> ids = new ArrayList<>();
+        
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            
+            for (int i = 0; i < params.length; i++) {
+                pstmt.setObject(i + 1, params[i]);
+            }
+            
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    ids.add(rs.getInt(1));
+                }
+            }
+        }
+        
+        return ids;
+    }
+    
+    private Double queryDouble(String sql, int accountId) throws SQLException {
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            
+            pstmt.setInt(1, accountId);
+            
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next() ? rs.getDouble(1) : null;
+            }
+        }
+    }
+}
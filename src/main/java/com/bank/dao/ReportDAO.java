@@ -0,0 +1,62 @@
+package com.bank.dao;
+
+import com.bank.model.Account;
+import com.bank.util.DatabaseConnection;
+import java.sql.*;
+
+/**
+ * Data Access Object for management reports
+ * Reads accounts in customer ID ranges, so each range holds every account of
+ * its customers and can be aggregated on its own
+ */
+public class ReportDAO {
+    // SQL statements, package-private so the query plan tests can EXPLAIN them
+    static final String SQL_SELECT_CUSTOMER_ID_RANGE = "SELECT MIN(customer_id), MAX(customer_id) FROM accounts";
+    static final String SQL_SELECT_ACCOUNT_RANGE = "SELECT customer_id, account_type, balance, currency FROM accounts " +
+            "WHERE customer_id >= ? AND customer_id < ?";
+    
+    /**
+     * Get the lowest and highest customer ID that has an account
+     * @return the two IDs, or null if there are no accounts
+     */
+    public int[] getCustomerIdRange() throws SQLException {
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(SQL_SELECT_CUSTOMER_ID_RANGE);
+             ResultSet rs = pstmt.executeQuery()) {
+            
+            rs.next();
+            int first = rs.getInt(1);
+            if (rs.wasNull()) {
+                return null;
+            }
+            return new int[] { first, rs.getInt(2) };
+        }
+    }
+    
+    /**
+     * Hand every account of the customers with IDs in [fromCustomerId, toCustomerId) to the handler
+     */
+    public void streamAccounts(int fromCustomerId, int toCustomerId, AccountRowHandler handler) throws SQLException {
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(SQL_SELECT_ACCOUNT_RANGE)) {
+            
+            pstmt.setInt(1, fromCustomerId);
+            pstmt.setInt(2, toCustomerId);
+            
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    handler.accept(rs.getInt(1), Account.AccountType.valueOf(rs.getString(2)), rs.getDouble(3),
+                                   rs.getString(4));
+                }
+            }
+        }
+    }
+    
+    /**
+     * Receives the reported columns of one account
+     */
+    @FunctionalInterface
+    public interface AccountRowHandler {
+        void accept(int customerId, Account.AccountType accountType, double balance, String currency);
+    }
+}
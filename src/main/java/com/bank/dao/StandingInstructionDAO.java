@@ -0,0 +1,183 @@
+package com.bank.dao;
+
+import com.bank.model.StandingInstruction;
+import com.bank.util.DatabaseConnection;
+import java.sql.*;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Data Access Object for StandingInstruction operations
+ * Handles all database operations related to standing instructions
+ */
+public class StandingInstructionDAO {
+    // Column list read by mapResultSetToInstruction, which maps by position
+    static final String INSTRUCTION_COLUMNS =
+            "instruction_id, from_account_id, to_account_id, amount, description, frequency, " +
+            "anchor_day, next_run_at, status, last_run_at, last_error";
+    
+    // SQL statements, package-private so the query plan tests can EXPLAIN them
+    static final String SQL_INSERT = "INSERT INTO standing_instructions (from_account_id, to_account_id, amount, " +
+            "description, frequency, anchor_day, next_run_at, status) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+    static final String SQL_SELECT_BY_ID = "SELECT " + INSTRUCTION_COLUMNS + " FROM standing_instructions " +
+            "WHERE instruction_id = ?";
+    static final String SQL_SELECT_BY_FROM_ACCOUNT = "SELECT " + INSTRUCTION_COLUMNS + " FROM standing_instructions " +
+            "WHERE from_account_id = ? ORDER BY instruction_id";
+    // Keyset page of idx_due: due by the given time and after the (next_run_at, instruction_id) cursor
+    static final String SQL_SELECT_DUE = "SELECT " + INSTRUCTION_COLUMNS + " FROM standing_instructions " +
+            "WHERE status = 'ACTIVE' AND next_run_at <= ? " +
+            "AND (next_run_at > ? OR (next_run_at = ? AND instruction_id > ?)) " +
+            "ORDER BY next_run_at, instruction_id LIMIT ?";
+    // Moves an occurrence on only if nobody else has: next_run_at doubles as the claim token
+    static final String SQL_ADVANCE_RUN = "UPDATE standing_instructions " +
+            "SET next_run_at = ?, last_run_at = ?, last_error = ? " +
+            "WHERE instruction_id = ? AND next_run_at = ? AND status = 'ACTIVE'";
+    static final String SQL_UPDATE_STATUS = "UPDATE standing_instructions SET status = ? WHERE instruction_id = ?";
+    
+    /**
+     * Create a new standing instruction
+     */
+    public int createInstruction(StandingInstruction instruction) throws SQLException {
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(SQL_INSERT, Statement.RETURN_GENERATED_KEYS)) {
+            
+            pstmt.setInt(1, instruction.getFromAccountId());
+            pstmt.setInt(2, instruction.getToAccountId());
+            pstmt.setDouble(3, instruction.getAmount());
+            pstmt.setString(4, instruction.getDescription());
+            pstmt.setString(5, instruction.getFrequency().name());
+            pstmt.setInt(6, instruction.getAnchorDay());
+            pstmt.setTimestamp(7, Timestamp.valueOf(instruction.getNextRunAt()));
+            pstmt.setString(8, instruction.getStatus().name());
+            
+            int affectedRows = pstmt.executeUpdate();
+            
+            if (affectedRows == 0) {
+                throw new SQLException("Creating standing instruction failed, no rows affected.");
+            }
+            
+            try (ResultSet generatedKeys = pstmt.getGeneratedKeys()) {
+                if (generatedKeys.next()) {
+                    int instructionId = generatedKeys.getInt(1);
+                    DatabaseConnection.commit();
+                    return instructionId;
+                } else {
+                    throw new SQLException("Creating standing instruction failed, no ID obtained.");
+                }
+            }
+        }
+    }
+    
+    /**
+     * Get standing instruction by ID
+     */
+    public StandingInstruction getInstructionById(int instructionId) throws SQLException {
+        List<StandingInstruction> instructions = query(SQL_SELECT_BY_ID, instructionId);
+        return instructions.isEmpty() ? null : instructions.get(0);
+    }
+    
+    /**
+     * Get all standing instructions paying out of an account
+     */
+    public List<StandingInstruction> getInstructionsByFromAccount(int accountId) throws SQLException {
+        return query(SQL_SELECT_BY_FROM_ACCOUNT, accountId);
+    }
+    
+    /**
+     * Get the next page of active instructions due by the given time
+     * Pass the next_run_at and ID of the last instruction of the previous page
+     * as the cursor; start with a cursor before every instruction.
+     */
+    public List<StandingInstruction> getDueInstructions(LocalDateTime dueBy, LocalDateTime afterRunAt, int afterId,
+                                                        int limit) throws SQLException {
+        Timestamp after = Timestamp.valueOf(afterRunAt);
+        return query(SQL_SELECT_DUE, Timestamp.valueOf(dueBy), after, after, afterId, limit);
+    }
+    
+    /**
+     * Move an instruction from the occurrence due at expectedRunAt to the next one
+     * @param error why the occurrence failed, or null if it ran
+     * @return false if the occurrence was already handled or the instruction cancelled
+     */
+    public boolean advanceRun(int instructionId, LocalDateTime expectedRunAt, LocalDateTime nextRunAt,
+                              LocalDateTime ranAt, String error) throws SQLException {
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(SQL_ADVANCE_RUN)) {
+            
+            pstmt.setTimestamp(1, Timestamp.valueOf(nextRunAt));
+            pstmt.setTimestamp(2, Timestamp.valueOf(ranAt));
+            pstmt.setString(3, error);
+            pstmt.setInt(4, instructionId);
+            pstmt.setTimestamp(5, Timestamp.valueOf(expectedRunAt));
+            
+            int affectedRows = pstmt.executeUpdate();
+            DatabaseConnection.commit();
+            return affectedRows > 0;
+        }
+    }
+    
+    /**
+     * Update standing instruction status
+     */
+    public boolean updateStatus(int instructionId, StandingInstruction.Status status) throws SQLException {
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(SQL_UPDATE_STATUS)) {
+            
+            pstmt.setString(1, status.name());
+            pstmt.setInt(2, instructionId);
+            
+            int affectedRows = pstmt.executeUpdate();
+            DatabaseConnection.commit();
+            return affectedRows > 0;
+        }
+    }
+    
+    /**
+     * Run a standing instruction query and map every row
+     */
+    private List<StandingInstruction> query(String sql, Object... params) throws SQLException {
+        List<StandingInstruction> instructions = new ArrayList<>();
+        
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            
+            for (int i = 0; i < params.length; i++) {
+                pstmt.setObject(i + 1, params[i]);
+            }
+            
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    instructions.add(mapResultSetToInstruction(rs, 1));
+                }
+            }
+        }
+        
+        return instructions;
+    }
+    
+    /**
+     * Map ResultSet to StandingInstruction object
+     * Reads INSTRUCTION_COLUMNS by position, starting at the given column
+     */
+    static StandingInstruction mapResultSetToInstruction(ResultSet rs, int first) throws SQLException {
+        StandingInstruction instruction = new StandingInstruction();
+        instruction.setInstructionId(rs.getInt(first));
+        instruction.setFromAccountId(rs.getInt(first + 1));
+        instruction.setToAccountId(rs.getInt(first + 2));
+        instruction.setAmount(rs.getDouble(first + 3));
+        instruction.setDescription(rs.getString(first + 4));
+        instruction.setFrequency(StandingInstruction.Frequency.valueOf(rs.getString(first + 5)));
+        instruction.setAnchorDay(rs.getInt(first + 6));
+        instruction.setNextRunAt(rs.getTimestamp(first + 7).toLocalDateTime());
+        instruction.setStatus(StandingInstruction.Status.valueOf(rs.getString(first + 8)));
+        
+        Timestamp lastRunAt = rs.getTimestamp(first + 9);
+        if (lastRunAt != null) {
+            instruction.setLastRunAt(lastRunAt.toLocalDateTime());
+        }
+        instruction.setLastError(rs.getString(first + 10));
+        
+        return instruction;
+    }
+}
@@ -0,0 +1,27 @@
+package com.bank.dao;
+
+import java.sql.SQLException;
+
+/**
+ * Business transaction boundaries of a storage backend
+ * Everything the DAOs of the same backend write on the current thread
+ * between begin() and commit() succeeds or fails together.
+ */
+public interface UnitOfWork {
+    /**
+     * Start a business transaction on the current thread
+     */
+    void begin() throws SQLException;
+    
+    /**
+     * Commit the business transaction
+     * @throws SQLException if it could not be committed; retryable per
+     *         RetryPolicy.isRetryable when it lost to a concurrent transaction
+     */
+    void commit() throws SQLException;
+    
+    /**
+     * Roll back the business transaction, discarding its writes
+     */
+    void rollback() throws SQLException;
+}
@@ -0,0 +1,83 @@
+package com.bank.dao.memory;
+
+import com.bank.model.Account;
+import com.bank.model.Transaction;
+import java.util.List;
+
+/**
+ * Immutable committed state of one account, including its ledger
+ * The balance and the ledger entries that produced it change in the same
+ * row, so readers always see them together.
+ */
+final class AccountRow {
+    final int accountId;
+    final int customerId;
+    final String accountNumber;
+    final Account.AccountType accountType;
+    final double balance;
+    final Account.AccountStatus status;
+    final String currency;
+    final long version;
+    final Ledger ledger;
+    final int ledgerSize;
+    
+    AccountRow(Account account, int accountId) {
+        this(accountId, account.getCustomerId(), account.getAccountNumber(), account.getAccountType(),
+             account.getBalance(), account.getStatus(),
+             account.getCurrency() != null ? account.getCurrency() : Account.DEFAULT_CURRENCY, account.getVersion(),
+             Ledger.empty(), 0);
+    }
+    
+    private AccountRow(int accountId, int customerId, String accountNumber, Account.AccountType accountType,
+                       double balance, Account.AccountStatus status, String currency, long version, Ledger ledger,
+                       int ledgerSize) {
+        this.accountId = accountId;
+        this.customerId = customerId;
+        this.accountNumber = accountNumber;
+        this.accountType = accountType;
+        this.balance = balance;
+        this.status = status;
+        this.currency = currency;
+        this.version = version;
+        this.ledger = ledger;
+        this.ledgerSize = ledgerSize;
+    }
+    
+    AccountRow withBalance(double newBalance) {
+        return new AccountRow(accountId, customerId, accountNumber, accountType, newBalance, status, currency,
+                              version + 1, ledger, ledgerSize);
+    }
+    
+    AccountRow withStatus(Account.AccountStatus newStatus) {
+        return new AccountRow(accountId, customerId, accountNumber, accountType, balance, newStatus, currency,
+                              version + 1, ledger, ledgerSize);
+    }
+    
+    AccountRow append(List<Transaction> entries) {
+        if (entries.isEmpty()) {
+            return this;
+        }
+        return new AccountRow(accountId, customerId, accountNumber, accountType, balance, status, currency,
+                              version, ledger.append(ledgerSize, entries), ledgerSize + entries.size());
+    }
+    
+    /**
+     * Ledger entry by position, oldest first
+     */
+    Transaction entry(int index) {
+        return ledger.get(index);
+    }
+    
+    Account toAccount() {
+        Account account = new Account();
+        account.setAccountId(accountId);
+        account.setCustomerId(customerId);
+        account.setAccountNumber(accountNumber);
+        account.setAccountType(accountType);
+        account.setBalance(balance);
+        account.setStatus(status);
+        account.setCurrency(currency);
+        account.setVersion(version);
+        return account;
+    }
+}
@@ -0,0 +1,125 @@
+package com.bank.dao.memory;
+
+import com.bank.dao.AccountDAO;
+import com.bank.exception.VersionConflictException;
+import com.bank.model.Account;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.TreeSet;
+
+/**
+ * In-memory implementation of AccountDAO
+ * Balance and status changes made inside a business transaction are
+ * buffered by the InMemoryStore and installed when it commits.
+ */
+public class InMemoryAccountDAO implements AccountDAO {
+    private static final String SQLSTATE_CHECK_VIOLATION = "HY000";
+    private static final int MYSQL_CHECK_CONSTRAINT_VIOLATED = 3819;
+    
+    private final InMemoryStore store;
+    
+    InMemoryAccountDAO(InMemoryStore store) {
+        this.store = store;
+    }
+    
+    @Override
+    public int createAccount(Account account) throws SQLException {
+        checkBalance(account.getBalance());
+        return store.insertAccount(account);
+    }
+    
+    @Override
+    public Account getAccountById(int accountId) {
+        AccountRow row = store.readAccount(accountId);
+        return row == null ? null : row.toAccount();
+    }
+    
+    @Override
+    public Account getAccountByNumber(String accountNumber) {
+        Integer accountId = store.accountIdsByNumber.get(accountNumber);
+        return accountId == null ? null : getAccountById(accountId);
+    }
+    
+    @Override
+    public List<Account> getAccountsByIds(List<Integer> accountIds) {
+        List<Account> accounts = new ArrayList<>(accountIds.size());
+        for (int accountId : new TreeSet<>(accountIds)) {
+            AccountRow row = store.readAccount(accountId);
+            if (row != null) {
+                accounts.add(row.toAccount());
+            }
+        }
+        return accounts;
+    }
+    
+    @Override
+    public List<Account> getAccountsByCustomerId(int customerId) {
+        List<Account> accounts = new ArrayList<>();
+        for (AccountRow row : rowsOf(customerId)) {
+            accounts.add(row.toAccount());
+        }
+        return accounts;
+    }
+    
+    @Override
+    public boolean updateBalance(int accountId, double newBalance, long expectedVersion) throws SQLException {
+        checkBalance(newBalance);
+        return store.updateAccount(accountId, expectedVersion, row -> row.withBalance(newBalance));
+    }
+    
+    @Override
+    public void updateBalances(List<Account> accounts) throws SQLException {
+        for (Account account : accounts) {
+            if (!updateBalance(account.getAccountId(), account.getBalance(), account.getVersion())) {
+                throw new VersionConflictException("Account " + account.getAccountId() +
+                    " was changed by a concurrent transaction");
+            }
+        }
+    }
+    
+    @Override
+    public boolean updateAccountStatus(int accountId, Account.AccountStatus status, long expectedVersion) 
+            throws SQLException {
+        return store.updateAccount(accountId, expectedVersion, row -> row.withStatus(status));
+    }
+    
+    @Override
+    public double getBalance(int accountId) throws SQLException {
+        AccountRow row = store.readAccount(accountId);
+        if (row == null) {
+            throw new SQLException("Account not found");
+        }
+        return row.balance;
+    }
+    
+    /**
+     * Rows of a customer's accounts, ordered by ID
+     */
+    List<AccountRow> rowsOf(int customerId) {
+        int[] accountIds = store.accountIdsByCustomer.get(customerId);
+        if (accountIds == null) {
+            return new ArrayList<>();
+        }
+        List<AccountRow> rows = new ArrayList<>(accountIds.length);
+        for (int accountId : accountIds) {
+            AccountRow row = store.readAccount(accountId);
+            if (row != null) {
+                rows.add(row);
+            }
+        }
+        rows.sort(Comparator.comparingInt(row -> row.accountId)); // concurrent opens may append out of order
+        return rows;
+    }
+    
+    /**
+     * The database rejects negative balances with a CHECK constraint
+     */
+    private static void checkBalance(double balance) throws SQLException {
+        if (balance < 0) {
+            throw new SQLException("Check constraint 'accounts_chk_1' is violated.",
+                SQLSTATE_CHECK_VIOLATION, MYSQL_CHECK_CONSTRAINT_VIOLATED);
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.bank.dao.memory;
+
+import com.bank.dao.CustomerDAO;
+import com.bank.model.Customer;
+import com.bank.model.CustomerSummary;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * In-memory implementation of CustomerDAO
+ * Stores private copies of the beans; email uniqueness is enforced through
+ * an email-to-ID index, as the UNIQUE key does in the database.
+ */
+public class InMemoryCustomerDAO implements CustomerDAO {
+    private final InMemoryStore store;
+    
+    InMemoryCustomerDAO(InMemoryStore store) {
+        this.store = store;
+    }
+    
+    @Override
+    public int createCustomer(Customer customer) throws SQLException {
+        int customerId = store.lastCustomerId.incrementAndGet();
+        if (store.customerIdsByEmail.putIfAbsent(customer.getEmail(), customerId) != null) {
+            throw InMemoryStore.duplicate(customer.getEmail(), "customers.email");
+        }
+        store.customers.set(customerId, copy(customer, customerId));
+        return customerId;
+    }
+    
+    @Override
+    public Customer getCustomerById(int customerId) {
+        Customer customer = store.customers.get(customerId);
+        return customer == null ? null : copy(customer, customerId);
+    }
+    
+    @Override
+    public Customer getCustomerByEmail(String email) {
+        Integer customerId = store.customerIdsByEmail.get(email);
+        return customerId == null ? null : getCustomerById(customerId);
+    }
+    
+    @Override
+    public List<Customer> getAllCustomers() {
+        List<Customer> customers = new ArrayList<>();
+        int last = store.lastCustomerId.get();
+        for (int customerId = 1; customerId <= last; customerId++) {
+            Customer customer = store.customers.get(customerId);
+            if (customer != null) {
+                customers.add(copy(customer, customerId));
+            }
+        }
+        return customers;
+    }
+    
+    @Override
+    public List<CustomerSummary> getCustomerSummaries() {
+        List<CustomerSummary> customers = new ArrayList<>();
+        int last = store.lastCustomerId.get();
+        for (int customerId = 1; customerId <= last; customerId++) {
+            Customer customer = store.customers.get(customerId);
+            if (customer != null) {
+                customers.add(new CustomerSummary(customerId, customer.getFirstName(), customer.getLastName(),
+                                                  customer.getEmail(), customer.getPhone()));
+            }
+        }
+        return customers;
+    }
+    
+    @Override
+    public int countCustomers() {
+        return store.customerIdsByEmail.size();
+    }
+    
+    @Override
+    public void streamEmails(int afterCustomerId, ObjIntConsumer<String> handler) {
+        int last = store.lastCustomerId.get();
+        for (int customerId = afterCustomerId + 1; customerId <= last; customerId++) {
+            Customer customer = store.customers.get(customerId);
+            if (customer != null) {
+                handler.accept(customer.getEmail(), customerId);
+            }
+        }
+    }
+    
+    @Override
+    public boolean updateCustomer(Customer customer) throws SQLException {
+        int customerId = customer.getCustomerId();
+        Customer updated = copy(customer, customerId);
+        String email = updated.getEmail();
+        while (true) {
+            Customer existing = store.customers.get(customerId);
+            if (existing == null) {
+                return false;
+            }
+            boolean newEmail = !existing.getEmail().equals(email);
+            if (newEmail) {
+                Integer owner = store.customerIdsByEmail.putIfAbsent(email, customerId);
+                if (owner != null && owner != customerId) {
+                    throw InMemoryStore.duplicate(email, "customers.email");
+                }
+            }
+            if (store.customers.compareAndSet(customerId, existing, updated)) {
+                if (newEmail) {
+                    store.customerIdsByEmail.remove(existing.getEmail(), customerId);
+                }
+                return true;
+            }
+            if (newEmail) {
+                store.customerIdsByEmail.remove(email, customerId); // retry against the newer row
+            }
+        }
+    }
+    
+    @Override
+    public boolean deleteCustomer(int customerId) {
+        if (store.customers.get(customerId) == null) {
+            return false;
+        }
+        Customer existing = store.customers.getAndSet(customerId, null);
+        if (existing == null) {
+            return false;
+        }
+        store.customerIdsByEmail.remove(existing.getEmail(), customerId);
+        store.deleteAccountsOf(customerId);
+        return true;
+    }
+    
+    private static Customer copy(Customer customer, int customerId) {
+        Customer copy = new Customer(customer.getFirstName(), customer.getLastName(), customer.getEmail(),
+                                     customer.getPhone(), customer.getAddress(), customer.getDateOfBirth());
+        copy.setCustomerId(customerId);
+        return copy;
+    }
+}
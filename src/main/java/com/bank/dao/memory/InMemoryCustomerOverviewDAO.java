@@ -0,0 +1,37 @@
+package com.bank.dao.memory;
+
+import com.bank.dao.CustomerOverviewDAO;
+import com.bank.model.Customer;
+import com.bank.model.CustomerOverview;
+import com.bank.model.Transaction;
+import java.util.List;
+
+/**
+ * Customer overview assembled from the in-memory tables
+ * Same result as the single JDBC query: the customer, their accounts by ID
+ * and the newest transactionsPerAccount ledger entries of each.
+ */
+public class InMemoryCustomerOverviewDAO implements CustomerOverviewDAO {
+    private final InMemoryStore store;
+    
+    InMemoryCustomerOverviewDAO(InMemoryStore store) {
+        this.store = store;
+    }
+    
+    @Override
+    public CustomerOverview getCustomerOverview(int customerId, int transactionsPerAccount) {
+        Customer customer = store.customerDAO.getCustomerById(customerId);
+        if (customer == null) {
+            return null;
+        }
+        CustomerOverview overview = new CustomerOverview(customer);
+        for (AccountRow row : store.accountDAO.rowsOf(customerId)) {
+            overview.addAccount(row.toAccount());
+            List<Transaction> recent = store.transactionDAO.getTransactionHistory(row.accountId, transactionsPerAccount);
+            for (Transaction transaction : recent) {
+                overview.addRecentTransaction(transaction);
+            }
+        }
+        return overview;
+    }
+}
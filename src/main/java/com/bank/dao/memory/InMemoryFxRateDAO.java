@@ -0,0 +1,41 @@
+package com.bank.dao.memory;
+
+import com.bank.dao.FxRateDAO;
+import com.bank.model.FxRate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * In-memory implementation of FxRateDAO
+ * Only the current rate of each pair is kept; rates are not part of
+ * business transactions.
+ */
+public class InMemoryFxRateDAO implements FxRateDAO {
+    private final Map<String, FxRate> latest = new HashMap<>();
+    private long version;
+    
+    InMemoryFxRateDAO() {
+    }
+    
+    @Override
+    public synchronized long getLatestVersion() {
+        return version;
+    }
+    
+    @Override
+    public synchronized List<FxRate> getLatestRates() {
+        return new ArrayList<>(latest.values());
+    }
+    
+    @Override
+    public synchronized long saveRates(List<FxRate> rates) {
+        version++;
+        for (FxRate rate : rates) {
+            latest.put(rate.getFromCurrency() + rate.getToCurrency(),
+                       new FxRate(rate.getFromCurrency(), rate.getToCurrency(), rate.getScaledRate(), version));
+        }
+        return version;
+    }
+}
@@ -0,0 +1,47 @@
+package com.bank.dao.memory;
+
+import com.bank.dao.OutboxDAO;
+import com.bank.model.OutboxEvent;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * In-memory implementation of OutboxDAO
+ * Events sit in a concurrent skip list ordered by ID. IDs are assigned once
+ * the business transaction has committed.
+ */
+public class InMemoryOutboxDAO implements OutboxDAO {
+    private final InMemoryStore store;
+    
+    InMemoryOutboxDAO(InMemoryStore store) {
+        this.store = store;
+    }
+    
+    @Override
+    public void createEvents(List<OutboxEvent> events) {
+        store.addEvents(events);
+    }
+    
+    @Override
+    public List<OutboxEvent> getNextBatch(int limit) {
+        List<OutboxEvent> events = new ArrayList<>(Math.min(limit, 1024));
+        for (OutboxEvent event : store.outbox.values()) {
+            if (events.size() >= limit) {
+                break;
+            }
+            events.add(event);
+        }
+        return events;
+    }
+    
+    @Override
+    public int deleteEvents(List<OutboxEvent> events) {
+        int deleted = 0;
+        for (OutboxEvent event : events) {
+            if (store.outbox.remove(event.getEventId()) != null) {
+                deleted++;
+            }
+        }
+        return deleted;
+    }
+}
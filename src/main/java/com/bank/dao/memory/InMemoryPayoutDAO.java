@@ -0,0 +1,176 @@
+package com.bank.dao.memory;
+
+import com.bank.dao.PayoutDAO;
+import com.bank.model.BulkPayout;
+import com.bank.model.Payout;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * In-memory implementation of PayoutDAO
+ * Payouts and their payments are kept as copies under one lock. Changes are
+ * installed when the business transaction commits; payments are not locked
+ * by a claim, as only one process uses the engine.
+ */
+public class InMemoryPayoutDAO implements PayoutDAO {
+    private final InMemoryStore store;
+    private final TreeMap<Integer, BulkPayout> payouts = new TreeMap<>();
+    private final Map<Integer, Payout[]> payments = new HashMap<>();
+    private int lastPayoutId;
+    
+    InMemoryPayoutDAO(InMemoryStore store) {
+        this.store = store;
+    }
+    
+    @Override
+    public synchronized int createPayout(BulkPayout payout, List<Payout> payments) {
+        int payoutId = ++lastPayoutId;
+        BulkPayout stored = copy(payout);
+        stored.setPayoutId(payoutId);
+        Payout[] storedPayments = new Payout[payments.size()];
+        for (Payout payment : payments) {
+            storedPayments[payment.getPaymentNo()] = copy(payment);
+        }
+        store.write(() -> {
+            synchronized (this) {
+                payouts.put(payoutId, stored);
+                this.payments.put(payoutId, storedPayments);
+            }
+        });
+        return payoutId;
+    }
+    
+    @Override
+    public synchronized List<BulkPayout> getUnfinishedPayouts() {
+        List<BulkPayout> unfinished = new ArrayList<>();
+        for (BulkPayout payout : payouts.values()) {
+            if (payout.getStatus() == BulkPayout.Status.CREDITING) {
+                unfinished.add(copy(payout));
+            }
+        }
+        return unfinished;
+    }
+    
+    @Override
+    public synchronized BulkPayout lockPayout(int payoutId) {
+        BulkPayout payout = payouts.get(payoutId);
+        return payout == null ? null : copy(payout);
+    }
+    
+    @Override
+    public synchronized List<Payout> claimPendingPayments(int payoutId, int firstPaymentNo, int lastPaymentNo) {
+        List<Payout> pending = new ArrayList<>();
+        Payout[] stored = payments.get(payoutId);
+        if (stored == null) {
+            return pending;
+        }
+        for (int paymentNo = firstPaymentNo; paymentNo <= lastPaymentNo && paymentNo < stored.length; paymentNo++) {
+            if (stored[paymentNo].getStatus() == Payout.Status.PENDING) {
+                pending.add(copy(stored[paymentNo]));
+            }
+        }
+        return pending;
+    }
+    
+    @Override
+    public void markFailed(int payoutId, List<Payout> failed) {
+        List<Payout> copies = new ArrayList<>(failed.size());
+        for (Payout payment : failed) {
+            copies.add(copy(payment));
+        }
+        store.write(() -> {
+            synchronized (this) {
+                Payout[] stored = payments.get(payoutId);
+                for (Payout payment : copies) {
+                    stored[payment.getPaymentNo()].setStatus(Payout.Status.FAILED);
+                    stored[payment.getPaymentNo()].setReason(payment.getReason());
+                }
+            }
+        });
+    }
+    
+    @Override
+    public void markCredited(int payoutId, int firstPaymentNo, int lastPaymentNo) {
+        store.write(() -> setPending(payoutId, firstPaymentNo, lastPaymentNo, Payout.Status.CREDITED, null));
+    }
+    
+    @Override
+    public void failPending(int payoutId, int firstPaymentNo, int lastPaymentNo, String reason) {
+        store.write(() -> setPending(payoutId, firstPaymentNo, lastPaymentNo, Payout.Status.FAILED, reason));
+    }
+    
+    @Override
+    public synchronized List<Payout> getFailedPayments(int payoutId) {
+        List<Payout> failed = new ArrayList<>();
+        Payout[] stored = payments.get(payoutId);
+        if (stored != null) {
+            for (Payout payment : stored) {
+                if (payment.getStatus() == Payout.Status.FAILED) {
+                    failed.add(copy(payment));
+                }
+            }
+        }
+        return failed;
+    }
+    
+    @Override
+    public synchronized boolean completePayout(int payoutId, Integer refundTransactionId) {
+        BulkPayout payout = payouts.get(payoutId);
+        if (payout == null || payout.getStatus() != BulkPayout.Status.CREDITING) {
+            return false;
+        }
+        for (Payout payment : payments.get(payoutId)) {
+            if (payment.getStatus() == Payout.Status.PENDING) {
+                return false;
+            }
+        }
+        store.write(() -> {
+            synchronized (this) {
+                payout.setStatus(BulkPayout.Status.COMPLETED);
+                payout.setRefundTransactionId(refundTransactionId);
+                for (Payout payment : payments.get(payoutId)) {
+                    if (payment.getStatus() == Payout.Status.FAILED) {
+                        payment.setStatus(Payout.Status.REFUNDED);
+                    }
+                }
+            }
+        });
+        return true;
+    }
+    
+    private synchronized void setPending(int payoutId, int firstPaymentNo, int lastPaymentNo, Payout.Status status,
+                                         String reason) {
+        Payout[] stored = payments.get(payoutId);
+        for (int paymentNo = firstPaymentNo; paymentNo <= lastPaymentNo && paymentNo < stored.length; paymentNo++) {
+            if (stored[paymentNo].getStatus() == Payout.Status.PENDING) {
+                stored[paymentNo].setStatus(status);
+                stored[paymentNo].setReason(reason);
+            }
+        }
+    }
+    
+    private static BulkPayout copy(BulkPayout payout) {
+        BulkPayout copy = new BulkPayout();
+        copy.setPayoutId(payout.getPayoutId());
+        copy.setSourceAccountId(payout.getSourceAccountId());
+        copy.setAmount(payout.getAmount());
+        copy.setDescription(payout.getDescription());
+        copy.setPaymentCount(payout.getPaymentCount());
+        copy.setDebitTransactionId(payout.getDebitTransactionId());
+        copy.setStatus(payout.getStatus());
+        copy.setRefundTransactionId(payout.getRefundTransactionId());
+        copy.setCreatedAt(payout.getCreatedAt());
+        return copy;
+    }
+    
+    private static Payout copy(Payout payment) {
+        Payout copy = new Payout(payment.getAccountId(), payment.getAmount());
+        copy.setPaymentNo(payment.getPaymentNo());
+        copy.setStatus(payment.getStatus());
+        copy.setReason(payment.getReason());
+        return copy;
+    }
+}
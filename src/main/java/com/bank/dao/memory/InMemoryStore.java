@@ -0,0 +1,497 @@
+package com.bank.dao.memory;
+
+import com.bank.dao.AccountDAO;
+import com.bank.dao.AccountNumberSequenceDAO;
+import com.bank.dao.CustomerDAO;
+import com.bank.dao.CustomerOverviewDAO;
+import com.bank.dao.FxRateDAO;
+import com.bank.dao.OutboxDAO;
+import com.bank.dao.PayoutDAO;
+import com.bank.dao.TransactionDAO;
+import com.bank.dao.UnitOfWork;
+import com.bank.exception.VersionConflictException;
+import com.bank.model.Account;
+import com.bank.model.Customer;
+import com.bank.model.OutboxEvent;
+import com.bank.model.Transaction;
+import java.sql.SQLException;
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.UnaryOperator;
+
+/**
+ * In-Memory Storage Engine
+ * Keeps customers, accounts and the ledger in process memory, for functional
+ * tests, benchmarks of the service layer and embedded deployments without a
+ * database. Nothing survives a restart.
+ *
+ * Rows are immutable and live in lock-free IntTables indexed by ID. Every
+ * account row carries its own append-only Ledger, so a balance and the
+ * ledger entries that produced it change in one step. Readers never wait:
+ * they see the last committed row.
+ *
+ * A business transaction buffers its balance, status, ledger, outbox and payout
+ * writes and installs them at commit. The commit claims every account it changes, in ID
+ * order, by swapping a descriptor of the change into the account's slot, and
+ * then flips the descriptor to committed. Readers read through a descriptor;
+ * a writer that finds one in its way aborts it, so a committer that stalls
+ * never blocks anyone. If an account changed after the transaction read it,
+ * the commit fails with a VersionConflictException and RetryPolicy retries it
+ * like a deadlock. Creating and deleting customers and accounts takes effect at once.
+ */
+public class InMemoryStore implements UnitOfWork {
+    private static final String SQLSTATE_INTEGRITY_CONSTRAINT = "23000";
+    private static final int MYSQL_DUPLICATE_ENTRY = 1062;
+    private static final int MYSQL_NO_REFERENCED_ROW = 1452;
+    
+    final IntTable<Customer> customers = new IntTable<>();
+    final Map<String, Integer> customerIdsByEmail = new ConcurrentHashMap<>();
+    final AtomicInteger lastCustomerId = new AtomicInteger();
+    
+    // Each slot holds an AccountRow, or a Commit while a transaction installs its change
+    private final IntTable<Object> accounts = new IntTable<>();
+    final IntTable<int[]> accountIdsByCustomer = new IntTable<>();
+    final Map<String, Integer> accountIdsByNumber = new ConcurrentHashMap<>();
+    final AtomicInteger lastAccountId = new AtomicInteger();
+    
+    final IntTable<Transaction> transactionsById = new IntTable<>();
+    final AtomicInteger lastTransactionId = new AtomicInteger();
+    
+    final ConcurrentSkipListMap<Long, OutboxEvent> outbox = new ConcurrentSkipListMap<>();
+    private final AtomicLong lastEventId = new AtomicLong();
+    
+    private final AtomicLong nextSequenceValue = new AtomicLong(1);
+    private final ThreadLocal<Work> work = new ThreadLocal<>();
+    
+    final InMemoryCustomerDAO customerDAO = new InMemoryCustomerDAO(this);
+    final InMemoryAccountDAO accountDAO = new InMemoryAccountDAO(this);
+    final InMemoryTransactionDAO transactionDAO = new InMemoryTransactionDAO(this);
+    private final InMemoryCustomerOverviewDAO customerOverviewDAO = new InMemoryCustomerOverviewDAO(this);
+    private final InMemoryOutboxDAO outboxDAO = new InMemoryOutboxDAO(this);
+    private final InMemoryFxRateDAO fxRateDAO = new InMemoryFxRateDAO();
+    private final InMemoryPayoutDAO payoutDAO = new InMemoryPayoutDAO(this);
+    
+    public CustomerDAO getCustomerDAO() {
+        return customerDAO;
+    }
+    
+    public AccountDAO getAccountDAO() {
+        return accountDAO;
+    }
+    
+    public TransactionDAO getTransactionDAO() {
+        return transactionDAO;
+    }
+    
+    public CustomerOverviewDAO getCustomerOverviewDAO() {
+        return customerOverviewDAO;
+    }
+    
+    public OutboxDAO getOutboxDAO() {
+        return outboxDAO;
+    }
+    
+    public FxRateDAO getFxRateDAO() {
+        return fxRateDAO;
+    }
+    
+    public PayoutDAO getPayoutDAO() {
+        return payoutDAO;
+    }
+    
+    /**
+     * Account number sequence kept in memory, for AccountNumberGenerator
+     */
+    public AccountNumberSequenceDAO getAccountNumberSequenceDAO() {
+        return new AccountNumberSequenceDAO() {
+            @Override
+            public long reserveBlock(String sequenceName, int size) {
+                return nextSequenceValue.getAndAdd(size);
+            }
+        };
+    }
+    
+    @Override
+    public void begin() {
+        work.set(new Work());
+    }
+    
+    @Override
+    public void commit() throws SQLException {
+        Work current = work.get();
+        work.remove();
+        if (current == null) {
+            return;
+        }
+        
+        List<Pending> changed = new ArrayList<>(current.touched.size());
+        for (Pending pending : current.touched.values()) {
+            if (pending.written) {
+                changed.add(pending);
+            }
+        }
+        if (changed.isEmpty()) {
+            publish(current.events);
+            apply(current.writes);
+            return;
+        }
+        changed.sort((a, b) -> Integer.compare(a.before.accountId, b.before.accountId));
+        
+        Commit commit = new Commit(changed.size());
+        for (int i = 0; i < changed.size(); i++) {
+            Pending pending = changed.get(i);
+            commit.accountIds[i] = pending.before.accountId;
+            commit.before[i] = pending.before;
+            commit.after[i] = pending.row.append(pending.entries);
+        }
+        
+        int conflict = install(commit);
+        if (conflict != 0) {
+            throw new VersionConflictException("Account " + conflict + " was changed by a concurrent transaction");
+        }
+        for (Pending pending : changed) {
+            for (Transaction entry : pending.entries) {
+                transactionsById.set(entry.getTransactionId(), entry);
+            }
+        }
+        publish(current.events);
+        apply(current.writes);
+    }
+    
+    @Override
+    public void rollback() {
+        work.remove();
+    }
+    
+    /**
+     * Read an account as the current thread sees it
+     * Inside a business transaction the first read is remembered, and later
+     * reads include the transaction's own uncommitted changes.
+     * @return the row, or null if the account does not exist
+     */
+    AccountRow readAccount(int accountId) {
+        Work current = work.get();
+        if (current == null) {
+            return committedAccount(accountId);
+        }
+        Pending pending = current.touched.get(accountId);
+        if (pending == null) {
+            AccountRow row = committedAccount(accountId);
+            if (row == null) {
+                return null;
+            }
+            pending = new Pending(row);
+            current.touched.put(accountId, pending);
+        }
+        return pending.row;
+    }
+    
+    /**
+     * Change an account at the version the caller read; buffered until commit
+     * inside a business transaction, whose commit checks the version again
+     * @return false if the account does not exist
+     */
+    boolean updateAccount(int accountId, long expectedVersion, UnaryOperator<AccountRow> change) 
+            throws VersionConflictException {
+        Work current = work.get();
+        if (current != null) {
+            if (readAccount(accountId) == null) {
+                return false;
+            }
+            Pending pending = current.touched.get(accountId);
+            checkVersion(pending.row, expectedVersion);
+            pending.row = change.apply(pending.row);
+            pending.written = true;
+            return true;
+        }
+        
+        while (true) {
+            AccountRow before = settle(accountId);
+            if (before == null) {
+                return false;
+            }
+            checkVersion(before, expectedVersion);
+            if (accounts.compareAndSet(accountId, before, change.apply(before))) {
+                return true;
+            }
+        }
+    }
+    
+    /**
+     * Append an entry to its account's ledger; buffered until commit inside a
+     * business transaction
+     */
+    void appendEntry(Transaction entry) throws SQLException {
+        int accountId = entry.getAccountId();
+        Work current = work.get();
+        if (current != null) {
+            if (readAccount(accountId) == null) {
+                throw missingAccount(accountId);
+            }
+            Pending pending = current.touched.get(accountId);
+            pending.entries.add(entry);
+            pending.written = true;
+            return;
+        }
+        
+        List<Transaction> entries = List.of(entry);
+        while (true) {
+            AccountRow before = settle(accountId);
+            if (before == null) {
+                throw missingAccount(accountId);
+            }
+            if (accounts.compareAndSet(accountId, before, before.append(entries))) {
+                transactionsById.set(entry.getTransactionId(), entry);
+                return;
+            }
+        }
+    }
+    
+    /**
+     * Add events to the outbox; buffered until commit inside a business transaction
+     */
+    void addEvents(List<OutboxEvent> events) {
+        Work current = work.get();
+        if (current != null) {
+            current.events.addAll(events);
+        } else {
+            publish(events);
+        }
+    }
+    
+    /**
+     * Apply a change outside the accounts, e.g. to a payout; buffered until
+     * commit inside a business transaction
+     */
+    void write(Runnable change) {
+        Work current = work.get();
+        if (current != null) {
+            current.writes.add(change);
+        } else {
+            change.run();
+        }
+    }
+    
+    private static void apply(List<Runnable> changes) {
+        for (Runnable change : changes) {
+            change.run();
+        }
+    }
+    
+    /**
+     * Store events under IDs in commit order
+     */
+    private void publish(List<OutboxEvent> events) {
+        for (OutboxEvent event : events) {
+            long eventId = lastEventId.incrementAndGet();
+            outbox.put(eventId, new OutboxEvent(eventId, event.getEventType(), event.getAccountId(),
+                                                event.getPayload(), event.getCreatedAt()));
+        }
+    }
+    
+    /**
+     * Store a new account row and index it by number and customer
+     */
+    int insertAccount(Account account) throws SQLException {
+        if (customers.get(account.getCustomerId()) == null) {
+            throw new SQLIntegrityConstraintViolationException("Cannot add or update a child row: customer " +
+                account.getCustomerId() + " does not exist", SQLSTATE_INTEGRITY_CONSTRAINT, MYSQL_NO_REFERENCED_ROW);
+        }
+        int accountId = lastAccountId.incrementAndGet();
+        if (accountIdsByNumber.putIfAbsent(account.getAccountNumber(), accountId) != null) {
+            throw duplicate(account.getAccountNumber(), "accounts.account_number");
+        }
+        accounts.set(accountId, new AccountRow(account, accountId));
+        
+        int customerId = account.getCustomerId();
+        while (true) {
+            int[] ids = accountIdsByCustomer.get(customerId);
+            int[] grown = ids == null ? new int[] { accountId } : Arrays.copyOf(ids, ids.length + 1);
+            grown[grown.length - 1] = accountId;
+            if (accountIdsByCustomer.compareAndSet(customerId, ids, grown)) {
+                return accountId;
+            }
+        }
+    }
+    
+    /**
+     * Remove a customer's accounts and their ledgers, as ON DELETE CASCADE does
+     */
+    void deleteAccountsOf(int customerId) {
+        int[] ids = accountIdsByCustomer.getAndSet(customerId, null);
+        if (ids == null) {
+            return;
+        }
+        for (int accountId : ids) {
+            AccountRow row;
+            do {
+                row = settle(accountId);
+            } while (row != null && !accounts.compareAndSet(accountId, row, null));
+            if (row == null) {
+                continue;
+            }
+            accountIdsByNumber.remove(row.accountNumber, accountId);
+            for (int i = 0; i < row.ledgerSize; i++) {
+                transactionsById.set(row.entry(i).getTransactionId(), null);
+            }
+        }
+    }
+    
+    /**
+     * Committed state of an account, reading through an in-flight commit
+     */
+    AccountRow committedAccount(int accountId) {
+        Object slot = accounts.get(accountId);
+        if (slot instanceof Commit) {
+            Commit commit = (Commit) slot;
+            return commit.resolve(commit.indexOf(accountId));
+        }
+        return (AccountRow) slot;
+    }
+    
+    /**
+     * Clear any commit out of an account's slot, aborting it if still undecided
+     * @return the committed row left in the slot, or null if the account does not exist
+     */
+    private AccountRow settle(int accountId) {
+        while (true) {
+            Object slot = accounts.get(accountId);
+            if (!(slot instanceof Commit)) {
+                return (AccountRow) slot;
+            }
+            Commit other = (Commit) slot;
+            other.status.compareAndSet(Commit.UNDECIDED, Commit.ABORTED);
+            accounts.compareAndSet(accountId, other, other.resolve(other.indexOf(accountId)));
+        }
+    }
+    
+    /**
+     * Install a commit's rows atomically
+     * @return 0 if committed, otherwise the ID of an account that stood in the way
+     */
+    private int install(Commit commit) {
+        int acquired = 0;
+        int conflict = 0;
+        for (; acquired < commit.accountIds.length; acquired++) {
+            if (!acquire(acquired, commit)) {
+                conflict = commit.accountIds[acquired];
+                break;
+            }
+        }
+        boolean committed = conflict == 0 && commit.status.compareAndSet(Commit.UNDECIDED, Commit.COMMITTED);
+        if (!committed) {
+            commit.status.compareAndSet(Commit.UNDECIDED, Commit.ABORTED);
+        }
+        for (int i = 0; i < acquired; i++) {
+            accounts.compareAndSet(commit.accountIds[i], commit, commit.resolve(i));
+        }
+        return committed ? 0 : conflict != 0 ? conflict : commit.accountIds[0];
+    }
+    
+    /**
+     * Swap the commit into one account's slot if the account still holds the row it read
+     */
+    private boolean acquire(int index, Commit commit) {
+        int accountId = commit.accountIds[index];
+        AccountRow expected = commit.before[index];
+        while (commit.status.get() == Commit.UNDECIDED) {
+            Object slot = accounts.get(accountId);
+            if (slot == expected) {
+                if (accounts.compareAndSet(accountId, expected, commit)) {
+                    return true;
+                }
+            } else if (slot instanceof Commit) {
+                Commit other = (Commit) slot;
+                other.status.compareAndSet(Commit.UNDECIDED, Commit.ABORTED);
+                accounts.compareAndSet(accountId, other, other.resolve(other.indexOf(accountId)));
+            } else {
+                return false; // changed or deleted since the transaction read it
+            }
+        }
+        return false; // aborted by another writer
+    }
+    
+    private static void checkVersion(AccountRow row, long expectedVersion) throws VersionConflictException {
+        if (row.version != expectedVersion) {
+            throw new VersionConflictException("Account " + row.accountId + " was changed by a concurrent transaction");
+        }
+    }
+    
+    static SQLException duplicate(String value, String key) {
+        return new SQLIntegrityConstraintViolationException("Duplicate entry '" + value + "' for key '" + key + "'",
+            SQLSTATE_INTEGRITY_CONSTRAINT, MYSQL_DUPLICATE_ENTRY);
+    }
+    
+    private static SQLException missingAccount(int accountId) {
+        return new SQLIntegrityConstraintViolationException("Cannot add or update a child row: account " +
+            accountId + " does not exist", SQLSTATE_INTEGRITY_CONSTRAINT, MYSQL_NO_REFERENCED_ROW);
+    }
+    
+    /**
+     * Accounts a business transaction has read or changed, by ID, the
+     * events it has added to the outbox and its other changes
+     */
+    private static final class Work {
+        private final Map<Integer, Pending> touched = new HashMap<>(4);
+        private final List<OutboxEvent> events = new ArrayList<>(2);
+        private final List<Runnable> writes = new ArrayList<>(0);
+    }
+    
+    /**
+     * One account inside a business transaction: the row it read and its
+     * changes so far
+     */
+    private static final class Pending {
+        private final AccountRow before;
+        private AccountRow row;
+        private final List<Transaction> entries = new ArrayList<>(2);
+        private boolean written;
+        
+        Pending(AccountRow before) {
+            this.before = before;
+            this.row = before;
+        }
+    }
+    
+    /**
+     * Descriptor of a commit in progress, swapped into the slots it changes
+     * Readers see the before rows until the status turns COMMITTED.
+     */
+    private static final class Commit {
+        static final int UNDECIDED = 0;
+        static final int COMMITTED = 1;
+        static final int ABORTED = 2;
+        
+        final AtomicInteger status = new AtomicInteger(UNDECIDED);
+        final int[] accountIds;
+        final AccountRow[] before;
+        final AccountRow[] after;
+        
+        Commit(int size) {
+            this.accountIds = new int[size];
+            this.before = new AccountRow[size];
+            this.after = new AccountRow[size];
+        }
+        
+        int indexOf(int accountId) {
+            for (int i = 0; i < accountIds.length; i++) {
+                if (accountIds[i] == accountId) {
+                    return i;
+                }
+            }
+            throw new IllegalStateException("Account " + accountId + " is not part of this commit");
+        }
+        
+        AccountRow resolve(int index) {
+            return status.get() == COMMITTED ? after[index] : before[index];
+        }
+    }
+}
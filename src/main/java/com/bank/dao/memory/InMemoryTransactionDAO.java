@@ -0,0 +1,122 @@
+package com.bank.dao.memory;
+
+import com.bank.dao.TransactionDAO;
+import com.bank.model.Transaction;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * In-memory implementation of TransactionDAO
+ * Each account's ledger is an append-only array in commit order, so reads
+ * walk it from the end for newest first. There is no archive: the whole
+ * ledger stays hot.
+ */
+public class InMemoryTransactionDAO implements TransactionDAO {
+    private final InMemoryStore store;
+    
+    InMemoryTransactionDAO(InMemoryStore store) {
+        this.store = store;
+    }
+    
+    @Override
+    public int createTransaction(Transaction transaction) throws SQLException {
+        int transactionId = store.lastTransactionId.incrementAndGet();
+        store.appendEntry(copy(transaction, transactionId));
+        return transactionId;
+    }
+    
+    @Override
+    public void createTransactions(List<Transaction> transactions) throws SQLException {
+        for (Transaction transaction : transactions) {
+            transaction.setTransactionId(createTransaction(transaction));
+        }
+    }
+    
+    @Override
+    public Transaction getTransactionById(int transactionId) {
+        Transaction transaction = store.transactionsById.get(transactionId);
+        return transaction == null ? null : copy(transaction, transactionId);
+    }
+    
+    @Override
+    public List<Transaction> getTransactionsByAccountId(int accountId) {
+        return getTransactionHistory(accountId, Integer.MAX_VALUE);
+    }
+    
+    @Override
+    public List<Transaction> getTransactionHistory(int accountId, int limit) {
+        List<Transaction> transactions = new ArrayList<>();
+        AccountRow row = store.committedAccount(accountId);
+        if (row == null) {
+            return transactions;
+        }
+        for (int i = row.ledgerSize - 1; i >= 0 && transactions.size() < limit; i--) {
+            Transaction entry = row.entry(i);
+            transactions.add(copy(entry, entry.getTransactionId()));
+        }
+        return transactions;
+    }
+    
+    @Override
+    public List<Transaction> getTransactionsBetween(int accountId, LocalDateTime from, LocalDateTime to) {
+        List<Transaction> transactions = new ArrayList<>();
+        AccountRow row = store.committedAccount(accountId);
+        if (row != null) {
+            collectBetween(row, from, to, false, transactions);
+        }
+        return transactions;
+    }
+    
+    @Override
+    public List<Transaction> getOutflowsSince(LocalDateTime since) {
+        List<Transaction> transactions = new ArrayList<>();
+        LocalDateTime end = LocalDateTime.MAX;
+        int last = store.lastAccountId.get();
+        for (int accountId = 1; accountId <= last; accountId++) {
+            AccountRow row = store.committedAccount(accountId);
+            if (row != null) {
+                collectBetween(row, since, end, true, transactions);
+            }
+        }
+        return transactions;
+    }
+    
+    /**
+     * Add the entries of one ledger dated in [from, to), newest first
+     * Dates are taken before commit, so they are only roughly in ledger order
+     * and the whole ledger is scanned.
+     */
+    private static void collectBetween(AccountRow row, LocalDateTime from, LocalDateTime to, boolean outflowsOnly,
+                                       List<Transaction> transactions) {
+        for (int i = row.ledgerSize - 1; i >= 0; i--) {
+            Transaction entry = row.entry(i);
+            LocalDateTime date = entry.getTransactionDate();
+            if (date == null || date.isBefore(from) || !date.isBefore(to)) {
+                continue;
+            }
+            if (outflowsOnly && entry.getTransactionType() != Transaction.TransactionType.WITHDRAWAL
+                    && entry.getTransactionType() != Transaction.TransactionType.TRANSFER_OUT) {
+                continue;
+            }
+            transactions.add(copy(entry, entry.getTransactionId()));
+        }
+    }
+    
+    static Transaction copy(Transaction transaction, int transactionId) {
+        Transaction copy = new Transaction();
+        copy.setTransactionId(transactionId);
+        copy.setAccountId(transaction.getAccountId());
+        copy.setTransactionType(transaction.getTransactionType());
+        copy.setAmount(transaction.getAmount());
+        copy.setBalanceAfter(transaction.getBalanceAfter());
+        copy.setDescription(transaction.getDescription());
+        copy.setRelatedAccountId(transaction.getRelatedAccountId());
+        copy.setTransactionDate(transaction.getTransactionDate() != null
+            ? transaction.getTransactionDate()
+            : LocalDateTime.now());
+        copy.setFxRateVersion(transaction.getFxRateVersion());
+        return copy;
+    }
+}
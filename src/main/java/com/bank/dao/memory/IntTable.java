@@ -0,0 +1,55 @@
+package com.bank.dao.memory;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Lock-free table keyed by a positive int ID
+ * IDs are handed out densely by the engine, so the table is a two-level
+ * array instead of a hash map: a lookup is two array loads, with no hashing
+ * and no boxing of the key. Segments are allocated the first time an ID in
+ * their range is stored.
+ */
+final class IntTable<T> {
+    private static final int SEGMENT_BITS = 16;
+    private static final int SEGMENT_SIZE = 1 << SEGMENT_BITS;
+    private static final int SEGMENT_MASK = SEGMENT_SIZE - 1;
+    private static final int SEGMENTS = 1 << (31 - SEGMENT_BITS);
+    
+    private final AtomicReferenceArray<AtomicReferenceArray<T>> segments = new AtomicReferenceArray<>(SEGMENTS);
+    
+    /**
+     * @return the value stored under the ID, or null
+     */
+    T get(int id) {
+        if (id <= 0) {
+            return null;
+        }
+        AtomicReferenceArray<T> segment = segments.get(id >>> SEGMENT_BITS);
+        return segment == null ? null : segment.get(id & SEGMENT_MASK);
+    }
+    
+    void set(int id, T value) {
+        segment(id).set(id & SEGMENT_MASK, value);
+    }
+    
+    boolean compareAndSet(int id, T expected, T value) {
+        return segment(id).compareAndSet(id & SEGMENT_MASK, expected, value);
+    }
+    
+    T getAndSet(int id, T value) {
+        return segment(id).getAndSet(id & SEGMENT_MASK, value);
+    }
+    
+    private AtomicReferenceArray<T> segment(int id) {
+        if (id <= 0) {
+            throw new IllegalArgumentException("IDs start at 1: " + id);
+        }
+        int index = id >>> SEGMENT_BITS;
+        AtomicReferenceArray<T> segment = segments.get(index);
+        if (segment == null) {
+            segments.compareAndSet(index, null, new AtomicReferenceArray<>(SEGMENT_SIZE));
+            segment = segments.get(index);
+        }
+        return segment;
+    }
+}
@@ -0,0 +1,51 @@
+package com.bank.dao.memory;
+
+import com.bank.model.Transaction;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Append-only ledger array of one account
+ * An AccountRow sees the first ledgerSize entries; entries beyond that
+ * belong to newer rows, or to commits that lost and were abandoned. A row
+ * appends in place only if nobody has claimed the slots after its last
+ * entry yet, and otherwise copies its prefix to a fresh array, so entries a
+ * row can see are never overwritten and readers need no locks.
+ */
+final class Ledger {
+    private static final int INITIAL_CAPACITY = 8;
+    
+    private final Transaction[] entries;
+    private final AtomicInteger claimed;
+    
+    private Ledger(Transaction[] entries, int claimed) {
+        this.entries = entries;
+        this.claimed = new AtomicInteger(claimed);
+    }
+    
+    static Ledger empty() {
+        return new Ledger(new Transaction[INITIAL_CAPACITY], 0);
+    }
+    
+    /**
+     * Append entries after the first size ones
+     * @return the ledger holding the first size entries followed by the new ones
+     */
+    Ledger append(int size, List<Transaction> added) {
+        int end = size + added.size();
+        Ledger target = this;
+        if (end > entries.length || !claimed.compareAndSet(size, end)) {
+            Transaction[] copy = new Transaction[Math.max(end, entries.length * 2)];
+            System.arraycopy(entries, 0, copy, 0, size);
+            target = new Ledger(copy, end);
+        }
+        for (int i = 0; i < added.size(); i++) {
+            target.entries[size + i] = added.get(i);
+        }
+        return target;
+    }
+    
+    Transaction get(int index) {
+        return entries[index];
+    }
+}
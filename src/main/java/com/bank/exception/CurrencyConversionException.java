@@ -0,0 +1,10 @@
+package com.bank.exception;
+
+/**
+ * Exception thrown when a transfer between currencies has no FX rate to use
+ */
+public class CurrencyConversionException extends BankException {
+    public CurrencyConversionException(String message) {
+        super(message);
+    }
+}
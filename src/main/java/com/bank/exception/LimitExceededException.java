@@ -0,0 +1,10 @@
+package com.bank.exception;
+
+/**
+ * Exception thrown when a money movement would break a transaction limit
+ */
+public class LimitExceededException extends BankException {
+    public LimitExceededException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,12 @@
+package com.bank.exception;
+
+/**
+ * Exception thrown when admission control turns an operation away, because
+ * its client is over its rate or the service is too busy to take it in time.
+ * Nothing was done; the operation can be tried again later.
+ */
+public class OverloadedException extends BankException {
+    public OverloadedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,16 @@
+package com.bank.exception;
+
+import java.sql.SQLTransactionRollbackException;
+
+/**
+ * Exception thrown when an account changed between being read and being
+ * updated. It carries SQLState 40001, so RetryPolicy retries the operation
+ * like a deadlock.
+ */
+public class VersionConflictException extends SQLTransactionRollbackException {
+    private static final String SQLSTATE_SERIALIZATION_FAILURE = "40001";
+    
+    public VersionConflictException(String message) {
+        super(message, SQLSTATE_SERIALIZATION_FAILURE);
+    }
+}
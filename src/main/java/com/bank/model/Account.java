@@ -13,21 +13,31 @@ public class Account {
         ACTIVE, INACTIVE, CLOSED
     }
     
+    // Currency of accounts opened before multi-currency support
+    public static final String DEFAULT_CURRENCY = "USD";
+    
     private int accountId;
     private int customerId;
     private String accountNumber;
     private AccountType accountType;
     private double balance;
     private AccountStatus status;
+    private String currency;
+    private long version;
     
     public Account() {}
     
     public Account(int customerId, String accountNumber, AccountType accountType) {
+        this(customerId, accountNumber, accountType, DEFAULT_CURRENCY);
+    }
+    
+    public Account(int customerId, String accountNumber, AccountType accountType, String currency) {
         this.customerId = customerId;
         this.accountNumber = accountNumber;
         this.accountType = accountType;
         this.balance = 0.0;
         this.status = AccountStatus.ACTIVE;
+        this.currency = currency;
     }
     
     // Getters and Setters
@@ -79,6 +89,28 @@ public class Account {
         this.status = status;
     }
     
+    /**
+     * ISO 4217 code of the currency the balance is held in
+     */
+    public String getCurrency() {
+        return currency;
+    }
+    
+    public void setCurrency(String currency) {
+        this.currency = currency;
+    }
+    
+    /**
+     * Row version, incremented by every balance or status update
+     */
+    public long getVersion() {
+        return version;
+    }
+    
+    public void setVersion(long version) {
+        this.version = version;
+    }
+    
     @Override
     public String toString() {
         return "Account{" +
@@ -88,6 +120,8 @@ public class Account {
                 ", accountType=" + accountType +
                 ", balance=" + balance +
                 ", status=" + status +
+                ", currency='" + currency + '\'' +
+                ", version=" + version +
                 '}';
     }
 }
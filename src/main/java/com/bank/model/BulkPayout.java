@@ -0,0 +1,127 @@
+package com.bank.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * Bulk Payout Model Class
+ * One bulk payout from a source account: its debit, how many payments it
+ * makes and, once every payment is credited or refunded, its refund
+ */
+public class BulkPayout {
+    public enum Status {
+        CREDITING, COMPLETED
+    }
+    
+    private int payoutId;
+    private int sourceAccountId;
+    private double amount;
+    private String description;
+    private int paymentCount;
+    private int debitTransactionId;
+    private Status status;
+    private Integer refundTransactionId;
+    private LocalDateTime createdAt;
+    
+    public BulkPayout() {}
+    
+    public BulkPayout(int sourceAccountId, double amount, String description, int paymentCount,
+                      int debitTransactionId) {
+        this.sourceAccountId = sourceAccountId;
+        this.amount = amount;
+        this.description = description;
+        this.paymentCount = paymentCount;
+        this.debitTransactionId = debitTransactionId;
+        this.status = Status.CREDITING;
+        this.createdAt = LocalDateTime.now();
+    }
+    
+    // Getters and Setters
+    public int getPayoutId() {
+        return payoutId;
+    }
+    
+    public void setPayoutId(int payoutId) {
+        this.payoutId = payoutId;
+    }
+    
+    public int getSourceAccountId() {
+        return sourceAccountId;
+    }
+    
+    public void setSourceAccountId(int sourceAccountId) {
+        this.sourceAccountId = sourceAccountId;
+    }
+    
+    public double getAmount() {
+        return amount;
+    }
+    
+    public void setAmount(double amount) {
+        this.amount = amount;
+    }
+    
+    /**
+     * Description given to the payout's ledger rows, or null for the generated ones
+     */
+    public String getDescription() {
+        return description;
+    }
+    
+    public void setDescription(String description) {
+        this.description = description;
+    }
+    
+    public int getPaymentCount() {
+        return paymentCount;
+    }
+    
+    public void setPaymentCount(int paymentCount) {
+        this.paymentCount = paymentCount;
+    }
+    
+    public int getDebitTransactionId() {
+        return debitTransactionId;
+    }
+    
+    public void setDebitTransactionId(int debitTransactionId) {
+        this.debitTransactionId = debitTransactionId;
+    }
+    
+    public Status getStatus() {
+        return status;
+    }
+    
+    public void setStatus(Status status) {
+        this.status = status;
+    }
+    
+    /**
+     * The TRANSFER_IN row that returned the failed payments, or null if none failed
+     */
+    public Integer getRefundTransactionId() {
+        return refundTransactionId;
+    }
+    
+    public void setRefundTransactionId(Integer refundTransactionId) {
+        this.refundTransactionId = refundTransactionId;
+    }
+    
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+    
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+    
+    @Override
+    public String toString() {
+        return "BulkPayout{" +
+                "payoutId=" + payoutId +
+                ", sourceAccountId=" + sourceAccountId +
+                ", amount=" + amount +
+                ", paymentCount=" + paymentCount +
+                ", status=" + status +
+                '}';
+    }
+}
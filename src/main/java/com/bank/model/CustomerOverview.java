@@ -0,0 +1,57 @@
+package com.bank.model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Customer Overview Model Class
+ * A customer together with all of their accounts and the most recent
+ * transactions of each account
+ */
+public class CustomerOverview {
+    private Customer customer;
+    private List<Account> accounts = new ArrayList<>();
+    private Map<Integer, List<Transaction>> recentTransactions = new HashMap<>();
+    
+    public CustomerOverview(Customer customer) {
+        this.customer = customer;
+    }
+    
+    public Customer getCustomer() {
+        return customer;
+    }
+    
+    public List<Account> getAccounts() {
+        return accounts;
+    }
+    
+    public void addAccount(Account account) {
+        accounts.add(account);
+        recentTransactions.put(account.getAccountId(), new ArrayList<>());
+    }
+    
+    /**
+     * Get the recent transactions of one account, newest first
+     */
+    public List<Transaction> getRecentTransactions(int accountId) {
+        List<Transaction> transactions = recentTransactions.get(accountId);
+        return transactions != null ? transactions : Collections.emptyList();
+    }
+    
+    public void addRecentTransaction(Transaction transaction) {
+        recentTransactions.computeIfAbsent(transaction.getAccountId(), id -> new ArrayList<>())
+            .add(transaction);
+    }
+    
+    @Override
+    public String toString() {
+        return "CustomerOverview{" +
+                "customer=" + customer +
+                ", accounts=" + accounts +
+                ", recentTransactions=" + recentTransactions +
+                '}';
+    }
+}
@@ -0,0 +1,53 @@
+package com.bank.model;
+
+/**
+ * Customer Summary Model Class
+ * Lightweight read-only projection of a customer for list screens
+ */
+public class CustomerSummary {
+    private final int customerId;
+    private final String firstName;
+    private final String lastName;
+    private final String email;
+    private final String phone;
+    
+    public CustomerSummary(int customerId, String firstName, String lastName, String email, String phone) {
+        this.customerId = customerId;
+        this.firstName = firstName;
+        this.lastName = lastName;
+        this.email = email;
+        this.phone = phone;
+    }
+    
+    // Getters
+    public int getCustomerId() {
+        return customerId;
+    }
+    
+    public String getFirstName() {
+        return firstName;
+    }
+    
+    public String getLastName() {
+        return lastName;
+    }
+    
+    public String getEmail() {
+        return email;
+    }
+    
+    public String getPhone() {
+        return phone;
+    }
+    
+    @Override
+    public String toString() {
+        return "CustomerSummary{" +
+                "customerId=" + customerId +
+                ", firstName='" + firstName + '\'' +
+                ", lastName='" + lastName + '\'' +
+                ", email='" + email + '\'' +
+                ", phone='" + phone + '\'' +
+                '}';
+    }
+}
@@ -0,0 +1,48 @@
+package com.bank.model;
+
+import java.time.LocalDate;
+
+/**
+ * Daily Limit Usage Model Class
+ * How much an account has withdrawn and transferred out on one day
+ */
+public class DailyLimitUsage {
+    private final int accountId;
+    private final LocalDate usageDate;
+    private final double withdrawn;
+    private final double transferred;
+    
+    public DailyLimitUsage(int accountId, LocalDate usageDate, double withdrawn, double transferred) {
+        this.accountId = accountId;
+        this.usageDate = usageDate;
+        this.withdrawn = withdrawn;
+        this.transferred = transferred;
+    }
+    
+    // Getters
+    public int getAccountId() {
+        return accountId;
+    }
+    
+    public LocalDate getUsageDate() {
+        return usageDate;
+    }
+    
+    public double getWithdrawn() {
+        return withdrawn;
+    }
+    
+    public double getTransferred() {
+        return transferred;
+    }
+    
+    @Override
+    public String toString() {
+        return "DailyLimitUsage{" +
+                "accountId=" + accountId +
+                ", usageDate=" + usageDate +
+                ", withdrawn=" + withdrawn +
+                ", transferred=" + transferred +
+                '}';
+    }
+}
@@ -0,0 +1,54 @@
+package com.bank.model;
+
+/**
+ * FX Rate Model Class
+ * Units of toCurrency per unit of fromCurrency, as a fixed-point number with
+ * eight decimal places (the scale of fx_rates.rate)
+ */
+public class FxRate {
+    public static final int SCALE_DIGITS = 8;
+    public static final long SCALE = 100_000_000L;
+    
+    private final String fromCurrency;
+    private final String toCurrency;
+    private final long scaledRate;
+    private final long version;
+    
+    /**
+     * @param scaledRate rate multiplied by SCALE
+     * @param version rate version the rate was saved under; 0 if not saved yet
+     */
+    public FxRate(String fromCurrency, String toCurrency, long scaledRate, long version) {
+        this.fromCurrency = fromCurrency;
+        this.toCurrency = toCurrency;
+        this.scaledRate = scaledRate;
+        this.version = version;
+    }
+    
+    // Getters
+    public String getFromCurrency() {
+        return fromCurrency;
+    }
+    
+    public String getToCurrency() {
+        return toCurrency;
+    }
+    
+    public long getScaledRate() {
+        return scaledRate;
+    }
+    
+    public long getVersion() {
+        return version;
+    }
+    
+    @Override
+    public String toString() {
+        return "FxRate{" +
+                "fromCurrency='" + fromCurrency + '\'' +
+                ", toCurrency='" + toCurrency + '\'' +
+                ", scaledRate=" + scaledRate +
+                ", version=" + version +
+                '}';
+    }
+}
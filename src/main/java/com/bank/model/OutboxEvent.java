@@ -0,0 +1,97 @@
+package com.bank.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * Outbox Event Model Class
+ * One money movement event waiting in the outbox, with its ledger row as a
+ * JSON payload
+ */
+public class OutboxEvent {
+    private final long eventId;
+    private final String eventType;
+    private final int accountId;
+    private final String payload;
+    private final LocalDateTime createdAt;
+    
+    public OutboxEvent(long eventId, String eventType, int accountId, String payload, LocalDateTime createdAt) {
+        this.eventId = eventId;
+        this.eventType = eventType;
+        this.accountId = accountId;
+        this.payload = payload;
+        this.createdAt = createdAt;
+    }
+    
+    /**
+     * Event for a ledger row that is about to be committed; its ID is assigned when stored
+     */
+    public static OutboxEvent forTransaction(Transaction transaction) {
+        String payload = "{\"transactionId\":" + transaction.getTransactionId() +
+                ",\"accountId\":" + transaction.getAccountId() +
+                ",\"type\":\"" + transaction.getTransactionType() + '"' +
+                ",\"amount\":" + transaction.getAmount() +
+                ",\"balanceAfter\":" + transaction.getBalanceAfter() +
+                ",\"relatedAccountId\":" + transaction.getRelatedAccountId() +
+                ",\"description\":" + quote(transaction.getDescription()) +
+                ",\"transactionDate\":" + quote(String.valueOf(transaction.getTransactionDate())) +
+                ",\"fxRateVersion\":" + transaction.getFxRateVersion() +
+                '}';
+        LocalDateTime createdAt = transaction.getTransactionDate() != null
+            ? transaction.getTransactionDate()
+            : LocalDateTime.now();
+        return new OutboxEvent(0, transaction.getTransactionType().name(), transaction.getAccountId(), payload, createdAt);
+    }
+    
+    /**
+     * JSON string literal, or null
+     */
+    public static String quote(String value) {
+        if (value == null) {
+            return "null";
+        }
+        StringBuilder json = new StringBuilder(value.length() + 2).append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                json.append('\\').append(c);
+            } else if (c < 0x20) {
+                json.append(String.format("\\u%04x", (int) c));
+            } else {
+                json.append(c);
+            }
+        }
+        return json.append('"').toString();
+    }
+    
+    // Getters
+    public long getEventId() {
+        return eventId;
+    }
+    
+    public String getEventType() {
+        return eventType;
+    }
+    
+    public int getAccountId() {
+        return accountId;
+    }
+    
+    public String getPayload() {
+        return payload;
+    }
+    
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+    
+    @Override
+    public String toString() {
+        return "OutboxEvent{" +
+                "eventId=" + eventId +
+                ", eventType='" + eventType + '\'' +
+                ", accountId=" + accountId +
+                ", payload='" + payload + '\'' +
+                ", createdAt=" + createdAt +
+                '}';
+    }
+}
@@ -0,0 +1,80 @@
+package com.bank.model;
+
+/**
+ * Payout Model Class
+ * One payment of a bulk payout: an amount, in the source account's
+ * currency, for a destination account. Once the payout is stored, each
+ * payment also has its number within the payout and a status.
+ */
+public class Payout {
+    public enum Status {
+        PENDING, CREDITED, FAILED, REFUNDED
+    }
+    
+    private int accountId;
+    private double amount;
+    private int paymentNo;
+    private Status status = Status.PENDING;
+    private String reason;
+    
+    public Payout() {}
+    
+    public Payout(int accountId, double amount) {
+        this.accountId = accountId;
+        this.amount = amount;
+    }
+    
+    // Getters and Setters
+    public int getAccountId() {
+        return accountId;
+    }
+    
+    public void setAccountId(int accountId) {
+        this.accountId = accountId;
+    }
+    
+    public double getAmount() {
+        return amount;
+    }
+    
+    public void setAmount(double amount) {
+        this.amount = amount;
+    }
+    
+    public int getPaymentNo() {
+        return paymentNo;
+    }
+    
+    public void setPaymentNo(int paymentNo) {
+        this.paymentNo = paymentNo;
+    }
+    
+    public Status getStatus() {
+        return status;
+    }
+    
+    public void setStatus(Status status) {
+        this.status = status;
+    }
+    
+    /**
+     * Why the payment failed, or null
+     */
+    public String getReason() {
+        return reason;
+    }
+    
+    public void setReason(String reason) {
+        this.reason = reason;
+    }
+    
+    @Override
+    public String toString() {
+        return "Payout{" +
+                "accountId=" + accountId +
+                ", amount=" + amount +
+                ", paymentNo=" + paymentNo +
+                ", status=" + status +
+                '}';
+    }
+}
@@ -0,0 +1,50 @@
+package com.bank.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * Reconciliation Checkpoint Model Class
+ * The last ledger row of an account that reconciliation has verified,
+ * and the balance the chain had reached at that row
+ */
+public class ReconciliationCheckpoint {
+    private final int accountId;
+    private final LocalDateTime lastTransactionDate;
+    private final int lastTransactionId;
+    private final double lastBalanceAfter;
+    
+    public ReconciliationCheckpoint(int accountId, LocalDateTime lastTransactionDate,
+                                    int lastTransactionId, double lastBalanceAfter) {
+        this.accountId = accountId;
+        this.lastTransactionDate = lastTransactionDate;
+        this.lastTransactionId = lastTransactionId;
+        this.lastBalanceAfter = lastBalanceAfter;
+    }
+    
+    // Getters
+    public int getAccountId() {
+        return accountId;
+    }
+    
+    public LocalDateTime getLastTransactionDate() {
+        return lastTransactionDate;
+    }
+    
+    public int getLastTransactionId() {
+        return lastTransactionId;
+    }
+    
+    public double getLastBalanceAfter() {
+        return lastBalanceAfter;
+    }
+    
+    @Override
+    public String toString() {
+        return "ReconciliationCheckpoint{" +
+                "accountId=" + accountId +
+                ", lastTransactionDate=" + lastTransactionDate +
+                ", lastTransactionId=" + lastTransactionId +
+                ", lastBalanceAfter=" + lastBalanceAfter +
+                '}';
+    }
+}
@@ -0,0 +1,149 @@
+package com.bank.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * Standing Instruction Model Class
+ * A recurring transfer between two accounts
+ */
+public class StandingInstruction {
+    public enum Frequency {
+        DAILY, WEEKLY, MONTHLY
+    }
+    
+    public enum Status {
+        ACTIVE, CANCELLED
+    }
+    
+    private int instructionId;
+    private int fromAccountId;
+    private int toAccountId;
+    private double amount;
+    private String description;
+    private Frequency frequency;
+    private int anchorDay;
+    private LocalDateTime nextRunAt;
+    private Status status;
+    private LocalDateTime lastRunAt;
+    private String lastError;
+    
+    public StandingInstruction() {}
+    
+    public StandingInstruction(int fromAccountId, int toAccountId, double amount,
+                               String description, Frequency frequency, LocalDateTime firstRunAt) {
+        this.fromAccountId = fromAccountId;
+        this.toAccountId = toAccountId;
+        this.amount = amount;
+        this.description = description;
+        this.frequency = frequency;
+        this.anchorDay = firstRunAt.getDayOfMonth();
+        this.nextRunAt = firstRunAt;
+        this.status = Status.ACTIVE;
+    }
+    
+    // Getters and Setters
+    public int getInstructionId() {
+        return instructionId;
+    }
+    
+    public void setInstructionId(int instructionId) {
+        this.instructionId = instructionId;
+    }
+    
+    public int getFromAccountId() {
+        return fromAccountId;
+    }
+    
+    public void setFromAccountId(int fromAccountId) {
+        this.fromAccountId = fromAccountId;
+    }
+    
+    public int getToAccountId() {
+        return toAccountId;
+    }
+    
+    public void setToAccountId(int toAccountId) {
+        this.toAccountId = toAccountId;
+    }
+    
+    public double getAmount() {
+        return amount;
+    }
+    
+    public void setAmount(double amount) {
+        this.amount = amount;
+    }
+    
+    public String getDescription() {
+        return description;
+    }
+    
+    public void setDescription(String description) {
+        this.description = description;
+    }
+    
+    public Frequency getFrequency() {
+        return frequency;
+    }
+    
+    public void setFrequency(Frequency frequency) {
+        this.frequency = frequency;
+    }
+    
+    public int getAnchorDay() {
+        return anchorDay;
+    }
+    
+    public void setAnchorDay(int anchorDay) {
+        this.anchorDay = anchorDay;
+    }
+    
+    public LocalDateTime getNextRunAt() {
+        return nextRunAt;
+    }
+    
+    public void setNextRunAt(LocalDateTime nextRunAt) {
+        this.nextRunAt = nextRunAt;
+    }
+    
+    public Status getStatus() {
+        return status;
+    }
+    
+    public void setStatus(Status status) {
+        this.status = status;
+    }
+    
+    public LocalDateTime getLastRunAt() {
+        return lastRunAt;
+    }
+    
+    public void setLastRunAt(LocalDateTime lastRunAt) {
+        this.lastRunAt = lastRunAt;
+    }
+    
+    public String getLastError() {
+        return lastError;
+    }
+    
+    public void setLastError(String lastError) {
+        this.lastError = lastError;
+    }
+    
+    @Override
+    public String toString() {
+        return "StandingInstruction{" +
+                "instructionId=" + instructionId +
+                ", fromAccountId=" + fromAccountId +
+                ", toAccountId=" + toAccountId +
+                ", amount=" + amount +
+                ", description='" + description + '\'' +
+                ", frequency=" + frequency +
+                ", anchorDay=" + anchorDay +
+                ", nextRunAt=" + nextRunAt +
+                ", status=" + status +
+                ", lastRunAt=" + lastRunAt +
+                ", lastError='" + lastError + '\'' +
+                '}';
+    }
+}
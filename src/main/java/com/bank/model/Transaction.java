@@ -11,6 +11,8 @@ public class Transaction {
         DEPOSIT, WITHDRAWAL, TRANSFER_OUT, TRANSFER_IN
     }
     
+    public static final String DESCRIPTION_PLACEHOLDER = "{}";
+    
     private int transactionId;
     private int accountId;
     private TransactionType transactionType;
@@ -19,6 +21,9 @@ public class Transaction {
     private String description;
     private Integer relatedAccountId;
     private LocalDateTime transactionDate;
+    private Long fxRateVersion; // set on cross-currency transfer legs
+    private String descriptionTemplate; // set when the description was generated
+    private String descriptionParameter;
     
     public Transaction() {}
     
@@ -79,6 +84,30 @@ public class Transaction {
     
     public void setDescription(String description) {
         this.description = description;
+        this.descriptionTemplate = null;
+        this.descriptionParameter = null;
+    }
+    
+    /**
+     * Set a description generated by the application from a template such as
+     * "Transfer to {}" and its parameter; only such descriptions are stored
+     * in the description dictionary
+     */
+    public void setGeneratedDescription(String template, String parameter) {
+        this.description = template.replace(DESCRIPTION_PLACEHOLDER, parameter);
+        this.descriptionTemplate = template;
+        this.descriptionParameter = parameter;
+    }
+    
+    /**
+     * Template of a generated description, or null for free text
+     */
+    public String getDescriptionTemplate() {
+        return descriptionTemplate;
+    }
+    
+    public String getDescriptionParameter() {
+        return descriptionParameter;
     }
     
     public Integer getRelatedAccountId() {
@@ -97,6 +126,14 @@ public class Transaction {
         this.transactionDate = transactionDate;
     }
     
+    public Long getFxRateVersion() {
+        return fxRateVersion;
+    }
+    
+    public void setFxRateVersion(Long fxRateVersion) {
+        this.fxRateVersion = fxRateVersion;
+    }
+    
     @Override
     public String toString() {
         return "Transaction{" +
@@ -108,6 +145,7 @@ public class Transaction {
                 ", description='" + description + '\'' +
                 ", relatedAccountId=" + relatedAccountId +
                 ", transactionDate=" + transactionDate +
+                ", fxRateVersion=" + fxRateVersion +
                 '}';
     }
 }
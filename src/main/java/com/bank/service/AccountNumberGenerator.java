@@ -0,0 +1,118 @@
+package com.bank.service;
+
+import com.bank.config.DatabaseConfig;
+import com.bank.dao.AccountNumberSequenceDAO;
+import java.sql.SQLException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Account Number Generator
+ * Reserves blocks of sequence values from the database and hands them out
+ * from memory. Numbers look like ACC00000012347: a zero-padded sequence value
+ * followed by a Luhn check digit.
+ *
+ * Blocks never overlap across processes, so generated numbers are unique
+ * without a duplicate check. Values of a block that is not fully used before
+ * shutdown are skipped, which leaves gaps but never collisions.
+ */
+public class AccountNumberGenerator {
+    private static final String SEQUENCE_NAME = "ACCOUNT";
+    private static final String PREFIX = "ACC";
+    private static final int SEQUENCE_DIGITS = 10;
+    
+    private final AccountNumberSequenceDAO sequenceDAO;
+    private final int blockSize;
+    
+    // Current block: values in [cursor, end) are free to hand out
+    private volatile Block block = new Block(0, 0);
+    
+    public AccountNumberGenerator() {
+        this(new AccountNumberSequenceDAO(), DatabaseConfig.getIntProperty("accountNumber.blockSize", 100));
+    }
+    
+    public AccountNumberGenerator(AccountNumberSequenceDAO sequenceDAO, int blockSize) {
+        if (blockSize < 1) {
+            throw new IllegalArgumentException("Block size must be at least 1");
+        }
+        this.sequenceDAO = sequenceDAO;
+        this.blockSize = blockSize;
+    }
+    
+    /**
+     * Get the next account number
+     * Only a block refill touches the database or takes a lock.
+     */
+    public String nextAccountNumber() throws SQLException {
+        while (true) {
+            Block current = block;
+            long value = current.cursor.getAndIncrement();
+            if (value < current.end) {
+                return format(value);
+            }
+            refill(current);
+        }
+    }
+    
+    private synchronized void refill(Block exhausted) throws SQLException {
+        if (block != exhausted) {
+            return; // another thread already refilled
+        }
+        long first = sequenceDAO.reserveBlock(SEQUENCE_NAME, blockSize);
+        block = new Block(first, first + blockSize);
+    }
+    
+    /**
+     * Format a sequence value as an account number with its check digit
+     */
+    static String format(long value) {
+        String digits = String.format("%0" + SEQUENCE_DIGITS + "d", value);
+        return PREFIX + digits + checkDigit(digits);
+    }
+    
+    /**
+     * Validate the check digit of a generated account number
+     */
+    public static boolean isValid(String accountNumber) {
+        if (accountNumber == null || !accountNumber.startsWith(PREFIX)
+                || accountNumber.length() != PREFIX.length() + SEQUENCE_DIGITS + 1) {
+            return false;
+        }
+        String digits = accountNumber.substring(PREFIX.length(), accountNumber.length() - 1);
+        for (int i = 0; i < digits.length(); i++) {
+            if (!Character.isDigit(digits.charAt(i))) {
+                return false;
+            }
+        }
+        return accountNumber.charAt(accountNumber.length() - 1) == checkDigit(digits);
+    }
+    
+    /**
+     * Luhn check digit of a string of decimal digits
+     */
+    static char checkDigit(String digits) {
+        int sum = 0;
+        boolean doubleIt = true;
+        for (int i = digits.length() - 1; i >= 0; i--) {
+            int d = digits.charAt(i) - '0';
+            if (doubleIt) {
+                d *= 2;
+                if (d > 9) {
+                    d -= 9;
+                }
+            }
+            sum += d;
+            doubleIt = !doubleIt;
+        }
+        return (char) ('0' + (10 - sum % 10) % 10);
+    }
+    
+    private static final class Block {
+        final AtomicLong cursor;
+        final long end;
+        
+        Block(long start, long end) {
+            this.cursor = new AtomicLong(start);
+            this.end = end;
+        }
+    }
+}
@@ -2,10 +2,16 @@ package com.bank.service;
 
 import com.bank.dao.AccountDAO;
 import com.bank.dao.CustomerDAO;
+import com.bank.dao.JdbcAccountDAO;
+import com.bank.dao.JdbcCustomerDAO;
 import com.bank.exception.AccountNotFoundException;
 import com.bank.exception.CustomerNotFoundException;
 import com.bank.model.Account;
+import com.bank.util.RetryPolicy;
+import com.bank.util.Tracer;
 import java.sql.SQLException;
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.util.Currency;
 import java.util.List;
 
 /**
@@ -14,31 +20,93 @@ import java.util.List;
  */
 public class AccountService {
     private AccountDAO accountDAO;
-    private CustomerDAO customerDAO;
+    private CustomerCache customerCache;
+    private AccountNumberGenerator accountNumberGenerator;
+    private RetryPolicy retryPolicy;
     
     public AccountService() {
-        this.accountDAO = new AccountDAO();
-        this.customerDAO = new CustomerDAO();
+        this(new JdbcAccountDAO(), new JdbcCustomerDAO(), new AccountNumberGenerator());
+    }
+    
+    public AccountService(AccountDAO accountDAO, CustomerDAO customerDAO, AccountNumberGenerator accountNumberGenerator) {
+        this(accountDAO, customerDAO, accountNumberGenerator, RetryPolicy.fromConfig());
     }
     
     /**
-     * Create a new account for a customer
+     * Customer checks go straight to the DAO: a cache of its own would not
+     * see registrations and deletions made through a CustomerService
      */
-    public int createAccount(int customerId, String accountNumber, Account.AccountType accountType) 
+    public AccountService(AccountDAO accountDAO, CustomerDAO customerDAO, AccountNumberGenerator accountNumberGenerator,
+                          RetryPolicy retryPolicy) {
+        this(accountDAO, new CustomerCache(Tracer.traced(CustomerDAO.class, customerDAO), 0, 0, 0), accountNumberGenerator,
+             retryPolicy);
+    }
+    
+    /**
+     * @param customerCache the cache of the CustomerService that registers and deletes customers
+     */
+    public AccountService(AccountDAO accountDAO, CustomerCache customerCache, AccountNumberGenerator accountNumberGenerator,
+                          RetryPolicy retryPolicy) {
+        this.accountDAO = Tracer.traced(AccountDAO.class, accountDAO);
+        this.customerCache = customerCache;
+        this.accountNumberGenerator = accountNumberGenerator;
+        this.retryPolicy = retryPolicy;
+    }
+    
+    /**
+     * Create a new account in the default currency with a generated account number
+     * @return the created account, including its ID and number
+     */
+    public Account openAccount(int customerId, Account.AccountType accountType) 
             throws SQLException, CustomerNotFoundException {
+        return openAccount(customerId, accountType, Account.DEFAULT_CURRENCY);
+    }
+    
+    /**
+     * Create a new account in the given currency with a generated account number
+     * @param currency ISO 4217 currency code, e.g. EUR
+     * @return the created account, including its ID and number
+     */
+    public Account openAccount(int customerId, Account.AccountType accountType, String currency) 
+            throws SQLException, CustomerNotFoundException {
+        String currencyCode = currencyCode(currency);
         // Verify customer exists
-        if (customerDAO.getCustomerById(customerId) == null) {
+        if (customerCache.getById(customerId) == null) {
             throw new CustomerNotFoundException("Customer with ID " + customerId + " not found");
         }
         
-        // Check if account number already exists
-        Account existingAccount = accountDAO.getAccountByNumber(accountNumber);
-        if (existingAccount != null) {
-            throw new SQLException("Account number " + accountNumber + " already exists");
+        Account account = new Account(customerId, accountNumberGenerator.nextAccountNumber(), accountType, currencyCode);
+        account.setAccountId(accountDAO.createAccount(account));
+        return account;
+    }
+    
+    /**
+     * Create a new account in the default currency for a customer
+     * Duplicate numbers are rejected by the UNIQUE constraint on insert.
+     */
+    public int createAccount(int customerId, String accountNumber, Account.AccountType accountType) 
+            throws SQLException, CustomerNotFoundException {
+        return createAccount(customerId, accountNumber, accountType, Account.DEFAULT_CURRENCY);
+    }
+    
+    /**
+     * Create a new account in the given currency for a customer
+     * Duplicate numbers are rejected by the UNIQUE constraint on insert.
+     */
+    public int createAccount(int customerId, String accountNumber, Account.AccountType accountType, String currency) 
+            throws SQLException, CustomerNotFoundException {
+        String currencyCode = currencyCode(currency);
+        // Verify customer exists
+        if (customerCache.getById(customerId) == null) {
+            throw new CustomerNotFoundException("Customer with ID " + customerId + " not found");
         }
         
-        Account account = new Account(customerId, accountNumber, accountType);
-        return accountDAO.createAccount(account);
+        Account account = new Account(customerId, accountNumber, accountType, currencyCode);
+        try {
+            return accountDAO.createAccount(account);
+        } catch (SQLIntegrityConstraintViolationException e) {
+            throw new SQLException("Account number " + accountNumber + " already exists", e);
+        }
     }
     
     /**
@@ -80,11 +148,21 @@ public class AccountService {
     
     /**
      * Update account status
+     * Re-reads the account and tries again when it changed in between.
      */
     public boolean updateAccountStatus(int accountId, Account.AccountStatus status) 
             throws SQLException, AccountNotFoundException {
-        Account account = getAccount(accountId);
-        return accountDAO.updateAccountStatus(accountId, status);
+        RetryPolicy.Attempt attempt = retryPolicy.begin();
+        while (true) {
+            Account account = getAccount(accountId);
+            try {
+                boolean updated = accountDAO.updateAccountStatus(accountId, status, account.getVersion());
+                attempt.onSuccess();
+                return updated;
+            } catch (SQLException e) {
+                attempt.onFailure(e);
+            }
+        }
     }
     
     /**
@@ -93,4 +171,13 @@ public class AccountService {
     public boolean closeAccount(int accountId) throws SQLException, AccountNotFoundException {
         return updateAccountStatus(accountId, Account.AccountStatus.CLOSED);
     }
+    
+    /**
+     * Validate an ISO 4217 currency code
+     * @return the code in upper case
+     * @throws IllegalArgumentException if it is not a known currency
+     */
+    static String currencyCode(String currency) {
+        return Currency.getInstance(currency.trim().toUpperCase()).getCurrencyCode();
+    }
 }
@@ -0,0 +1,359 @@
+package com.bank.service;
+
+import com.bank.config.DatabaseConfig;
+import com.bank.exception.OverloadedException;
+import java.util.ArrayDeque;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Admission Control
+ * Decides, before a money movement starts, whether the service takes it on.
+ * Callers ask for a Permit and close it when the operation ends:
+ *
+ *   try (AdmissionControl.Permit permit = admissionControl.admit(Channel.TELLER, "console")) {
+ *       transactionService.deposit(...);
+ *   }
+ *
+ * Each client of a channel has a token bucket refilled at
+ * admission.CHANNEL.ratePerSecond, holding up to admission.CHANNEL.burst
+ * tokens; a client out of tokens is turned away at once. A null client
+ * shares one bucket with the rest of its channel.
+ *
+ * At most admission.maxConcurrent operations run at a time. Every thread
+ * that runs one holds a database connection (see DatabaseConnection), so
+ * this caps the connections busy with business transactions. Operations
+ * beyond the cap queue per channel, and a freed slot goes to the oldest
+ * waiter of the highest priority channel: tellers before ATMs before batch
+ * work. An operation is shed rather than queued when its channel already
+ * has admission.CHANNEL.maxQueued waiting, and gives up after
+ * admission.CHANNEL.maxWaitMillis, so under overload callers get a fast
+ * OverloadedException instead of an ever longer wait.
+ */
+public class AdmissionControl {
+    private static final int MAX_IDLE_BUCKETS = 10000;
+    
+    /**
+     * Where an operation comes from, highest priority first
+     */
+    public enum Channel {
+        TELLER, ATM, BATCH
+    }
+    
+    private final int maxConcurrent;
+    private final Map<Channel, Limits> limits;
+    private final Map<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Map<Channel, ArrayDeque<Waiter>> queues = new EnumMap<>(Channel.class);
+    private int running; // guarded by lock
+    private final Map<Channel, Counters> counters = new EnumMap<>(Channel.class);
+    
+    /**
+     * @param maxConcurrent operations allowed to run at once; 0 for no cap
+     * @param limits rate, burst and queueing limits of each channel
+     */
+    public AdmissionControl(int maxConcurrent, Map<Channel, Limits> limits) {
+        if (maxConcurrent < 0) {
+            throw new IllegalArgumentException("Concurrency cap cannot be negative");
+        }
+        this.maxConcurrent = maxConcurrent;
+        this.limits = new EnumMap<>(limits);
+        for (Channel channel : Channel.values()) {
+            if (!this.limits.containsKey(channel)) {
+                this.limits.put(channel, Limits.UNLIMITED);
+            }
+            queues.put(channel, new ArrayDeque<>());
+            counters.put(channel, new Counters());
+        }
+    }
+    
+    /**
+     * Create admission control from the admission.* entries in database.properties
+     */
+    public static AdmissionControl fromConfig() {
+        Map<Channel, Limits> limits = new EnumMap<>(Channel.class);
+        for (Channel channel : Channel.values()) {
+            String prefix = "admission." + channel + ".";
+            int rate = DatabaseConfig.getIntProperty(prefix + "ratePerSecond", defaultRate(channel));
+            limits.put(channel, new Limits(rate,
+                DatabaseConfig.getIntProperty(prefix + "burst", rate),
+                DatabaseConfig.getIntProperty(prefix + "maxQueued", 100),
+                DatabaseConfig.getLongProperty(prefix + "maxWaitMillis", defaultMaxWaitMillis(channel))));
+        }
+        return new AdmissionControl(DatabaseConfig.getIntProperty("admission.maxConcurrent", 16), limits);
+    }
+    
+    private static int defaultRate(Channel channel) {
+        return channel == Channel.ATM ? 5 : 0;
+    }
+    
+    private static long defaultMaxWaitMillis(Channel channel) {
+        switch (channel) {
+            case TELLER:
+                return 5000;
+            case ATM:
+                return 1000;
+            default:
+                return 30000;
+        }
+    }
+    
+    /**
+     * Take a slot for one operation, waiting for it if the service is busy
+     * @param clientId the client within the channel, or null for the channel as a whole
+     * @return the permit, to be closed when the operation ends
+     * @throws OverloadedException if the client is over its rate, or no slot came free in time
+     */
+    public Permit admit(Channel channel, String clientId) throws OverloadedException {
+        Limits channelLimits = limits.get(channel);
+        Counters channelCounters = counters.get(channel);
+        if (channelLimits.ratePerSecond > 0 && !bucket(channel, clientId, channelLimits).tryTake()) {
+            channelCounters.rateLimited.incrementAndGet();
+            throw new OverloadedException("Too many requests from " + describe(channel, clientId)
+                + ", try again shortly");
+        }
+        if (maxConcurrent == 0) {
+            channelCounters.admitted.incrementAndGet();
+            return new Permit(false);
+        }
+        
+        lock.lock();
+        try {
+            if (running < maxConcurrent && !waitingAtOrAbove(channel)) {
+                running++;
+                channelCounters.admitted.incrementAndGet();
+                return new Permit(true);
+            }
+            
+            ArrayDeque<Waiter> queue = queues.get(channel);
+            if (queue.size() >= channelLimits.maxQueued) {
+                channelCounters.shed.incrementAndGet();
+                throw new OverloadedException("Service busy, " + channel + " request turned away");
+            }
+            Waiter waiter = new Waiter(lock.newCondition());
+            queue.addLast(waiter);
+            long remaining = TimeUnit.MILLISECONDS.toNanos(channelLimits.maxWaitMillis);
+            try {
+                while (!waiter.granted && remaining > 0) {
+                    remaining = waiter.condition.awaitNanos(remaining);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (waiter.granted) {
+                channelCounters.admitted.incrementAndGet();
+                return new Permit(true);
+            }
+            queue.remove(waiter);
+            channelCounters.shed.incrementAndGet();
+            throw new OverloadedException("Service busy, " + channel + " request timed out after "
+                + channelLimits.maxWaitMillis + " ms");
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    public int getMaxConcurrent() {
+        return maxConcurrent;
+    }
+    
+    public int getRunningCount() {
+        lock.lock();
+        try {
+            return running;
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    public int getQueuedCount(Channel channel) {
+        lock.lock();
+        try {
+            return queues.get(channel).size();
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    public long getAdmittedCount(Channel channel) {
+        return counters.get(channel).admitted.get();
+    }
+    
+    /**
+     * Operations turned away because their client was over its rate
+     */
+    public long getRateLimitedCount(Channel channel) {
+        return counters.get(channel).rateLimited.get();
+    }
+    
+    /**
+     * Operations turned away because the queue was full or the wait too long
+     */
+    public long getShedCount(Channel channel) {
+        return counters.get(channel).shed.get();
+    }
+    
+    /**
+     * Hand the slot of a finished operation to the next waiter, highest
+     * priority first, or free it
+     */
+    private void release() {
+        lock.lock();
+        try {
+            for (Channel channel : Channel.values()) {
+                Waiter waiter = queues.get(channel).pollFirst();
+                if (waiter != null) {
+                    waiter.granted = true;
+                    waiter.condition.signal();
+                    return;
+                }
+            }
+            running--;
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * Whether an operation of this channel would jump the queue; lower
+     * priority waiters do not hold it back
+     */
+    private boolean waitingAtOrAbove(Channel channel) {
+        for (Channel other : Channel.values()) {
+            if (!queues.get(other).isEmpty()) {
+                return true;
+            }
+            if (other == channel) {
+                break;
+            }
+        }
+        return false;
+    }
+    
+    private TokenBucket bucket(Channel channel, String clientId, Limits channelLimits) {
+        String key = clientId == null ? channel.name() : channel + ":" + clientId;
+        TokenBucket bucket = buckets.get(key);
+        if (bucket == null) {
+            if (buckets.size() >= MAX_IDLE_BUCKETS) {
+                buckets.values().removeIf(TokenBucket::isFull); // clients idle long enough to have refilled
+            }
+            bucket = buckets.computeIfAbsent(key, k -> new TokenBucket(channelLimits.ratePerSecond, channelLimits.burst));
+        }
+        return bucket;
+    }
+    
+    private static String describe(Channel channel, String clientId) {
+        return clientId == null ? channel.name() : channel + " client " + clientId;
+    }
+    
+    /**
+     * Rate, burst and queueing limits of one channel
+     */
+    public static final class Limits {
+        static final Limits UNLIMITED = new Limits(0, 0, Integer.MAX_VALUE, Long.MAX_VALUE / 2);
+        
+        final int ratePerSecond;
+        final int burst;
+        final int maxQueued;
+        final long maxWaitMillis;
+        
+        /**
+         * @param ratePerSecond tokens added per second to each client's bucket; 0 for no rate limit
+         * @param burst most tokens a bucket holds, i.e. operations a rested client may start at once
+         * @param maxQueued most operations waiting for a slot at a time
+         * @param maxWaitMillis longest wait for a slot
+         */
+        public Limits(int ratePerSecond, int burst, int maxQueued, long maxWaitMillis) {
+            if (ratePerSecond < 0 || maxQueued < 0 || maxWaitMillis < 0) {
+                throw new IllegalArgumentException("Admission limits cannot be negative");
+            }
+            if (ratePerSecond > 0 && burst < 1) {
+                throw new IllegalArgumentException("Burst must be at least 1 when a rate is set");
+            }
+            this.ratePerSecond = ratePerSecond;
+            this.burst = burst;
+            this.maxQueued = maxQueued;
+            this.maxWaitMillis = maxWaitMillis;
+        }
+    }
+    
+    /**
+     * One running operation's slot; closing it more than once is harmless
+     */
+    public final class Permit implements AutoCloseable {
+        private final boolean holdsSlot;
+        private boolean closed;
+        
+        private Permit(boolean holdsSlot) {
+            this.holdsSlot = holdsSlot;
+        }
+        
+        @Override
+        public void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            if (holdsSlot) {
+                release();
+            }
+        }
+    }
+    
+    private static final class Waiter {
+        final Condition condition;
+        boolean granted; // guarded by lock
+        
+        Waiter(Condition condition) {
+            this.condition = condition;
+        }
+    }
+    
+    private static final class Counters {
+        final AtomicLong admitted = new AtomicLong();
+        final AtomicLong rateLimited = new AtomicLong();
+        final AtomicLong shed = new AtomicLong();
+    }
+    
+    /**
+     * Tokens of one client, refilled continuously from the time elapsed
+     */
+    private static final class TokenBucket {
+        private final double perNano;
+        private final double capacity;
+        private double tokens;
+        private long refilledAt;
+        
+        TokenBucket(int ratePerSecond, int burst) {
+            this.perNano = ratePerSecond / 1e9;
+            this.capacity = burst;
+            this.tokens = burst;
+            this.refilledAt = System.nanoTime();
+        }
+        
+        synchronized boolean tryTake() {
+            refill();
+            if (tokens < 1) {
+                return false;
+            }
+            tokens--;
+            return true;
+        }
+        
+        synchronized boolean isFull() {
+            refill();
+            return tokens >= capacity;
+        }
+        
+        private void refill() {
+            long now = System.nanoTime();
+            tokens = Math.min(capacity, tokens + (now - refilledAt) * perNano);
+            refilledAt = now;
+        }
+    }
+}
@@ -0,0 +1,246 @@
+package com.bank.service;
+
+import com.bank.config.DatabaseConfig;
+import com.bank.dao.CustomerDAO;
+import com.bank.model.Customer;
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Customers kept in memory by ID and by email
+ * A lookup that finds nothing is remembered too, for a shorter time, so
+ * repeated lookups of unknown IDs or emails need no query either. Each index
+ * holds at most customerCache.maxEntries entries; past that, entries not read
+ * since the last sweep are evicted first (the CLOCK algorithm).
+ *
+ * CustomerService reports every customer it creates, updates or deletes, and
+ * the affected entries are dropped. A lookup is only cached if no such change
+ * happened while it was loading, so a load racing an update never brings the
+ * old row back. Changes made by other processes are picked up when entries
+ * expire after customerCache.ttlSeconds (customerCache.negativeTtlSeconds for
+ * lookups that found nothing).
+ *
+ * Emails are compared lower-cased, like the case-insensitive column.
+ * Customers are copied in and out, so callers may change what they get.
+ */
+public class CustomerCache {
+    private final CustomerDAO customerDAO;
+    private final int maxEntries;
+    private final long ttlNanos;
+    private final long negativeTtlNanos;
+    private final Map<Integer, Entry> byId = new ConcurrentHashMap<>();
+    private final Map<String, Entry> byEmail = new ConcurrentHashMap<>();
+    private final AtomicLong changes = new AtomicLong();
+    private final ReentrantLock evictionLock = new ReentrantLock();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong negativeHits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    
+    /**
+     * @param maxEntries entries kept per index; 0 turns the cache off
+     */
+    public CustomerCache(CustomerDAO customerDAO, int maxEntries, int ttlSeconds, int negativeTtlSeconds) {
+        if (maxEntries < 0 || ttlSeconds < 0 || negativeTtlSeconds < 0) {
+            throw new IllegalArgumentException("Customer cache size and lifetimes cannot be negative");
+        }
+        this.customerDAO = customerDAO;
+        this.maxEntries = maxEntries;
+        this.ttlNanos = ttlSeconds * 1_000_000_000L;
+        this.negativeTtlNanos = negativeTtlSeconds * 1_000_000_000L;
+    }
+    
+    /**
+     * Create the cache from the customerCache.* entries in database.properties
+     */
+    public static CustomerCache fromConfig(CustomerDAO customerDAO) {
+        return new CustomerCache(customerDAO,
+            DatabaseConfig.getIntProperty("customerCache.maxEntries", 10000),
+            DatabaseConfig.getIntProperty("customerCache.ttlSeconds", 300),
+            DatabaseConfig.getIntProperty("customerCache.negativeTtlSeconds", 30));
+    }
+    
+    /**
+     * Get customer by ID
+     * @return a copy of the customer, or null if it does not exist
+     */
+    public Customer getById(int customerId) throws SQLException {
+        Entry entry = lookup(byId, customerId);
+        if (entry != null) {
+            return copy(entry.customer);
+        }
+        
+        long stamp = changes.get();
+        Customer customer = customerDAO.getCustomerById(customerId);
+        install(customer != null ? customer.getCustomerId() : customerId, customer, stamp);
+        return copy(customer);
+    }
+    
+    /**
+     * Get customer by email
+     * @return a copy of the customer, or null if no customer has this email
+     */
+    public Customer getByEmail(String email) throws SQLException {
+        if (email == null) {
+            return null;
+        }
+        Entry entry = lookup(byEmail, key(email));
+        if (entry != null) {
+            return copy(entry.customer);
+        }
+        
+        long stamp = changes.get();
+        Customer customer = customerDAO.getCustomerByEmail(email);
+        if (customer == null) {
+            put(byEmail, key(email), new Entry(null, negativeTtlNanos), stamp);
+        } else {
+            install(customer.getCustomerId(), customer, stamp);
+        }
+        return copy(customer);
+    }
+    
+    /**
+     * Drop everything cached about a customer that was created, updated or
+     * deleted, after the change was committed
+     * @param emails the customer's emails before and after the change
+     */
+    public void changed(int customerId, String... emails) {
+        changes.incrementAndGet();
+        Entry entry = byId.remove(customerId);
+        if (entry != null && entry.customer != null && entry.customer.getEmail() != null) {
+            byEmail.remove(key(entry.customer.getEmail()));
+        }
+        for (String email : emails) {
+            if (email != null) {
+                byEmail.remove(key(email));
+            }
+        }
+    }
+    
+    public int getCachedCount() {
+        return byId.size() + byEmail.size();
+    }
+    
+    public long getHitCount() {
+        return hits.get();
+    }
+    
+    /**
+     * Hits on lookups remembered as finding nothing; included in getHitCount
+     */
+    public long getNegativeHitCount() {
+        return negativeHits.get();
+    }
+    
+    public long getMissCount() {
+        return misses.get();
+    }
+    
+    public double getHitRate() {
+        long found = hits.get();
+        long total = found + misses.get();
+        return total == 0 ? 0.0 : (double) found / total;
+    }
+    
+    private <K> Entry lookup(Map<K, Entry> index, K key) {
+        Entry entry = index.get(key);
+        if (entry != null && System.nanoTime() - entry.expiresAt < 0) {
+            entry.referenced = true;
+            hits.incrementAndGet();
+            if (entry.customer == null) {
+                negativeHits.incrementAndGet();
+            }
+            return entry;
+        }
+        if (entry != null) {
+            index.remove(key, entry);
+        }
+        misses.incrementAndGet();
+        return null;
+    }
+    
+    /**
+     * Cache a loaded customer under its ID and email, or an ID that was not found
+     */
+    private void install(int customerId, Customer customer, long stamp) {
+        Entry entry = new Entry(copy(customer), customer != null ? ttlNanos : negativeTtlNanos);
+        put(byId, customerId, entry, stamp);
+        if (customer != null && customer.getEmail() != null) {
+            put(byEmail, key(customer.getEmail()), entry, stamp);
+        }
+    }
+    
+    private <K> void put(Map<K, Entry> index, K key, Entry entry, long stamp) {
+        if (maxEntries == 0 || changes.get() != stamp) {
+            return;
+        }
+        index.put(key, entry);
+        if (changes.get() != stamp) {
+            index.remove(key, entry); // a change committed meanwhile may have missed it
+        } else if (index.size() > maxEntries) {
+            evict(index);
+        }
+    }
+    
+    /**
+     * Sweep the index until it fits again, giving entries read since the last
+     * sweep a second chance
+     * Only one thread sweeps at a time; the others carry on.
+     */
+    private <K> void evict(Map<K, Entry> index) {
+        while (index.size() > maxEntries && evictionLock.tryLock()) {
+            try {
+                int visited = 0;
+                Iterator<Entry> hand = index.values().iterator();
+                while (index.size() > maxEntries) {
+                    if (!hand.hasNext()) {
+                        hand = index.values().iterator();
+                        if (!hand.hasNext()) {
+                            return;
+                        }
+                    }
+                    Entry entry = hand.next();
+                    if (entry.referenced && visited++ < 2 * index.size()) {
+                        entry.referenced = false;
+                    } else {
+                        hand.remove();
+                    }
+                }
+            } finally {
+                evictionLock.unlock();
+            }
+        }
+    }
+    
+    private static String key(String email) {
+        return email.toLowerCase(Locale.ROOT);
+    }
+    
+    private static Customer copy(Customer customer) {
+        if (customer == null) {
+            return null;
+        }
+        Customer copy = new Customer(customer.getFirstName(), customer.getLastName(), customer.getEmail(),
+            customer.getPhone(), customer.getAddress(), customer.getDateOfBirth());
+        copy.setCustomerId(customer.getCustomerId());
+        return copy;
+    }
+    
+    /**
+     * One cached lookup; customer is null for a lookup that found nothing
+     */
+    private static final class Entry {
+        final Customer customer;
+        final long expiresAt;
+        volatile boolean referenced = true;
+        
+        Entry(Customer customer, long ttlNanos) {
+            this.customer = customer;
+            this.expiresAt = System.nanoTime() + ttlNanos;
+        }
+    }
+}
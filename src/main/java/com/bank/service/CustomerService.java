@@ -1,9 +1,16 @@
 package com.bank.service;
 
 import com.bank.dao.CustomerDAO;
+import com.bank.dao.CustomerOverviewDAO;
+import com.bank.dao.JdbcCustomerDAO;
+import com.bank.dao.JdbcCustomerOverviewDAO;
 import com.bank.exception.CustomerNotFoundException;
 import com.bank.model.Customer;
+import com.bank.model.CustomerOverview;
+import com.bank.model.CustomerSummary;
+import com.bank.util.Tracer;
 import java.sql.SQLException;
+import java.sql.SQLIntegrityConstraintViolationException;
 import java.util.List;
 
 /**
@@ -12,40 +19,98 @@ import java.util.List;
  */
 public class CustomerService {
     private CustomerDAO customerDAO;
+    private CustomerOverviewDAO customerOverviewDAO;
+    private EmailBloomFilter emailFilter;
+    private CustomerCache customerCache;
     
     public CustomerService() {
-        this.customerDAO = new CustomerDAO();
+        this(new JdbcCustomerDAO(), new JdbcCustomerOverviewDAO());
+    }
+    
+    public CustomerService(CustomerDAO customerDAO, CustomerOverviewDAO customerOverviewDAO) {
+        this.customerDAO = Tracer.traced(CustomerDAO.class, customerDAO);
+        this.customerOverviewDAO = Tracer.traced(CustomerOverviewDAO.class, customerOverviewDAO);
+        this.emailFilter = EmailBloomFilter.fromConfig(this.customerDAO);
+        this.customerCache = CustomerCache.fromConfig(this.customerDAO);
+    }
+    
+    /**
+     * The cache this service keeps current; share it with AccountService so
+     * its existence checks see registrations and deletions at once
+     */
+    public CustomerCache getCustomerCache() {
+        return customerCache;
+    }
+    
+    /**
+     * Load the email filter, so registrations of new emails skip the lookup
+     */
+    public void warmUp() throws SQLException {
+        emailFilter.load();
+    }
+    
+    /**
+     * Save the email filter for a fast start next time
+     */
+    public void shutdown() {
+        emailFilter.save();
     }
     
     /**
      * Register a new customer
      */
     public int registerCustomer(Customer customer) throws SQLException {
-        // Validate email uniqueness
-        Customer existingCustomer = customerDAO.getCustomerByEmail(customer.getEmail());
-        if (existingCustomer != null) {
-            throw new SQLException("Customer with email " + customer.getEmail() + " already exists");
+        // Validate email uniqueness; the filter rules most new emails out without a query
+        String email = customer.getEmail();
+        if (emailFilter.mightContain(email) && customerDAO.getCustomerByEmail(email) != null) {
+            throw duplicateEmail(email, null);
         }
         
-        return customerDAO.createCustomer(customer);
+        int customerId;
+        try {
+            customerId = customerDAO.createCustomer(customer);
+        } catch (SQLIntegrityConstraintViolationException e) {
+            throw duplicateEmail(email, e); // registered since the check, or missed by the filter
+        }
+        emailFilter.add(email, customerId);
+        customerCache.changed(customerId, email);
+        return customerId;
     }
     
     /**
      * Get customer by ID
      */
     public Customer getCustomer(int customerId) throws SQLException, CustomerNotFoundException {
-        Customer customer = customerDAO.getCustomerById(customerId);
+        Customer customer = customerCache.getById(customerId);
         if (customer == null) {
             throw new CustomerNotFoundException("Customer with ID " + customerId + " not found");
         }
         return customer;
     }
     
+    /**
+     * Get a customer with all accounts and the last transactions of each account
+     * Loaded in a single query regardless of the number of accounts
+     */
+    public CustomerOverview getCustomerOverview(int customerId, int transactionsPerAccount) 
+            throws SQLException, CustomerNotFoundException {
+        if (transactionsPerAccount < 0) {
+            throw new IllegalArgumentException("Transactions per account cannot be negative");
+        }
+        
+        CustomerOverview overview = customerOverviewDAO.getCustomerOverview(customerId, transactionsPerAccount);
+        if (overview == null) {
+            throw new CustomerNotFoundException("Customer with ID " + customerId + " not found");
+        }
+        return overview;
+    }
+    
     /**
      * Get customer by email
      */
     public Customer getCustomerByEmail(String email) throws SQLException, CustomerNotFoundException {
-        Customer customer = customerDAO.getCustomerByEmail(email);
+        // Not gated by the email filter: it only knows emails seen by this process
+        Customer customer = customerCache.getByEmail(email);
         if (customer == null) {
             throw new CustomerNotFoundException("Customer with email " + email + " not found");
         }
@@ -59,28 +124,52 @@ public class CustomerService {
         return customerDAO.getAllCustomers();
     }
     
+    /**
+     * Get lightweight summaries of all customers for list screens
+     */
+    public List<CustomerSummary> getCustomerSummaries() throws SQLException {
+        return customerDAO.getCustomerSummaries();
+    }
+    
     /**
      * Update customer information
      */
     public boolean updateCustomer(Customer customer) throws SQLException, CustomerNotFoundException {
         // Verify customer exists
-        Customer existingCustomer = customerDAO.getCustomerById(customer.getCustomerId());
+        Customer existingCustomer = customerCache.getById(customer.getCustomerId());
         if (existingCustomer == null) {
             throw new CustomerNotFoundException("Customer with ID " + customer.getCustomerId() + " not found");
         }
         
-        return customerDAO.updateCustomer(customer);
+        boolean updated;
+        try {
+            updated = customerDAO.updateCustomer(customer);
+        } finally {
+            customerCache.changed(customer.getCustomerId(), existingCustomer.getEmail(), customer.getEmail());
+        }
+        if (updated) {
+            emailFilter.add(customer.getEmail(), customer.getCustomerId());
+        }
+        return updated;
     }
     
     /**
      * Delete customer
      */
     public boolean deleteCustomer(int customerId) throws SQLException, CustomerNotFoundException {
-        Customer existingCustomer = customerDAO.getCustomerById(customerId);
+        Customer existingCustomer = customerCache.getById(customerId);
         if (existingCustomer == null) {
             throw new CustomerNotFoundException("Customer with ID " + customerId + " not found");
         }
         
-        return customerDAO.deleteCustomer(customerId);
+        try {
+            return customerDAO.deleteCustomer(customerId);
+        } finally {
+            customerCache.changed(customerId, existingCustomer.getEmail());
+        }
+    }
+    
+    private static SQLException duplicateEmail(String email, SQLException cause) {
+        return new SQLException("Customer with email " + email + " already exists", cause);
     }
 }
@@ -0,0 +1,328 @@
+package com.bank.service;
+
+import com.bank.config.DatabaseConfig;
+import com.bank.dao.DailyLimitDAO;
+import com.bank.exception.LimitExceededException;
+import com.bank.model.Account;
+import com.bank.model.DailyLimitUsage;
+import com.bank.model.Transaction;
+import com.bank.util.DatabaseConnection;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Daily Withdrawal and Transfer Limits
+ * Caps what an account may withdraw and transfer out, payouts included, per
+ * calendar day, depending on its AccountType. Caps are read from
+ * limits.&lt;ACCOUNT_TYPE&gt;.dailyWithdrawal and limits.&lt;ACCOUNT_TYPE&gt;.dailyTransfer;
+ * a blank or missing value means no cap.
+ *
+ * Today's totals are counted in memory, so a check is a map lookup with no
+ * database round trip. daily_limit_usage holds the totals shared by every
+ * process that moves money: every limits.flushSeconds each process adds what
+ * it counted since the last flush to the stored totals and reads them back,
+ * so it sees the others' movements within that delay. At startup each
+ * account starts from the larger of its stored totals and today's
+ * withdrawals and outgoing transfers in the ledger, so movements a process
+ * counted but never flushed before it stopped still count. Counters roll
+ * over on the first movement after midnight.
+ */
+public class DailyLimits {
+    private static final long NO_CAP = Long.MAX_VALUE;
+    
+    public enum Kind { WITHDRAWAL, TRANSFER }
+    
+    private final DailyLimitDAO dailyLimitDAO;
+    private final Map<Account.AccountType, long[]> caps;
+    private final int flushSeconds;
+    private final Map<Integer, Usage> usage = new ConcurrentHashMap<>();
+    private ScheduledExecutorService flusher;
+    private long prunedBefore;
+    
+    /**
+     * @param caps cap in cents per account type, indexed by Kind.ordinal(); NO_CAP for none
+     */
+    DailyLimits(DailyLimitDAO dailyLimitDAO, Map<Account.AccountType, long[]> caps, int flushSeconds) {
+        this.dailyLimitDAO = dailyLimitDAO;
+        this.caps = caps;
+        this.flushSeconds = flushSeconds;
+    }
+    
+    /**
+     * Create the limits from the limits.* entries in database.properties
+     */
+    public static DailyLimits fromConfig() {
+        Map<Account.AccountType, long[]> caps = new EnumMap<>(Account.AccountType.class);
+        for (Account.AccountType type : Account.AccountType.values()) {
+            caps.put(type, new long[] {
+                readCap("limits." + type + ".dailyWithdrawal"),
+                readCap("limits." + type + ".dailyTransfer")
+            });
+        }
+        return new DailyLimits(new DailyLimitDAO(), caps, DatabaseConfig.getIntProperty("limits.flushSeconds", 10));
+    }
+    
+    private static long readCap(String key) {
+        String value = DatabaseConfig.getProperty(key, null);
+        if (value == null || value.trim().isEmpty()) {
+            return NO_CAP;
+        }
+        try {
+            return toCents(Double.parseDouble(value.trim()));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid value for " + key + ": " + value, e);
+        }
+    }
+    
+    public boolean isEnabled() {
+        for (long[] typeCaps : caps.values()) {
+            for (long cap : typeCaps) {
+                if (cap != NO_CAP) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+    
+    /**
+     * Load today's totals and delete earlier days
+     * The stored totals are first raised to what the ledger shows, which
+     * also gives the other processes the movements that were never flushed.
+     * Call once at startup, before any money moves.
+     * @param outflows withdrawals and outgoing transfers from the ledger since midnight
+     */
+    public void load(Collection<Transaction> outflows) throws SQLException {
+        LocalDate today = LocalDate.now();
+        Map<Integer, long[]> ledger = new HashMap<>();
+        for (Transaction outflow : outflows) {
+            if (!outflow.getTransactionDate().toLocalDate().equals(today)) {
+                continue;
+            }
+            Kind kind = outflow.getTransactionType() == Transaction.TransactionType.WITHDRAWAL
+                ? Kind.WITHDRAWAL : Kind.TRANSFER;
+            ledger.computeIfAbsent(outflow.getAccountId(), id -> new long[Kind.values().length])[kind.ordinal()] +=
+                toCents(outflow.getAmount());
+        }
+        if (!ledger.isEmpty()) {
+            List<DailyLimitUsage> totals = new ArrayList<>(ledger.size());
+            for (Map.Entry<Integer, long[]> entry : ledger.entrySet()) {
+                totals.add(new DailyLimitUsage(entry.getKey(), today,
+                    entry.getValue()[Kind.WITHDRAWAL.ordinal()] / 100.0,
+                    entry.getValue()[Kind.TRANSFER.ordinal()] / 100.0));
+            }
+            dailyLimitDAO.raiseUsage(totals);
+        }
+        
+        usage.clear();
+        refresh(today);
+        dailyLimitDAO.deleteUsageBefore(today);
+        prunedBefore = today.toEpochDay();
+    }
+    
+    /**
+     * Start writing changed totals to daily_limit_usage in the background
+     */
+    public synchronized void startFlushing() {
+        if (flusher != null || !isEnabled()) {
+            return;
+        }
+        flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "daily-limits-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(() -> {
+            try {
+                flush();
+            } catch (SQLException e) {
+                System.err.println("Daily limit flush failed: " + e.getMessage());
+                DatabaseConnection.closeConnection(); // reconnect on the next flush
+            }
+        }, flushSeconds, flushSeconds, TimeUnit.SECONDS);
+    }
+    
+    /**
+     * Check a movement against the account's daily cap and count it if it fits
+     * Release the reservation if the movement does not commit.
+     * @throws LimitExceededException if the movement would exceed today's cap
+     */
+    public Reservation reserve(Account account, Kind kind, double amount) throws LimitExceededException {
+        long cap = caps.get(account.getAccountType())[kind.ordinal()];
+        if (cap == NO_CAP) {
+            return Reservation.NONE;
+        }
+        
+        long day = LocalDate.now().toEpochDay();
+        long cents = toCents(amount);
+        while (true) {
+            Usage counter = usage.computeIfAbsent(account.getAccountId(), id -> new Usage(day));
+            synchronized (counter) {
+                if (counter.retired) {
+                    continue; // flushed away concurrently; take the fresh one
+                }
+                counter.rollTo(day);
+                long used = counter.totals[kind.ordinal()];
+                if (used + cents > cap) {
+                    throw new LimitExceededException("Daily " + kind.name().toLowerCase() + " limit of " +
+                        (cap / 100.0) + " for " + account.getAccountType() + " accounts exceeded. Used today: " +
+                        (used / 100.0) + ", Requested: " + amount);
+                }
+                counter.totals[kind.ordinal()] += cents;
+                counter.unflushed[kind.ordinal()] += cents;
+                return new Reservation(counter, day, kind, cents);
+            }
+        }
+    }
+    
+    /**
+     * Add what was counted since the last flush to daily_limit_usage, read
+     * back the totals of every process and forget accounts idle since before today
+     */
+    public void flush() throws SQLException {
+        LocalDate today = LocalDate.now();
+        long day = today.toEpochDay();
+        List<DailyLimitUsage> changed = new ArrayList<>();
+        List<Usage> flushed = new ArrayList<>();
+        
+        for (Map.Entry<Integer, Usage> entry : usage.entrySet()) {
+            Usage counter = entry.getValue();
+            synchronized (counter) {
+                if (counter.hasUnflushed()) {
+                    changed.add(new DailyLimitUsage(entry.getKey(), LocalDate.ofEpochDay(counter.day),
+                        counter.unflushed[Kind.WITHDRAWAL.ordinal()] / 100.0,
+                        counter.unflushed[Kind.TRANSFER.ordinal()] / 100.0));
+                    counter.unflushed[Kind.WITHDRAWAL.ordinal()] = 0;
+                    counter.unflushed[Kind.TRANSFER.ordinal()] = 0;
+                    flushed.add(counter);
+                } else if (counter.day < day) {
+                    counter.retired = true;
+                    usage.remove(entry.getKey(), counter);
+                }
+            }
+        }
+        
+        if (!changed.isEmpty()) {
+            try {
+                dailyLimitDAO.addUsage(changed);
+            } catch (SQLException e) {
+                for (int i = 0; i < flushed.size(); i++) {
+                    Usage counter = flushed.get(i);
+                    DailyLimitUsage entry = changed.get(i);
+                    synchronized (counter) {
+                        if (counter.day == entry.getUsageDate().toEpochDay()) { // retry on the next flush
+                            counter.unflushed[Kind.WITHDRAWAL.ordinal()] += toCents(entry.getWithdrawn());
+                            counter.unflushed[Kind.TRANSFER.ordinal()] += toCents(entry.getTransferred());
+                        }
+                    }
+                }
+                throw e;
+            }
+        }
+        refresh(today);
+        if (prunedBefore < day) {
+            dailyLimitDAO.deleteUsageBefore(today);
+            prunedBefore = day;
+        }
+    }
+    
+    /**
+     * Take the stored totals of the given day, which include every flushed
+     * movement of every process, plus what this process has not flushed yet
+     */
+    private void refresh(LocalDate today) throws SQLException {
+        long day = today.toEpochDay();
+        for (DailyLimitUsage entry : dailyLimitDAO.getUsage(today)) {
+            while (true) {
+                Usage counter = usage.computeIfAbsent(entry.getAccountId(), id -> new Usage(day));
+                synchronized (counter) {
+                    if (counter.retired) {
+                        continue;
+                    }
+                    counter.rollTo(day);
+                    counter.totals[Kind.WITHDRAWAL.ordinal()] =
+                        toCents(entry.getWithdrawn()) + counter.unflushed[Kind.WITHDRAWAL.ordinal()];
+                    counter.totals[Kind.TRANSFER.ordinal()] =
+                        toCents(entry.getTransferred()) + counter.unflushed[Kind.TRANSFER.ordinal()];
+                    break;
+                }
+            }
+        }
+    }
+    
+    private static long toCents(double amount) {
+        return Math.round(amount * 100);
+    }
+    
+    /**
+     * A movement counted against a daily cap, to be released if it does not commit
+     */
+    public static class Reservation {
+        static final Reservation NONE = new Reservation(null, 0, Kind.WITHDRAWAL, 0);
+        
+        private final Usage counter;
+        private final long day;
+        private final Kind kind;
+        private final long cents;
+        
+        Reservation(Usage counter, long day, Kind kind, long cents) {
+            this.counter = counter;
+            this.day = day;
+            this.kind = kind;
+            this.cents = cents;
+        }
+        
+        /**
+         * Uncount the movement; it never happened
+         */
+        public void release() {
+            if (counter == null) {
+                return;
+            }
+            synchronized (counter) {
+                if (counter.day == day) {
+                    counter.totals[kind.ordinal()] -= cents;
+                    counter.unflushed[kind.ordinal()] -= cents;
+                }
+            }
+        }
+    }
+    
+    /**
+     * One account's totals for one day; guarded by its own monitor
+     */
+    private static final class Usage {
+        private final long[] totals = new long[Kind.values().length];
+        private final long[] unflushed = new long[Kind.values().length]; // counted here, not yet in the table
+        private long day;
+        private boolean retired;
+        
+        Usage(long day) {
+            this.day = day;
+        }
+        
+        boolean hasUnflushed() {
+            return unflushed[Kind.WITHDRAWAL.ordinal()] != 0 || unflushed[Kind.TRANSFER.ordinal()] != 0;
+        }
+        
+        void rollTo(long today) {
+            if (day != today) {
+                day = today;
+                totals[Kind.WITHDRAWAL.ordinal()] = 0;
+                totals[Kind.TRANSFER.ordinal()] = 0;
+                unflushed[Kind.WITHDRAWAL.ordinal()] = 0;
+                unflushed[Kind.TRANSFER.ordinal()] = 0;
+            }
+        }
+    }
+}
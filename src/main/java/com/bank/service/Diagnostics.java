@@ -0,0 +1,202 @@
+package com.bank.service;
+
+import com.bank.model.OutboxEvent;
+import com.bank.util.DatabaseConnection;
+import com.bank.util.RetryPolicy;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryUsage;
+import java.lang.management.ThreadInfo;
+import java.lang.management.ThreadMXBean;
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Operational Diagnostics
+ * A point-in-time view of the process: database connections, in-flight and
+ * recent TransactionService calls, retries, caches, admission control,
+ * thread states, GC and heap.
+ * Everything is read from counters that are kept anyway and from the JVM's
+ * management beans, without stack traces, so it is cheap enough to poll
+ * every second.
+ *
+ * The database figures are for this process's thread-per-connection model
+ * (see DatabaseConnection): there is no pool, so the wait queue is the
+ * threads currently establishing a connection.
+ */
+public class Diagnostics {
+    private final TransactionService transactionService;
+    private final CustomerService customerService; // null to leave out the customer cache
+    
+    public Diagnostics(TransactionService transactionService) {
+        this(transactionService, null);
+    }
+    
+    public Diagnostics(TransactionService transactionService, CustomerService customerService) {
+        this.transactionService = transactionService;
+        this.customerService = customerService;
+    }
+    
+    /**
+     * Collect the current state as nested sections of named values
+     */
+    public Map<String, Object> collect() {
+        Map<String, Object> state = new LinkedHashMap<>();
+        state.put("time", LocalDateTime.now().toString());
+        state.put("uptimeMillis", ManagementFactory.getRuntimeMXBean().getUptime());
+        
+        Map<String, Object> database = new LinkedHashMap<>();
+        database.put("openConnections", DatabaseConnection.getOpenConnectionCount());
+        database.put("waitingForConnection", DatabaseConnection.getConnectingCount());
+        database.put("openTransactions", DatabaseConnection.getOpenTransactionCount());
+        state.put("database", database);
+        
+        Map<String, Object> operations = new LinkedHashMap<>();
+        for (OperationStats stats : transactionService.getOperationStats()) {
+            Map<String, Object> operation = new LinkedHashMap<>();
+            long recentCalls = stats.getRecentCalls();
+            long recentFailures = stats.getRecentFailures();
+            operation.put("inFlight", stats.getInFlight());
+            operation.put("completed", stats.getCompletedCount());
+            operation.put("failed", stats.getFailedCount());
+            operation.put("callsLastMinute", recentCalls);
+            operation.put("failuresLastMinute", recentFailures);
+            operation.put("failureRateLastMinute", recentCalls == 0 ? 0.0 : (double) recentFailures / recentCalls);
+            operations.put(stats.getName(), operation);
+        }
+        state.put("operations", operations);
+        
+        RetryPolicy retryPolicy = transactionService.getRetryPolicy();
+        Map<String, Object> retries = new LinkedHashMap<>();
+        retries.put("retries", retryPolicy.getRetryCount());
+        retries.put("recovered", retryPolicy.getRecoveredCount());
+        retries.put("aborted", retryPolicy.getAbortCount());
+        retries.put("versionConflicts", RetryPolicy.getVersionConflictCount());
+        retries.put("versionConflictsPerSecond", RetryPolicy.getVersionConflictsPerSecond());
+        state.put("retries", retries);
+        
+        MiniStatementCache miniStatements = transactionService.getMiniStatements();
+        Map<String, Object> cache = new LinkedHashMap<>();
+        cache.put("accounts", miniStatements.getCachedAccountCount());
+        cache.put("hits", miniStatements.getHitCount());
+        cache.put("misses", miniStatements.getMissCount());
+        state.put("miniStatements", cache);
+        
+        AdmissionControl admissionControl = transactionService.getAdmissionControl();
+        Map<String, Object> admission = new LinkedHashMap<>();
+        admission.put("running", admissionControl.getRunningCount());
+        admission.put("maxConcurrent", admissionControl.getMaxConcurrent());
+        for (AdmissionControl.Channel channel : AdmissionControl.Channel.values()) {
+            Map<String, Object> channelState = new LinkedHashMap<>();
+            channelState.put("queued", admissionControl.getQueuedCount(channel));
+            channelState.put("admitted", admissionControl.getAdmittedCount(channel));
+            channelState.put("rateLimited", admissionControl.getRateLimitedCount(channel));
+            channelState.put("shed", admissionControl.getShedCount(channel));
+            admission.put(channel.name(), channelState);
+        }
+        state.put("admission", admission);
+        
+        if (customerService != null) {
+            CustomerCache customerCache = customerService.getCustomerCache();
+            Map<String, Object> customers = new LinkedHashMap<>();
+            customers.put("entries", customerCache.getCachedCount());
+            customers.put("hits", customerCache.getHitCount());
+            customers.put("negativeHits", customerCache.getNegativeHitCount());
+            customers.put("misses", customerCache.getMissCount());
+            customers.put("hitRate", customerCache.getHitRate());
+            state.put("customerCache", customers);
+        }
+        
+        ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+        Map<Thread.State, Integer> byState = new EnumMap<>(Thread.State.class);
+        for (ThreadInfo info : threadBean.getThreadInfo(threadBean.getAllThreadIds())) {
+            if (info != null) {
+                byState.merge(info.getThreadState(), 1, Integer::sum);
+            }
+        }
+        Map<String, Object> threads = new LinkedHashMap<>();
+        threads.put("live", threadBean.getThreadCount());
+        threads.put("daemon", threadBean.getDaemonThreadCount());
+        threads.put("peak", threadBean.getPeakThreadCount());
+        for (Thread.State threadState : Thread.State.values()) {
+            threads.put(threadState.name(), byState.getOrDefault(threadState, 0));
+        }
+        state.put("threads", threads);
+        
+        Map<String, Object> gc = new LinkedHashMap<>();
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            Map<String, Object> totals = new LinkedHashMap<>();
+            totals.put("collections", collector.getCollectionCount());
+            totals.put("timeMillis", collector.getCollectionTime());
+            gc.put(collector.getName(), totals);
+        }
+        state.put("gc", gc);
+        
+        MemoryUsage heapUsage = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage();
+        Map<String, Object> heap = new LinkedHashMap<>();
+        heap.put("usedBytes", heapUsage.getUsed());
+        heap.put("committedBytes", heapUsage.getCommitted());
+        heap.put("maxBytes", heapUsage.getMax());
+        state.put("heap", heap);
+        return state;
+    }
+    
+    /**
+     * Current state as indented text, for the console
+     */
+    public String toText() {
+        StringBuilder text = new StringBuilder();
+        appendText(text, collect(), 0);
+        return text.toString();
+    }
+    
+    /**
+     * Current state as a JSON object, for the HTTP endpoint
+     */
+    public String toJson() {
+        StringBuilder json = new StringBuilder(1024);
+        appendJson(json, collect());
+        return json.toString();
+    }
+    
+    @SuppressWarnings("unchecked")
+    private static void appendText(StringBuilder text, Map<String, Object> section, int depth) {
+        for (Map.Entry<String, Object> entry : section.entrySet()) {
+            for (int i = 0; i < depth; i++) {
+                text.append("  ");
+            }
+            text.append(entry.getKey()).append(':');
+            if (entry.getValue() instanceof Map) {
+                text.append('\n');
+                appendText(text, (Map<String, Object>) entry.getValue(), depth + 1);
+            } else if (entry.getValue() instanceof Double) {
+                text.append(String.format(" %.4f%n", (Double) entry.getValue()));
+            } else {
+                text.append(' ').append(entry.getValue()).append('\n');
+            }
+        }
+    }
+    
+    @SuppressWarnings("unchecked")
+    private static void appendJson(StringBuilder json, Object value) {
+        if (value instanceof Map) {
+            json.append('{');
+            boolean first = true;
+            for (Map.Entry<String, Object> entry : ((Map<String, Object>) value).entrySet()) {
+                if (!first) {
+                    json.append(',');
+                }
+                first = false;
+                json.append(OutboxEvent.quote(entry.getKey())).append(':');
+                appendJson(json, entry.getValue());
+            }
+            json.append('}');
+        } else if (value instanceof Number) {
+            json.append(value);
+        } else {
+            json.append(OutboxEvent.quote(String.valueOf(value)));
+        }
+    }
+}
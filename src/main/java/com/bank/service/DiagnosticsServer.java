@@ -0,0 +1,74 @@
+package com.bank.service;
+
+import com.bank.config.DatabaseConfig;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Local HTTP endpoint for Diagnostics
+ * GET /diagnostics returns the current state as JSON, or as text with
+ * ?format=text. Bound to the loopback address only, and served by a single
+ * thread, so polling cannot crowd out the application.
+ */
+public class DiagnosticsServer {
+    private final HttpServer server;
+    private final Diagnostics diagnostics;
+    
+    public DiagnosticsServer(Diagnostics diagnostics, int port) throws IOException {
+        this.diagnostics = diagnostics;
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        this.server.createContext("/diagnostics", this::handle);
+    }
+    
+    /**
+     * Start a server on diagnostics.port, if one is configured
+     * @return the running server, or null when diagnostics.port is 0 or unset
+     */
+    public static DiagnosticsServer startFromConfig(Diagnostics diagnostics) throws IOException {
+        int port = DatabaseConfig.getIntProperty("diagnostics.port", 0);
+        if (port <= 0) {
+            return null;
+        }
+        DiagnosticsServer server = new DiagnosticsServer(diagnostics, port);
+        server.start();
+        return server;
+    }
+    
+    public void start() {
+        server.start();
+    }
+    
+    public void stop() {
+        server.stop(0);
+    }
+    
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+    
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+            String query = exchange.getRequestURI().getQuery();
+            boolean text = query != null && query.contains("format=text");
+            byte[] body = (text ? diagnostics.toText() : diagnostics.toJson()).getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type",
+                text ? "text/plain; charset=utf-8" : "application/json; charset=utf-8");
+            exchange.getResponseHeaders().set("Cache-Control", "no-store");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+}
@@ -0,0 +1,324 @@
+package com.bank.service;
+
+import com.bank.config.DatabaseConfig;
+import com.bank.dao.CustomerDAO;
+import com.bank.util.DatabaseConnection;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.sql.SQLException;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bloom filter over the emails of all registered customers
+ * Registration asks it first and only looks the email up in the database
+ * when it might be taken; an email the filter has never seen is certainly
+ * new. The filter may still be wrong the other way round, e.g. for an email
+ * registered by another process since it was built, so the UNIQUE key on
+ * customers.email remains the final check.
+ *
+ * Until load() has run every email counts as possibly taken. load() reads
+ * the filter saved in emailFilter.file, or builds one from the table, then
+ * adds customers registered since it was saved. Each filter is sized for
+ * twice the customers it starts with; once it holds more than that it is
+ * rebuilt at the new size on a background thread, while registrations carry
+ * on against the old one.
+ *
+ * Lookups and additions only touch atomic words, with no locks. Emails are
+ * compared lower-cased, so the filter never separates two emails the
+ * case-insensitive column would treat as equal.
+ */
+public class EmailBloomFilter {
+    private static final int FILE_MAGIC = 0x424C4F4D; // "BLOM"
+    private static final int FILE_VERSION = 1;
+    private static final int MIN_CAPACITY = 1024;
+    private static final int MAX_HASHES = 16;
+    
+    private final CustomerDAO customerDAO;
+    private final Path file;
+    private final double falsePositiveRate;
+    private final String source;
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+    private volatile Bits current;
+    private volatile Bits next;
+    private ExecutorService rebuilder;
+    
+    /**
+     * @param file where the filter is saved between runs, or null to always build it from the table
+     */
+    public EmailBloomFilter(CustomerDAO customerDAO, Path file, double falsePositiveRate) {
+        if (falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("False positive rate must be between 0 and 1");
+        }
+        this.customerDAO = customerDAO;
+        this.file = file;
+        this.falsePositiveRate = falsePositiveRate;
+        this.source = DatabaseConfig.getProperty("db.url", "");
+    }
+    
+    /**
+     * Create a filter from the emailFilter.* entries in database.properties
+     */
+    public static EmailBloomFilter fromConfig(CustomerDAO customerDAO) {
+        String file = DatabaseConfig.getProperty("emailFilter.file", "email-filter.bin").trim();
+        String rate = DatabaseConfig.getProperty("emailFilter.falsePositiveRate", "0.01").trim();
+        try {
+            return new EmailBloomFilter(customerDAO, file.isEmpty() ? null : Paths.get(file), Double.parseDouble(rate));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid value for emailFilter.falsePositiveRate: " + rate, e);
+        }
+    }
+    
+    /**
+     * Load the saved filter, or build one from the table, and bring it up to date
+     */
+    public void load() throws SQLException {
+        Bits bits = null;
+        if (file != null) {
+            try {
+                bits = read(file, source);
+            } catch (NoSuchFileException e) {
+                // first run: build below
+            } catch (IOException e) {
+                System.err.println("Ignoring unreadable email filter " + file + ": " + e.getMessage());
+            }
+        }
+        
+        if (bits == null) {
+            rebuild();
+        } else {
+            Bits loaded = bits;
+            customerDAO.streamEmails(loaded.coveredCustomerId.get(), loaded::add);
+            current = loaded;
+        }
+        save();
+        rebuildIfFull(current);
+    }
+    
+    /**
+     * Whether the email may belong to a registered customer
+     * @return false only if no customer has this email
+     */
+    public boolean mightContain(String email) {
+        Bits bits = current;
+        return bits == null || email == null || bits.mightContain(email);
+    }
+    
+    /**
+     * Record a customer's email after it was stored
+     */
+    public void add(String email, int customerId) {
+        if (email == null) {
+            return;
+        }
+        // Read next before current: a rebuild switches current before it clears next
+        Bits pending = next;
+        if (pending != null) {
+            pending.add(email, customerId);
+        }
+        Bits bits = current;
+        if (bits != null && bits != pending) {
+            bits.add(email, customerId);
+            rebuildIfFull(bits);
+        }
+    }
+    
+    /**
+     * Write the current filter to emailFilter.file, replacing the previous one
+     */
+    public void save() {
+        Bits bits = current;
+        if (file == null || bits == null) {
+            return;
+        }
+        try {
+            Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                bits.write(out, source);
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            System.err.println("Could not save email filter " + file + ": " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Build a new filter from the whole table, sized for twice its customers,
+     * and switch to it
+     * Additions made meanwhile also go to the new filter, so none is missed
+     * between the scan and the switch.
+     */
+    private void rebuild() throws SQLException {
+        Bits bits = new Bits(Math.max(MIN_CAPACITY, 2L * customerDAO.countCustomers()), falsePositiveRate);
+        next = bits;
+        try {
+            customerDAO.streamEmails(0, bits::add);
+            current = bits;
+        } finally {
+            next = null;
+        }
+    }
+    
+    private void rebuildIfFull(Bits bits) {
+        if (bits.entries.get() <= bits.capacity || !rebuilding.compareAndSet(false, true)) {
+            return;
+        }
+        synchronized (this) {
+            if (rebuilder == null) {
+                rebuilder = Executors.newSingleThreadExecutor(runnable -> {
+                    Thread thread = new Thread(runnable, "email-filter-rebuild");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+            }
+        }
+        rebuilder.execute(() -> {
+            try {
+                rebuild();
+                save();
+            } catch (SQLException e) {
+                System.err.println("Email filter rebuild failed: " + e.getMessage());
+            } finally {
+                DatabaseConnection.closeConnection();
+                rebuilding.set(false);
+            }
+        });
+    }
+    
+    private static Bits read(Path file, String source) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != FILE_MAGIC || in.readInt() != FILE_VERSION) {
+                throw new IOException("not an email filter file");
+            }
+            if (!in.readUTF().equals(source)) {
+                return null; // saved for another database
+            }
+            long capacity = in.readLong();
+            int hashes = in.readInt();
+            long entries = in.readLong();
+            int coveredCustomerId = in.readInt();
+            long[] words = new long[in.readInt()];
+            for (int i = 0; i < words.length; i++) {
+                words[i] = in.readLong();
+            }
+            return new Bits(capacity, hashes, entries, coveredCustomerId, words);
+        }
+    }
+    
+    /**
+     * One fixed-size filter, with the highest customer ID it includes
+     */
+    private static final class Bits {
+        final long capacity;
+        final int hashes;
+        final long bitCount;
+        final AtomicLongArray words;
+        final AtomicLong entries;
+        final AtomicInteger coveredCustomerId;
+        
+        Bits(long capacity, double falsePositiveRate) {
+            this.capacity = capacity;
+            // Optimal size for the capacity: m = -n ln p / (ln 2)^2 bits, k = m / n ln 2 hashes
+            long words = (long) Math.ceil(-capacity * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)) / 64);
+            if (words > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Email filter too large for " + capacity + " customers");
+            }
+            this.words = new AtomicLongArray((int) Math.max(1, words));
+            this.bitCount = this.words.length() * 64L;
+            this.hashes = (int) Math.max(1, Math.min(MAX_HASHES, Math.round((double) bitCount / capacity * Math.log(2))));
+            this.entries = new AtomicLong();
+            this.coveredCustomerId = new AtomicInteger();
+        }
+        
+        Bits(long capacity, int hashes, long entries, int coveredCustomerId, long[] words) {
+            this.capacity = capacity;
+            this.hashes = hashes;
+            this.words = new AtomicLongArray(words);
+            this.bitCount = words.length * 64L;
+            this.entries = new AtomicLong(entries);
+            this.coveredCustomerId = new AtomicInteger(coveredCustomerId);
+        }
+        
+        void add(String email, int customerId) {
+            long hash = hash(email);
+            long h1 = mix(hash);
+            long h2 = mix(hash ^ 0x9E3779B97F4A7C15L) | 1;
+            for (int i = 0; i < hashes; i++) {
+                long bit = Math.floorMod(h1 + i * h2, bitCount);
+                int word = (int) (bit >>> 6);
+                long mask = 1L << bit;
+                long value;
+                do {
+                    value = words.get(word);
+                } while ((value & mask) == 0 && !words.compareAndSet(word, value, value | mask));
+            }
+            entries.incrementAndGet();
+            coveredCustomerId.accumulateAndGet(customerId, Math::max);
+        }
+        
+        boolean mightContain(String email) {
+            long hash = hash(email);
+            long h1 = mix(hash);
+            long h2 = mix(hash ^ 0x9E3779B97F4A7C15L) | 1;
+            for (int i = 0; i < hashes; i++) {
+                long bit = Math.floorMod(h1 + i * h2, bitCount);
+                if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        
+        void write(DataOutputStream out, String source) throws IOException {
+            out.writeInt(FILE_MAGIC);
+            out.writeInt(FILE_VERSION);
+            out.writeUTF(source);
+            out.writeLong(capacity);
+            out.writeInt(hashes);
+            out.writeLong(entries.get());
+            out.writeInt(coveredCustomerId.get());
+            out.writeInt(words.length());
+            for (int i = 0; i < words.length(); i++) {
+                out.writeLong(words.get(i));
+            }
+        }
+        
+        /**
+         * 64-bit FNV-1a over the lower-cased UTF-8 bytes
+         */
+        private static long hash(String email) {
+            long hash = 0xCBF29CE484222325L;
+            for (byte b : email.toLowerCase(Locale.ROOT).getBytes(StandardCharsets.UTF_8)) {
+                hash ^= b & 0xFF;
+                hash *= 0x100000001B3L;
+            }
+            return hash;
+        }
+        
+        /**
+         * MurmurHash3 finalizer, to spread the FNV hash over all 64 bits
+         */
+        private static long mix(long hash) {
+            hash ^= hash >>> 33;
+            hash *= 0xFF51AFD7ED558CCDL;
+            hash ^= hash >>> 33;
+            hash *= 0xC4CEB93FE53A7ED3L;
+            hash ^= hash >>> 33;
+            return hash;
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.bank.service;
+
+import com.bank.model.OutboxEvent;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Outbox sink that appends events to a file, one JSON object per line
+ * Each batch is written and forced to disk in one go, so a crash leaves at
+ * most the tail of one batch, which the relay then delivers again.
+ */
+public class FileOutboxSink implements OutboxSink {
+    private final Path file;
+    
+    public FileOutboxSink(Path file) {
+        this.file = file;
+    }
+    
+    @Override
+    public void publish(List<OutboxEvent> events) throws IOException {
+        StringBuilder lines = new StringBuilder(events.size() * 256);
+        for (OutboxEvent event : events) {
+            lines.append("{\"eventId\":").append(event.getEventId())
+                 .append(",\"type\":").append(OutboxEvent.quote(event.getEventType()))
+                 .append(",\"accountId\":").append(event.getAccountId())
+                 .append(",\"createdAt\":").append(OutboxEvent.quote(String.valueOf(event.getCreatedAt())))
+                 .append(",\"payload\":").append(event.getPayload())
+                 .append("}\n");
+        }
+        
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                                                    StandardOpenOption.APPEND)) {
+            ByteBuffer buffer = ByteBuffer.wrap(lines.toString().getBytes(StandardCharsets.UTF_8));
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(false);
+        }
+    }
+}
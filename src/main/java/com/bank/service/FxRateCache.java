@@ -0,0 +1,103 @@
+package com.bank.service;
+
+import com.bank.config.DatabaseConfig;
+import com.bank.dao.FxRateDAO;
+import com.bank.dao.JdbcFxRateDAO;
+import com.bank.model.FxRate;
+import com.bank.util.DatabaseConnection;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * FX Rate Cache
+ * Keeps the current FX rates in memory as an immutable FxRateSnapshot behind
+ * a volatile reference. Transfers read the reference and never wait: a
+ * refresh builds a complete new snapshot and swaps it in (copy-on-write),
+ * while transfers that already took the old one finish with it.
+ *
+ * A background thread checks the latest rate version every
+ * fx.refreshSeconds and reloads the rates only when it has changed.
+ */
+public class FxRateCache {
+    private final FxRateDAO rateDAO;
+    private final int refreshSeconds;
+    private volatile FxRateSnapshot snapshot; // null until the first load
+    private ScheduledExecutorService refresher;
+    
+    public FxRateCache(FxRateDAO rateDAO, int refreshSeconds) {
+        if (refreshSeconds < 1) {
+            throw new IllegalArgumentException("Refresh interval must be at least 1 second");
+        }
+        this.rateDAO = rateDAO;
+        this.refreshSeconds = refreshSeconds;
+    }
+    
+    /**
+     * Create a cache over the fx_rates table, refreshed every fx.refreshSeconds
+     */
+    public static FxRateCache fromConfig() {
+        return new FxRateCache(new JdbcFxRateDAO(), DatabaseConfig.getIntProperty("fx.refreshSeconds", 60));
+    }
+    
+    /**
+     * Get the current rates
+     * Only the very first call loads them; after that this is a volatile read.
+     */
+    public FxRateSnapshot current() throws SQLException {
+        FxRateSnapshot current = snapshot;
+        if (current == null) {
+            refresh();
+            current = snapshot;
+        }
+        return current;
+    }
+    
+    /**
+     * Reload the rates if a newer version has been saved
+     * @return true if a new snapshot was installed
+     */
+    public synchronized boolean refresh() throws SQLException {
+        FxRateSnapshot current = snapshot;
+        if (current != null && rateDAO.getLatestVersion() == current.getVersion()) {
+            return false;
+        }
+        List<FxRate> rates = rateDAO.getLatestRates();
+        snapshot = FxRateSnapshot.of(rates);
+        return true;
+    }
+    
+    /**
+     * Save new rates under the next version and switch to them at once
+     * @return the version they were saved under
+     */
+    public long saveRates(List<FxRate> rates) throws SQLException {
+        long version = rateDAO.saveRates(rates);
+        refresh();
+        return version;
+    }
+    
+    /**
+     * Start refreshing every fx.refreshSeconds on a daemon thread
+     */
+    public synchronized void startRefreshing() {
+        if (refresher != null) {
+            return;
+        }
+        refresher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "fx-rate-refresher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        refresher.scheduleWithFixedDelay(() -> {
+            try {
+                refresh();
+            } catch (SQLException e) {
+                System.err.println("FX rate refresh failed, keeping the previous rates: " + e.getMessage());
+                DatabaseConnection.closeConnection(); // reconnect on the next refresh
+            }
+        }, refreshSeconds, refreshSeconds, TimeUnit.SECONDS);
+    }
+}
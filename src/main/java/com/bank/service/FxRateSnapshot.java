@@ -0,0 +1,115 @@
+package com.bank.service;
+
+import com.bank.exception.CurrencyConversionException;
+import com.bank.model.FxRate;
+import java.math.BigInteger;
+import java.util.Currency;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable set of FX rates as of one rate version
+ * A transfer converts with a single snapshot, so both legs agree on the rate
+ * and the ledger can record its version.
+ *
+ * Conversion is exact fixed-point: the amount is taken in minor units (cents),
+ * multiplied by the scaled rate and rounded once, half-even, to the minor
+ * units of the target currency. Where only the reverse pair has a rate, the
+ * amount is divided by it instead, again with a single rounding.
+ */
+public final class FxRateSnapshot {
+    // Balances are stored as DECIMAL(15, 2), so no currency gets more than 2 minor digits
+    private static final int MAX_MINOR_DIGITS = 2;
+    private static final long[] POWERS_OF_TEN = { 1, 10, 100 };
+    
+    private final long version;
+    private final Map<String, Long> scaledRates; // keyed by from + to currency code
+    
+    private FxRateSnapshot(long version, Map<String, Long> scaledRates) {
+        this.version = version;
+        this.scaledRates = scaledRates;
+    }
+    
+    /**
+     * Build a snapshot of the current rate of each pair; its version is the
+     * newest version among them
+     */
+    static FxRateSnapshot of(List<FxRate> rates) {
+        Map<String, Long> scaledRates = new HashMap<>(rates.size() * 2);
+        long version = 0;
+        for (FxRate rate : rates) {
+            scaledRates.put(rate.getFromCurrency() + rate.getToCurrency(), rate.getScaledRate());
+            version = Math.max(version, rate.getVersion());
+        }
+        return new FxRateSnapshot(version, scaledRates);
+    }
+    
+    public long getVersion() {
+        return version;
+    }
+    
+    /**
+     * Convert an amount from one currency to another
+     * @return the amount in toCurrency, rounded to its minor units
+     * @throws CurrencyConversionException if neither the pair nor its reverse has a rate
+     */
+    public double convert(double amount, String fromCurrency, String toCurrency) throws CurrencyConversionException {
+        if (fromCurrency.equals(toCurrency)) {
+            return amount;
+        }
+        int fromDigits = minorDigits(fromCurrency);
+        int toDigits = minorDigits(toCurrency);
+        // Amounts fit DECIMAL(15, 2), so this cannot overflow
+        long scaledAmount = Math.round(amount * POWERS_OF_TEN[fromDigits]) * POWERS_OF_TEN[toDigits];
+        
+        long converted;
+        Long direct = scaledRates.get(fromCurrency + toCurrency);
+        if (direct != null) {
+            converted = multiplyDivideHalfEven(scaledAmount, direct, FxRate.SCALE, POWERS_OF_TEN[fromDigits]);
+        } else {
+            Long reverse = scaledRates.get(toCurrency + fromCurrency);
+            if (reverse == null) {
+                throw new CurrencyConversionException("No FX rate from " + fromCurrency + " to " + toCurrency);
+            }
+            converted = multiplyDivideHalfEven(scaledAmount, FxRate.SCALE, reverse, POWERS_OF_TEN[fromDigits]);
+        }
+        return converted / (double) POWERS_OF_TEN[toDigits];
+    }
+    
+    /**
+     * a * b / (c * d) rounded half-even, for non-negative a and positive b, c and d
+     * Stays in long arithmetic unless a product overflows.
+     */
+    static long multiplyDivideHalfEven(long a, long b, long c, long d) {
+        long dividend;
+        long divisor;
+        try {
+            dividend = Math.multiplyExact(a, b);
+            divisor = Math.multiplyExact(c, d);
+        } catch (ArithmeticException overflow) {
+            BigInteger exactDivisor = BigInteger.valueOf(c).multiply(BigInteger.valueOf(d));
+            BigInteger[] qr = BigInteger.valueOf(a).multiply(BigInteger.valueOf(b)).divideAndRemainder(exactDivisor);
+            int half = qr[1].shiftLeft(1).compareTo(exactDivisor);
+            BigInteger quotient = half > 0 || half == 0 && qr[0].testBit(0) ? qr[0].add(BigInteger.ONE) : qr[0];
+            return quotient.longValueExact();
+        }
+        long quotient = dividend / divisor;
+        long remainder = dividend % divisor;
+        // remainder < divisor, so compare against the other half instead of doubling it
+        if (remainder > divisor - remainder || remainder == divisor - remainder && (quotient & 1) == 1) {
+            quotient++;
+        }
+        return quotient;
+    }
+    
+    private static int minorDigits(String currency) {
+        int digits;
+        try {
+            digits = Currency.getInstance(currency).getDefaultFractionDigits();
+        } catch (IllegalArgumentException e) {
+            digits = MAX_MINOR_DIGITS; // not an ISO 4217 code
+        }
+        return digits < 0 ? MAX_MINOR_DIGITS : Math.min(digits, MAX_MINOR_DIGITS);
+    }
+}
@@ -0,0 +1,81 @@
+package com.bank.service;
+
+import com.bank.config.DatabaseConfig;
+import com.bank.dao.LedgerArchiveDAO;
+import com.bank.util.DatabaseConnection;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Ledger Archive Maintenance Job
+ * Keeps the transactions table to the last archive.hotMonths calendar months
+ * and moves older months to transactions_archive in small committed chunks.
+ * Meant to run daily (e.g. from cron); each run rolls the hot window forward.
+ */
+public class LedgerArchiver {
+    private LedgerArchiveDAO archiveDAO;
+    private int hotMonths;
+    private int chunkSize;
+    
+    public LedgerArchiver() {
+        this(new LedgerArchiveDAO(),
+             DatabaseConfig.getIntProperty("archive.hotMonths", 3),
+             DatabaseConfig.getIntProperty("archive.chunkSize", 5000));
+    }
+    
+    public LedgerArchiver(LedgerArchiveDAO archiveDAO, int hotMonths, int chunkSize) {
+        if (hotMonths < 1) {
+            throw new IllegalArgumentException("Hot window must be at least one month");
+        }
+        this.archiveDAO = archiveDAO;
+        this.hotMonths = hotMonths;
+        this.chunkSize = chunkSize;
+    }
+    
+    public static void main(String[] args) {
+        try {
+            LedgerArchiver archiver = new LedgerArchiver();
+            LocalDateTime cutoff = archiver.cutoffFor(LocalDate.now());
+            long moved = archiver.archive(cutoff);
+            System.out.println("Archived " + moved + " transaction(s) dated before " + cutoff);
+        } catch (SQLException e) {
+            System.err.println("Archiving failed: " + e.getMessage());
+            System.exit(1);
+        } finally {
+            DatabaseConnection.closeConnection();
+        }
+    }
+    
+    /**
+     * Start of the oldest month that stays hot
+     */
+    public LocalDateTime cutoffFor(LocalDate today) {
+        return today.withDayOfMonth(1).minusMonths(hotMonths - 1).atStartOfDay();
+    }
+    
+    /**
+     * Move every row dated before the cutoff into the archive
+     * @return number of rows moved
+     */
+    public long archive(LocalDateTime cutoff) throws SQLException {
+        // Readers must consult the archive before any row leaves the hot table,
+        // so give every process time to pick up the new cutoff
+        if (archiveDAO.advanceCutoff(cutoff)) {
+            try {
+                Thread.sleep(LedgerArchiveDAO.CUTOFF_CACHE_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return 0;
+            }
+        }
+        
+        long total = 0;
+        int moved;
+        do {
+            moved = archiveDAO.moveChunk(cutoff, chunkSize);
+            total += moved;
+        } while (moved > 0);
+        return total;
+    }
+}
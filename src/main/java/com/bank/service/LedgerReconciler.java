@@ -0,0 +1,346 @@
+package com.bank.service;
+
+import com.bank.config.DatabaseConfig;
+import com.bank.dao.LedgerArchiveDAO;
+import com.bank.dao.ReconciliationDAO;
+import com.bank.model.ReconciliationCheckpoint;
+import com.bank.model.Transaction;
+import com.bank.util.DatabaseConnection;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Ledger Reconciliation Job
+ * Checks that every account's balance_after chain is continuous, that its
+ * newest balance_after equals accounts.balance, and that every TRANSFER_OUT
+ * has a TRANSFER_IN of the same amount on the related account.
+ *
+ * Accounts are shared out to reconcile.workers threads, each with its own
+ * connection, and every ledger is streamed oldest first. A run covers rows
+ * dated up to reconcile.graceSeconds ago, so transactions still committing
+ * are left for the next run. Checkpoints record how far each account was
+ * verified: an incremental run only reads accounts with rows since the last
+ * run, and only their new rows. Meant to run nightly (e.g. from cron).
+ */
+public class LedgerReconciler {
+    // Oldest value a TIMESTAMP column can hold, comfortably rounded up
+    private static final LocalDateTime BEGINNING = LocalDateTime.of(1970, 1, 2, 0, 0);
+    
+    private ReconciliationDAO reconciliationDAO;
+    private int workers;
+    private int graceSeconds;
+    
+    public LedgerReconciler() {
+        this(new ReconciliationDAO(),
+             DatabaseConfig.getIntProperty("reconcile.workers", 4),
+             DatabaseConfig.getIntProperty("reconcile.graceSeconds", 300));
+    }
+    
+    public LedgerReconciler(ReconciliationDAO reconciliationDAO, int workers, int graceSeconds) {
+        if (workers < 1) {
+            throw new IllegalArgumentException("At least one worker is required");
+        }
+        this.reconciliationDAO = reconciliationDAO;
+        this.workers = workers;
+        this.graceSeconds = graceSeconds;
+    }
+    
+    /**
+     * Usage: LedgerReconciler [--full] [report-file]
+     * Exits with 2 when mismatches were found.
+     */
+    public static void main(String[] args) {
+        boolean full = false;
+        String reportFile = null;
+        for (String arg : args) {
+            if (arg.equals("--full")) {
+                full = true;
+            } else {
+                reportFile = arg;
+            }
+        }
+        
+        try {
+            ReconciliationReport report = new LedgerReconciler().reconcile(full);
+            try (PrintWriter out = reportFile != null
+                    ? new PrintWriter(Files.newBufferedWriter(Paths.get(reportFile), StandardCharsets.UTF_8))
+                    : new PrintWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8))) {
+                report.writeTo(out);
+            }
+            if (!report.isClean()) {
+                System.exit(2);
+            }
+        } catch (SQLException | IOException e) {
+            System.err.println("Reconciliation failed: " + e.getMessage());
+            System.exit(1);
+        } finally {
+            DatabaseConnection.closeConnection();
+        }
+    }
+    
+    /**
+     * Run a reconciliation
+     * @param full verify every account from its first ledger row, ignoring checkpoints
+     */
+    public ReconciliationReport reconcile(boolean full) throws SQLException {
+        LocalDateTime verifiedBefore = LocalDateTime.now().minusSeconds(graceSeconds).withNano(0);
+        LocalDateTime lastRun = full ? null : reconciliationDAO.getVerifiedBefore();
+        boolean fromScratch = lastRun == null;
+        
+        List<Integer> accountIds = fromScratch
+            ? reconciliationDAO.getAllAccountIds()
+            : reconciliationDAO.getAccountsTouchedBetween(lastRun, verifiedBefore);
+        
+        ReconciliationReport report = new ReconciliationReport(fromScratch, verifiedBefore);
+        TransferMatcher matcher = new TransferMatcher();
+        if (!fromScratch) {
+            for (Transaction leg : reconciliationDAO.getPendingLegs()) {
+                matcher.add(leg);
+            }
+        }
+        Queue<ReconciliationCheckpoint> checkpoints = new ConcurrentLinkedQueue<>();
+        
+        runWorkers(accountIds, accountId ->
+            verifyAccount(accountId, fromScratch, verifiedBefore, report, matcher, checkpoints));
+        
+        // Both legs of a transfer are dated within moments of each other; a leg
+        // near the end of the window may see its counterpart in the next run
+        LocalDateTime pairDeadline = verifiedBefore.minusSeconds(graceSeconds);
+        List<Transaction> pending = new ArrayList<>();
+        for (Transaction leg : matcher.unmatched()) {
+            if (leg.getTransactionDate().isBefore(pairDeadline)) {
+                report.addMismatch(ReconciliationReport.MismatchType.UNMATCHED_TRANSFER,
+                    leg.getAccountId(), leg.getTransactionId(), leg.getAmount(), 0);
+            } else {
+                pending.add(leg);
+            }
+        }
+        
+        reconciliationDAO.saveRun(verifiedBefore, checkpoints, pending);
+        return report;
+    }
+    
+    /**
+     * Verify one account inside a single read snapshot, so the archive, the
+     * hot table and the stored balance are all seen as of the same moment
+     */
+    private void verifyAccount(int accountId, boolean fromScratch, LocalDateTime verifiedBefore,
+                               ReconciliationReport report, TransferMatcher matcher,
+                               Queue<ReconciliationCheckpoint> checkpoints) throws SQLException {
+        LedgerWalk walk;
+        DatabaseConnection.beginTransaction();
+        try {
+            Double balance = reconciliationDAO.getAccountBalance(accountId);
+            if (balance == null) {
+                DatabaseConnection.commitTransaction();
+                return; // deleted since the run started
+            }
+            
+            ReconciliationCheckpoint checkpoint = fromScratch ? null : reconciliationDAO.getCheckpoint(accountId);
+            walk = new LedgerWalk(accountId, checkpoint, report);
+            LocalDateTime from = checkpoint != null ? checkpoint.getLastTransactionDate() : BEGINNING;
+            
+            LocalDateTime cutoff = LedgerArchiveDAO.getArchiveCutoff();
+            if (cutoff != null && from.isBefore(cutoff)) {
+                reconciliationDAO.streamLedger(accountId, from, verifiedBefore, true, walk);
+            }
+            reconciliationDAO.streamLedger(accountId, from, verifiedBefore, false, walk);
+            
+            Double lastBalanceAfter = reconciliationDAO.getLastBalanceAfter(accountId);
+            double ledgerBalance = lastBalanceAfter != null ? lastBalanceAfter : 0;
+            if (cents(balance) != cents(ledgerBalance)) {
+                report.addMismatch(ReconciliationReport.MismatchType.FINAL_BALANCE,
+                    accountId, null, ledgerBalance, balance);
+            }
+            
+            DatabaseConnection.commitTransaction();
+        } catch (SQLException | RuntimeException e) {
+            DatabaseConnection.rollbackTransaction();
+            throw e;
+        }
+        
+        for (Transaction leg : walk.transferLegs) {
+            matcher.add(leg);
+        }
+        if (walk.last != null) {
+            checkpoints.add(new ReconciliationCheckpoint(accountId, walk.last.getTransactionDate(),
+                walk.last.getTransactionId(), walk.last.getBalanceAfter()));
+        }
+        report.accountVerified(walk.rows);
+    }
+    
+    /**
+     * Hand the accounts out to the worker threads one at a time, so a few
+     * long ledgers do not hold up a whole slice of accounts.
+     * The first failure stops every worker and fails the run.
+     */
+    private void runWorkers(List<Integer> accountIds, AccountTask task) throws SQLException {
+        int threads = Math.max(1, Math.min(workers, accountIds.size()));
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        AtomicInteger next = new AtomicInteger();
+        AtomicBoolean failed = new AtomicBoolean();
+        List<Future<?>> futures = new ArrayList<>();
+        
+        for (int i = 0; i < threads; i++) {
+            futures.add(pool.submit(() -> {
+                try {
+                    int index;
+                    while (!failed.get() && (index = next.getAndIncrement()) < accountIds.size()) {
+                        task.verify(accountIds.get(index));
+                    }
+                    return null;
+                } catch (SQLException | RuntimeException e) {
+                    failed.set(true);
+                    throw e;
+                } finally {
+                    DatabaseConnection.closeConnection();
+                }
+            }));
+        }
+        pool.shutdown();
+        
+        try {
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (ExecutionException e) {
+            failed.set(true);
+            if (e.getCause() instanceof SQLException) {
+                throw (SQLException) e.getCause();
+            }
+            throw new RuntimeException(e.getCause());
+        } catch (InterruptedException e) {
+            failed.set(true);
+            Thread.currentThread().interrupt();
+            throw new SQLException("Reconciliation interrupted", e);
+        }
+    }
+    
+    private static long cents(double amount) {
+        return Math.round(amount * 100);
+    }
+    
+    private interface AccountTask {
+        void verify(int accountId) throws SQLException;
+    }
+    
+    /**
+     * Follows the balance_after chain of one account as its rows stream past
+     */
+    private static final class LedgerWalk implements Consumer<Transaction> {
+        private final int accountId;
+        private final ReconciliationCheckpoint checkpoint;
+        private final ReconciliationReport report;
+        private final List<Transaction> transferLegs = new ArrayList<>();
+        private long balance;
+        private Transaction last;
+        private long rows;
+        
+        LedgerWalk(int accountId, ReconciliationCheckpoint checkpoint, ReconciliationReport report) {
+            this.accountId = accountId;
+            this.checkpoint = checkpoint;
+            this.report = report;
+            this.balance = checkpoint != null ? cents(checkpoint.getLastBalanceAfter()) : 0;
+        }
+        
+        @Override
+        public void accept(Transaction transaction) {
+            // Rows sharing the checkpoint's timestamp were read again; skip the verified ones
+            if (checkpoint != null && transaction.getTransactionDate().equals(checkpoint.getLastTransactionDate())
+                    && transaction.getTransactionId() <= checkpoint.getLastTransactionId()) {
+                return;
+            }
+            
+            long expected = balance + signedCents(transaction);
+            long actual = cents(transaction.getBalanceAfter());
+            if (expected != actual) {
+                ReconciliationReport.MismatchType type = last == null && checkpoint == null
+                    ? ReconciliationReport.MismatchType.OPENING_BALANCE
+                    : ReconciliationReport.MismatchType.CHAIN_BREAK;
+                report.addMismatch(type, accountId, transaction.getTransactionId(), expected / 100.0, actual / 100.0);
+            }
+            
+            // Continue from the recorded balance so one bad row is reported once
+            balance = actual;
+            last = transaction;
+            rows++;
+            
+            if (transaction.getRelatedAccountId() != null
+                    && (transaction.getTransactionType() == Transaction.TransactionType.TRANSFER_OUT
+                        || transaction.getTransactionType() == Transaction.TransactionType.TRANSFER_IN)) {
+                transferLegs.add(transaction);
+            }
+        }
+        
+        private static long signedCents(Transaction transaction) {
+            long amount = cents(transaction.getAmount());
+            switch (transaction.getTransactionType()) {
+                case DEPOSIT:
+                case TRANSFER_IN:
+                    return amount;
+                default:
+                    return -amount;
+            }
+        }
+    }
+    
+    /**
+     * Pairs TRANSFER_OUT legs with TRANSFER_IN legs by source account,
+     * destination account and amount. Whichever leg arrives first waits
+     * for the other; whatever is left at the end is unmatched.
+     * Legs of a cross-currency transfer have different amounts and are
+     * paired by the FX rate version they both recorded instead.
+     */
+    private static final class TransferMatcher {
+        private final Map<String, Deque<Transaction>> waiting = new ConcurrentHashMap<>();
+        
+        void add(Transaction leg) {
+            boolean out = leg.getTransactionType() == Transaction.TransactionType.TRANSFER_OUT;
+            int source = out ? leg.getAccountId() : leg.getRelatedAccountId();
+            int destination = out ? leg.getRelatedAccountId() : leg.getAccountId();
+            String key = leg.getFxRateVersion() != null
+                ? source + ">" + destination + "@" + leg.getFxRateVersion()
+                : source + ">" + destination + ":" + cents(leg.getAmount());
+            
+            waiting.compute(key, (k, legs) -> {
+                if (legs != null && legs.peekFirst().getTransactionType() != leg.getTransactionType()) {
+                    legs.pollFirst();
+                    return legs.isEmpty() ? null : legs;
+                }
+                Deque<Transaction> queue = legs != null ? legs : new ArrayDeque<>();
+                queue.addLast(leg);
+                return queue;
+            });
+        }
+        
+        Collection<Transaction> unmatched() {
+            List<Transaction> legs = new ArrayList<>();
+            for (Deque<Transaction> queue : waiting.values()) {
+                legs.addAll(queue);
+            }
+            return legs;
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package com.bank.service;
+
+import com.bank.model.Account;
+import java.io.PrintWriter;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Management Report
+ * Balances by account type, the customers with the largest combined
+ * balance and the spread of account balances, all in one currency. Amounts
+ * are held in cents.
+ */
+public class ManagementReport {
+    private final String currency;
+    private final LocalDateTime generatedAt;
+    private final long[] accountsByType;
+    private final long[] centsByType;
+    private final List<TopCustomer> topCustomers;
+    private final double[] bucketBounds;
+    private final long[] accountsByBucket;
+    private final long[] centsByBucket;
+    private final Map<String, Long> unconverted;
+    
+    ManagementReport(String currency, LocalDateTime generatedAt, long[] accountsByType, long[] centsByType,
+                     List<TopCustomer> topCustomers, double[] bucketBounds, long[] accountsByBucket,
+                     long[] centsByBucket, Map<String, Long> unconverted) {
+        this.currency = currency;
+        this.generatedAt = generatedAt;
+        this.accountsByType = accountsByType;
+        this.centsByType = centsByType;
+        this.topCustomers = topCustomers;
+        this.bucketBounds = bucketBounds;
+        this.accountsByBucket = accountsByBucket;
+        this.centsByBucket = centsByBucket;
+        this.unconverted = unconverted;
+    }
+    
+    public String getCurrency() {
+        return currency;
+    }
+    
+    public LocalDateTime getGeneratedAt() {
+        return generatedAt;
+    }
+    
+    public long getAccountCount(Account.AccountType type) {
+        return accountsByType[type.ordinal()];
+    }
+    
+    /**
+     * Total balance of all accounts of a type
+     */
+    public double getTotalBalance(Account.AccountType type) {
+        return centsByType[type.ordinal()] / 100.0;
+    }
+    
+    /**
+     * Customers with the largest combined balance, largest first
+     */
+    public List<TopCustomer> getTopCustomers() {
+        return topCustomers;
+    }
+    
+    /**
+     * Lower bounds of the balance buckets after the first, which starts at zero
+     */
+    public double[] getBucketBounds() {
+        return bucketBounds.clone();
+    }
+    
+    public long getAccountCount(int bucket) {
+        return accountsByBucket[bucket];
+    }
+    
+    public double getTotalBalance(int bucket) {
+        return centsByBucket[bucket] / 100.0;
+    }
+    
+    /**
+     * Accounts left out because their currency has no rate to the report
+     * currency, by currency
+     */
+    public Map<String, Long> getUnconverted() {
+        return unconverted;
+    }
+    
+    /**
+     * Write the report as plain text
+     */
+    public void writeTo(PrintWriter out) {
+        out.println("Management report in " + currency + ", generated " + generatedAt);
+        
+        out.println();
+        out.println("Balances by account type");
+        for (Account.AccountType type : Account.AccountType.values()) {
+            out.printf("  %-24s %10d accounts %20.2f%n", type, getAccountCount(type), getTotalBalance(type));
+        }
+        
+        out.println();
+        out.println("Top " + topCustomers.size() + " customers by combined balance");
+        int rank = 1;
+        for (TopCustomer customer : topCustomers) {
+            out.printf("  %3d. %-40s %20.2f%n", rank++, customer, customer.getTotalBalance());
+        }
+        
+        out.println();
+        out.println("Balance distribution");
+        for (int bucket = 0; bucket <= bucketBounds.length; bucket++) {
+            String range = bucket == bucketBounds.length
+                ? String.format("%.0f and over", bucketBounds[bucket - 1])
+                : String.format("%.0f to %.0f", bucket == 0 ? 0.0 : bucketBounds[bucket - 1], bucketBounds[bucket]);
+            out.printf("  %-24s %10d accounts %20.2f%n", range, getAccountCount(bucket), getTotalBalance(bucket));
+        }
+        
+        if (!unconverted.isEmpty()) {
+            out.println();
+            out.println("Left out, no FX rate to " + currency + ": " + unconverted);
+        }
+        out.flush();
+    }
+    
+    /**
+     * One customer of the top list
+     */
+    public static class TopCustomer {
+        private final int customerId;
+        private final String name;
+        private final long cents;
+        
+        TopCustomer(int customerId, String name, long cents) {
+            this.customerId = customerId;
+            this.name = name;
+            this.cents = cents;
+        }
+        
+        public int getCustomerId() {
+            return customerId;
+        }
+        
+        /**
+         * @return the customer's full name, or null if the customer was deleted meanwhile
+         */
+        public String getName() {
+            return name;
+        }
+        
+        public double getTotalBalance() {
+            return cents / 100.0;
+        }
+        
+        @Override
+        public String toString() {
+            return "#" + customerId + (name != null ? " " + name : "");
+        }
+    }
+}
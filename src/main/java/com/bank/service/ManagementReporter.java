@@ -0,0 +1,381 @@
+package com.bank.service;
+
+import com.bank.config.DatabaseConfig;
+import com.bank.dao.CustomerDAO;
+import com.bank.dao.JdbcCustomerDAO;
+import com.bank.dao.ReportDAO;
+import com.bank.exception.CurrencyConversionException;
+import com.bank.model.Account;
+import com.bank.model.Customer;
+import com.bank.util.DatabaseConnection;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Management Report Generator
+ * Builds a ManagementReport from the accounts table alone. The customer ID
+ * range is split in half recursively on a fork-join pool of report.workers
+ * threads until pieces hold at most report.chunkSize IDs. Each piece reads
+ * its accounts in one query and aggregates them into arrays of counts and
+ * cents and a heap of its largest customers; the partial results are merged
+ * on the way back up. Memory stays bounded by the number of pieces in
+ * flight, whatever the size of the bank.
+ *
+ * Balances in other currencies are converted to report.currency at the
+ * current FX rates; accounts whose currency has no rate are counted
+ * separately. Meant to run as its own process, like the reconciliation.
+ */
+public class ManagementReporter {
+    private static final int TYPES = Account.AccountType.values().length;
+    
+    private ReportDAO reportDAO;
+    private CustomerDAO customerDAO;
+    private FxRateCache fxRates;
+    private String currency;
+    private double[] bucketBounds;
+    private int workers;
+    private int chunkSize;
+    
+    public ManagementReporter() {
+        this(new ReportDAO(), new JdbcCustomerDAO(), FxRateCache.fromConfig(),
+             DatabaseConfig.getProperty("report.currency", Account.DEFAULT_CURRENCY),
+             parseBounds(DatabaseConfig.getProperty("report.balanceBuckets", "100,1000,10000,100000,1000000")),
+             DatabaseConfig.getIntProperty("report.workers", 4),
+             DatabaseConfig.getIntProperty("report.chunkSize", 5000));
+    }
+    
+    /**
+     * @param bucketBounds ascending lower bounds of the balance buckets after the first
+     */
+    public ManagementReporter(ReportDAO reportDAO, CustomerDAO customerDAO, FxRateCache fxRates, String currency,
+                              double[] bucketBounds, int workers, int chunkSize) {
+        if (workers < 1 || chunkSize < 1) {
+            throw new IllegalArgumentException("At least one worker and a positive chunk size are required");
+        }
+        this.reportDAO = reportDAO;
+        this.customerDAO = customerDAO;
+        this.fxRates = fxRates;
+        this.currency = currency;
+        this.bucketBounds = bucketBounds.clone();
+        this.workers = workers;
+        this.chunkSize = chunkSize;
+    }
+    
+    /**
+     * Usage: ManagementReporter [--top N] [report-file]
+     */
+    public static void main(String[] args) {
+        int top = DatabaseConfig.getIntProperty("report.topCustomers", 10);
+        String reportFile = null;
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--top") && i + 1 < args.length) {
+                top = Integer.parseInt(args[++i]);
+            } else {
+                reportFile = args[i];
+            }
+        }
+        
+        try {
+            long started = System.nanoTime();
+            ManagementReport report = new ManagementReporter().generate(top);
+            try (PrintWriter out = reportFile != null
+                    ? new PrintWriter(Files.newBufferedWriter(Paths.get(reportFile), StandardCharsets.UTF_8))
+                    : new PrintWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8))) {
+                report.writeTo(out);
+            }
+            System.err.printf("Report generated in %.1f s%n", (System.nanoTime() - started) / 1e9);
+        } catch (SQLException | IOException e) {
+            System.err.println("Report failed: " + e.getMessage());
+            System.exit(1);
+        } finally {
+            DatabaseConnection.closeConnection();
+        }
+    }
+    
+    /**
+     * Build the report
+     * @param top how many customers to list by combined balance
+     */
+    public ManagementReport generate(int top) throws SQLException {
+        if (top < 0) {
+            throw new IllegalArgumentException("Number of top customers cannot be negative");
+        }
+        LocalDateTime generatedAt = LocalDateTime.now();
+        FxRateSnapshot rates = fxRates.current();
+        int[] range = reportDAO.getCustomerIdRange();
+        
+        Partial total = range == null
+            ? new Partial(bucketBounds.length + 1, top)
+            : aggregate(new Chunk(range[0], range[1] + 1L, rates, top));
+        
+        List<ManagementReport.TopCustomer> topCustomers = new ArrayList<>();
+        for (long[] entry : total.top.largestFirst()) {
+            Customer customer = customerDAO.getCustomerById((int) entry[0]);
+            String name = customer != null ? customer.getFirstName() + " " + customer.getLastName() : null;
+            topCustomers.add(new ManagementReport.TopCustomer((int) entry[0], name, entry[1]));
+        }
+        return new ManagementReport(currency, generatedAt, total.accountsByType, total.centsByType, topCustomers,
+            bucketBounds.clone(), total.accountsByBucket, total.centsByBucket, total.unconverted);
+    }
+    
+    /**
+     * Run the root chunk on a pool whose threads close their connections when they end
+     */
+    private Partial aggregate(Chunk root) throws SQLException {
+        ForkJoinPool pool = new ForkJoinPool(workers, p -> new ForkJoinWorkerThread(p) {
+            @Override
+            protected void onTermination(Throwable exception) {
+                DatabaseConnection.closeConnection();
+                super.onTermination(exception);
+            }
+        }, null, false);
+        try {
+            return pool.invoke(root);
+        } catch (RuntimeException e) {
+            for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+                if (cause instanceof SQLException) {
+                    throw (SQLException) cause;
+                }
+            }
+            throw e;
+        } finally {
+            pool.shutdown();
+            try {
+                pool.awaitTermination(1, TimeUnit.MINUTES);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+    
+    private static double[] parseBounds(String spec) {
+        String[] parts = spec.split(",");
+        double[] bounds = new double[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            try {
+                bounds[i] = Double.parseDouble(parts[i].trim());
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid value for report.balanceBuckets: " + spec, e);
+            }
+            if (i > 0 && bounds[i] <= bounds[i - 1]) {
+                throw new IllegalArgumentException("report.balanceBuckets must be ascending: " + spec);
+            }
+        }
+        return bounds;
+    }
+    
+    /**
+     * The customers with IDs in [from, to); split until small enough to read in one query
+     */
+    private final class Chunk extends RecursiveTask<Partial> {
+        private final long from;
+        private final long to;
+        private final FxRateSnapshot rates;
+        private final int top;
+        
+        Chunk(long from, long to, FxRateSnapshot rates, int top) {
+            this.from = from;
+            this.to = to;
+            this.rates = rates;
+            this.top = top;
+        }
+        
+        @Override
+        protected Partial compute() {
+            if (to - from > chunkSize) {
+                long middle = from + (to - from) / 2;
+                Chunk lower = new Chunk(from, middle, rates, top);
+                lower.fork();
+                Partial upper = new Chunk(middle, to, rates, top).compute();
+                upper.merge(lower.join());
+                return upper;
+            }
+            try {
+                return read();
+            } catch (SQLException e) {
+                throw new ChunkFailedException(e);
+            }
+        }
+        
+        private Partial read() throws SQLException {
+            Partial partial = new Partial(bucketBounds.length + 1, top);
+            int size = (int) (to - from);
+            long[] customerCents = new long[size];
+            boolean[] hasAccounts = new boolean[size];
+            
+            reportDAO.streamAccounts((int) from, (int) to, (customerId, accountType, balance, accountCurrency) -> {
+                long cents;
+                try {
+                    cents = Math.round(rates.convert(balance, accountCurrency, currency) * 100);
+                } catch (CurrencyConversionException e) {
+                    partial.unconverted.merge(accountCurrency, 1L, Long::sum);
+                    return;
+                }
+                partial.accountsByType[accountType.ordinal()]++;
+                partial.centsByType[accountType.ordinal()] += cents;
+                int bucket = bucketOf(cents / 100.0);
+                partial.accountsByBucket[bucket]++;
+                partial.centsByBucket[bucket] += cents;
+                int index = (int) (customerId - from);
+                customerCents[index] += cents;
+                hasAccounts[index] = true;
+            });
+            
+            for (int i = 0; i < size; i++) {
+                if (hasAccounts[i]) {
+                    partial.top.offer((int) (from + i), customerCents[i]);
+                }
+            }
+            return partial;
+        }
+        
+        private int bucketOf(double balance) {
+            int position = Arrays.binarySearch(bucketBounds, balance);
+            return position >= 0 ? position + 1 : -position - 1;
+        }
+    }
+    
+    /**
+     * Aggregates of one chunk, or of several merged
+     */
+    private static final class Partial {
+        final long[] accountsByType = new long[TYPES];
+        final long[] centsByType = new long[TYPES];
+        final long[] accountsByBucket;
+        final long[] centsByBucket;
+        final TopCustomers top;
+        final Map<String, Long> unconverted = new TreeMap<>();
+        
+        Partial(int buckets, int top) {
+            this.accountsByBucket = new long[buckets];
+            this.centsByBucket = new long[buckets];
+            this.top = new TopCustomers(top);
+        }
+        
+        void merge(Partial other) {
+            for (int i = 0; i < TYPES; i++) {
+                accountsByType[i] += other.accountsByType[i];
+                centsByType[i] += other.centsByType[i];
+            }
+            for (int i = 0; i < accountsByBucket.length; i++) {
+                accountsByBucket[i] += other.accountsByBucket[i];
+                centsByBucket[i] += other.centsByBucket[i];
+            }
+            top.merge(other.top);
+            other.unconverted.forEach((code, count) -> unconverted.merge(code, count, Long::sum));
+        }
+    }
+    
+    /**
+     * Bounded min-heap of the customers with the largest balances, in
+     * parallel primitive arrays; the smallest kept balance is at the root
+     * Equal balances rank the lower customer ID first.
+     */
+    private static final class TopCustomers {
+        private final int[] ids;
+        private final long[] cents;
+        private int size;
+        
+        TopCustomers(int capacity) {
+            this.ids = new int[capacity];
+            this.cents = new long[capacity];
+        }
+        
+        void offer(int customerId, long balanceCents) {
+            if (size < ids.length) {
+                ids[size] = customerId;
+                cents[size] = balanceCents;
+                siftUp(size++);
+            } else if (size > 0 && ranksBelow(0, customerId, balanceCents)) {
+                ids[0] = customerId;
+                cents[0] = balanceCents;
+                siftDown(0);
+            }
+        }
+        
+        void merge(TopCustomers other) {
+            for (int i = 0; i < other.size; i++) {
+                offer(other.ids[i], other.cents[i]);
+            }
+        }
+        
+        /**
+         * @return {customerId, cents} pairs, largest balance first
+         */
+        List<long[]> largestFirst() {
+            List<long[]> entries = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                entries.add(new long[] { ids[i], cents[i] });
+            }
+            entries.sort((a, b) -> a[1] != b[1] ? Long.compare(b[1], a[1]) : Long.compare(a[0], b[0]));
+            return entries;
+        }
+        
+        /**
+         * Whether the entry at index ranks below the given customer
+         */
+        private boolean ranksBelow(int index, int customerId, long balanceCents) {
+            return cents[index] != balanceCents ? cents[index] < balanceCents : ids[index] > customerId;
+        }
+        
+        private void siftUp(int index) {
+            while (index > 0) {
+                int parent = (index - 1) / 2;
+                if (!ranksBelow(index, ids[parent], cents[parent])) {
+                    return;
+                }
+                swap(index, parent);
+                index = parent;
+            }
+        }
+        
+        private void siftDown(int index) {
+            while (true) {
+                int lowest = index;
+                for (int child = 2 * index + 1; child <= 2 * index + 2 && child < size; child++) {
+                    if (ranksBelow(child, ids[lowest], cents[lowest])) {
+                        lowest = child;
+                    }
+                }
+                if (lowest == index) {
+                    return;
+                }
+                swap(index, lowest);
+                index = lowest;
+            }
+        }
+        
+        private void swap(int a, int b) {
+            int id = ids[a];
+            ids[a] = ids[b];
+            ids[b] = id;
+            long balance = cents[a];
+            cents[a] = cents[b];
+            cents[b] = balance;
+        }
+    }
+    
+    /**
+     * Carries a chunk's SQLException out of the fork-join pool
+     */
+    private static final class ChunkFailedException extends RuntimeException {
+        ChunkFailedException(SQLException cause) {
+            super(cause);
+        }
+    }
+}
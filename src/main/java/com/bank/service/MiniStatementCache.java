@@ -0,0 +1,256 @@
+package com.bank.service;
+
+import com.bank.config.DatabaseConfig;
+import com.bank.dao.TransactionDAO;
+import com.bank.model.Transaction;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Mini-statements (the last few transactions of an account) kept in memory
+ * Each account read recently has a ring of its newest ministatement.size
+ * ledger rows. The ring is loaded from the ledger on the first read and
+ * then kept current by TransactionService, which hands over every row it
+ * commits, so later reads need no query.
+ *
+ * Rows written by other processes (the standing instruction scheduler, a
+ * --batch run, another console) never reach the ring, so a ring is dropped
+ * ministatement.ttlMillis after it was loaded and the next read loads it
+ * again; a mini-statement can miss another process's postings for at most
+ * that long. A TTL of 0 keeps rings until evicted, which is only safe when
+ * this process is the only one writing the ledger. The cache is off unless
+ * ministatement.size is set.
+ *
+ * The number of rings is bounded by ministatement.budgetBytes, estimated at
+ * a full ring per account. Past that, rings of accounts not read since the
+ * last sweep are evicted first (the CLOCK algorithm).
+ *
+ * A ring is only installed if no row was recorded for its account while it
+ * was being loaded, so a load racing a commit never hides that commit.
+ * Reads and writes on different accounts do not contend.
+ */
+public class MiniStatementCache {
+    private static final int ENTRY_BYTES = 240; // Transaction, its date and a short description
+    private static final int STRIPES = 1024;
+    
+    private final TransactionDAO transactionDAO;
+    private final int size;
+    private final int maxAccounts;
+    private final long ttlNanos; // 0 for no expiry
+    private final Map<Integer, Ring> rings = new ConcurrentHashMap<>();
+    private final AtomicLongArray writeStamps = new AtomicLongArray(STRIPES);
+    private final ReentrantLock evictionLock = new ReentrantLock();
+    private Iterator<Ring> clockHand;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    
+    /**
+     * @param size rows kept per account; 0 turns the cache off
+     * @param budgetBytes estimated memory for all rings together
+     * @param ttlMillis how long a ring is served after it was loaded; 0 for no limit
+     */
+    public MiniStatementCache(TransactionDAO transactionDAO, int size, long budgetBytes, long ttlMillis) {
+        if (size < 0 || budgetBytes < 0 || ttlMillis < 0) {
+            throw new IllegalArgumentException("Mini-statement size, budget and TTL cannot be negative");
+        }
+        this.transactionDAO = transactionDAO;
+        this.size = size;
+        this.maxAccounts = size == 0 ? 0 : (int) Math.min(Integer.MAX_VALUE, budgetBytes / ringBytes(size));
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+    }
+    
+    /**
+     * Create the cache from the ministatement.* entries in database.properties
+     */
+    public static MiniStatementCache fromConfig(TransactionDAO transactionDAO) {
+        return new MiniStatementCache(transactionDAO,
+            DatabaseConfig.getIntProperty("ministatement.size", 0),
+            DatabaseConfig.getLongProperty("ministatement.budgetBytes", 16L * 1024 * 1024),
+            DatabaseConfig.getLongProperty("ministatement.ttlMillis", 2000));
+    }
+    
+    /**
+     * Get the newest transactions of an account, newest first
+     * Limits above ministatement.size are read from the ledger.
+     */
+    public List<Transaction> getRecent(int accountId, int limit) throws SQLException {
+        if (limit > size || maxAccounts == 0) {
+            return transactionDAO.getTransactionHistory(accountId, limit);
+        }
+        
+        Ring ring = rings.get(accountId);
+        if (ring != null) {
+            if (ttlNanos == 0 || System.nanoTime() - ring.loadedAt < ttlNanos) {
+                hits.incrementAndGet();
+                return ring.newest(limit);
+            }
+            rings.remove(accountId, ring); // may be missing other processes' rows
+        }
+        
+        misses.incrementAndGet();
+        long stamp = writeStamps.get(stripe(accountId));
+        List<Transaction> history = transactionDAO.getTransactionHistory(accountId, size);
+        if (writeStamps.get(stripe(accountId)) == stamp) {
+            Ring loaded = new Ring(size);
+            for (int i = history.size() - 1; i >= 0; i--) {
+                loaded.add(copy(history.get(i)));
+            }
+            if (rings.putIfAbsent(accountId, loaded) == null) {
+                if (writeStamps.get(stripe(accountId)) != stamp) {
+                    rings.remove(accountId, loaded); // a row committed meanwhile may have missed it
+                } else if (rings.size() > maxAccounts) {
+                    evict();
+                }
+            }
+        }
+        return history.size() > limit ? new ArrayList<>(history.subList(0, limit)) : history;
+    }
+    
+    /**
+     * Add committed ledger rows to the rings of their accounts
+     */
+    public void recorded(List<Transaction> transactions) {
+        if (maxAccounts == 0) {
+            return;
+        }
+        for (Transaction transaction : transactions) {
+            int accountId = transaction.getAccountId();
+            writeStamps.incrementAndGet(stripe(accountId));
+            Ring ring = rings.get(accountId);
+            if (ring != null) {
+                ring.add(copy(transaction));
+            }
+        }
+    }
+    
+    public int getCachedAccountCount() {
+        return rings.size();
+    }
+    
+    public long getHitCount() {
+        return hits.get();
+    }
+    
+    public long getMissCount() {
+        return misses.get();
+    }
+    
+    /**
+     * Sweep the clock hand over the rings until they fit the budget again,
+     * giving rings read since the last sweep a second chance
+     * Only one thread sweeps at a time; the others carry on. The size is
+     * checked again after unlocking, for rings added by threads that found
+     * the sweep busy.
+     */
+    private void evict() {
+        while (rings.size() > maxAccounts && evictionLock.tryLock()) {
+            try {
+                int visited = 0;
+                while (rings.size() > maxAccounts) {
+                    if (clockHand == null || !clockHand.hasNext()) {
+                        clockHand = rings.values().iterator();
+                        if (!clockHand.hasNext()) {
+                            return;
+                        }
+                    }
+                    Ring ring = clockHand.next();
+                    if (ring.referenced && visited++ < 2 * rings.size()) {
+                        ring.referenced = false;
+                    } else {
+                        clockHand.remove();
+                    }
+                }
+            } finally {
+                evictionLock.unlock();
+            }
+        }
+    }
+    
+    private static int stripe(int accountId) {
+        return Math.floorMod(accountId, STRIPES);
+    }
+    
+    private static long ringBytes(int size) {
+        return 64 + 8L * size + (long) ENTRY_BYTES * size;
+    }
+    
+    private static Transaction copy(Transaction transaction) {
+        Transaction copy = new Transaction(transaction.getAccountId(), transaction.getTransactionType(),
+            transaction.getAmount(), transaction.getBalanceAfter(), transaction.getDescription());
+        copy.setTransactionId(transaction.getTransactionId());
+        copy.setRelatedAccountId(transaction.getRelatedAccountId());
+        copy.setTransactionDate(transaction.getTransactionDate());
+        copy.setFxRateVersion(transaction.getFxRateVersion());
+        return copy;
+    }
+    
+    /**
+     * The newest rows of one account, oldest first from head
+     */
+    private static final class Ring {
+        private final Transaction[] slots;
+        private final long loadedAt = System.nanoTime();
+        private int head;
+        private int count;
+        volatile boolean referenced = true;
+        
+        Ring(int size) {
+            this.slots = new Transaction[size];
+        }
+        
+        /**
+         * Add a row in ID order, which per account is commit order; rows
+         * already present are skipped
+         */
+        synchronized void add(Transaction transaction) {
+            int transactionId = transaction.getTransactionId();
+            int position = count; // index from the oldest row
+            while (position > 0) {
+                int previousId = slot(position - 1).getTransactionId();
+                if (previousId == transactionId) {
+                    return;
+                }
+                if (previousId < transactionId) {
+                    break;
+                }
+                position--;
+            }
+            
+            if (count == slots.length) {
+                if (position == 0) {
+                    return; // older than every row kept
+                }
+                head = (head + 1) % slots.length; // drop the oldest row
+                count--;
+                position--;
+            }
+            for (int i = count; i > position; i--) {
+                slots[(head + i) % slots.length] = slot(i - 1);
+            }
+            slots[(head + position) % slots.length] = transaction;
+            count++;
+        }
+        
+        synchronized List<Transaction> newest(int limit) {
+            referenced = true;
+            int n = Math.min(limit, count);
+            List<Transaction> transactions = new ArrayList<>(n);
+            for (int i = count - 1; i >= count - n; i--) {
+                transactions.add(copy(slot(i)));
+            }
+            return transactions;
+        }
+        
+        private Transaction slot(int position) {
+            return slots[(head + position) % slots.length];
+        }
+    }
+}
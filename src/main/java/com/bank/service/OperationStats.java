@@ -0,0 +1,92 @@
+package com.bank.service;
+
+import com.bank.util.RateCounter;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * In-flight, completed and failed counts for one kind of service operation,
+ * with a one-minute window of recent calls and failures
+ * Recording is a few atomic increments, with no locks.
+ */
+public class OperationStats {
+    private final String name;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final RateCounter calls = new RateCounter();
+    private final RateCounter failures = new RateCounter();
+    
+    public OperationStats(String name) {
+        this.name = name;
+    }
+    
+    /**
+     * Count an operation as started; close the returned call when it ends,
+     * normally with try-with-resources
+     */
+    public Call begin() {
+        inFlight.incrementAndGet();
+        return new Call();
+    }
+    
+    public String getName() {
+        return name;
+    }
+    
+    public int getInFlight() {
+        return inFlight.get();
+    }
+    
+    public long getCompletedCount() {
+        return calls.getTotal() - failures.getTotal();
+    }
+    
+    public long getFailedCount() {
+        return failures.getTotal();
+    }
+    
+    /**
+     * Calls that ended in the last minute
+     */
+    public long getRecentCalls() {
+        return calls.getLastMinute();
+    }
+    
+    /**
+     * Calls that ended with an exception in the last minute, including
+     * business rejections such as insufficient balance
+     */
+    public long getRecentFailures() {
+        return failures.getLastMinute();
+    }
+    
+    private void record(boolean succeeded) {
+        inFlight.decrementAndGet();
+        if (!succeeded) {
+            failures.increment();
+        }
+        calls.increment();
+    }
+    
+    /**
+     * One running operation; it counts as failed unless succeeded() is called
+     * before it is closed
+     */
+    public final class Call implements AutoCloseable {
+        private boolean succeeded;
+        private boolean closed;
+        
+        private Call() {
+        }
+        
+        public void succeeded() {
+            succeeded = true;
+        }
+        
+        @Override
+        public void close() {
+            if (!closed) {
+                closed = true;
+                record(succeeded);
+            }
+        }
+    }
+}
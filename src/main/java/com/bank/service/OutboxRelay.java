@@ -0,0 +1,146 @@
+package com.bank.service;
+
+import com.bank.config.DatabaseConfig;
+import com.bank.dao.JdbcOutboxDAO;
+import com.bank.dao.OutboxDAO;
+import com.bank.model.OutboxEvent;
+import com.bank.util.DatabaseConnection;
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Outbox Relay
+ * Moves events from the outbox (written by TransactionService with
+ * outbox.enabled) to an OutboxSink in batches of outbox.batchSize: read the
+ * oldest batch, publish it, then delete it. The money movements themselves
+ * never wait on the consumer.
+ *
+ * Delivery is at least once: events published just before a crash, or before
+ * a failed delete, are published again, and consumers dedupe by event ID.
+ * Run a single relay; two would publish the same batches twice.
+ */
+public class OutboxRelay {
+    private OutboxDAO outboxDAO;
+    private OutboxSink sink;
+    private int batchSize;
+    private long pollMillis;
+    
+    private long published;
+    private long lastLagMillis;
+    private long maxLagMillis;
+    
+    public OutboxRelay() {
+        this(new JdbcOutboxDAO(),
+             new FileOutboxSink(Paths.get(DatabaseConfig.getProperty("outbox.file", "outbox-events.jsonl"))),
+             DatabaseConfig.getIntProperty("outbox.batchSize", 500),
+             DatabaseConfig.getLongProperty("outbox.pollMillis", 1000));
+    }
+    
+    public OutboxRelay(OutboxDAO outboxDAO, OutboxSink sink, int batchSize, long pollMillis) {
+        if (batchSize < 1 || pollMillis < 1) {
+            throw new IllegalArgumentException("Batch size and poll interval must be at least 1");
+        }
+        this.outboxDAO = outboxDAO;
+        this.sink = sink;
+        this.batchSize = batchSize;
+        this.pollMillis = pollMillis;
+    }
+    
+    /**
+     * Usage: OutboxRelay [--once]
+     * Polls every outbox.pollMillis; --once drains the outbox and exits.
+     */
+    public static void main(String[] args) {
+        boolean once = args.length > 0 && args[0].equals("--once");
+        OutboxRelay relay = new OutboxRelay();
+        
+        try {
+            if (once) {
+                int relayed = relay.relayAvailable();
+                System.out.println("Outbox: " + relayed + " event(s) published, lag " + relay.getLastLagMillis() + " ms");
+            } else {
+                relay.run();
+            }
+        } catch (SQLException | IOException e) {
+            System.err.println("Outbox relay failed: " + e.getMessage());
+            System.exit(1);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            DatabaseConnection.closeConnection();
+        }
+    }
+    
+    /**
+     * Relay until interrupted, sleeping outbox.pollMillis whenever the outbox is drained
+     * A failed batch is logged and retried on the next poll.
+     */
+    public void run() throws InterruptedException {
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                relayAvailable();
+            } catch (SQLException | IOException e) {
+                System.err.println(LocalDateTime.now() + " Outbox batch not relayed: " + e.getMessage());
+                DatabaseConnection.closeConnection(); // reconnect on the next poll
+            }
+            Thread.sleep(pollMillis);
+        }
+    }
+    
+    /**
+     * Publish and delete batches until the outbox is empty
+     * @return number of events published
+     */
+    public int relayAvailable() throws SQLException, IOException {
+        int relayed = 0;
+        while (true) {
+            List<OutboxEvent> batch = outboxDAO.getNextBatch(batchSize);
+            if (batch.isEmpty()) {
+                return relayed;
+            }
+            recordLag(batch.get(0));
+            sink.publish(batch);
+            outboxDAO.deleteEvents(batch);
+            relayed += batch.size();
+            synchronized (this) {
+                published += batch.size();
+            }
+            if (batch.size() < batchSize) {
+                return relayed;
+            }
+        }
+    }
+    
+    /**
+     * Lag is the age of the oldest event in a batch when the relay picks it up
+     */
+    private synchronized void recordLag(OutboxEvent oldest) {
+        lastLagMillis = Math.max(0, Duration.between(oldest.getCreatedAt(), LocalDateTime.now()).toMillis());
+        maxLagMillis = Math.max(maxLagMillis, lastLagMillis);
+    }
+    
+    /**
+     * Events published since startup
+     */
+    public synchronized long getPublishedCount() {
+        return published;
+    }
+    
+    /**
+     * Age of the oldest event in the last batch, in milliseconds
+     */
+    public synchronized long getLastLagMillis() {
+        return lastLagMillis;
+    }
+    
+    /**
+     * Highest lag seen since startup, in milliseconds
+     */
+    public synchronized long getMaxLagMillis() {
+        return maxLagMillis;
+    }
+}
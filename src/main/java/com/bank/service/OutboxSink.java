@@ -0,0 +1,14 @@
+package com.bank.service;
+
+import com.bank.model.OutboxEvent;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Destination of the events OutboxRelay takes from the outbox
+ * A batch counts as delivered once publish returns; if it throws, the same
+ * events are offered again, so consumers must ignore event IDs they have seen.
+ */
+public interface OutboxSink {
+    void publish(List<OutboxEvent> events) throws IOException;
+}
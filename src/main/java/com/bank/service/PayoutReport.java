@@ -0,0 +1,109 @@
+package com.bank.service;
+
+import com.bank.model.Transaction;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Bulk Payout Report
+ * The outcome of one TransactionService.bulkPayout, or of finishing one in
+ * resumePayouts: the stored payout and the debit of its source account, how
+ * many payments were credited this time, and each payment that failed,
+ * whose amount was refunded to the source.
+ */
+public class PayoutReport {
+    private final int payoutId;
+    private final Transaction debit;
+    private int creditedCount;
+    private double creditedAmount;
+    private final List<Failure> failures = new ArrayList<>();
+    private Transaction refund;
+    
+    PayoutReport(int payoutId, Transaction debit) {
+        this.payoutId = payoutId;
+        this.debit = debit;
+    }
+    
+    void credited(int count, double amount) {
+        creditedCount += count;
+        creditedAmount += amount;
+    }
+    
+    void failed(Failure failure) {
+        failures.add(failure);
+    }
+    
+    void refunded(Transaction refund) {
+        this.refund = refund;
+    }
+    
+    public int getPayoutId() {
+        return payoutId;
+    }
+    
+    /**
+     * The TRANSFER_OUT row that took the whole payout from the source
+     */
+    public Transaction getDebit() {
+        return debit;
+    }
+    
+    public int getCreditedCount() {
+        return creditedCount;
+    }
+    
+    /**
+     * Total credited, in the source currency
+     */
+    public double getCreditedAmount() {
+        return creditedAmount;
+    }
+    
+    public List<Failure> getFailures() {
+        return Collections.unmodifiableList(failures);
+    }
+    
+    public double getFailedAmount() {
+        double amount = 0;
+        for (Failure failure : failures) {
+            amount += failure.getAmount();
+        }
+        return amount;
+    }
+    
+    /**
+     * The TRANSFER_IN row that returned the failed payments to the source,
+     * or null if none failed
+     */
+    public Transaction getRefund() {
+        return refund;
+    }
+    
+    /**
+     * One payment that was not credited
+     */
+    public static class Failure {
+        private final int accountId;
+        private final double amount;
+        private final String reason;
+        
+        Failure(int accountId, double amount, String reason) {
+            this.accountId = accountId;
+            this.amount = amount;
+            this.reason = reason;
+        }
+        
+        public int getAccountId() {
+            return accountId;
+        }
+        
+        public double getAmount() {
+            return amount;
+        }
+        
+        public String getReason() {
+            return reason;
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.bank.service;
+
+import java.io.PrintWriter;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Ledger Reconciliation Report
+ * Everything one reconciliation run found wrong. Workers add to it
+ * concurrently; it is read once the run has finished.
+ */
+public class ReconciliationReport {
+    
+    public enum MismatchType {
+        OPENING_BALANCE,     // first ledger row does not start from a zero balance
+        CHAIN_BREAK,         // balance_after differs from the previous balance plus the movement
+        FINAL_BALANCE,       // accounts.balance differs from the newest balance_after
+        UNMATCHED_TRANSFER   // transfer leg without its counterpart on the related account
+    }
+    
+    private final boolean fullRun;
+    private final LocalDateTime verifiedBefore;
+    private final AtomicInteger accountsVerified = new AtomicInteger();
+    private final AtomicLong rowsVerified = new AtomicLong();
+    private final ConcurrentLinkedQueue<Mismatch> mismatches = new ConcurrentLinkedQueue<>();
+    
+    public ReconciliationReport(boolean fullRun, LocalDateTime verifiedBefore) {
+        this.fullRun = fullRun;
+        this.verifiedBefore = verifiedBefore;
+    }
+    
+    void addMismatch(MismatchType type, int accountId, Integer transactionId, double expected, double actual) {
+        mismatches.add(new Mismatch(type, accountId, transactionId, expected, actual));
+    }
+    
+    void accountVerified(long rows) {
+        accountsVerified.incrementAndGet();
+        rowsVerified.addAndGet(rows);
+    }
+    
+    public boolean isFullRun() {
+        return fullRun;
+    }
+    
+    /**
+     * Ledger rows dated before this were covered by the run
+     */
+    public LocalDateTime getVerifiedBefore() {
+        return verifiedBefore;
+    }
+    
+    public int getAccountsVerified() {
+        return accountsVerified.get();
+    }
+    
+    public long getRowsVerified() {
+        return rowsVerified.get();
+    }
+    
+    public boolean isClean() {
+        return mismatches.isEmpty();
+    }
+    
+    /**
+     * Get the mismatches ordered by account and transaction
+     */
+    public List<Mismatch> getMismatches() {
+        List<Mismatch> sorted = new ArrayList<>(mismatches);
+        sorted.sort(Comparator.comparingInt(Mismatch::getAccountId)
+            .thenComparing(Mismatch::getTransactionId, Comparator.nullsLast(Comparator.naturalOrder())));
+        return sorted;
+    }
+    
+    /**
+     * Write the report as plain text, one line per mismatch
+     */
+    public void writeTo(PrintWriter out) {
+        out.println("Ledger reconciliation (" + (fullRun ? "full" : "incremental") + ")");
+        out.println("Verified before: " + verifiedBefore);
+        out.println("Accounts verified: " + getAccountsVerified());
+        out.println("Ledger rows verified: " + getRowsVerified());
+        out.println("Mismatches: " + mismatches.size());
+        for (Mismatch mismatch : getMismatches()) {
+            out.println(mismatch);
+        }
+        out.flush();
+    }
+    
+    /**
+     * One finding of the reconciliation
+     */
+    public static class Mismatch {
+        private final MismatchType type;
+        private final int accountId;
+        private final Integer transactionId;
+        private final double expected;
+        private final double actual;
+        
+        Mismatch(MismatchType type, int accountId, Integer transactionId, double expected, double actual) {
+            this.type = type;
+            this.accountId = accountId;
+            this.transactionId = transactionId;
+            this.expected = expected;
+            this.actual = actual;
+        }
+        
+        public MismatchType getType() {
+            return type;
+        }
+        
+        public int getAccountId() {
+            return accountId;
+        }
+        
+        /**
+         * @return the ledger row at fault, or null for FINAL_BALANCE
+         */
+        public Integer getTransactionId() {
+            return transactionId;
+        }
+        
+        public double getExpected() {
+            return expected;
+        }
+        
+        public double getActual() {
+            return actual;
+        }
+        
+        @Override
+        public String toString() {
+            return String.format("%-18s account=%d transaction=%s expected=%.2f actual=%.2f",
+                type, accountId, transactionId != null ? transactionId : "-", expected, actual);
+        }
+    }
+}
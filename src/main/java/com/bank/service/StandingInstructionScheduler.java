@@ -0,0 +1,203 @@
+package com.bank.service;
+
+import com.bank.config.DatabaseConfig;
+import com.bank.dao.StandingInstructionDAO;
+import com.bank.exception.BankException;
+import com.bank.exception.OverloadedException;
+import com.bank.model.StandingInstruction;
+import com.bank.model.Transaction;
+import com.bank.util.DatabaseConnection;
+import com.bank.util.RetryPolicy;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Standing Instruction Scheduler
+ * Pages through the due-time index (idx_due) in batches of
+ * standing.batchSize and runs each due occurrence through
+ * TransactionService.transfer on standing.workers threads. At most that many
+ * transfers, and so database connections, are busy at once, however many
+ * instructions fall due together; the rest wait in the index, not in memory.
+ *
+ * Claiming an occurrence moves next_run_at on inside the transfer's own
+ * transaction, so each occurrence runs exactly once even with several
+ * schedulers. Occurrences missed while the scheduler was down are still due
+ * and run one by one on the next poll. An occurrence that fails for a business
+ * reason (e.g. insufficient balance) is skipped and the reason stored in
+ * last_error; one that fails because the database is unreachable or keeps
+ * deadlocking, or that admission control turns away, stays due.
+ */
+public class StandingInstructionScheduler {
+    private static final LocalDateTime BEFORE_EVERYTHING = LocalDateTime.of(1970, 1, 2, 0, 0);
+    private static final int MAX_ERROR_LENGTH = 255;
+    private static final String SQLSTATE_CONNECTION_CLASS = "08";
+    private static final String ADMISSION_CLIENT = "standing-instructions";
+    
+    private StandingInstructionDAO instructionDAO;
+    private TransactionService transactionService;
+    private int batchSize;
+    private ExecutorService pool;
+    
+    private final AtomicLong executed = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    
+    public StandingInstructionScheduler() {
+        this(new StandingInstructionDAO(), new TransactionService(),
+             DatabaseConfig.getIntProperty("standing.batchSize", 500),
+             DatabaseConfig.getIntProperty("standing.workers", 8));
+    }
+    
+    public StandingInstructionScheduler(StandingInstructionDAO instructionDAO, TransactionService transactionService,
+                                        int batchSize, int workers) {
+        if (batchSize < 1 || workers < 1) {
+            throw new IllegalArgumentException("Batch size and workers must be at least 1");
+        }
+        this.instructionDAO = instructionDAO;
+        this.transactionService = transactionService;
+        this.batchSize = batchSize;
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.pool = Executors.newFixedThreadPool(workers, runnable -> {
+            Thread thread = new Thread(runnable, "standing-instructions-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+    
+    /**
+     * Usage: StandingInstructionScheduler [--once]
+     * Polls every standing.pollSeconds; --once runs what is due and exits.
+     */
+    public static void main(String[] args) {
+        boolean once = args.length > 0 && args[0].equals("--once");
+        long pollMillis = DatabaseConfig.getIntProperty("standing.pollSeconds", 30) * 1000L;
+        StandingInstructionScheduler scheduler = new StandingInstructionScheduler();
+        
+        try {
+            scheduler.transactionService.warmUp();
+            do {
+                int handled = scheduler.runDue(LocalDateTime.now());
+                if (handled > 0 || once) {
+                    System.out.println(LocalDateTime.now() + " Standing instructions: " + handled + " occurrence(s) handled, " +
+                        scheduler.getExecutedCount() + " executed and " + scheduler.getFailedCount() + " failed so far");
+                }
+                if (!once) {
+                    Thread.sleep(pollMillis);
+                }
+            } while (!once);
+        } catch (SQLException e) {
+            System.err.println("Standing instruction run failed: " + e.getMessage());
+            System.exit(1);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            DatabaseConnection.closeConnection();
+        }
+    }
+    
+    /**
+     * Run every occurrence due by the given time and wait for them to finish
+     * @return number of occurrences handed to the workers
+     */
+    public int runDue(LocalDateTime now) throws SQLException, InterruptedException {
+        // Bounds the work fetched ahead of the workers to one batch
+        Semaphore slots = new Semaphore(batchSize);
+        LocalDateTime cursorRunAt = BEFORE_EVERYTHING;
+        int cursorId = 0;
+        int handled = 0;
+        
+        try {
+            while (true) {
+                List<StandingInstruction> batch = instructionDAO.getDueInstructions(now, cursorRunAt, cursorId, batchSize);
+                for (StandingInstruction instruction : batch) {
+                    slots.acquire();
+                    pool.execute(() -> {
+                        try {
+                            runOccurrence(instruction);
+                        } finally {
+                            slots.release();
+                        }
+                    });
+                    handled++;
+                }
+                if (batch.size() < batchSize) {
+                    break;
+                }
+                StandingInstruction last = batch.get(batch.size() - 1);
+                cursorRunAt = last.getNextRunAt();
+                cursorId = last.getInstructionId();
+            }
+        } finally {
+            slots.acquireUninterruptibly(batchSize); // wait for the workers to drain
+            slots.release(batchSize);
+        }
+        return handled;
+    }
+    
+    private void runOccurrence(StandingInstruction instruction) {
+        int instructionId = instruction.getInstructionId();
+        LocalDateTime due = instruction.getNextRunAt();
+        LocalDateTime next = StandingInstructionService.nextRunAfter(instruction, due);
+        LocalDateTime ranAt = LocalDateTime.now().withNano(0);
+        String description = instruction.getDescription() != null
+            ? instruction.getDescription()
+            : "Standing instruction #" + instructionId;
+        
+        try (AdmissionControl.Permit permit = transactionService.getAdmissionControl()
+                .admit(AdmissionControl.Channel.BATCH, ADMISSION_CLIENT)) {
+            Transaction transaction = transactionService.transfer(
+                instruction.getFromAccountId(),
+                instruction.getToAccountId(),
+                instruction.getAmount(),
+                description,
+                () -> instructionDAO.advanceRun(instructionId, due, next, ranAt, null)
+            );
+            if (transaction != null) {
+                executed.incrementAndGet();
+            }
+        } catch (OverloadedException e) {
+            System.err.println("Standing instruction " + instructionId + " left due: " + e.getMessage());
+        } catch (BankException | IllegalArgumentException e) {
+            recordFailure(instructionId, due, next, ranAt, e.getMessage());
+        } catch (SQLException e) {
+            if (RetryPolicy.isRetryable(e)
+                    || e.getSQLState() != null && e.getSQLState().startsWith(SQLSTATE_CONNECTION_CLASS)) {
+                System.err.println("Standing instruction " + instructionId + " left due: " + e.getMessage());
+                DatabaseConnection.closeConnection(); // reconnect on the next occurrence
+            } else {
+                recordFailure(instructionId, due, next, ranAt, e.getMessage());
+            }
+        }
+    }
+    
+    private void recordFailure(int instructionId, LocalDateTime due, LocalDateTime next, LocalDateTime ranAt,
+                               String error) {
+        String message = error != null && error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error;
+        try {
+            if (instructionDAO.advanceRun(instructionId, due, next, ranAt, message)) {
+                failed.incrementAndGet();
+            }
+        } catch (SQLException e) {
+            System.err.println("Could not record failure of standing instruction " + instructionId + ": " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Occurrences that moved money since startup
+     */
+    public long getExecutedCount() {
+        return executed.get();
+    }
+    
+    /**
+     * Occurrences skipped because the transfer was rejected, since startup
+     */
+    public long getFailedCount() {
+        return failed.get();
+    }
+}
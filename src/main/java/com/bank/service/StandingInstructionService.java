@@ -0,0 +1,91 @@
+package com.bank.service;
+
+import com.bank.dao.AccountDAO;
+import com.bank.dao.JdbcAccountDAO;
+import com.bank.dao.StandingInstructionDAO;
+import com.bank.exception.AccountNotFoundException;
+import com.bank.model.StandingInstruction;
+import com.bank.util.Tracer;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Service layer for StandingInstruction operations
+ * Contains business logic for setting up and cancelling recurring transfers.
+ * StandingInstructionScheduler executes them.
+ */
+public class StandingInstructionService {
+    private StandingInstructionDAO instructionDAO;
+    private AccountDAO accountDAO;
+    
+    public StandingInstructionService() {
+        this(new StandingInstructionDAO(), new JdbcAccountDAO());
+    }
+    
+    public StandingInstructionService(StandingInstructionDAO instructionDAO, AccountDAO accountDAO) {
+        this.instructionDAO = instructionDAO;
+        this.accountDAO = Tracer.traced(AccountDAO.class, accountDAO);
+    }
+    
+    /**
+     * Set up a recurring transfer
+     * Monthly instructions keep the day of month of the first run, falling
+     * back to the last day in shorter months.
+     */
+    public StandingInstruction createInstruction(int fromAccountId, int toAccountId, double amount, String description,
+                                                 StandingInstruction.Frequency frequency, LocalDateTime firstRunAt) 
+            throws SQLException, AccountNotFoundException {
+        if (amount <= 0) {
+            throw new IllegalArgumentException("Amount must be greater than zero");
+        }
+        
+        if (fromAccountId == toAccountId) {
+            throw new IllegalArgumentException("Cannot transfer to the same account");
+        }
+        
+        if (accountDAO.getAccountById(fromAccountId) == null) {
+            throw new AccountNotFoundException("Source account with ID " + fromAccountId + " not found");
+        }
+        
+        if (accountDAO.getAccountById(toAccountId) == null) {
+            throw new AccountNotFoundException("Destination account with ID " + toAccountId + " not found");
+        }
+        
+        StandingInstruction instruction = new StandingInstruction(
+            fromAccountId, toAccountId, amount, description, frequency, firstRunAt.withNano(0));
+        instruction.setInstructionId(instructionDAO.createInstruction(instruction));
+        return instruction;
+    }
+    
+    /**
+     * Get the standing instructions paying out of an account
+     */
+    public List<StandingInstruction> getInstructionsForAccount(int accountId) throws SQLException {
+        return instructionDAO.getInstructionsByFromAccount(accountId);
+    }
+    
+    /**
+     * Cancel a standing instruction; occurrences already run are not undone
+     */
+    public boolean cancelInstruction(int instructionId) throws SQLException {
+        return instructionDAO.updateStatus(instructionId, StandingInstruction.Status.CANCELLED);
+    }
+    
+    /**
+     * When the occurrence after the given one falls due
+     */
+    public static LocalDateTime nextRunAfter(StandingInstruction instruction, LocalDateTime runAt) {
+        switch (instruction.getFrequency()) {
+            case DAILY:
+                return runAt.plusDays(1);
+            case WEEKLY:
+                return runAt.plusWeeks(1);
+            default:
+                LocalDate month = runAt.toLocalDate().plusMonths(1);
+                int day = Math.min(instruction.getAnchorDay(), month.lengthOfMonth());
+                return month.withDayOfMonth(day).atTime(runAt.toLocalTime());
+        }
+    }
+}
@@ -1,27 +1,142 @@
 package com.bank.service;
 
 import com.bank.dao.AccountDAO;
+import com.bank.dao.JdbcAccountDAO;
+import com.bank.dao.JdbcOutboxDAO;
+import com.bank.dao.JdbcPayoutDAO;
+import com.bank.dao.JdbcTransactionDAO;
+import com.bank.dao.JdbcUnitOfWork;
+import com.bank.dao.OutboxDAO;
+import com.bank.dao.PayoutDAO;
 import com.bank.dao.TransactionDAO;
+import com.bank.dao.UnitOfWork;
 import com.bank.exception.AccountNotFoundException;
+import com.bank.exception.CurrencyConversionException;
 import com.bank.exception.InsufficientBalanceException;
+import com.bank.exception.LimitExceededException;
+import com.bank.config.DatabaseConfig;
 import com.bank.model.Account;
+import com.bank.model.BulkPayout;
+import com.bank.model.OutboxEvent;
+import com.bank.model.Payout;
 import com.bank.model.Transaction;
-import com.bank.util.DatabaseConnection;
+import com.bank.util.RetryPolicy;
+import com.bank.util.Tracer;
 import java.sql.SQLException;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Service layer for Transaction operations
  * Contains business logic for transactions (deposit, withdrawal, transfer)
+ *
+ * Each money movement runs as one business transaction of the storage
+ * backend's UnitOfWork. Deadlocks, lock-wait timeouts and lost commit races
+ * roll it back and re-run the whole operation, including the account reads,
+ * according to the configured RetryPolicy.
+ *
+ * Withdrawals, outgoing transfers and payouts first pass the VelocityGuard, which
+ * works from memory and rejects bursts before the database is touched.
+ * They are then checked against the account type's DailyLimits, also in
+ * memory, once the account has been read.
+ *
+ * With outbox.enabled, every ledger row is also written to the outbox in
+ * the same business transaction, for OutboxRelay to publish downstream.
+ *
+ * A transfer between accounts in different currencies debits the amount in
+ * the source currency and credits it converted at the FxRateCache's current
+ * rates; both legs record the rate version used.
+ *
+ * A bulk payout debits one source account once and credits many
+ * destinations in chunks, keeping the status of every payment so that
+ * resumePayouts can finish it; see bulkPayout.
  */
 public class TransactionService {
+    // Templates of the descriptions given to ledger rows the caller did not describe
+    private static final String DEPOSIT_DESCRIPTION = "Deposit";
+    private static final String WITHDRAWAL_DESCRIPTION = "Withdrawal";
+    private static final String TRANSFER_TO_DESCRIPTION = "Transfer to " + Transaction.DESCRIPTION_PLACEHOLDER;
+    private static final String TRANSFER_FROM_DESCRIPTION = "Transfer from " + Transaction.DESCRIPTION_PLACEHOLDER;
+    private static final int MAX_REASON_LENGTH = 255;
+    
     private TransactionDAO transactionDAO;
     private AccountDAO accountDAO;
+    private UnitOfWork unitOfWork;
+    private PayoutDAO payoutDAO;
+    private OutboxDAO outboxDAO; // null when the outbox is off
+    private RetryPolicy retryPolicy;
+    private VelocityGuard velocityGuard;
+    private DailyLimits dailyLimits;
+    private FxRateCache fxRates;
+    private MiniStatementCache miniStatements;
+    private AdmissionControl admissionControl;
+    private int payoutChunkSize;
+    
+    private final OperationStats depositStats = new OperationStats("deposit");
+    private final OperationStats withdrawStats = new OperationStats("withdraw");
+    private final OperationStats transferStats = new OperationStats("transfer");
+    private final OperationStats payoutStats = new OperationStats("payout");
     
     public TransactionService() {
-        this.transactionDAO = new TransactionDAO();
-        this.accountDAO = new AccountDAO();
+        this(new JdbcTransactionDAO(), new JdbcAccountDAO(), new JdbcUnitOfWork(), new JdbcPayoutDAO(),
+             Boolean.parseBoolean(DatabaseConfig.getProperty("outbox.enabled", "false")) ? new JdbcOutboxDAO() : null,
+             RetryPolicy.fromConfig(), VelocityGuard.fromConfig(), DailyLimits.fromConfig(), FxRateCache.fromConfig());
+    }
+    
+    /**
+     * @param outboxDAO outbox written with every money movement, or null for none
+     */
+    public TransactionService(TransactionDAO transactionDAO, AccountDAO accountDAO, UnitOfWork unitOfWork,
+                              PayoutDAO payoutDAO, OutboxDAO outboxDAO, RetryPolicy retryPolicy,
+                              VelocityGuard velocityGuard, DailyLimits dailyLimits, FxRateCache fxRates) {
+        this.transactionDAO = Tracer.traced(TransactionDAO.class, transactionDAO);
+        this.accountDAO = Tracer.traced(AccountDAO.class, accountDAO);
+        this.unitOfWork = Tracer.traced(UnitOfWork.class, unitOfWork);
+        this.payoutDAO = Tracer.traced(PayoutDAO.class, payoutDAO);
+        this.outboxDAO = Tracer.traced(OutboxDAO.class, outboxDAO);
+        this.retryPolicy = retryPolicy;
+        this.velocityGuard = velocityGuard;
+        this.dailyLimits = dailyLimits;
+        this.fxRates = fxRates;
+        this.miniStatements = MiniStatementCache.fromConfig(this.transactionDAO);
+        this.admissionControl = AdmissionControl.fromConfig();
+        this.payoutChunkSize = DatabaseConfig.getIntProperty("payout.chunkSize", 500);
+        if (payoutChunkSize < 1) {
+            throw new IllegalArgumentException("Payout chunk size must be at least 1");
+        }
+    }
+    
+    /**
+     * Load recent outflows from the ledger into the velocity guard,
+     * load today's daily limit counters and load the FX rates
+     * The limits are loaded first, so a failing FX read cannot leave them
+     * empty. Call once at startup, before serving withdrawals and transfers.
+     */
+    public void warmUp() throws SQLException {
+        if (velocityGuard.isEnabled()) {
+            LocalDateTime since = LocalDateTime.now().minusMinutes(velocityGuard.getLongestWindowMinutes());
+            velocityGuard.warmUp(transactionDAO.getOutflowsSince(since));
+        }
+        if (dailyLimits.isEnabled()) {
+            dailyLimits.load(transactionDAO.getOutflowsSince(LocalDate.now().atStartOfDay()));
+            dailyLimits.startFlushing();
+        }
+        fxRates.current();
+        fxRates.startRefreshing();
+    }
+    
+    /**
+     * Whether velocity rules or daily caps are configured; they would be
+     * enforced from empty counters if warmUp failed
+     */
+    public boolean hasOutflowLimits() {
+        return velocityGuard.isEnabled() || dailyLimits.isEnabled();
     }
     
     /**
@@ -29,56 +144,367 @@ public class TransactionService {
      */
     public Transaction deposit(int accountId, double amount, String description) 
             throws SQLException, AccountNotFoundException {
-        if (amount <= 0) {
-            throw new IllegalArgumentException("Deposit amount must be greater than zero");
-        }
-        
-        Account account = accountDAO.getAccountById(accountId);
-        if (account == null) {
-            throw new AccountNotFoundException("Account with ID " + accountId + " not found");
+        try (Tracer.Span span = Tracer.begin("TransactionService.deposit");
+             OperationStats.Call call = depositStats.begin()) {
+            if (amount <= 0) {
+                throw new IllegalArgumentException("Deposit amount must be greater than zero");
+            }
+            
+            RetryPolicy.Attempt attempt = retryPolicy.begin();
+            while (true) {
+                List<Transaction> written = new ArrayList<>(1);
+                unitOfWork.begin();
+                try {
+                    Transaction transaction = applyDeposit(accountId, amount, description, written);
+                    unitOfWork.commit();
+                    miniStatements.recorded(written);
+                    attempt.onSuccess();
+                    call.succeeded();
+                    return transaction;
+                } catch (SQLException e) {
+                    rollback(e);
+                    attempt.onFailure(e);
+                } catch (AccountNotFoundException | RuntimeException e) {
+                    rollback(e);
+                    throw e;
+                }
+            }
         }
-        
-        if (account.getStatus() != Account.AccountStatus.ACTIVE) {
-            throw new SQLException("Cannot deposit to inactive or closed account");
+    }
+    
+    /**
+     * Withdraw money from an account
+     */
+    public Transaction withdraw(int accountId, double amount, String description) 
+            throws SQLException, AccountNotFoundException, InsufficientBalanceException, LimitExceededException {
+        try (Tracer.Span span = Tracer.begin("TransactionService.withdraw");
+             OperationStats.Call call = withdrawStats.begin()) {
+            if (amount <= 0) {
+                throw new IllegalArgumentException("Withdrawal amount must be greater than zero");
+            }
+            
+            VelocityGuard.Reservation velocity = velocityGuard.reserve(accountId, amount);
+            try {
+                RetryPolicy.Attempt attempt = retryPolicy.begin();
+                while (true) {
+                    List<DailyLimits.Reservation> reserved = new ArrayList<>(1);
+                    List<Transaction> written = new ArrayList<>(1);
+                    unitOfWork.begin();
+                    try {
+                        Transaction transaction = applyWithdraw(accountId, amount, description, reserved, written);
+                        unitOfWork.commit();
+                        miniStatements.recorded(written);
+                        attempt.onSuccess();
+                        call.succeeded();
+                        return transaction;
+                    } catch (SQLException e) {
+                        rollback(e, reserved);
+                        attempt.onFailure(e);
+                    } catch (AccountNotFoundException | InsufficientBalanceException | LimitExceededException
+                             | RuntimeException e) {
+                        rollback(e, reserved);
+                        throw e;
+                    }
+                }
+            } catch (Exception e) {
+                velocity.release(); // the withdrawal never happened
+                throw e;
+            }
         }
-        
-        try {
-            double newBalance = account.getBalance() + amount;
+    }
+    
+    /**
+     * Transfer money between two accounts
+     */
+    public Transaction transfer(int fromAccountId, int toAccountId, double amount, String description) 
+            throws SQLException, AccountNotFoundException, InsufficientBalanceException, LimitExceededException,
+                   CurrencyConversionException {
+        return transfer(fromAccountId, toAccountId, amount, description, null);
+    }
+    
+    /**
+     * Transfer money between two accounts, first running a guard inside the
+     * same business transaction. Writes the guard makes through the same
+     * storage backend commit or roll back with the transfer, and it runs
+     * again on every retry.
+     * @return the TRANSFER_IN transaction, or null if the guard declined
+     */
+    public Transaction transfer(int fromAccountId, int toAccountId, double amount, String description,
+                                TransferGuard guard) 
+            throws SQLException, AccountNotFoundException, InsufficientBalanceException, LimitExceededException,
+                   CurrencyConversionException {
+        try (Tracer.Span span = Tracer.begin("TransactionService.transfer");
+             OperationStats.Call call = transferStats.begin()) {
+            if (amount <= 0) {
+                throw new IllegalArgumentException("Transfer amount must be greater than zero");
+            }
             
-            // Update account balance
-            accountDAO.updateBalance(accountId, newBalance);
+            if (fromAccountId == toAccountId) {
+                throw new IllegalArgumentException("Cannot transfer to the same account");
+            }
             
-            // Create transaction record
-            Transaction transaction = new Transaction(
-                accountId,
-                Transaction.TransactionType.DEPOSIT,
-                amount,
-                newBalance,
-                description != null ? description : "Deposit"
-            );
-            transaction.setTransactionDate(LocalDateTime.now());
+            VelocityGuard.Reservation velocity = velocityGuard.reserve(fromAccountId, amount);
+            try {
+                RetryPolicy.Attempt attempt = retryPolicy.begin();
+                while (true) {
+                    List<DailyLimits.Reservation> reserved = new ArrayList<>(1);
+                    List<Transaction> written = new ArrayList<>(2);
+                    unitOfWork.begin();
+                    try {
+                        if (guard != null && !guard.proceed()) {
+                            unitOfWork.rollback();
+                            velocity.release();
+                            call.succeeded(); // declined, not failed
+                            return null;
+                        }
+                        Transaction transaction = applyTransfer(fromAccountId, toAccountId, amount, description, reserved,
+                                                                written);
+                        unitOfWork.commit();
+                        miniStatements.recorded(written);
+                        attempt.onSuccess();
+                        call.succeeded();
+                        return transaction;
+                    } catch (SQLException e) {
+                        rollback(e, reserved);
+                        attempt.onFailure(e);
+                    } catch (AccountNotFoundException | InsufficientBalanceException | LimitExceededException
+                             | CurrencyConversionException | RuntimeException e) {
+                        rollback(e, reserved);
+                        throw e;
+                    }
+                }
+            } catch (Exception e) {
+                velocity.release(); // the transfer never happened
+                throw e;
+            }
+        }
+    }
+    
+    /**
+     * Pay many destination accounts from one source account
+     * The total is checked against the source balance and debited with one
+     * update and one TRANSFER_OUT row, in the business transaction that also
+     * stores the payout and its payments, PENDING. The destinations are then
+     * credited in ascending account ID order, payout.chunkSize payments per
+     * business transaction, each chunk with one read of its accounts, one
+     * batch of balance updates and one batch of TRANSFER_IN rows, and its
+     * payments marked CREDITED or FAILED in the same transaction. Payments to
+     * missing, inactive or unconvertible accounts, and whole chunks that could
+     * not be committed, fail. Finally the failed payments are refunded to the
+     * source with one TRANSFER_IN, which completes the payout.
+     *
+     * The ledger rows of a payout carry no related account, as no single
+     * account is on the other side; the stored payout names its debit and
+     * refund. Like a transfer, the whole total passes the velocity guard and
+     * counts against the source's daily transfer limit; refunded payments are
+     * not given back. A payout interrupted after its debit, e.g. because the
+     * process stopped, is finished by resumePayouts.
+     * @param payouts amounts in the source currency; a destination may appear more than once
+     * @return what was credited, and what failed and was refunded
+     * @throws SQLException if the debit failed, in which case nothing was paid, or
+     *         the payout could not be finished, in which case resumePayouts finishes it
+     */
+    public PayoutReport bulkPayout(int sourceAccountId, List<Payout> payouts, String description) 
+            throws SQLException, AccountNotFoundException, InsufficientBalanceException, LimitExceededException {
+        try (Tracer.Span span = Tracer.begin("TransactionService.bulkPayout");
+             OperationStats.Call call = payoutStats.begin()) {
+            if (payouts.isEmpty()) {
+                throw new IllegalArgumentException("A payout needs at least one payment");
+            }
             
-            int transactionId = transactionDAO.createTransaction(transaction);
-            transaction.setTransactionId(transactionId);
+            double total = 0;
+            for (Payout payout : payouts) {
+                if (payout.getAmount() <= 0) {
+                    throw new IllegalArgumentException("Payout amounts must be greater than zero");
+                }
+                if (payout.getAccountId() == sourceAccountId) {
+                    throw new IllegalArgumentException("Cannot pay out to the source account");
+                }
+                total += payout.getAmount();
+            }
             
-            DatabaseConnection.commit();
-            return transaction;
+            // Ascending IDs, so concurrent payouts update shared accounts in the same order
+            List<Payout> sorted = new ArrayList<>(payouts);
+            sorted.sort(Comparator.comparingInt(Payout::getAccountId));
+            List<Payout> payments = new ArrayList<>(sorted.size());
+            for (Payout payout : sorted) {
+                Payout payment = new Payout(payout.getAccountId(), payout.getAmount());
+                payment.setPaymentNo(payments.size());
+                payments.add(payment);
+            }
             
-        } catch (SQLException e) {
-            DatabaseConnection.rollback();
-            throw e;
+            Account source = null;
+            Transaction debit = null;
+            BulkPayout payout = null;
+            VelocityGuard.Reservation velocity = velocityGuard.reserve(sourceAccountId, total);
+            try {
+                RetryPolicy.Attempt attempt = retryPolicy.begin();
+                while (payout == null) {
+                    List<DailyLimits.Reservation> reserved = new ArrayList<>(1);
+                    List<Transaction> written = new ArrayList<>(1);
+                    unitOfWork.begin();
+                    try {
+                        Account account = accountDAO.getAccountById(sourceAccountId);
+                        Transaction transaction = applyPayoutDebit(account, sourceAccountId, total, payments.size(),
+                                                                   description, reserved, written);
+                        BulkPayout stored = new BulkPayout(sourceAccountId, total, description, payments.size(),
+                                                           transaction.getTransactionId());
+                        stored.setPayoutId(payoutDAO.createPayout(stored, payments));
+                        unitOfWork.commit();
+                        miniStatements.recorded(written);
+                        attempt.onSuccess();
+                        source = account;
+                        debit = transaction;
+                        payout = stored;
+                    } catch (SQLException e) {
+                        rollback(e, reserved);
+                        attempt.onFailure(e);
+                    } catch (AccountNotFoundException | InsufficientBalanceException | LimitExceededException
+                             | RuntimeException e) {
+                        rollback(e, reserved);
+                        throw e;
+                    }
+                }
+            } catch (Exception e) {
+                velocity.release(); // nothing was debited
+                throw e;
+            }
+            
+            PayoutReport report;
+            try {
+                report = finishPayout(payout, source, debit);
+            } catch (SQLException | RuntimeException e) {
+                throw new SQLException("Bulk payout " + payout.getPayoutId() + " from account " + sourceAccountId
+                    + " was debited but not finished; resumePayouts finishes it", e);
+            }
+            call.succeeded();
+            return report;
         }
     }
     
     /**
-     * Withdraw money from an account
+     * Finish the payouts left CREDITING, e.g. by a process that stopped
+     * after a debit: credit their PENDING payments, then refund the failed
+     * ones. Safe to run while other processes pay out, as each chunk claims
+     * its payments with a locking read and a payout completes only once; with
+     * the in-memory engine, run it only while no payout is in progress.
+     * @return a report of each payout finished, counting only what this call credited
      */
-    public Transaction withdraw(int accountId, double amount, String description) 
-            throws SQLException, AccountNotFoundException, InsufficientBalanceException {
-        if (amount <= 0) {
-            throw new IllegalArgumentException("Withdrawal amount must be greater than zero");
+    public List<PayoutReport> resumePayouts() throws SQLException {
+        List<PayoutReport> reports = new ArrayList<>();
+        for (BulkPayout payout : payoutDAO.getUnfinishedPayouts()) {
+            Account source = accountDAO.getAccountById(payout.getSourceAccountId());
+            if (source == null) {
+                continue; // deleted with its payouts
+            }
+            Transaction debit = transactionDAO.getTransactionById(payout.getDebitTransactionId());
+            reports.add(finishPayout(payout, source, debit));
         }
+        return reports;
+    }
+    
+    /**
+     * Get transaction history for an account
+     */
+    public List<Transaction> getTransactionHistory(int accountId) throws SQLException {
+        return transactionDAO.getTransactionsByAccountId(accountId);
+    }
+    
+    /**
+     * Get recent transaction history with limit
+     * Mini-statements of up to ministatement.size rows are served from memory.
+     */
+    public List<Transaction> getRecentTransactions(int accountId, int limit) throws SQLException {
+        if (limit < 0) {
+            throw new IllegalArgumentException("Limit cannot be negative");
+        }
+        return miniStatements.getRecent(accountId, limit);
+    }
+    
+    /**
+     * Get transactions dated in [from, to), newest first
+     * Ranges inside the hot window never touch the archive table.
+     */
+    public List<Transaction> getTransactionsBetween(int accountId, LocalDateTime from, LocalDateTime to) 
+            throws SQLException {
+        if (!from.isBefore(to)) {
+            throw new IllegalArgumentException("Range start must be before its end");
+        }
+        return transactionDAO.getTransactionsBetween(accountId, from, to);
+    }
+    
+    /**
+     * Get the retry policy, including its retry and abort counters
+     */
+    public RetryPolicy getRetryPolicy() {
+        return retryPolicy;
+    }
+    
+    /**
+     * Get the mini-statement cache, including its hit and miss counters
+     */
+    public MiniStatementCache getMiniStatements() {
+        return miniStatements;
+    }
+    
+    /**
+     * Admission control shared by everything that calls this service; it
+     * is up to callers to take a permit around each money movement
+     */
+    public AdmissionControl getAdmissionControl() {
+        return admissionControl;
+    }
+    
+    /**
+     * Get in-flight and recent call counts of deposit, withdraw, transfer and payout
+     */
+    public List<OperationStats> getOperationStats() {
+        return List.of(depositStats, withdrawStats, transferStats, payoutStats);
+    }
+    
+    /**
+     * Get the FX rate cache, e.g. to save new rates
+     */
+    public FxRateCache getFxRates() {
+        return fxRates;
+    }
+    
+    private Transaction applyDeposit(int accountId, double amount, String description, List<Transaction> written) 
+            throws SQLException, AccountNotFoundException {
+        Account account = accountDAO.getAccountById(accountId);
+        if (account == null) {
+            throw new AccountNotFoundException("Account with ID " + accountId + " not found");
+        }
+        
+        if (account.getStatus() != Account.AccountStatus.ACTIVE) {
+            throw new SQLException("Cannot deposit to inactive or closed account");
+        }
+        
+        double newBalance = account.getBalance() + amount;
+        
+        // Update account balance, unless it changed since it was read
+        accountDAO.updateBalance(accountId, newBalance, account.getVersion());
         
+        // Create transaction record
+        Transaction transaction = new Transaction(
+            accountId,
+            Transaction.TransactionType.DEPOSIT,
+            amount,
+            newBalance,
+            description
+        );
+        transaction.setTransactionDate(LocalDateTime.now());
+        describe(transaction, description, DEPOSIT_DESCRIPTION, "");
+        
+        int transactionId = transactionDAO.createTransaction(transaction);
+        transaction.setTransactionId(transactionId);
+        publish(written, transaction);
+        return transaction;
+    }
+    
+    private Transaction applyWithdraw(int accountId, double amount, String description,
+                                      List<DailyLimits.Reservation> reserved, List<Transaction> written) 
+            throws SQLException, AccountNotFoundException, InsufficientBalanceException, LimitExceededException {
         Account account = accountDAO.getAccountById(accountId);
         if (account == null) {
             throw new AccountNotFoundException("Account with ID " + accountId + " not found");
@@ -90,52 +516,39 @@ public class TransactionService {
         
         if (account.getBalance() < amount) {
             throw new InsufficientBalanceException(
-                "Insufficient balance. Current balance: " + account.getBalance() + 
+                "Insufficient balance. Current balance: " + account.getBalance() +
                 ", Required: " + amount
             );
         }
         
-        try {
-            double newBalance = account.getBalance() - amount;
-            
-            // Update account balance
-            accountDAO.updateBalance(accountId, newBalance);
-            
-            // Create transaction record
-            Transaction transaction = new Transaction(
-                accountId,
-                Transaction.TransactionType.WITHDRAWAL,
-                amount,
-                newBalance,
-                description != null ? description : "Withdrawal"
-            );
-            transaction.setTransactionDate(LocalDateTime.now());
-            
-            int transactionId = transactionDAO.createTransaction(transaction);
-            transaction.setTransactionId(transactionId);
-            
-            DatabaseConnection.commit();
-            return transaction;
-            
-        } catch (SQLException e) {
-            DatabaseConnection.rollback();
-            throw e;
-        }
-    }
-    
-    /**
-     * Transfer money between two accounts
-     */
-    public Transaction transfer(int fromAccountId, int toAccountId, double amount, String description) 
-            throws SQLException, AccountNotFoundException, InsufficientBalanceException {
-        if (amount <= 0) {
-            throw new IllegalArgumentException("Transfer amount must be greater than zero");
-        }
+        reserved.add(dailyLimits.reserve(account, DailyLimits.Kind.WITHDRAWAL, amount));
         
-        if (fromAccountId == toAccountId) {
-            throw new IllegalArgumentException("Cannot transfer to the same account");
-        }
+        double newBalance = account.getBalance() - amount;
+        
+        // Update account balance, unless it changed since it was read
+        accountDAO.updateBalance(accountId, newBalance, account.getVersion());
         
+        // Create transaction record
+        Transaction transaction = new Transaction(
+            accountId,
+            Transaction.TransactionType.WITHDRAWAL,
+            amount,
+            newBalance,
+            description
+        );
+        transaction.setTransactionDate(LocalDateTime.now());
+        describe(transaction, description, WITHDRAWAL_DESCRIPTION, "");
+        
+        int transactionId = transactionDAO.createTransaction(transaction);
+        transaction.setTransactionId(transactionId);
+        publish(written, transaction);
+        return transaction;
+    }
+    
+    private Transaction applyTransfer(int fromAccountId, int toAccountId, double amount, String description,
+                                      List<DailyLimits.Reservation> reserved, List<Transaction> written) 
+            throws SQLException, AccountNotFoundException, InsufficientBalanceException, LimitExceededException,
+                   CurrencyConversionException {
         Account fromAccount = accountDAO.getAccountById(fromAccountId);
         Account toAccount = accountDAO.getAccountById(toAccountId);
         
@@ -157,65 +570,383 @@ public class TransactionService {
         
         if (fromAccount.getBalance() < amount) {
             throw new InsufficientBalanceException(
-                "Insufficient balance in source account. Current balance: " + 
+                "Insufficient balance in source account. Current balance: " +
                 fromAccount.getBalance() + ", Required: " + amount
             );
         }
         
+        // Both legs use one rate snapshot, whose version goes on the ledger
+        double credited = amount;
+        Long fxRateVersion = null;
+        if (!fromAccount.getCurrency().equals(toAccount.getCurrency())) {
+            FxRateSnapshot rates = fxRates.current();
+            credited = rates.convert(amount, fromAccount.getCurrency(), toAccount.getCurrency());
+            fxRateVersion = rates.getVersion();
+            if (credited <= 0) {
+                throw new IllegalArgumentException("Transfer amount is too small to convert to " + toAccount.getCurrency());
+            }
+        }
+        
+        reserved.add(dailyLimits.reserve(fromAccount, DailyLimits.Kind.TRANSFER, amount));
+        
+        // Update source account balance
+        double fromNewBalance = fromAccount.getBalance() - amount;
+        accountDAO.updateBalance(fromAccountId, fromNewBalance, fromAccount.getVersion());
+        
+        // Create withdrawal transaction for source account
+        Transaction withdrawalTransaction = new Transaction(
+            fromAccountId,
+            Transaction.TransactionType.TRANSFER_OUT,
+            amount,
+            fromNewBalance,
+            description
+        );
+        describe(withdrawalTransaction, description, TRANSFER_TO_DESCRIPTION, toAccount.getAccountNumber());
+        withdrawalTransaction.setRelatedAccountId(toAccountId);
+        withdrawalTransaction.setTransactionDate(LocalDateTime.now());
+        withdrawalTransaction.setFxRateVersion(fxRateVersion);
+        withdrawalTransaction.setTransactionId(transactionDAO.createTransaction(withdrawalTransaction));
+        
+        // Update destination account balance
+        double toNewBalance = toAccount.getBalance() + credited;
+        accountDAO.updateBalance(toAccountId, toNewBalance, toAccount.getVersion());
+        
+        // Create deposit transaction for destination account
+        Transaction depositTransaction = new Transaction(
+            toAccountId,
+            Transaction.TransactionType.TRANSFER_IN,
+            credited,
+            toNewBalance,
+            description
+        );
+        describe(depositTransaction, description, TRANSFER_FROM_DESCRIPTION, fromAccount.getAccountNumber());
+        depositTransaction.setRelatedAccountId(fromAccountId);
+        depositTransaction.setTransactionDate(LocalDateTime.now());
+        depositTransaction.setFxRateVersion(fxRateVersion);
+        int transactionId = transactionDAO.createTransaction(depositTransaction);
+        depositTransaction.setTransactionId(transactionId);
+        publish(written, withdrawalTransaction, depositTransaction);
+        return depositTransaction;
+    }
+    
+    private Transaction applyPayoutDebit(Account source, int sourceAccountId, double total, int payments,
+                                         String description, List<DailyLimits.Reservation> reserved,
+                                         List<Transaction> written) 
+            throws SQLException, AccountNotFoundException, InsufficientBalanceException, LimitExceededException {
+        if (source == null) {
+            throw new AccountNotFoundException("Source account with ID " + sourceAccountId + " not found");
+        }
+        
+        if (source.getStatus() != Account.AccountStatus.ACTIVE) {
+            throw new SQLException("Cannot pay out from inactive or closed account");
+        }
+        
+        if (source.getBalance() < total) {
+            throw new InsufficientBalanceException(
+                "Insufficient balance in source account. Current balance: " +
+                source.getBalance() + ", Required: " + total
+            );
+        }
+        
+        reserved.add(dailyLimits.reserve(source, DailyLimits.Kind.TRANSFER, total));
+        
+        // One update for the whole payout
+        double newBalance = source.getBalance() - total;
+        accountDAO.updateBalance(sourceAccountId, newBalance, source.getVersion());
+        
+        Transaction transaction = new Transaction(
+            sourceAccountId,
+            Transaction.TransactionType.TRANSFER_OUT,
+            total,
+            newBalance,
+            description != null ? description : "Bulk payout of " + payments + " payment(s)"
+        );
+        transaction.setTransactionDate(LocalDateTime.now());
+        transaction.setTransactionId(transactionDAO.createTransaction(transaction));
+        publish(written, transaction);
+        return transaction;
+    }
+    
+    /**
+     * Credit a stored payout's PENDING payments chunk by chunk, then refund
+     * the failed ones and complete it
+     */
+    private PayoutReport finishPayout(BulkPayout payout, Account source, Transaction debit) throws SQLException {
+        PayoutReport report = new PayoutReport(payout.getPayoutId(), debit);
+        for (int first = 0; first < payout.getPaymentCount(); first += payoutChunkSize) {
+            int last = Math.min(first + payoutChunkSize, payout.getPaymentCount()) - 1;
+            creditPayoutChunk(payout, first, last, source, report);
+        }
+        completePayout(payout, report);
+        return report;
+    }
+    
+    /**
+     * Credit the PENDING payments of one chunk in its own business
+     * transaction, retried as a whole; if it cannot be committed, they fail
+     * @throws SQLException if they could not even be marked FAILED, so they stay PENDING
+     */
+    private void creditPayoutChunk(BulkPayout payout, int firstPaymentNo, int lastPaymentNo, Account source,
+                                   PayoutReport report) throws SQLException {
+        int payoutId = payout.getPayoutId();
         try {
-            // Update source account balance
-            double fromNewBalance = fromAccount.getBalance() - amount;
-            accountDAO.updateBalance(fromAccountId, fromNewBalance);
+            RetryPolicy.Attempt attempt = retryPolicy.begin();
+            while (true) {
+                List<Payout> rejected = new ArrayList<>();
+                List<Transaction> written = new ArrayList<>(lastPaymentNo - firstPaymentNo + 1);
+                unitOfWork.begin();
+                try {
+                    List<Payout> chunk = payoutDAO.claimPendingPayments(payoutId, firstPaymentNo, lastPaymentNo);
+                    double credited = chunk.isEmpty() ? 0
+                        : applyPayoutCredits(chunk, source, payout.getDescription(), rejected, written);
+                    if (!rejected.isEmpty()) {
+                        payoutDAO.markFailed(payoutId, rejected);
+                    }
+                    payoutDAO.markCredited(payoutId, firstPaymentNo, lastPaymentNo);
+                    unitOfWork.commit();
+                    miniStatements.recorded(written);
+                    attempt.onSuccess();
+                    report.credited(written.size(), credited);
+                    return;
+                } catch (SQLException e) {
+                    rollback(e);
+                    attempt.onFailure(e);
+                } catch (RuntimeException e) {
+                    rollback(e);
+                    throw e;
+                }
+            }
+        } catch (SQLException | RuntimeException e) {
+            try {
+                payoutDAO.failPending(payoutId, firstPaymentNo, lastPaymentNo, reason("Not credited: " + e.getMessage()));
+            } catch (SQLException failure) {
+                failure.addSuppressed(e);
+                throw failure;
+            }
+        }
+    }
+    
+    /**
+     * Credit the payments of a chunk, sorted by account, that can be
+     * credited, and note the others in rejected
+     * @return the total credited, in the source currency
+     */
+    private double applyPayoutCredits(List<Payout> chunk, Account source, String description,
+                                      List<Payout> rejected, List<Transaction> written) 
+            throws SQLException {
+        List<Integer> accountIds = new ArrayList<>(chunk.size());
+        for (Payout payout : chunk) {
+            if (accountIds.isEmpty() || accountIds.get(accountIds.size() - 1) != payout.getAccountId()) {
+                accountIds.add(payout.getAccountId());
+            }
+        }
+        Map<Integer, Account> accounts = new HashMap<>();
+        for (Account account : accountDAO.getAccountsByIds(accountIds)) {
+            accounts.put(account.getAccountId(), account);
+        }
+        
+        FxRateSnapshot rates = null; // taken when the first conversion is needed
+        List<Account> updated = new ArrayList<>(accountIds.size());
+        List<Transaction> credits = new ArrayList<>(chunk.size());
+        LocalDateTime now = LocalDateTime.now();
+        double total = 0;
+        for (Payout payout : chunk) {
+            Account account = accounts.get(payout.getAccountId());
+            if (account == null) {
+                reject(rejected, payout, "Account not found");
+                continue;
+            }
+            if (account.getStatus() != Account.AccountStatus.ACTIVE) {
+                reject(rejected, payout, "Account is inactive or closed");
+                continue;
+            }
             
-            // Create withdrawal transaction for source account
-            Transaction withdrawalTransaction = new Transaction(
-                fromAccountId,
-                Transaction.TransactionType.TRANSFER_OUT,
-                amount,
-                fromNewBalance,
-                description != null ? description : "Transfer to " + toAccount.getAccountNumber()
-            );
-            withdrawalTransaction.setRelatedAccountId(toAccountId);
-            withdrawalTransaction.setTransactionDate(LocalDateTime.now());
-            transactionDAO.createTransaction(withdrawalTransaction);
+            double credited = payout.getAmount();
+            Long fxRateVersion = null;
+            if (!account.getCurrency().equals(source.getCurrency())) {
+                if (rates == null) {
+                    rates = fxRates.current();
+                }
+                try {
+                    credited = rates.convert(payout.getAmount(), source.getCurrency(), account.getCurrency());
+                } catch (CurrencyConversionException e) {
+                    reject(rejected, payout, e.getMessage());
+                    continue;
+                }
+                if (credited <= 0) {
+                    reject(rejected, payout, "Amount is too small to convert to " + account.getCurrency());
+                    continue;
+                }
+                fxRateVersion = rates.getVersion();
+            }
             
-            // Update destination account balance
-            double toNewBalance = toAccount.getBalance() + amount;
-            accountDAO.updateBalance(toAccountId, toNewBalance);
+            // Payments to the same account are adjacent; its balance runs on and is written once
+            if (updated.isEmpty() || updated.get(updated.size() - 1) != account) {
+                updated.add(account);
+            }
+            account.setBalance(account.getBalance() + credited);
             
-            // Create deposit transaction for destination account
-            Transaction depositTransaction = new Transaction(
-                toAccountId,
+            Transaction credit = new Transaction(
+                account.getAccountId(),
                 Transaction.TransactionType.TRANSFER_IN,
-                amount,
-                toNewBalance,
-                description != null ? description : "Transfer from " + fromAccount.getAccountNumber()
+                credited,
+                account.getBalance(),
+                description
             );
-            depositTransaction.setRelatedAccountId(fromAccountId);
-            depositTransaction.setTransactionDate(LocalDateTime.now());
-            int transactionId = transactionDAO.createTransaction(depositTransaction);
-            depositTransaction.setTransactionId(transactionId);
-            
-            DatabaseConnection.commit();
-            return depositTransaction;
-            
-        } catch (SQLException e) {
-            DatabaseConnection.rollback();
-            throw e;
+            describe(credit, description, TRANSFER_FROM_DESCRIPTION, source.getAccountNumber());
+            credit.setTransactionDate(now);
+            credit.setFxRateVersion(fxRateVersion);
+            credits.add(credit);
+            total += payout.getAmount();
         }
+        
+        accountDAO.updateBalances(updated);
+        transactionDAO.createTransactions(credits);
+        publish(written, credits.toArray(new Transaction[0]));
+        return total;
+    }
+    
+    private static void reject(List<Payout> rejected, Payout payment, String reason) {
+        payment.setStatus(Payout.Status.FAILED);
+        payment.setReason(reason(reason));
+        rejected.add(payment);
     }
     
     /**
-     * Get transaction history for an account
+     * Refund the failed payments of a payout to its source account and
+     * complete it, in one business transaction; nothing to do if another
+     * process completed it first
      */
-    public List<Transaction> getTransactionHistory(int accountId) throws SQLException {
-        return transactionDAO.getTransactionsByAccountId(accountId);
+    private void completePayout(BulkPayout payout, PayoutReport report) throws SQLException {
+        int payoutId = payout.getPayoutId();
+        RetryPolicy.Attempt attempt = retryPolicy.begin();
+        while (true) {
+            List<Transaction> written = new ArrayList<>(1);
+            unitOfWork.begin();
+            try {
+                BulkPayout current = payoutDAO.lockPayout(payoutId);
+                if (current == null || current.getStatus() != BulkPayout.Status.CREDITING) {
+                    unitOfWork.rollback();
+                    return;
+                }
+                List<Payout> failed = payoutDAO.getFailedPayments(payoutId);
+                Transaction refund = failed.isEmpty() ? null
+                    : applyPayoutRefund(payout.getSourceAccountId(), failed, written);
+                if (!payoutDAO.completePayout(payoutId, refund == null ? null : refund.getTransactionId())) {
+                    throw new SQLException("Payout " + payoutId + " still has payments to credit");
+                }
+                unitOfWork.commit();
+                miniStatements.recorded(written);
+                attempt.onSuccess();
+                for (Payout payment : failed) {
+                    report.failed(new PayoutReport.Failure(payment.getAccountId(), payment.getAmount(),
+                                                           payment.getReason()));
+                }
+                report.refunded(refund);
+                return;
+            } catch (SQLException e) {
+                rollback(e);
+                attempt.onFailure(e);
+            } catch (RuntimeException e) {
+                rollback(e);
+                throw e;
+            }
+        }
     }
     
     /**
-     * Get recent transaction history with limit
+     * Return failed payments to the source account with one TRANSFER_IN
      */
-    public List<Transaction> getRecentTransactions(int accountId, int limit) throws SQLException {
-        return transactionDAO.getTransactionHistory(accountId, limit);
+    private Transaction applyPayoutRefund(int sourceAccountId, List<Payout> failed, List<Transaction> written) 
+            throws SQLException {
+        Account source = accountDAO.getAccountById(sourceAccountId);
+        if (source == null) {
+            throw new SQLException("Source account with ID " + sourceAccountId + " no longer exists");
+        }
+        double amount = 0;
+        for (Payout payment : failed) {
+            amount += payment.getAmount();
+        }
+        double newBalance = source.getBalance() + amount;
+        accountDAO.updateBalance(sourceAccountId, newBalance, source.getVersion());
+        
+        Transaction transaction = new Transaction(
+            sourceAccountId,
+            Transaction.TransactionType.TRANSFER_IN,
+            amount,
+            newBalance,
+            "Refund of " + failed.size() + " failed payout payment(s)"
+        );
+        transaction.setTransactionDate(LocalDateTime.now());
+        transaction.setTransactionId(transactionDAO.createTransaction(transaction));
+        publish(written, transaction);
+        return transaction;
+    }
+    
+    /**
+     * Cut a failure reason to what the payment's reason column holds
+     */
+    private static String reason(String message) {
+        return message != null && message.length() > MAX_REASON_LENGTH ? message.substring(0, MAX_REASON_LENGTH) : message;
+    }
+    
+    /**
+     * Give a ledger row the description generated from a template, unless
+     * the caller gave one
+     */
+    private static void describe(Transaction transaction, String description, String template, String parameter) {
+        if (description == null) {
+            transaction.setGeneratedDescription(template, parameter);
+        }
+    }
+    
+    /**
+     * Add events for new ledger rows to the outbox, in the current business
+     * transaction, and note the rows for the mini-statements once it commits
+     */
+    private void publish(List<Transaction> written, Transaction... transactions) throws SQLException {
+        Collections.addAll(written, transactions);
+        if (outboxDAO == null) {
+            return;
+        }
+        List<OutboxEvent> events = new ArrayList<>(transactions.length);
+        for (Transaction transaction : transactions) {
+            events.add(OutboxEvent.forTransaction(transaction));
+        }
+        outboxDAO.createEvents(events);
+    }
+    
+    /**
+     * Work done at the start of a transfer's business transaction, e.g.
+     * claiming the scheduled occurrence the transfer belongs to
+     */
+    public interface TransferGuard {
+        /**
+         * @return false to abandon the transfer without moving money
+         */
+        boolean proceed() throws SQLException;
+    }
+    
+    /**
+     * Roll back the current business transaction and return what it had
+     * counted against the daily limits
+     */
+    private void rollback(Exception cause, List<DailyLimits.Reservation> reserved) {
+        for (DailyLimits.Reservation reservation : reserved) {
+            reservation.release();
+        }
+        reserved.clear();
+        rollback(cause);
+    }
+    
+    /**
+     * Roll back the current business transaction without masking the original failure
+     */
+    private void rollback(Exception cause) {
+        try {
+            unitOfWork.rollback();
+        } catch (SQLException e) {
+            cause.addSuppressed(e);
+        }
     }
 }
@@ -0,0 +1,313 @@
+package com.bank.service;
+
+import com.bank.config.DatabaseConfig;
+import com.bank.exception.LimitExceededException;
+import com.bank.model.Transaction;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Velocity Guard
+ * Blocks bursts of outflows (withdrawals, outgoing transfers and payouts) per account
+ * using sliding time windows kept entirely in memory, so the check costs no
+ * database round trip.
+ *
+ * Each account with recent outflows owns a ring of fixed-size time buckets
+ * holding a count and a total, covering the longest rule window; memory per
+ * account is bounded no matter how many outflows it makes. Rules are read from
+ * velocity.rules as comma-separated kind:windowMinutes:limit entries, where
+ * kind is "count" (number of outflows) or "amount" (total outflow), e.g.
+ * velocity.rules=count:10:20,amount:60:50000. An empty or missing value
+ * disables the guard.
+ *
+ * The windows belong to this process. Each process that moves money (the
+ * console, a --batch run, the standing instruction scheduler) warms up from
+ * the ledger when it starts but then counts only its own outflows, so with
+ * several running at once an account can go past a limit by up to the
+ * limit once more per extra process.
+ */
+public class VelocityGuard {
+    // Idle accounts are swept from memory once per this many reservations
+    private static final int SWEEP_INTERVAL = 4096;
+    
+    private final List<Rule> rules;
+    private final int[] ruleBuckets;
+    private final long bucketMillis;
+    private final int bucketsPerRing;
+    private final Map<Integer, Window> windows = new ConcurrentHashMap<>();
+    private final AtomicInteger untilSweep = new AtomicInteger(SWEEP_INTERVAL);
+    
+    public VelocityGuard(List<Rule> rules, int bucketSeconds) {
+        if (bucketSeconds < 1) {
+            throw new IllegalArgumentException("Bucket size must be at least one second");
+        }
+        this.rules = new ArrayList<>(rules);
+        this.bucketMillis = bucketSeconds * 1000L;
+        
+        this.ruleBuckets = new int[rules.size()];
+        int longest = 1;
+        for (int i = 0; i < ruleBuckets.length; i++) {
+            ruleBuckets[i] = (int) Math.max(1, this.rules.get(i).windowMinutes * 60_000L / bucketMillis);
+            longest = Math.max(longest, ruleBuckets[i]);
+        }
+        this.bucketsPerRing = longest;
+    }
+    
+    /**
+     * Create a guard from the velocity.* entries in database.properties
+     */
+    public static VelocityGuard fromConfig() {
+        return new VelocityGuard(
+            Rule.parseAll(DatabaseConfig.getProperty("velocity.rules", "")),
+            DatabaseConfig.getIntProperty("velocity.bucketSeconds", 60)
+        );
+    }
+    
+    public boolean isEnabled() {
+        return !rules.isEmpty();
+    }
+    
+    /**
+     * How far back the ledger must be read to warm the guard
+     */
+    public long getLongestWindowMinutes() {
+        long longest = 0;
+        for (Rule rule : rules) {
+            longest = Math.max(longest, rule.windowMinutes);
+        }
+        return longest;
+    }
+    
+    /**
+     * Seed the windows with outflows already in the ledger, e.g. at startup
+     */
+    public void warmUp(Collection<Transaction> outflows) {
+        if (!isEnabled()) {
+            return;
+        }
+        long now = currentBucket();
+        for (Transaction outflow : outflows) {
+            long bucket = toBucket(outflow.getTransactionDate()
+                .atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+            if (now - bucket < bucketsPerRing) {
+                record(outflow.getAccountId(), bucket, toCents(outflow.getAmount()));
+            }
+        }
+    }
+    
+    /**
+     * Check an outflow against every rule and count it if it passes
+     * Release the reservation if the outflow does not go through.
+     * @throws LimitExceededException if the outflow would break a rule
+     */
+    public Reservation reserve(int accountId, double amount) throws LimitExceededException {
+        if (!isEnabled()) {
+            return Reservation.NONE;
+        }
+        if (untilSweep.decrementAndGet() <= 0) {
+            untilSweep.set(SWEEP_INTERVAL);
+            sweep();
+        }
+        
+        long bucket = currentBucket();
+        long cents = toCents(amount);
+        while (true) {
+            Window window = windows.computeIfAbsent(accountId, id -> new Window(bucketsPerRing));
+            synchronized (window) {
+                if (window.retired) {
+                    continue; // swept concurrently; take the fresh one
+                }
+                Rule broken = window.firstBroken(rules, ruleBuckets, bucket, cents);
+                if (broken != null) {
+                    throw new LimitExceededException("Velocity limit exceeded for account " + accountId +
+                        ": " + broken.describe());
+                }
+                window.add(bucket, 1, cents);
+                return new Reservation(window, bucket, cents);
+            }
+        }
+    }
+    
+    private void record(int accountId, long bucket, long cents) {
+        while (true) {
+            Window window = windows.computeIfAbsent(accountId, id -> new Window(bucketsPerRing));
+            synchronized (window) {
+                if (!window.retired) {
+                    window.add(bucket, 1, cents);
+                    return;
+                }
+            }
+        }
+    }
+    
+    /**
+     * Drop the windows of accounts with no outflow inside the longest window
+     */
+    private void sweep() {
+        long now = currentBucket();
+        for (Map.Entry<Integer, Window> entry : windows.entrySet()) {
+            Window window = entry.getValue();
+            synchronized (window) {
+                if (now - window.newestBucket >= bucketsPerRing) {
+                    window.retired = true;
+                    windows.remove(entry.getKey(), window);
+                }
+            }
+        }
+    }
+    
+    private long currentBucket() {
+        return toBucket(System.currentTimeMillis());
+    }
+    
+    private long toBucket(long epochMillis) {
+        return epochMillis / bucketMillis;
+    }
+    
+    private static long toCents(double amount) {
+        return Math.round(amount * 100);
+    }
+    
+    /**
+     * An outflow counted by the guard, to be released if it fails
+     */
+    public static class Reservation {
+        static final Reservation NONE = new Reservation(null, 0, 0);
+        
+        private final Window window;
+        private final long bucket;
+        private final long cents;
+        
+        Reservation(Window window, long bucket, long cents) {
+            this.window = window;
+            this.bucket = bucket;
+            this.cents = cents;
+        }
+        
+        /**
+         * Uncount the outflow; it never happened
+         */
+        public void release() {
+            if (window == null) {
+                return;
+            }
+            synchronized (window) {
+                window.remove(bucket, cents);
+            }
+        }
+    }
+    
+    /**
+     * One velocity rule: at most limit outflows (count) or limit total outflow
+     * (amount) within the last windowMinutes
+     */
+    public static class Rule {
+        public enum Kind { COUNT, AMOUNT }
+        
+        private final Kind kind;
+        private final long windowMinutes;
+        private final long limit;
+        
+        public Rule(Kind kind, long windowMinutes, double limit) {
+            if (windowMinutes < 1 || limit <= 0) {
+                throw new IllegalArgumentException("Velocity rule needs a positive window and limit");
+            }
+            this.kind = kind;
+            this.windowMinutes = windowMinutes;
+            this.limit = kind == Kind.AMOUNT ? toCents(limit) : (long) limit;
+        }
+        
+        /**
+         * Parse comma-separated kind:windowMinutes:limit entries
+         */
+        public static List<Rule> parseAll(String spec) {
+            List<Rule> rules = new ArrayList<>();
+            for (String entry : spec.split(",")) {
+                entry = entry.trim();
+                if (entry.isEmpty()) {
+                    continue;
+                }
+                String[] parts = entry.split(":");
+                if (parts.length != 3) {
+                    throw new IllegalArgumentException("Invalid velocity rule: " + entry);
+                }
+                try {
+                    rules.add(new Rule(Kind.valueOf(parts[0].trim().toUpperCase()),
+                        Long.parseLong(parts[1].trim()), Double.parseDouble(parts[2].trim())));
+                } catch (IllegalArgumentException e) {
+                    throw new IllegalArgumentException("Invalid velocity rule: " + entry, e);
+                }
+            }
+            return rules;
+        }
+        
+        String describe() {
+            return kind == Kind.COUNT
+                ? "more than " + limit + " outflows in " + windowMinutes + " minutes"
+                : "more than " + (limit / 100.0) + " total outflow in " + windowMinutes + " minutes";
+        }
+    }
+    
+    /**
+     * Ring of time buckets for one account; guarded by its own monitor
+     */
+    private static final class Window {
+        private final long[] bucketOf;
+        private final int[] counts;
+        private final long[] totals;
+        private long newestBucket;
+        private boolean retired;
+        
+        Window(int size) {
+            bucketOf = new long[size];
+            counts = new int[size];
+            totals = new long[size];
+        }
+        
+        Rule firstBroken(List<Rule> rules, int[] ruleBuckets, long now, long cents) {
+            for (int r = 0; r < ruleBuckets.length; r++) {
+                Rule rule = rules.get(r);
+                long used = 0;
+                for (int i = 0; i < bucketOf.length; i++) {
+                    long age = now - bucketOf[i];
+                    if (age >= 0 && age < ruleBuckets[r]) {
+                        used += rule.kind == Rule.Kind.COUNT ? counts[i] : totals[i];
+                    }
+                }
+                long requested = rule.kind == Rule.Kind.COUNT ? 1 : cents;
+                if (used + requested > rule.limit) {
+                    return rule;
+                }
+            }
+            return null;
+        }
+        
+        void add(long bucket, int count, long cents) {
+            int slot = (int) (bucket % bucketOf.length);
+            if (bucketOf[slot] != bucket) {
+                if (bucketOf[slot] > bucket) {
+                    return; // older than the ring covers
+                }
+                bucketOf[slot] = bucket;
+                counts[slot] = 0;
+                totals[slot] = 0;
+            }
+            counts[slot] += count;
+            totals[slot] += cents;
+            newestBucket = Math.max(newestBucket, bucket);
+        }
+        
+        void remove(long bucket, long cents) {
+            int slot = (int) (bucket % bucketOf.length);
+            if (bucketOf[slot] == bucket) {
+                counts[slot]--;
+                totals[slot] -= cents;
+            }
+        }
+    }
+}
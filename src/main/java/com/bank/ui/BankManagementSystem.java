@@ -1,18 +1,42 @@
 package com.bank.ui;
 
+import com.bank.config.DatabaseConfig;
+import com.bank.dao.JdbcAccountDAO;
+import com.bank.dao.memory.InMemoryStore;
 import com.bank.exception.AccountNotFoundException;
+import com.bank.exception.CurrencyConversionException;
 import com.bank.exception.CustomerNotFoundException;
 import com.bank.exception.InsufficientBalanceException;
+import com.bank.exception.LimitExceededException;
+import com.bank.exception.OverloadedException;
 import com.bank.model.Account;
 import com.bank.model.Customer;
+import com.bank.model.CustomerOverview;
+import com.bank.model.CustomerSummary;
+import com.bank.model.StandingInstruction;
 import com.bank.model.Transaction;
+import com.bank.service.AccountNumberGenerator;
 import com.bank.service.AccountService;
+import com.bank.service.AdmissionControl;
 import com.bank.service.CustomerService;
+import com.bank.service.DailyLimits;
+import com.bank.service.Diagnostics;
+import com.bank.service.DiagnosticsServer;
+import com.bank.service.FxRateCache;
+import com.bank.service.StandingInstructionService;
 import com.bank.service.TransactionService;
+import com.bank.service.VelocityGuard;
+import com.bank.util.RetryPolicy;
+import com.bank.util.SchemaMigrator;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.sql.SQLException;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
+import java.util.Currency;
 import java.util.List;
 import java.util.Scanner;
 
@@ -22,15 +46,37 @@ import java.util.Scanner;
  */
 public class BankManagementSystem {
     private static Scanner scanner = new Scanner(System.in);
-    private static CustomerService customerService = new CustomerService();
-    private static AccountService accountService = new AccountService();
-    private static TransactionService transactionService = new TransactionService();
+    private static CustomerService customerService;
+    private static AccountService accountService;
+    private static TransactionService transactionService;
+    private static StandingInstructionService standingInstructionService; // null when embedded
+    private static Diagnostics diagnostics;
+    private static DiagnosticsServer diagnosticsServer; // null unless diagnostics.port is set
+    private static final int OVERVIEW_RECENT_TRANSACTIONS = 5;
     
+    /**
+     * Usage: BankManagementSystem [--batch commandFile [resultFile]]
+     * Without arguments, runs the menu; with --batch, runs a command file (see
+     * BatchCommandRunner) and writes the results next to it.
+     */
     public static void main(String[] args) {
         System.out.println("========================================");
         System.out.println("   BANK MANAGEMENT SYSTEM");
         System.out.println("========================================\n");
         
+        if ("memory".equalsIgnoreCase(DatabaseConfig.getProperty("storage.backend", "jdbc"))) {
+            startEmbedded();
+        } else {
+            startWithDatabase();
+        }
+        
+        if (args.length > 0 && args[0].equals("--batch")) {
+            runBatch(args);
+            customerService.shutdown();
+            return;
+        }
+        startDiagnostics();
+        
         boolean running = true;
         while (running) {
             displayMainMenu();
@@ -68,6 +114,13 @@ public class BankManagementSystem {
                     case 10:
                         viewCustomerAccounts();
                         break;
+                    case 11:
+                        manageStandingInstructions();
+                        break;
+                    case 12:
+                        System.out.println("\n========== DIAGNOSTICS ==========");
+                        System.out.print(diagnostics.toText());
+                        break;
                     case 0:
                         running = false;
                         System.out.println("\nThank you for using Bank Management System!");
@@ -77,7 +130,8 @@ public class BankManagementSystem {
                 }
             } catch (SQLException e) {
                 System.err.println("\nDatabase Error: " + e.getMessage());
-            } catch (CustomerNotFoundException | AccountNotFoundException | InsufficientBalanceException e) {
+            } catch (CustomerNotFoundException | AccountNotFoundException | InsufficientBalanceException
+                     | LimitExceededException | CurrencyConversionException | OverloadedException e) {
                 System.err.println("\nError: " + e.getMessage());
             } catch (Exception e) {
                 System.err.println("\nUnexpected Error: " + e.getMessage());
@@ -91,6 +145,114 @@ public class BankManagementSystem {
         }
         
         scanner.close();
+        customerService.shutdown();
+        if (diagnosticsServer != null) {
+            diagnosticsServer.stop();
+        }
+    }
+    
+    /**
+     * Wire the services to MySQL, migrate the schema, warm up the in-memory checks
+     * and finish bulk payouts an earlier run left unfinished
+     */
+    private static void startWithDatabase() {
+        customerService = new CustomerService();
+        accountService = new AccountService(new JdbcAccountDAO(), customerService.getCustomerCache(),
+            new AccountNumberGenerator(), RetryPolicy.fromConfig());
+        transactionService = new TransactionService();
+        standingInstructionService = new StandingInstructionService();
+        
+        try {
+            SchemaMigrator.migrate();
+        } catch (SQLException e) {
+            System.err.println("Schema migration failed: " + e.getMessage());
+            System.exit(1);
+        }
+        
+        try {
+            transactionService.warmUp();
+        } catch (SQLException e) {
+            if (transactionService.hasOutflowLimits()) {
+                System.err.println("Warm-up failed; velocity and daily limits cannot be enforced: " + e.getMessage());
+                System.exit(1);
+            }
+            System.err.println("FX rate warm-up failed: " + e.getMessage());
+        }
+        
+        try {
+            customerService.warmUp();
+        } catch (SQLException e) {
+            System.err.println("Email filter warm-up failed: " + e.getMessage());
+        }
+        
+        try {
+            int resumed = transactionService.resumePayouts().size();
+            if (resumed > 0) {
+                System.out.println("Finished " + resumed + " interrupted bulk payout(s).");
+            }
+        } catch (SQLException e) {
+            System.err.println("Finishing interrupted bulk payouts failed: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Wire the services to the in-memory engine; nothing is kept after exit
+     */
+    private static void startEmbedded() {
+        InMemoryStore store = new InMemoryStore();
+        customerService = new CustomerService(store.getCustomerDAO(), store.getCustomerOverviewDAO());
+        accountService = new AccountService(store.getAccountDAO(), customerService.getCustomerCache(),
+            new AccountNumberGenerator(store.getAccountNumberSequenceDAO(),
+                                       DatabaseConfig.getIntProperty("accountNumber.blockSize", 100)),
+            RetryPolicy.fromConfig());
+        transactionService = new TransactionService(store.getTransactionDAO(), store.getAccountDAO(), store,
+            store.getPayoutDAO(),
+            Boolean.parseBoolean(DatabaseConfig.getProperty("outbox.enabled", "false")) ? store.getOutboxDAO() : null,
+            RetryPolicy.fromConfig(), VelocityGuard.fromConfig(), DailyLimits.fromConfig(),
+            new FxRateCache(store.getFxRateDAO(), DatabaseConfig.getIntProperty("fx.refreshSeconds", 60)));
+        System.out.println("Running embedded: all data is kept in memory and lost on exit.");
+    }
+    
+    /**
+     * Run a command file on batch.workers threads and exit
+     */
+    private static void runBatch(String[] args) {
+        if (args.length < 2) {
+            System.err.println("Usage: BankManagementSystem --batch commandFile [resultFile]");
+            System.exit(2);
+        }
+        Path commandFile = Paths.get(args[1]);
+        Path resultFile = Paths.get(args.length > 2 ? args[2] : args[1] + ".results");
+        BatchCommandRunner runner = new BatchCommandRunner(customerService, accountService, transactionService,
+            DatabaseConfig.getIntProperty("batch.workers", 8));
+        
+        long started = System.nanoTime();
+        try {
+            long commands = runner.run(commandFile, resultFile);
+            System.out.printf("Batch: %d command(s) in %.1f s, %d succeeded and %d failed; results in %s%n",
+                commands, (System.nanoTime() - started) / 1e9, runner.getSucceededCount(), runner.getFailedCount(),
+                resultFile);
+        } catch (IOException e) {
+            System.err.println("Batch failed: " + e.getMessage());
+            System.exit(1);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    /**
+     * Set up diagnostics, and serve them over HTTP when diagnostics.port is set
+     */
+    private static void startDiagnostics() {
+        diagnostics = new Diagnostics(transactionService, customerService);
+        try {
+            diagnosticsServer = DiagnosticsServer.startFromConfig(diagnostics);
+            if (diagnosticsServer != null) {
+                System.out.println("Diagnostics at http://localhost:" + diagnosticsServer.getPort() + "/diagnostics");
+            }
+        } catch (IOException e) {
+            System.err.println("Diagnostics endpoint not started: " + e.getMessage());
+        }
     }
     
     private static void displayMainMenu() {
@@ -105,11 +267,20 @@ public class BankManagementSystem {
         System.out.println("8.  View Customer Details");
         System.out.println("9.  View All Customers");
         System.out.println("10. View Customer Accounts");
+        System.out.println("11. Standing Instructions");
+        System.out.println("12. Diagnostics");
         System.out.println("0.  Exit");
         System.out.println("===============================");
         System.out.print("Enter your choice: ");
     }
     
+    /**
+     * Take an admission slot for a money movement; the console is a teller
+     */
+    private static AdmissionControl.Permit admit() throws OverloadedException {
+        return transactionService.getAdmissionControl().admit(AdmissionControl.Channel.TELLER, "console");
+    }
+    
     private static int getChoice() {
         try {
             return Integer.parseInt(scanner.nextLine().trim());
@@ -155,7 +326,7 @@ public class BankManagementSystem {
         System.out.print("Customer ID: ");
         int customerId = getChoice();
         
-        System.out.print("Account Number: ");
+        System.out.print("Account Number (leave blank to generate): ");
         String accountNumber = scanner.nextLine().trim();
         
         System.out.println("Account Type:");
@@ -181,11 +352,31 @@ public class BankManagementSystem {
                 return;
         }
         
-        int accountId = accountService.createAccount(customerId, accountNumber, accountType);
+        System.out.print("Currency (leave blank for " + Account.DEFAULT_CURRENCY + "): ");
+        String currency = scanner.nextLine().trim();
+        if (currency.isEmpty()) {
+            currency = Account.DEFAULT_CURRENCY;
+        }
+        
+        try {
+            Currency.getInstance(currency.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            System.out.println("\n✗ Invalid currency code!");
+            return;
+        }
+        
+        if (accountNumber.isEmpty()) {
+            Account account = accountService.openAccount(customerId, accountType, currency);
+            System.out.println("\n✓ Account created successfully! Account ID: " + account.getAccountId() +
+                ", Account Number: " + account.getAccountNumber());
+            return;
+        }
+        
+        int accountId = accountService.createAccount(customerId, accountNumber, accountType, currency);
         System.out.println("\n✓ Account created successfully! Account ID: " + accountId);
     }
     
-    private static void deposit() throws SQLException, AccountNotFoundException {
+    private static void deposit() throws SQLException, AccountNotFoundException, OverloadedException {
         System.out.println("\n========== DEPOSIT MONEY ==========");
         
         System.out.print("Account Number: ");
@@ -204,14 +395,19 @@ public class BankManagementSystem {
         String description = scanner.nextLine().trim();
         
         Account account = accountService.getAccountByNumber(accountNumber);
-        Transaction transaction = transactionService.deposit(account.getAccountId(), amount, description);
+        Transaction transaction;
+        try (AdmissionControl.Permit permit = admit()) {
+            transaction = transactionService.deposit(account.getAccountId(), amount, description);
+        }
         
         System.out.println("\n✓ Deposit successful!");
         System.out.println("Transaction ID: " + transaction.getTransactionId());
         System.out.println("New Balance: " + transaction.getBalanceAfter());
     }
     
-    private static void withdraw() throws SQLException, AccountNotFoundException, InsufficientBalanceException {
+    private static void withdraw() 
+            throws SQLException, AccountNotFoundException, InsufficientBalanceException, LimitExceededException,
+                   OverloadedException {
         System.out.println("\n========== WITHDRAW MONEY ==========");
         
         System.out.print("Account Number: ");
@@ -230,14 +426,19 @@ public class BankManagementSystem {
         String description = scanner.nextLine().trim();
         
         Account account = accountService.getAccountByNumber(accountNumber);
-        Transaction transaction = transactionService.withdraw(account.getAccountId(), amount, description);
+        Transaction transaction;
+        try (AdmissionControl.Permit permit = admit()) {
+            transaction = transactionService.withdraw(account.getAccountId(), amount, description);
+        }
         
         System.out.println("\n✓ Withdrawal successful!");
         System.out.println("Transaction ID: " + transaction.getTransactionId());
         System.out.println("New Balance: " + transaction.getBalanceAfter());
     }
     
-    private static void transfer() throws SQLException, AccountNotFoundException, InsufficientBalanceException {
+    private static void transfer() 
+            throws SQLException, AccountNotFoundException, InsufficientBalanceException, LimitExceededException,
+                   CurrencyConversionException, OverloadedException {
         System.out.println("\n========== TRANSFER MONEY ==========");
         
         System.out.print("From Account Number: ");
@@ -261,12 +462,15 @@ public class BankManagementSystem {
         Account fromAccount = accountService.getAccountByNumber(fromAccountNumber);
         Account toAccount = accountService.getAccountByNumber(toAccountNumber);
         
-        Transaction transaction = transactionService.transfer(
-            fromAccount.getAccountId(), 
-            toAccount.getAccountId(), 
-            amount, 
-            description
-        );
+        Transaction transaction;
+        try (AdmissionControl.Permit permit = admit()) {
+            transaction = transactionService.transfer(
+                fromAccount.getAccountId(), 
+                toAccount.getAccountId(), 
+                amount, 
+                description
+            );
+        }
         
         System.out.println("\n✓ Transfer successful!");
         System.out.println("Transaction ID: " + transaction.getTransactionId());
@@ -286,7 +490,7 @@ public class BankManagementSystem {
         System.out.println("\nAccount Details:");
         System.out.println("Account Number: " + account.getAccountNumber());
         System.out.println("Account Type: " + account.getAccountType());
-        System.out.println("Balance: " + account.getBalance());
+        System.out.println("Balance: " + account.getBalance() + " " + account.getCurrency());
         System.out.println("Status: " + account.getStatus());
     }
     
@@ -331,7 +535,8 @@ public class BankManagementSystem {
         System.out.print("Customer ID: ");
         int customerId = getChoice();
         
-        Customer customer = customerService.getCustomer(customerId);
+        CustomerOverview overview = customerService.getCustomerOverview(customerId, OVERVIEW_RECENT_TRANSACTIONS);
+        Customer customer = overview.getCustomer();
         System.out.println("\nCustomer Details:");
         System.out.println("Customer ID: " + customer.getCustomerId());
         System.out.println("Name: " + customer.getFirstName() + " " + customer.getLastName());
@@ -339,12 +544,28 @@ public class BankManagementSystem {
         System.out.println("Phone: " + customer.getPhone());
         System.out.println("Address: " + customer.getAddress());
         System.out.println("Date of Birth: " + customer.getDateOfBirth());
+        
+        for (Account a : overview.getAccounts()) {
+            System.out.printf("%nAccount %s (%s) - Balance: %.2f - %s%n",
+                a.getAccountNumber(), a.getAccountType(), a.getBalance(), a.getStatus());
+            List<Transaction> recent = overview.getRecentTransactions(a.getAccountId());
+            if (recent.isEmpty()) {
+                System.out.println("  No transactions yet.");
+            }
+            for (Transaction t : recent) {
+                System.out.printf("  %-15s %-12.2f %-15s %-20s%n",
+                    t.getTransactionType(),
+                    t.getAmount(),
+                    t.getTransactionDate().toLocalDate(),
+                    t.getDescription() != null ? t.getDescription() : "-");
+            }
+        }
     }
     
     private static void viewAllCustomers() throws SQLException {
         System.out.println("\n========== ALL CUSTOMERS ==========");
         
-        List<Customer> customers = customerService.getAllCustomers();
+        List<CustomerSummary> customers = customerService.getCustomerSummaries();
         
         if (customers.isEmpty()) {
             System.out.println("\nNo customers found.");
@@ -355,7 +576,7 @@ public class BankManagementSystem {
                 "ID", "Name", "Email", "Phone");
             System.out.println("-------------------------------------------------------------------");
             
-            for (Customer c : customers) {
+            for (CustomerSummary c : customers) {
                 System.out.printf("%-5d %-20s %-25s %-15s%n",
                     c.getCustomerId(),
                     c.getFirstName() + " " + c.getLastName(),
@@ -373,8 +594,9 @@ public class BankManagementSystem {
         int customerId = getChoice();
         
         try {
-            Customer customer = customerService.getCustomer(customerId);
-            List<Account> accounts = accountService.getCustomerAccounts(customerId);
+            CustomerOverview overview = customerService.getCustomerOverview(customerId, 0);
+            Customer customer = overview.getCustomer();
+            List<Account> accounts = overview.getAccounts();
             
             if (accounts.isEmpty()) {
                 System.out.println("\nNo accounts found for this customer.");
@@ -399,4 +621,128 @@ public class BankManagementSystem {
             System.out.println("\n✗ " + e.getMessage());
         }
     }
+    
+    private static void manageStandingInstructions() throws SQLException, AccountNotFoundException {
+        System.out.println("\n========== STANDING INSTRUCTIONS ==========");
+        if (standingInstructionService == null) {
+            System.out.println("\n✗ Standing instructions need the database backend (storage.backend=jdbc).");
+            return;
+        }
+        System.out.println("1. Set Up Recurring Transfer");
+        System.out.println("2. View Account's Instructions");
+        System.out.println("3. Cancel Instruction");
+        System.out.print("Select (1-3): ");
+        
+        switch (getChoice()) {
+            case 1:
+                createStandingInstruction();
+                break;
+            case 2:
+                viewStandingInstructions();
+                break;
+            case 3:
+                System.out.print("Instruction ID: ");
+                int instructionId = getChoice();
+                if (standingInstructionService.cancelInstruction(instructionId)) {
+                    System.out.println("\n✓ Standing instruction cancelled.");
+                } else {
+                    System.out.println("\n✗ Standing instruction not found!");
+                }
+                break;
+            default:
+                System.out.println("\n✗ Invalid choice!");
+        }
+    }
+    
+    private static void createStandingInstruction() throws SQLException, AccountNotFoundException {
+        System.out.print("From Account Number: ");
+        String fromAccountNumber = scanner.nextLine().trim();
+        
+        System.out.print("To Account Number: ");
+        String toAccountNumber = scanner.nextLine().trim();
+        
+        System.out.print("Amount: ");
+        double amount;
+        try {
+            amount = Double.parseDouble(scanner.nextLine().trim());
+        } catch (NumberFormatException e) {
+            System.out.println("\n✗ Invalid amount!");
+            return;
+        }
+        
+        System.out.println("Frequency:");
+        System.out.println("1. DAILY");
+        System.out.println("2. WEEKLY");
+        System.out.println("3. MONTHLY");
+        System.out.print("Select (1-3): ");
+        int frequencyChoice = getChoice();
+        if (frequencyChoice < 1 || frequencyChoice > 3) {
+            System.out.println("\n✗ Invalid frequency!");
+            return;
+        }
+        StandingInstruction.Frequency frequency = StandingInstruction.Frequency.values()[frequencyChoice - 1];
+        
+        System.out.print("First Run Date (YYYY-MM-DD): ");
+        String firstRunStr = scanner.nextLine().trim();
+        
+        System.out.print("Description (optional): ");
+        String description = scanner.nextLine().trim();
+        
+        LocalDateTime firstRunAt;
+        try {
+            firstRunAt = LocalDate.parse(firstRunStr, DateTimeFormatter.ISO_DATE).atStartOfDay();
+        } catch (DateTimeParseException e) {
+            System.out.println("\n✗ Invalid date format! Please use YYYY-MM-DD format.");
+            return;
+        }
+        
+        Account fromAccount = accountService.getAccountByNumber(fromAccountNumber);
+        Account toAccount = accountService.getAccountByNumber(toAccountNumber);
+        
+        StandingInstruction instruction = standingInstructionService.createInstruction(
+            fromAccount.getAccountId(),
+            toAccount.getAccountId(),
+            amount,
+            description.isEmpty() ? null : description,
+            frequency,
+            firstRunAt
+        );
+        
+        System.out.println("\n✓ Standing instruction created! Instruction ID: " + instruction.getInstructionId());
+        System.out.println("First run: " + instruction.getNextRunAt());
+    }
+    
+    private static void viewStandingInstructions() throws SQLException, AccountNotFoundException {
+        System.out.print("Account Number: ");
+        String accountNumber = scanner.nextLine().trim();
+        
+        Account account = accountService.getAccountByNumber(accountNumber);
+        List<StandingInstruction> instructions =
+            standingInstructionService.getInstructionsForAccount(account.getAccountId());
+        
+        if (instructions.isEmpty()) {
+            System.out.println("\nNo standing instructions found for this account.");
+            return;
+        }
+        
+        System.out.println("\nStanding Instructions:");
+        System.out.println("--------------------------------------------------------------------------------");
+        System.out.printf("%-5s %-8s %-12s %-10s %-20s %-10s%n",
+            "ID", "To Acct", "Amount", "Frequency", "Next Run", "Status");
+        System.out.println("--------------------------------------------------------------------------------");
+        
+        for (StandingInstruction instruction : instructions) {
+            System.out.printf("%-5d %-8d %-12.2f %-10s %-20s %-10s%n",
+                instruction.getInstructionId(),
+                instruction.getToAccountId(),
+                instruction.getAmount(),
+                instruction.getFrequency(),
+                instruction.getNextRunAt(),
+                instruction.getStatus());
+            if (instruction.getLastError() != null) {
+                System.out.println("      Last run failed: " + instruction.getLastError());
+            }
+        }
+        System.out.println("--------------------------------------------------------------------------------");
+    }
 }
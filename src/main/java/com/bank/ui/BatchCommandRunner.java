@@ -0,0 +1,480 @@
+package com.bank.ui;
+
+import com.bank.exception.BankException;
+import com.bank.model.Account;
+import com.bank.model.Customer;
+import com.bank.model.Payout;
+import com.bank.model.Transaction;
+import com.bank.service.AccountService;
+import com.bank.service.AdmissionControl;
+import com.bank.service.CustomerService;
+import com.bank.service.PayoutReport;
+import com.bank.service.TransactionService;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Batch Command Runner
+ * Runs a command file without the menu, one command per line, fields
+ * separated by '|':
+ *
+ *   REGISTER|firstName|lastName|email|phone|address|YYYY-MM-DD
+ *   OPEN|customerId|SAVINGS/CURRENT/FIXED_DEPOSIT[|currency[|accountNumber]]
+ *   DEPOSIT|accountNumber|amount[|description]
+ *   WITHDRAW|accountNumber|amount[|description]
+ *   TRANSFER|fromAccountNumber|toAccountNumber|amount[|description]
+ *   STATUS|accountNumber|ACTIVE/INACTIVE/CLOSED
+ *   PAYOUT|sourceAccountNumber|payoutFile[|description]
+ *
+ * A payout file, found relative to the command file, has one payment per
+ * line, accountNumber|amount, and is paid in one bulk payout (see
+ * TransactionService.bulkPayout). It is read when its PAYOUT line is, and
+ * the payout is ordered with the commands on its source and on every
+ * destination account.
+ *
+ * Blank lines and lines starting with '#' are skipped. The file is read as
+ * it runs, and commands go to a pool of workers. Commands on the same account
+ * run in file order (a transfer waits for both of its accounts), and
+ * REGISTER and OPEN run in file order among themselves, so an OPEN can use a
+ * customer registered earlier in the file; anything else runs in parallel.
+ * Generated account numbers come from AccountNumberGenerator's blocks, and
+ * each account number is looked up once per run.
+ * Deposits, withdrawals, transfers and payouts are admitted at batch priority (see
+ * AdmissionControl), so tellers and ATMs go first when the service is busy.
+ *
+ * Each command gets one result line, written in file order:
+ *   lineNumber|OK or FAILED|milliseconds|detail or error
+ * At most WINDOW commands are read ahead of the oldest unwritten result.
+ */
+public class BatchCommandRunner {
+    private static final int WINDOW = 1024;
+    private static final String SEPARATOR = "|";
+    private static final String CUSTOMERS = "customers"; // ordering key shared by REGISTER and OPEN
+    
+    private final CustomerService customerService;
+    private final AccountService accountService;
+    private final TransactionService transactionService;
+    private final ExecutorService pool;
+    
+    private final Map<String, Integer> accountIds = new ConcurrentHashMap<>();
+    private final AtomicLong succeeded = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    
+    public BatchCommandRunner(CustomerService customerService, AccountService accountService,
+                              TransactionService transactionService, int workers) {
+        if (workers < 1) {
+            throw new IllegalArgumentException("Workers must be at least 1");
+        }
+        this.customerService = customerService;
+        this.accountService = accountService;
+        this.transactionService = transactionService;
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.pool = Executors.newFixedThreadPool(workers, runnable -> {
+            Thread thread = new Thread(runnable, "batch-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+    
+    /**
+     * Run every command in the file and wait for them to finish
+     * @return number of commands run
+     * @throws IOException if the command file cannot be read or the result file written
+     */
+    public long run(Path commandFile, Path resultFile) throws IOException, InterruptedException {
+        Semaphore slots = new Semaphore(WINDOW);
+        Map<String, CompletableFuture<Void>> lastOnKey = new HashMap<>(); // reader thread only
+        int pruneAt = 4 * WINDOW;
+        long commands = 0;
+        Path directory = commandFile.toAbsolutePath().getParent();
+        
+        try (BufferedReader in = Files.newBufferedReader(commandFile, StandardCharsets.UTF_8);
+             ResultWriter results = new ResultWriter(Files.newBufferedWriter(resultFile, StandardCharsets.UTF_8), slots)) {
+            try {
+                String text;
+                int lineNumber = 0;
+                while ((text = in.readLine()) != null) {
+                    lineNumber++;
+                    String trimmed = text.trim();
+                    if (trimmed.isEmpty() || trimmed.startsWith("#")) {
+                        continue;
+                    }
+                    slots.acquire();
+                    long sequence = commands++;
+                    Command command;
+                    try {
+                        command = new Command(lineNumber, trimmed, directory);
+                    } catch (IllegalArgumentException e) {
+                        failed.incrementAndGet();
+                        results.record(sequence, lineNumber + SEPARATOR + "FAILED" + SEPARATOR + "0.000" + SEPARATOR + e.getMessage());
+                        continue;
+                    }
+                    
+                    List<CompletableFuture<Void>> before = new ArrayList<>(2);
+                    for (String key : command.keys) {
+                        CompletableFuture<Void> last = lastOnKey.get(key);
+                        if (last != null && !last.isDone()) {
+                            before.add(last);
+                        }
+                    }
+                    CompletableFuture<Void> ready = before.isEmpty()
+                        ? CompletableFuture.completedFuture(null)
+                        : CompletableFuture.allOf(before.toArray(new CompletableFuture<?>[0]));
+                    // Runs even if a command before it failed, so every command gets its result line
+                    CompletableFuture<Void> done = ready.handleAsync((ignored, failure) -> {
+                        results.record(sequence, execute(command));
+                        return null;
+                    }, pool);
+                    for (String key : command.keys) {
+                        lastOnKey.put(key, done);
+                    }
+                    if (lastOnKey.size() > pruneAt) { // payouts may hold many keys still running
+                        lastOnKey.values().removeIf(CompletableFuture::isDone);
+                        pruneAt = Math.max(4 * WINDOW, 2 * lastOnKey.size());
+                    }
+                }
+            } finally {
+                slots.acquireUninterruptibly(WINDOW); // wait for every result to be written
+                slots.release(WINDOW);
+            }
+        } finally {
+            pool.shutdown();
+        }
+        return commands;
+    }
+    
+    /**
+     * Run one command
+     * @return its result line
+     */
+    private String execute(Command command) {
+        long started = System.nanoTime();
+        String outcome;
+        String detail;
+        try {
+            detail = command.run();
+            outcome = "OK";
+            succeeded.incrementAndGet();
+        } catch (SQLException | BankException | RuntimeException e) {
+            detail = e.getMessage() == null ? e.getClass().getSimpleName() : e.getMessage().replace('\n', ' ');
+            outcome = "FAILED";
+            failed.incrementAndGet();
+        } catch (Error e) {
+            // Still a result line, or the run would wait for this command forever
+            detail = e.toString().replace('\n', ' ');
+            outcome = "FAILED";
+            failed.incrementAndGet();
+        }
+        return command.lineNumber + SEPARATOR + outcome + SEPARATOR
+            + String.format("%.3f", (System.nanoTime() - started) / 1e6) + SEPARATOR + detail;
+    }
+    
+    /**
+     * Take an admission slot for a money movement, at batch priority
+     */
+    private AdmissionControl.Permit admit() throws BankException {
+        return transactionService.getAdmissionControl().admit(AdmissionControl.Channel.BATCH, null);
+    }
+    
+    private int accountId(String accountNumber) throws SQLException, BankException {
+        Integer accountId = accountIds.get(accountNumber);
+        if (accountId == null) {
+            accountId = accountService.getAccountByNumber(accountNumber).getAccountId();
+            accountIds.put(accountNumber, accountId);
+        }
+        return accountId;
+    }
+    
+    private static String accountKey(String accountNumber) {
+        return "account:" + accountNumber;
+    }
+    
+    /**
+     * Commands that completed since this runner was created
+     */
+    public long getSucceededCount() {
+        return succeeded.get();
+    }
+    
+    /**
+     * Commands that were malformed or rejected since this runner was created
+     */
+    public long getFailedCount() {
+        return failed.get();
+    }
+    
+    /**
+     * One parsed line of the command file
+     */
+    private final class Command {
+        private final int lineNumber;
+        private final String name;
+        private final String[] fields;
+        private final List<String> keys = new ArrayList<>(2);
+        private List<String[]> payments; // PAYOUT only: account number and amount
+        
+        private Command(int lineNumber, String line, Path directory) {
+            this.lineNumber = lineNumber;
+            this.fields = line.split("\\|", -1);
+            for (int i = 0; i < fields.length; i++) {
+                fields[i] = fields[i].trim();
+            }
+            this.name = fields[0].toUpperCase();
+            
+            switch (name) {
+                case "REGISTER":
+                    expectFields(7, 7);
+                    keys.add(CUSTOMERS);
+                    break;
+                case "OPEN":
+                    expectFields(3, 5);
+                    keys.add(CUSTOMERS);
+                    if (fields.length == 5) {
+                        keys.add(accountKey(fields[4]));
+                    }
+                    break;
+                case "DEPOSIT":
+                case "WITHDRAW":
+                    expectFields(3, 4);
+                    keys.add(accountKey(fields[1]));
+                    break;
+                case "TRANSFER":
+                    expectFields(4, 5);
+                    keys.add(accountKey(fields[1]));
+                    keys.add(accountKey(fields[2]));
+                    break;
+                case "STATUS":
+                    expectFields(3, 3);
+                    keys.add(accountKey(fields[1]));
+                    break;
+                case "PAYOUT":
+                    expectFields(3, 4);
+                    keys.add(accountKey(fields[1]));
+                    payments = readPayments(directory.resolve(fields[2]));
+                    Set<String> destinations = new HashSet<>();
+                    for (String[] payment : payments) {
+                        if (destinations.add(payment[0])) {
+                            keys.add(accountKey(payment[0]));
+                        }
+                    }
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown command: " + fields[0]);
+            }
+        }
+        
+        private void expectFields(int min, int max) {
+            if (fields.length < min || fields.length > max) {
+                throw new IllegalArgumentException(name + " takes " + (min == max ? min - 1 : (min - 1) + " to " + (max - 1))
+                    + " fields, found " + (fields.length - 1));
+            }
+        }
+        
+        private String field(int index) {
+            return index < fields.length ? fields[index] : "";
+        }
+        
+        /**
+         * Run the command
+         * @return a short description of what was done
+         */
+        private String run() throws SQLException, BankException {
+            switch (name) {
+                case "REGISTER": {
+                    LocalDate dateOfBirth;
+                    try {
+                        dateOfBirth = LocalDate.parse(fields[6]);
+                    } catch (DateTimeParseException e) {
+                        throw new IllegalArgumentException("Invalid date of birth: " + fields[6]);
+                    }
+                    int customerId = customerService.registerCustomer(
+                        new Customer(fields[1], fields[2], fields[3], fields[4], fields[5], dateOfBirth));
+                    return "Customer " + customerId;
+                }
+                case "OPEN": {
+                    int customerId = parseInt(fields[1], "customer ID");
+                    Account.AccountType accountType = parseEnum(Account.AccountType.class, fields[2], "account type");
+                    String currency = field(3).isEmpty() ? Account.DEFAULT_CURRENCY : field(3);
+                    if (field(4).isEmpty()) {
+                        Account account = accountService.openAccount(customerId, accountType, currency);
+                        accountIds.put(account.getAccountNumber(), account.getAccountId());
+                        return "Account " + account.getAccountId() + " number " + account.getAccountNumber();
+                    }
+                    int accountId = accountService.createAccount(customerId, fields[4], accountType, currency);
+                    accountIds.put(fields[4], accountId);
+                    return "Account " + accountId + " number " + fields[4];
+                }
+                case "DEPOSIT": {
+                    int accountId = accountId(fields[1]);
+                    try (AdmissionControl.Permit permit = admit()) {
+                        Transaction transaction = transactionService.deposit(accountId, parseAmount(fields[2]), field(3));
+                        return "Transaction " + transaction.getTransactionId() + ", balance " + transaction.getBalanceAfter();
+                    }
+                }
+                case "WITHDRAW": {
+                    int accountId = accountId(fields[1]);
+                    try (AdmissionControl.Permit permit = admit()) {
+                        Transaction transaction = transactionService.withdraw(accountId, parseAmount(fields[2]), field(3));
+                        return "Transaction " + transaction.getTransactionId() + ", balance " + transaction.getBalanceAfter();
+                    }
+                }
+                case "TRANSFER": {
+                    int fromAccountId = accountId(fields[1]);
+                    int toAccountId = accountId(fields[2]);
+                    try (AdmissionControl.Permit permit = admit()) {
+                        Transaction transaction = transactionService.transfer(
+                            fromAccountId, toAccountId, parseAmount(fields[3]), field(4));
+                        return "Transaction " + transaction.getTransactionId();
+                    }
+                }
+                case "STATUS": {
+                    Account.AccountStatus status = parseEnum(Account.AccountStatus.class, fields[2], "status");
+                    accountService.updateAccountStatus(accountId(fields[1]), status);
+                    return "Status " + status;
+                }
+                case "PAYOUT": {
+                    int sourceAccountId = accountId(fields[1]);
+                    List<Payout> payouts = new ArrayList<>(payments.size());
+                    for (String[] payment : payments) {
+                        payouts.add(new Payout(accountId(payment[0]), parseAmount(payment[1])));
+                    }
+                    try (AdmissionControl.Permit permit = admit()) {
+                        PayoutReport report = transactionService.bulkPayout(sourceAccountId, payouts, field(3));
+                        String detail = "Payout " + report.getPayoutId() + ", transaction "
+                            + report.getDebit().getTransactionId() + ", "
+                            + report.getCreditedCount() + " credited, " + report.getFailures().size() + " failed";
+                        if (report.getRefund() != null) {
+                            detail += ", refund transaction " + report.getRefund().getTransactionId();
+                        }
+                        return detail;
+                    }
+                }
+                default:
+                    throw new IllegalStateException("Unknown command: " + name);
+            }
+        }
+    }
+    
+    /**
+     * Read the account number and amount of every payment in a payout file
+     * @throws IllegalArgumentException if the file cannot be read or a line is malformed
+     */
+    private static List<String[]> readPayments(Path payoutFile) {
+        List<String[]> payments = new ArrayList<>();
+        try (BufferedReader in = Files.newBufferedReader(payoutFile, StandardCharsets.UTF_8)) {
+            String text;
+            int lineNumber = 0;
+            while ((text = in.readLine()) != null) {
+                lineNumber++;
+                String trimmed = text.trim();
+                if (trimmed.isEmpty() || trimmed.startsWith("#")) {
+                    continue;
+                }
+                String[] fields = trimmed.split("\\|", -1);
+                if (fields.length != 2) {
+                    throw new IllegalArgumentException("Payout file line " + lineNumber
+                        + " needs accountNumber" + SEPARATOR + "amount");
+                }
+                parseAmount(fields[1].trim());
+                payments.add(new String[] { fields[0].trim(), fields[1].trim() });
+            }
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Cannot read payout file " + payoutFile, e);
+        }
+        if (payments.isEmpty()) {
+            throw new IllegalArgumentException("Payout file " + payoutFile + " has no payments");
+        }
+        return payments;
+    }
+    
+    private static int parseInt(String value, String what) {
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid " + what + ": " + value);
+        }
+    }
+    
+    private static <E extends Enum<E>> E parseEnum(Class<E> type, String value, String what) {
+        try {
+            return Enum.valueOf(type, value.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid " + what + ": " + value);
+        }
+    }
+    
+    private static double parseAmount(String value) {
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid amount: " + value);
+        }
+    }
+    
+    /**
+     * Writes result lines in file order as they complete, releasing a read
+     * ahead slot for each line written
+     */
+    private static final class ResultWriter implements AutoCloseable {
+        private final BufferedWriter out;
+        private final Semaphore slots;
+        private final Map<Long, String> pending = new HashMap<>();
+        private long nextSequence;
+        private IOException failure;
+        
+        private ResultWriter(BufferedWriter out, Semaphore slots) throws IOException {
+            this.out = out;
+            this.slots = slots;
+            out.write("# line" + SEPARATOR + "outcome" + SEPARATOR + "millis" + SEPARATOR + "detail");
+            out.newLine();
+        }
+        
+        private synchronized void record(long sequence, String result) {
+            pending.put(sequence, result);
+            String next;
+            while ((next = pending.remove(nextSequence)) != null) {
+                nextSequence++;
+                if (failure == null) {
+                    try {
+                        out.write(next);
+                        out.newLine();
+                    } catch (IOException e) {
+                        failure = e;
+                    }
+                }
+                slots.release();
+            }
+        }
+        
+        @Override
+        public synchronized void close() throws IOException {
+            try {
+                if (failure != null) {
+                    throw failure;
+                }
+            } finally {
+                out.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.bank.util;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight recorder event for one traced span: a service operation, a DAO
+ * call or a SQL statement (see Tracer)
+ * Recorded by any flight recording started with tracing on, e.g.
+ * -XX:StartFlightRecording; cheap when no recording is running.
+ */
+@Name("com.bank.DaoCall")
+@Label("DAO Call")
+@Category({ "Bank", "Database" })
+@Description("Service operation, DAO call or SQL statement traced by com.bank.util.Tracer")
+@StackTrace(false)
+class DaoCallEvent extends Event {
+    @Label("Trace ID")
+    String traceId;
+    
+    @Label("Operation")
+    String operation;
+    
+    @Label("SQL")
+    String sql;
+    
+    @Label("Bind Values")
+    int binds;
+    
+    @Label("Rows")
+    long rows;
+}
@@ -1,16 +1,34 @@
 package com.bank.util;
 
 import com.bank.config.DatabaseConfig;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
 import java.sql.Connection;
 import java.sql.DriverManager;
+import java.sql.PreparedStatement;
 import java.sql.SQLException;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Database Connection Utility
  * Manages database connections using connection pooling pattern
+ *
+ * Each thread owns one physical connection. The handle returned by
+ * getConnection() ignores close(), so DAO try-with-resources blocks do not
+ * tear the connection down between statements of the same business operation.
+ * Outside a business transaction the connection runs in auto-commit mode.
+ *
+ * Process-wide counts of open connections, threads connecting and open
+ * business transactions are kept for Diagnostics.
  */
 public class DatabaseConnection {
-    private static Connection connection = null;
+    private static final ThreadLocal<Connection> physicalConnection = new ThreadLocal<>();
+    private static final ThreadLocal<Connection> sharedHandle = new ThreadLocal<>();
+    private static final ThreadLocal<Boolean> inTransaction = ThreadLocal.withInitial(() -> false);
+    
+    private static final AtomicInteger openConnections = new AtomicInteger();
+    private static final AtomicInteger connecting = new AtomicInteger();
+    private static final AtomicInteger openTransactions = new AtomicInteger();
     
     /**
      * Get database connection
@@ -19,27 +37,51 @@ public class DatabaseConnection {
      */
     public static Connection getConnection() throws SQLException {
         try {
+            Connection connection = physicalConnection.get();
             if (connection == null || connection.isClosed()) {
+                if (connection != null) {
+                    physicalConnection.remove(); // closed under us, e.g. by the server
+                    openConnections.decrementAndGet();
+                }
                 Class.forName(DatabaseConfig.getDriver());
-                connection = DriverManager.getConnection(
-                    DatabaseConfig.getUrl(),
-                    DatabaseConfig.getUsername(),
-                    DatabaseConfig.getPassword()
-                );
-                connection.setAutoCommit(false); // Enable transaction management
+                connecting.incrementAndGet();
+                try {
+                    connection = DriverManager.getConnection(
+                        DatabaseConfig.getUrl(),
+                        DatabaseConfig.getUsername(),
+                        DatabaseConfig.getPassword()
+                    );
+                } finally {
+                    connecting.decrementAndGet();
+                }
+                openConnections.incrementAndGet();
+                connection.setAutoCommit(true); // Business transactions switch this off
+                physicalConnection.set(connection);
+                sharedHandle.set(unclosable(connection));
             }
         } catch (ClassNotFoundException e) {
             throw new SQLException("MySQL Driver not found", e);
         }
-        return connection;
+        return sharedHandle.get();
     }
     
     /**
      * Close database connection
      */
     public static void closeConnection() {
+        Connection connection = physicalConnection.get();
+        physicalConnection.remove();
+        sharedHandle.remove();
+        if (inTransaction.get()) {
+            openTransactions.decrementAndGet();
+        }
+        inTransaction.remove();
+        if (connection == null) {
+            return;
+        }
+        openConnections.decrementAndGet();
         try {
-            if (connection != null && !connection.isClosed()) {
+            if (!connection.isClosed()) {
                 connection.close();
             }
         } catch (SQLException e) {
@@ -47,11 +89,90 @@ public class DatabaseConnection {
         }
     }
     
+    /**
+     * Start a business transaction on the current thread.
+     * Until commitTransaction() or rollbackTransaction() is called, commit()
+     * calls made by the DAOs are deferred so that all statements succeed or
+     * fail together.
+     */
+    public static void beginTransaction() throws SQLException {
+        getConnection();
+        physicalConnection.get().setAutoCommit(false);
+        if (!inTransaction.get()) {
+            openTransactions.incrementAndGet();
+        }
+        inTransaction.set(true);
+    }
+    
+    /**
+     * Check whether the current thread is inside a business transaction
+     */
+    public static boolean isInTransaction() {
+        return inTransaction.get();
+    }
+    
+    /**
+     * Commit the business transaction started by beginTransaction()
+     */
+    public static void commitTransaction() throws SQLException {
+        endTransaction();
+        Connection connection = physicalConnection.get();
+        if (connection != null && !connection.isClosed()) {
+            connection.commit();
+            connection.setAutoCommit(true);
+        }
+    }
+    
+    /**
+     * Roll back the business transaction started by beginTransaction()
+     */
+    public static void rollbackTransaction() throws SQLException {
+        endTransaction();
+        Connection connection = physicalConnection.get();
+        if (connection != null && !connection.isClosed()) {
+            connection.rollback();
+            connection.setAutoCommit(true);
+        }
+    }
+    
+    private static void endTransaction() {
+        if (inTransaction.get()) {
+            openTransactions.decrementAndGet();
+        }
+        inTransaction.set(false);
+    }
+    
+    /**
+     * Physical connections currently open, one per thread that has used the database
+     */
+    public static int getOpenConnectionCount() {
+        return openConnections.get();
+    }
+    
+    /**
+     * Threads waiting for a new physical connection to be established
+     */
+    public static int getConnectingCount() {
+        return connecting.get();
+    }
+    
+    /**
+     * Business transactions currently open
+     */
+    public static int getOpenTransactionCount() {
+        return openTransactions.get();
+    }
+    
     /**
      * Commit transaction
+     * No-op while a business transaction is open; it commits at the end.
      */
     public static void commit() throws SQLException {
-        if (connection != null && !connection.isClosed()) {
+        if (inTransaction.get()) {
+            return;
+        }
+        Connection connection = physicalConnection.get();
+        if (connection != null && !connection.isClosed() && !connection.getAutoCommit()) {
             connection.commit();
         }
     }
@@ -60,8 +181,35 @@ public class DatabaseConnection {
      * Rollback transaction
      */
     public static void rollback() throws SQLException {
-        if (connection != null && !connection.isClosed()) {
+        Connection connection = physicalConnection.get();
+        if (connection != null && !connection.isClosed() && !connection.getAutoCommit()) {
             connection.rollback();
         }
     }
+    
+    /**
+     * Wrap a physical connection so that close() is ignored, and with
+     * tracing on, so that prepared statements record spans
+     */
+    private static Connection unclosable(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(
+            Connection.class.getClassLoader(),
+            new Class<?>[] { Connection.class },
+            (proxy, method, args) -> {
+                if ("close".equals(method.getName())) {
+                    return null;
+                }
+                Object result;
+                try {
+                    result = method.invoke(connection, args);
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+                if (Tracer.isEnabled() && result instanceof PreparedStatement) {
+                    return Tracer.traced((PreparedStatement) result, (String) args[0]);
+                }
+                return result;
+            }
+        );
+    }
 }
@@ -0,0 +1,58 @@
+package com.bank.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Event counter with a one-minute window of recent events
+ * Counting is a few atomic operations, with no locks; the window is a ring
+ * of one-second buckets and may miss an event that lands exactly as a bucket
+ * is reused.
+ */
+public class RateCounter {
+    public static final int WINDOW_SECONDS = 60;
+    
+    private final AtomicLong total = new AtomicLong();
+    private final AtomicLongArray bucketSecond = new AtomicLongArray(WINDOW_SECONDS);
+    private final AtomicLongArray bucketCounts = new AtomicLongArray(WINDOW_SECONDS);
+    
+    public void increment() {
+        total.incrementAndGet();
+        
+        long second = System.currentTimeMillis() / 1000;
+        int bucket = (int) (second % WINDOW_SECONDS);
+        long stamp = bucketSecond.get(bucket);
+        if (stamp != second && bucketSecond.compareAndSet(bucket, stamp, second)) {
+            bucketCounts.set(bucket, 0);
+        }
+        bucketCounts.incrementAndGet(bucket);
+    }
+    
+    /**
+     * Events since this counter was created
+     */
+    public long getTotal() {
+        return total.get();
+    }
+    
+    /**
+     * Events in the last minute
+     */
+    public long getLastMinute() {
+        long oldest = System.currentTimeMillis() / 1000 - WINDOW_SECONDS;
+        long sum = 0;
+        for (int bucket = 0; bucket < WINDOW_SECONDS; bucket++) {
+            if (bucketSecond.get(bucket) > oldest) {
+                sum += bucketCounts.get(bucket);
+            }
+        }
+        return sum;
+    }
+    
+    /**
+     * Average events per second over the last minute
+     */
+    public double getPerSecond() {
+        return (double) getLastMinute() / WINDOW_SECONDS;
+    }
+}
@@ -0,0 +1,167 @@
+package com.bank.util;
+
+import com.bank.config.DatabaseConfig;
+import com.bank.exception.VersionConflictException;
+import java.sql.SQLException;
+import java.sql.SQLTransactionRollbackException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Retry Policy for transient database failures
+ * Classifies deadlocks, lock-wait timeouts and optimistic version conflicts
+ * as retryable and applies bounded exponential backoff with full jitter
+ * between attempts
+ *
+ * Version conflicts are also counted process-wide, across all policies, to
+ * show how much contention the optimistic account updates run into.
+ */
+public class RetryPolicy {
+    private static final int MYSQL_LOCK_WAIT_TIMEOUT = 1205;
+    private static final int MYSQL_DEADLOCK = 1213;
+    private static final String SQLSTATE_SERIALIZATION_FAILURE = "40001";
+    
+    private final int maxAttempts;
+    private final long baseDelayMillis;
+    private final long maxDelayMillis;
+    
+    private final AtomicLong retries = new AtomicLong();
+    private final AtomicLong recovered = new AtomicLong();
+    private final AtomicLong aborts = new AtomicLong();
+    private static final RateCounter versionConflicts = new RateCounter();
+    
+    public RetryPolicy(int maxAttempts, long baseDelayMillis, long maxDelayMillis) {
+        if (maxAttempts < 1) {
+            throw new IllegalArgumentException("maxAttempts must be at least 1");
+        }
+        this.maxAttempts = maxAttempts;
+        this.baseDelayMillis = baseDelayMillis;
+        this.maxDelayMillis = maxDelayMillis;
+    }
+    
+    /**
+     * Create a policy from the retry.* entries in database.properties
+     */
+    public static RetryPolicy fromConfig() {
+        return new RetryPolicy(
+            DatabaseConfig.getIntProperty("retry.maxAttempts", 5),
+            DatabaseConfig.getLongProperty("retry.baseDelayMillis", 10),
+            DatabaseConfig.getLongProperty("retry.maxDelayMillis", 500)
+        );
+    }
+    
+    /**
+     * Start tracking a new business operation
+     */
+    public Attempt begin() {
+        return new Attempt();
+    }
+    
+    /**
+     * Check whether an exception is a transient concurrency failure
+     */
+    public static boolean isRetryable(SQLException e) {
+        for (SQLException current = e; current != null; current = current.getNextException()) {
+            if (current instanceof SQLTransactionRollbackException
+                    || SQLSTATE_SERIALIZATION_FAILURE.equals(current.getSQLState())
+                    || current.getErrorCode() == MYSQL_DEADLOCK
+                    || current.getErrorCode() == MYSQL_LOCK_WAIT_TIMEOUT) {
+                return true;
+            }
+            if (current.getCause() instanceof SQLException && isRetryable((SQLException) current.getCause())) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    /**
+     * Backoff before the given retry (1-based), capped and fully jittered
+     */
+    long backoffMillis(int retry) {
+        long ceiling = baseDelayMillis << Math.min(retry - 1, 20);
+        ceiling = Math.min(ceiling, maxDelayMillis);
+        return ceiling <= 0 ? 0 : ThreadLocalRandom.current().nextLong(ceiling + 1);
+    }
+    
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+    
+    /**
+     * Number of re-executions performed after a retryable failure
+     */
+    public long getRetryCount() {
+        return retries.get();
+    }
+    
+    /**
+     * Number of operations that succeeded after at least one retry
+     */
+    public long getRecoveredCount() {
+        return recovered.get();
+    }
+    
+    /**
+     * Number of operations that gave up after exhausting all attempts
+     */
+    public long getAbortCount() {
+        return aborts.get();
+    }
+    
+    /**
+     * Version conflicts met by any operation since startup
+     */
+    public static long getVersionConflictCount() {
+        return versionConflicts.getTotal();
+    }
+    
+    /**
+     * Version conflicts per second, averaged over the last minute
+     */
+    public static double getVersionConflictsPerSecond() {
+        return versionConflicts.getPerSecond();
+    }
+    
+    /**
+     * Retry state for a single business operation
+     */
+    public class Attempt {
+        private int attempt = 1;
+        
+        /**
+         * Handle a failed attempt. Returns normally after backing off when the
+         * operation should be re-run; otherwise rethrows the exception.
+         */
+        public void onFailure(SQLException e) throws SQLException {
+            if (e instanceof VersionConflictException) {
+                versionConflicts.increment();
+            }
+            if (!isRetryable(e)) {
+                throw e;
+            }
+            if (attempt >= maxAttempts) {
+                aborts.incrementAndGet();
+                throw e;
+            }
+            retries.incrementAndGet();
+            try {
+                Thread.sleep(backoffMillis(attempt));
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+                aborts.incrementAndGet();
+                throw e;
+            }
+            attempt++;
+        }
+        
+        /**
+         * Record a successful attempt
+         */
+        public void onSuccess() {
+            if (attempt > 1) {
+                recovered.incrementAndGet();
+            }
+        }
+    }
+}
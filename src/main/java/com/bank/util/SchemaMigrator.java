@@ -0,0 +1,176 @@
+package com.bank.util;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Schema Migration Runner
+ * Applies the versioned scripts listed in db/migration/index.txt in order
+ * and records each applied version in the schema_version table
+ */
+public class SchemaMigrator {
+    private static final String MIGRATION_DIR = "db/migration/";
+    private static final String INDEX_FILE = MIGRATION_DIR + "index.txt";
+    
+    public static void main(String[] args) {
+        try {
+            int applied = migrate();
+            System.out.println("Applied " + applied + " migration(s). Schema version: " + currentVersion());
+        } catch (SQLException e) {
+            System.err.println("Migration failed: " + e.getMessage());
+            System.exit(1);
+        } finally {
+            DatabaseConnection.closeConnection();
+        }
+    }
+    
+    /**
+     * Apply all pending migrations
+     * @return number of migrations applied
+     */
+    public static int migrate() throws SQLException {
+        ensureVersionTable();
+        int current = currentVersion();
+        int applied = 0;
+        
+        for (String script : listScripts()) {
+            int version = versionOf(script);
+            if (version <= current) {
+                continue;
+            }
+            apply(version, script);
+            applied++;
+        }
+        return applied;
+    }
+    
+    /**
+     * Get the highest applied schema version, 0 if none
+     */
+    public static int currentVersion() throws SQLException {
+        ensureVersionTable();
+        String sql = "SELECT COALESCE(MAX(version), 0) FROM schema_version";
+        
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql);
+             ResultSet rs = pstmt.executeQuery()) {
+            rs.next();
+            return rs.getInt(1);
+        }
+    }
+    
+    private static void ensureVersionTable() throws SQLException {
+        String sql = "CREATE TABLE IF NOT EXISTS schema_version (" +
+                     "version INT PRIMARY KEY, " +
+                     "script VARCHAR(255) NOT NULL, " +
+                     "applied_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP" +
+                     ") ENGINE=InnoDB DEFAULT CHARSET=utf8mb4";
+        
+        try (Connection conn = DatabaseConnection.getConnection();
+             Statement stmt = conn.createStatement()) {
+            stmt.execute(sql);
+        }
+    }
+    
+    /**
+     * Run one script. MySQL commits DDL implicitly, so each statement is
+     * applied on its own and the version row is written last.
+     */
+    private static void apply(int version, String script) throws SQLException {
+        List<String> statements = splitStatements(readResource(MIGRATION_DIR + script));
+        
+        try (Connection conn = DatabaseConnection.getConnection();
+             Statement stmt = conn.createStatement()) {
+            for (String sql : statements) {
+                try {
+                    stmt.execute(sql);
+                } catch (SQLException e) {
+                    throw new SQLException("Migration " + script + " failed at: " + sql, e);
+                }
+            }
+        }
+        
+        String sql = "INSERT INTO schema_version (version, script) VALUES (?, ?)";
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setInt(1, version);
+            pstmt.setString(2, script);
+            pstmt.executeUpdate();
+            DatabaseConnection.commit();
+        }
+    }
+    
+    private static List<String> listScripts() throws SQLException {
+        List<String> scripts = new ArrayList<>();
+        for (String line : readResource(INDEX_FILE).split("\n")) {
+            String name = line.trim();
+            if (!name.isEmpty() && !name.startsWith("#")) {
+                scripts.add(name);
+            }
+        }
+        return scripts;
+    }
+    
+    /**
+     * Parse the version from a name such as V2__dao_access_indexes.sql
+     */
+    static int versionOf(String script) {
+        int separator = script.indexOf("__");
+        if (!script.startsWith("V") || separator < 2) {
+            throw new IllegalArgumentException("Invalid migration name: " + script);
+        }
+        return Integer.parseInt(script.substring(1, separator));
+    }
+    
+    /**
+     * Split a script on statement-terminating semicolons, dropping comment lines
+     */
+    static List<String> splitStatements(String script) {
+        List<String> statements = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        
+        for (String line : script.split("\n")) {
+            String trimmed = line.trim();
+            if (trimmed.isEmpty() || trimmed.startsWith("--")) {
+                continue;
+            }
+            current.append(line).append('\n');
+            if (trimmed.endsWith(";")) {
+                String sql = current.toString().trim();
+                statements.add(sql.substring(0, sql.length() - 1));
+                current.setLength(0);
+            }
+        }
+        if (current.toString().trim().length() > 0) {
+            statements.add(current.toString().trim());
+        }
+        return statements;
+    }
+    
+    private static String readResource(String path) throws SQLException {
+        try (InputStream input = SchemaMigrator.class.getClassLoader().getResourceAsStream(path)) {
+            if (input == null) {
+                throw new SQLException("Migration resource not found: " + path);
+            }
+            StringBuilder content = new StringBuilder();
+            BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+            String line;
+            while ((line = reader.readLine()) != null) {
+                content.append(line).append('\n');
+            }
+            return content.toString();
+        } catch (IOException e) {
+            throw new SQLException("Unable to read migration resource: " + path, e);
+        }
+    }
+}
@@ -0,0 +1,270 @@
+package com.bank.util;
+
+import com.bank.config.DatabaseConfig;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Request Tracer
+ * A service operation opens a root span and gets a trace ID; every DAO call
+ * and SQL statement the thread runs until the root closes becomes a child
+ * span, recording its SQL, number of bind values, rows and time. The current
+ * span is kept per thread, the same way DatabaseConnection keeps the
+ * connection, so the trace follows the request into the DAOs without
+ * changing their signatures.
+ *
+ * When a root span takes trace.slowMillis or longer, its whole span tree is
+ * written to the slow-query log (trace.slowLog, or stderr when unset). Each
+ * span is also emitted as a DaoCallEvent for flight recordings.
+ *
+ * Off unless trace.enabled is true; disabled, begin() returns a shared no-op
+ * span and nothing is wrapped.
+ */
+public class Tracer {
+    private static final boolean ENABLED = Boolean.parseBoolean(DatabaseConfig.getProperty("trace.enabled", "false"));
+    private static final long SLOW_NANOS = DatabaseConfig.getLongProperty("trace.slowMillis", 200) * 1_000_000L;
+    private static final String SLOW_LOG = DatabaseConfig.getProperty("trace.slowLog", "");
+    private static final Span NO_SPAN = new Span(null, null, null, null);
+    
+    private static final ThreadLocal<Span> currentSpan = new ThreadLocal<>();
+    
+    public static boolean isEnabled() {
+        return ENABLED;
+    }
+    
+    /**
+     * Open a span under the current one, or the root span of a new trace
+     * Close it in the same thread, normally with try-with-resources.
+     */
+    public static Span begin(String name) {
+        if (!ENABLED) {
+            return NO_SPAN;
+        }
+        Span parent = currentSpan.get();
+        String traceId = parent != null ? parent.traceId : String.format("%016x", ThreadLocalRandom.current().nextLong());
+        Span span = new Span(traceId, parent, name, null);
+        currentSpan.set(span);
+        return span;
+    }
+    
+    /**
+     * Trace ID of the current thread's request, or null outside a trace
+     */
+    public static String currentTraceId() {
+        Span span = currentSpan.get();
+        return span == null ? null : span.traceId;
+    }
+    
+    /**
+     * Wrap a DAO (or any interface) so that each call is a span named
+     * Interface.method
+     * Returns the target itself when tracing is off.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> T traced(Class<T> type, T target) {
+        if (!ENABLED || target == null || Proxy.isProxyClass(target.getClass())) {
+            return target;
+        }
+        String prefix = type.getSimpleName() + '.';
+        return (T) Proxy.newProxyInstance(
+            type.getClassLoader(),
+            new Class<?>[] { type },
+            (proxy, method, args) -> {
+                if (method.getDeclaringClass() == Object.class) {
+                    return invoke(target, method, args);
+                }
+                try (Span span = begin(prefix + method.getName())) {
+                    return invoke(target, method, args);
+                }
+            }
+        );
+    }
+    
+    /**
+     * Wrap a prepared statement so that each execution is a leaf span with
+     * its SQL, bind count and rows; query spans stay open until the result
+     * set is closed, so they include fetching
+     */
+    static PreparedStatement traced(PreparedStatement statement, String sql) {
+        int[] binds = new int[1];
+        return (PreparedStatement) Proxy.newProxyInstance(
+            PreparedStatement.class.getClassLoader(),
+            new Class<?>[] { PreparedStatement.class },
+            (proxy, method, args) -> {
+                String name = method.getName();
+                if (method.getDeclaringClass() == PreparedStatement.class && name.startsWith("set")) {
+                    binds[0]++;
+                } else if (name.startsWith("execute")) {
+                    Span span = new Span(null, currentSpan.get(), "SQL", sql);
+                    span.binds = binds[0];
+                    binds[0] = 0;
+                    Object result;
+                    try {
+                        result = invoke(statement, method, args);
+                    } catch (Throwable e) {
+                        span.close();
+                        throw e;
+                    }
+                    if (result instanceof ResultSet) {
+                        return counted((ResultSet) result, span);
+                    }
+                    if (result instanceof Integer || result instanceof Long) {
+                        span.rows = ((Number) result).longValue();
+                    } else if (result instanceof int[]) {
+                        for (int count : (int[]) result) {
+                            span.rows += Math.max(count, 0);
+                        }
+                    }
+                    span.close();
+                    return result;
+                }
+                return invoke(statement, method, args);
+            }
+        );
+    }
+    
+    private static ResultSet counted(ResultSet resultSet, Span span) {
+        return (ResultSet) Proxy.newProxyInstance(
+            ResultSet.class.getClassLoader(),
+            new Class<?>[] { ResultSet.class },
+            (proxy, method, args) -> {
+                String name = method.getName();
+                if ("close".equals(name)) {
+                    span.close();
+                }
+                Object result = invoke(resultSet, method, args);
+                if ("next".equals(name) && Boolean.TRUE.equals(result)) {
+                    span.rows++;
+                }
+                return result;
+            }
+        );
+    }
+    
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+    
+    /**
+     * Write a finished root span and its children to the slow-query log
+     */
+    private static void logSlow(Span root) {
+        StringBuilder tree = new StringBuilder();
+        tree.append(LocalDateTime.now()).append(" SLOW trace ").append(root.traceId).append('\n');
+        root.appendTo(tree, 1);
+        synchronized (Tracer.class) {
+            if (SLOW_LOG.isEmpty()) {
+                System.err.print(tree);
+                return;
+            }
+            try (PrintWriter out = new PrintWriter(new FileWriter(SLOW_LOG, true))) {
+                out.print(tree);
+            } catch (IOException e) {
+                System.err.println("Could not write slow-query log: " + e.getMessage());
+                System.err.print(tree);
+            }
+        }
+    }
+    
+    /**
+     * One timed operation in a trace
+     * Statement spans are leaves and never become the current span.
+     */
+    public static final class Span implements AutoCloseable {
+        private final String traceId;
+        private final Span parent;
+        private final String name;
+        private final String sql;
+        private final long startNanos = System.nanoTime();
+        private final DaoCallEvent event = new DaoCallEvent();
+        private List<Span> children; // created on the first child
+        private long durationNanos = -1;
+        private int binds;
+        private long rows;
+        
+        private Span(String traceId, Span parent, String name, String sql) {
+            this.traceId = traceId != null || parent == null ? traceId : parent.traceId;
+            this.parent = parent;
+            this.name = name;
+            this.sql = sql;
+            if (parent != null) {
+                synchronized (parent) {
+                    if (parent.children == null) {
+                        parent.children = new ArrayList<>(4);
+                    }
+                    parent.children.add(this);
+                }
+            }
+            event.begin();
+        }
+        
+        public String getTraceId() {
+            return traceId;
+        }
+        
+        @Override
+        public void close() {
+            if (this == NO_SPAN || durationNanos >= 0) {
+                return;
+            }
+            durationNanos = System.nanoTime() - startNanos;
+            event.end();
+            if (event.shouldCommit()) {
+                event.traceId = traceId;
+                event.operation = name;
+                event.sql = sql;
+                event.binds = binds;
+                event.rows = rows;
+                event.commit();
+            }
+            if (sql != null) {
+                return; // statement spans are never current
+            }
+            if (currentSpan.get() == this) {
+                if (parent == null) {
+                    currentSpan.remove();
+                } else {
+                    currentSpan.set(parent);
+                }
+            }
+            if (parent == null && durationNanos >= SLOW_NANOS) {
+                logSlow(this);
+            }
+        }
+        
+        private synchronized void appendTo(StringBuilder tree, int depth) {
+            for (int i = 0; i < depth; i++) {
+                tree.append("  ");
+            }
+            tree.append(name).append(' ');
+            if (durationNanos >= 0) {
+                tree.append(String.format("%.3f ms", durationNanos / 1e6));
+            } else {
+                tree.append("unfinished");
+            }
+            if (sql != null) {
+                tree.append(" binds=").append(binds).append(" rows=").append(rows).append(": ").append(sql);
+            }
+            tree.append('\n');
+            if (children != null) {
+                for (Span child : children) {
+                    child.appendTo(tree, depth + 1);
+                }
+            }
+        }
+    }
+}
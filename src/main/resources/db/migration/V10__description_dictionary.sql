@@ -0,0 +1,69 @@
+-- V10: Dictionary of generated transaction descriptions
+-- "Deposit", "Transfer to ACC001" and the like are stored once, as a template
+-- and a parameter; ledger rows reference them by description_id and leave
+-- description NULL. Free-text descriptions stay inline. The dictionary uses a
+-- binary, no-pad collation so that it maps back to exactly the original text.
+
+CREATE TABLE IF NOT EXISTS transaction_descriptions (
+    description_id INT AUTO_INCREMENT PRIMARY KEY,
+    template VARCHAR(64) NOT NULL,
+    parameter VARCHAR(255) NOT NULL DEFAULT '',
+    UNIQUE KEY uk_template_parameter (template, parameter)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_bin;
+
+ALTER TABLE transactions ADD COLUMN description_id INT NULL;
+ALTER TABLE transactions_archive ADD COLUMN description_id INT NULL;
+
+-- Encode existing rows. The templates match the ones TransactionService
+-- generates; each has its parameter, if any, at the end. A parameter must be
+-- an account number, so free text that merely starts like a template
+-- ("Transfer to mum") stays inline.
+CREATE TEMPORARY TABLE description_templates (
+    template VARCHAR(64) NOT NULL,
+    prefix VARCHAR(64) NOT NULL
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_bin;
+
+INSERT INTO description_templates (template, prefix) VALUES
+    ('Deposit', 'Deposit'),
+    ('Withdrawal', 'Withdrawal'),
+    ('Transfer to {}', 'Transfer to '),
+    ('Transfer from {}', 'Transfer from ');
+
+INSERT IGNORE INTO transaction_descriptions (template, parameter)
+SELECT DISTINCT p.template, SUBSTRING(t.description COLLATE utf8mb4_0900_bin, CHAR_LENGTH(p.prefix) + 1)
+FROM transactions t
+JOIN description_templates p
+  ON (p.template = p.prefix AND t.description COLLATE utf8mb4_0900_bin = p.prefix)
+  OR (p.template <> p.prefix AND t.description COLLATE utf8mb4_0900_bin LIKE CONCAT(p.prefix, '%')
+      AND EXISTS (SELECT 1 FROM accounts a
+                  WHERE a.account_number = SUBSTRING(t.description COLLATE utf8mb4_0900_bin, CHAR_LENGTH(p.prefix) + 1)));
+
+INSERT IGNORE INTO transaction_descriptions (template, parameter)
+SELECT DISTINCT p.template, SUBSTRING(t.description COLLATE utf8mb4_0900_bin, CHAR_LENGTH(p.prefix) + 1)
+FROM transactions_archive t
+JOIN description_templates p
+  ON (p.template = p.prefix AND t.description COLLATE utf8mb4_0900_bin = p.prefix)
+  OR (p.template <> p.prefix AND t.description COLLATE utf8mb4_0900_bin LIKE CONCAT(p.prefix, '%')
+      AND EXISTS (SELECT 1 FROM accounts a
+                  WHERE a.account_number = SUBSTRING(t.description COLLATE utf8mb4_0900_bin, CHAR_LENGTH(p.prefix) + 1)));
+
+-- Only descriptions added above have an entry, so the joins below leave free text alone
+UPDATE transactions t
+JOIN description_templates p
+  ON (p.template = p.prefix AND t.description COLLATE utf8mb4_0900_bin = p.prefix)
+  OR (p.template <> p.prefix AND t.description COLLATE utf8mb4_0900_bin LIKE CONCAT(p.prefix, '%'))
+JOIN transaction_descriptions d
+  ON d.template = p.template
+ AND d.parameter = SUBSTRING(t.description COLLATE utf8mb4_0900_bin, CHAR_LENGTH(p.prefix) + 1)
+SET t.description_id = d.description_id, t.description = NULL;
+
+UPDATE transactions_archive t
+JOIN description_templates p
+  ON (p.template = p.prefix AND t.description COLLATE utf8mb4_0900_bin = p.prefix)
+  OR (p.template <> p.prefix AND t.description COLLATE utf8mb4_0900_bin LIKE CONCAT(p.prefix, '%'))
+JOIN transaction_descriptions d
+  ON d.template = p.template
+ AND d.parameter = SUBSTRING(t.description COLLATE utf8mb4_0900_bin, CHAR_LENGTH(p.prefix) + 1)
+SET t.description_id = d.description_id, t.description = NULL;
+
+DROP TEMPORARY TABLE description_templates;
@@ -0,0 +1,5 @@
+-- V11: Row version for optimistic concurrency on accounts
+-- Every balance or status update checks the version it read and increments
+-- it; an update that finds another version changes nothing and is retried.
+
+ALTER TABLE accounts ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,33 @@
+-- V12: Bulk payouts and their payments
+-- A payout and its payments are written in the same transaction as the debit
+-- of the source account. Each credited chunk marks its payments CREDITED or
+-- FAILED in its own transaction, and the refund of the failed ones marks them
+-- REFUNDED and the payout COMPLETED, so a payout left CREDITING can be
+-- finished by TransactionService.resumePayouts. idx_status finds those.
+
+CREATE TABLE IF NOT EXISTS bulk_payouts (
+    payout_id INT AUTO_INCREMENT PRIMARY KEY,
+    source_account_id INT NOT NULL,
+    amount DECIMAL(15, 2) NOT NULL CHECK (amount > 0),
+    description VARCHAR(255),
+    payment_count INT NOT NULL,
+    debit_transaction_id INT NOT NULL,
+    status ENUM('CREDITING', 'COMPLETED') NOT NULL DEFAULT 'CREDITING',
+    refund_transaction_id INT NULL,
+    created_at TIMESTAMP(3) NOT NULL,
+    FOREIGN KEY (source_account_id) REFERENCES accounts(account_id) ON DELETE CASCADE,
+    INDEX idx_status (status, payout_id)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
+-- Payments are numbered from 0 in ascending destination account order; a
+-- destination may be missing, so account_id has no foreign key
+CREATE TABLE IF NOT EXISTS bulk_payout_payments (
+    payout_id INT NOT NULL,
+    payment_no INT NOT NULL,
+    account_id INT NOT NULL,
+    amount DECIMAL(15, 2) NOT NULL CHECK (amount > 0),
+    status ENUM('PENDING', 'CREDITED', 'FAILED', 'REFUNDED') NOT NULL DEFAULT 'PENDING',
+    reason VARCHAR(255) NULL,
+    PRIMARY KEY (payout_id, payment_no),
+    FOREIGN KEY (payout_id) REFERENCES bulk_payouts(payout_id) ON DELETE CASCADE
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
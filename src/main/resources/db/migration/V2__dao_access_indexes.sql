@@ -0,0 +1,15 @@
+-- V2: Indexes matching the DAO access patterns
+
+-- Per-account history: WHERE account_id = ? ORDER BY transaction_date DESC, transaction_id DESC
+-- The composite index serves the filter and the sort, so LIMIT stops early without a filesort.
+-- It also backs the account_id foreign key, which makes idx_account_id redundant.
+ALTER TABLE transactions ADD INDEX idx_account_date (account_id, transaction_date, transaction_id);
+ALTER TABLE transactions DROP INDEX idx_account_id;
+
+-- Accounts of a customer (WHERE customer_id = ? ORDER BY account_id) are already served by
+-- idx_customer_id, since InnoDB appends the primary key to every secondary index.
+-- Balance is deliberately not added to it: every money movement would then rewrite the index.
+
+-- Duplicates of the UNIQUE keys on the same columns; they only add write cost
+ALTER TABLE accounts DROP INDEX idx_account_number;
+ALTER TABLE customers DROP INDEX idx_email;
@@ -0,0 +1,9 @@
+-- V3: Sequence table for block-allocated account numbers
+-- Each node reserves a block with one UPDATE and hands numbers out from memory
+
+CREATE TABLE IF NOT EXISTS account_number_sequence (
+    name VARCHAR(30) PRIMARY KEY,
+    next_value BIGINT NOT NULL
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
+INSERT IGNORE INTO account_number_sequence (name, next_value) VALUES ('ACCOUNT', 1);
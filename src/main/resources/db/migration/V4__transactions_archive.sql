@@ -0,0 +1,26 @@
+-- V4: Archive table for ledger rows older than the hot window
+-- transactions keeps the recent months; LedgerArchiver moves whole months here.
+-- MySQL cannot partition tables that have foreign keys, so the hot/archive split
+-- is done with two tables. The archive has no foreign keys: archived rows are
+-- retained for audit even after the account is deleted.
+
+CREATE TABLE IF NOT EXISTS transactions_archive (
+    transaction_id INT PRIMARY KEY,
+    account_id INT NOT NULL,
+    transaction_type ENUM('DEPOSIT', 'WITHDRAWAL', 'TRANSFER_OUT', 'TRANSFER_IN') NOT NULL,
+    amount DECIMAL(15, 2) NOT NULL,
+    balance_after DECIMAL(15, 2) NOT NULL,
+    description VARCHAR(255),
+    related_account_id INT NULL,
+    transaction_date TIMESTAMP NOT NULL,
+    INDEX idx_archive_account_date (account_id, transaction_date, transaction_id),
+    INDEX idx_archive_date (transaction_date)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
+-- Rows dated before archived_before may live in transactions_archive
+CREATE TABLE IF NOT EXISTS transaction_archive_state (
+    id TINYINT PRIMARY KEY,
+    archived_before TIMESTAMP NULL
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
+INSERT IGNORE INTO transaction_archive_state (id, archived_before) VALUES (1, NULL);
@@ -0,0 +1,28 @@
+-- V5: State for incremental ledger reconciliation
+
+-- Last verified ledger row per account; the next run continues the chain from here
+CREATE TABLE IF NOT EXISTS reconciliation_checkpoint (
+    account_id INT PRIMARY KEY,
+    last_transaction_date TIMESTAMP NOT NULL,
+    last_transaction_id INT NOT NULL,
+    last_balance_after DECIMAL(15, 2) NOT NULL,
+    verified_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
+-- Transfer legs whose counterpart may still arrive in the next run
+CREATE TABLE IF NOT EXISTS reconciliation_pending_leg (
+    transaction_id INT PRIMARY KEY,
+    account_id INT NOT NULL,
+    related_account_id INT NOT NULL,
+    transaction_type ENUM('TRANSFER_OUT', 'TRANSFER_IN') NOT NULL,
+    amount DECIMAL(15, 2) NOT NULL,
+    transaction_date TIMESTAMP NOT NULL
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
+-- Ledger rows dated before verified_before have been reconciled
+CREATE TABLE IF NOT EXISTS reconciliation_state (
+    id TINYINT PRIMARY KEY,
+    verified_before TIMESTAMP NULL
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
+INSERT IGNORE INTO reconciliation_state (id, verified_before) VALUES (1, NULL);
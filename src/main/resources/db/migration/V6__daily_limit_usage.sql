@@ -0,0 +1,12 @@
+-- V6: Today's withdrawal and transfer totals per account, for daily limits
+-- Written behind by DailyLimits to share totals between processes. At startup
+-- each row is raised to today's outflows in the ledger, which stays the source
+-- of truth for movements that were never written here.
+
+CREATE TABLE IF NOT EXISTS daily_limit_usage (
+    account_id INT NOT NULL,
+    usage_date DATE NOT NULL,
+    withdrawn DECIMAL(15, 2) NOT NULL DEFAULT 0.00,
+    transferred DECIMAL(15, 2) NOT NULL DEFAULT 0.00,
+    PRIMARY KEY (account_id, usage_date)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
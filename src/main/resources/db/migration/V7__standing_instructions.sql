@@ -0,0 +1,22 @@
+-- V7: Standing instructions (recurring transfers)
+-- idx_due is the due-time index the scheduler pages through: active
+-- instructions ordered by when they next fall due.
+
+CREATE TABLE IF NOT EXISTS standing_instructions (
+    instruction_id INT AUTO_INCREMENT PRIMARY KEY,
+    from_account_id INT NOT NULL,
+    to_account_id INT NOT NULL,
+    amount DECIMAL(15, 2) NOT NULL CHECK (amount > 0),
+    description VARCHAR(255),
+    frequency ENUM('DAILY', 'WEEKLY', 'MONTHLY') NOT NULL,
+    anchor_day TINYINT NOT NULL,
+    next_run_at TIMESTAMP NOT NULL,
+    status ENUM('ACTIVE', 'CANCELLED') NOT NULL DEFAULT 'ACTIVE',
+    last_run_at TIMESTAMP NULL,
+    last_error VARCHAR(255) NULL,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    FOREIGN KEY (from_account_id) REFERENCES accounts(account_id) ON DELETE CASCADE,
+    FOREIGN KEY (to_account_id) REFERENCES accounts(account_id) ON DELETE CASCADE,
+    INDEX idx_due (status, next_run_at, instruction_id),
+    INDEX idx_from_account (from_account_id)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
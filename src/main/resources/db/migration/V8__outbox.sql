@@ -0,0 +1,11 @@
+-- V8: Transactional outbox of money movement events
+-- Rows are written in the same transaction as the ledger rows they describe
+-- and deleted by OutboxRelay once published, so the table stays small.
+
+CREATE TABLE IF NOT EXISTS outbox_events (
+    event_id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    event_type VARCHAR(30) NOT NULL,
+    account_id INT NOT NULL,
+    payload VARCHAR(1024) NOT NULL,
+    created_at TIMESTAMP(3) NOT NULL
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
@@ -0,0 +1,22 @@
+-- V9: Multi-currency accounts
+-- Existing accounts keep the single currency used so far (USD).
+-- fx_rates is append-only: saving rates adds rows under a new version, so the
+-- rate behind any ledger row can be found from its fx_rate_version (the newest
+-- row for the currency pair with version <= fx_rate_version).
+
+ALTER TABLE accounts ADD COLUMN currency CHAR(3) NOT NULL DEFAULT 'USD';
+
+CREATE TABLE IF NOT EXISTS fx_rates (
+    from_currency CHAR(3) NOT NULL,
+    to_currency CHAR(3) NOT NULL,
+    version BIGINT NOT NULL,
+    rate DECIMAL(18, 8) NOT NULL CHECK (rate > 0),
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (from_currency, to_currency, version),
+    INDEX idx_version (version)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
+-- Rate version used to convert a cross-currency transfer leg; NULL otherwise
+ALTER TABLE transactions ADD COLUMN fx_rate_version BIGINT NULL;
+ALTER TABLE transactions_archive ADD COLUMN fx_rate_version BIGINT NULL;
+ALTER TABLE reconciliation_pending_leg ADD COLUMN fx_rate_version BIGINT NULL;
@@ -0,0 +1,337 @@
+package com.bank.dao;
+
+import static org.junit.Assert.fail;
+import static org.junit.Assume.assumeTrue;
+
+import com.bank.model.Transaction;
+import com.bank.util.DatabaseConnection;
+import com.bank.util.SchemaMigrator;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * Query plan regression harness
+ * Runs EXPLAIN on every DAO statement against a seeded local database and
+ * fails when a query scans a whole table or needs a filesort.
+ *
+ * Runs only when a database is named explicitly, e.g.
+ * mvn test -Ddb.url=jdbc:mysql://localhost:3306/bank_plan_test -Ddb.username=root -Ddb.password=...
+ * Use a scratch database: the harness migrates it and inserts seed rows.
+ */
+public class QueryPlanTest {
+    private static final int SEED_CUSTOMERS = 200;
+    private static final int ACCOUNTS_PER_CUSTOMER = 2;
+    private static final int TRANSACTIONS_PER_ACCOUNT = 25;
+    private static final String SEED_EMAIL_PREFIX = "plan-seed-";
+    
+    private static int sampleCustomerId;
+    private static int sampleAccountId;
+    private static int sampleTransactionId;
+    
+    @BeforeClass
+    public static void seedDatabase() throws SQLException {
+        assumeTrue("Set -Ddb.url to run the query plan harness", System.getProperty("db.url") != null);
+        
+        SchemaMigrator.migrate();
+        Connection conn = DatabaseConnection.getConnection();
+        if (!isSeeded(conn)) {
+            seed(conn);
+        }
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("ANALYZE TABLE customers, accounts, transactions");
+        }
+        loadSampleIds(conn);
+    }
+    
+    @AfterClass
+    public static void closeConnection() {
+        DatabaseConnection.closeConnection();
+    }
+    
+    @Test
+    public void customerQueriesUseIndexes() throws SQLException {
+        List<String> problems = new ArrayList<>();
+        check(problems, JdbcCustomerDAO.SQL_SELECT_BY_ID, false, sampleCustomerId);
+        check(problems, JdbcCustomerDAO.SQL_SELECT_BY_EMAIL, false, SEED_EMAIL_PREFIX + "1@example.com");
+        check(problems, JdbcCustomerDAO.SQL_SELECT_ALL, true);
+        check(problems, JdbcCustomerDAO.SQL_SELECT_SUMMARIES, true);
+        check(problems, JdbcCustomerDAO.SQL_COUNT, true);
+        check(problems, JdbcCustomerDAO.SQL_SELECT_EMAILS_AFTER, true, 0);
+        check(problems, JdbcCustomerDAO.SQL_UPDATE, false,
+            "First", "Last", SEED_EMAIL_PREFIX + "1@example.com", "1234567890", "Addr",
+            Date.valueOf("1990-01-01"), sampleCustomerId);
+        check(problems, JdbcCustomerDAO.SQL_DELETE, false, -1);
+        assertNoProblems(problems);
+    }
+    
+    @Test
+    public void accountQueriesUseIndexes() throws SQLException {
+        List<String> problems = new ArrayList<>();
+        check(problems, JdbcAccountDAO.SQL_SELECT_BY_ID, false, sampleAccountId);
+        check(problems, JdbcAccountDAO.SQL_SELECT_BY_NUMBER, false, "PLAN-1-0");
+        check(problems, JdbcAccountDAO.selectByIdsSql(2), false, sampleAccountId, sampleAccountId);
+        check(problems, JdbcAccountDAO.SQL_SELECT_BY_CUSTOMER, false, sampleCustomerId);
+        check(problems, JdbcAccountDAO.SQL_UPDATE_BALANCE, false, 100.0, sampleAccountId, 0L);
+        check(problems, JdbcAccountDAO.SQL_UPDATE_STATUS, false, "ACTIVE", sampleAccountId, 0L);
+        check(problems, JdbcAccountDAO.SQL_SELECT_VERSION, false, sampleAccountId);
+        check(problems, JdbcAccountDAO.SQL_SELECT_BALANCE, false, sampleAccountId);
+        check(problems, AccountNumberSequenceDAO.SQL_RESERVE_BLOCK, false, 0, "ACCOUNT");
+        assertNoProblems(problems);
+    }
+    
+    @Test
+    public void transactionQueriesUseIndexes() throws SQLException {
+        List<String> problems = new ArrayList<>();
+        check(problems, JdbcTransactionDAO.SQL_SELECT_BY_ID, false, sampleTransactionId);
+        check(problems, JdbcTransactionDAO.SQL_SELECT_BY_ACCOUNT, false, sampleAccountId);
+        check(problems, JdbcTransactionDAO.SQL_SELECT_HISTORY, false, sampleAccountId, 10);
+        check(problems, JdbcTransactionDAO.SQL_SELECT_RANGE, false, sampleAccountId, monthAgo(), now());
+        check(problems, JdbcTransactionDAO.SQL_SELECT_OUTFLOWS_SINCE, false, now());
+        check(problems, JdbcTransactionDAO.SQL_SELECT_ARCHIVE_BY_ID, false, sampleTransactionId);
+        check(problems, JdbcTransactionDAO.SQL_SELECT_ARCHIVE_BY_ACCOUNT, false, sampleAccountId);
+        check(problems, JdbcTransactionDAO.SQL_SELECT_ARCHIVE_HISTORY, false, sampleAccountId, 10);
+        check(problems, JdbcTransactionDAO.SQL_SELECT_ARCHIVE_RANGE, false, sampleAccountId, monthAgo(), now());
+        assertNoProblems(problems);
+    }
+    
+    @Test
+    public void archiveMaintenanceQueriesUseIndexes() throws SQLException {
+        List<String> problems = new ArrayList<>();
+        check(problems, LedgerArchiveDAO.SQL_SELECT_CUTOFF, false);
+        check(problems, LedgerArchiveDAO.SQL_UPDATE_CUTOFF, false, monthAgo(), monthAgo());
+        check(problems, LedgerArchiveDAO.SQL_SELECT_CHUNK_END, false, monthAgo(), 1000);
+        check(problems, LedgerArchiveDAO.SQL_COPY_CHUNK, false, monthAgo(), sampleTransactionId);
+        check(problems, LedgerArchiveDAO.SQL_DELETE_CHUNK, false, monthAgo(), sampleTransactionId);
+        assertNoProblems(problems);
+    }
+    
+    @Test
+    public void reconciliationQueriesUseIndexes() throws SQLException {
+        List<String> problems = new ArrayList<>();
+        check(problems, ReconciliationDAO.SQL_SELECT_VERIFIED_BEFORE, false);
+        check(problems, ReconciliationDAO.SQL_SELECT_ALL_ACCOUNTS, true);
+        check(problems, ReconciliationDAO.SQL_SELECT_TOUCHED_ACCOUNTS, false, monthAgo(), now());
+        check(problems, ReconciliationDAO.SQL_SELECT_CHECKPOINT, false, sampleAccountId);
+        check(problems, ReconciliationDAO.SQL_SELECT_BALANCE, false, sampleAccountId);
+        check(problems, ReconciliationDAO.SQL_SELECT_LEDGER, false, sampleAccountId, monthAgo(), now());
+        check(problems, ReconciliationDAO.SQL_SELECT_LAST_BALANCE_AFTER, false, sampleAccountId);
+        check(problems, ReconciliationDAO.SQL_SELECT_ARCHIVE_LEDGER, false, sampleAccountId, monthAgo(), now());
+        check(problems, ReconciliationDAO.SQL_SELECT_ARCHIVE_LAST_BALANCE_AFTER, false, sampleAccountId);
+        assertNoProblems(problems);
+    }
+    
+    @Test
+    public void reportQueriesUseIndexes() throws SQLException {
+        List<String> problems = new ArrayList<>();
+        check(problems, ReportDAO.SQL_SELECT_CUSTOMER_ID_RANGE, false);
+        check(problems, ReportDAO.SQL_SELECT_ACCOUNT_RANGE, false, sampleCustomerId, sampleCustomerId + 10);
+        assertNoProblems(problems);
+    }
+    
+    @Test
+    public void dailyLimitQueriesUseIndexes() throws SQLException {
+        List<String> problems = new ArrayList<>();
+        check(problems, DailyLimitDAO.SQL_ADD_USAGE, false, sampleAccountId, Date.valueOf("2000-01-01"), 0, 0);
+        check(problems, DailyLimitDAO.SQL_RAISE_USAGE, false, sampleAccountId, Date.valueOf("2000-01-01"), 0, 0);
+        // One row per account and day, with earlier days deleted daily
+        check(problems, DailyLimitDAO.SQL_SELECT_USAGE, true, Date.valueOf("2000-01-01"));
+        check(problems, DailyLimitDAO.SQL_DELETE_USAGE_BEFORE, true, Date.valueOf("2000-01-01"));
+        assertNoProblems(problems);
+    }
+    
+    @Test
+    public void standingInstructionQueriesUseIndexes() throws SQLException {
+        List<String> problems = new ArrayList<>();
+        LocalDateTime epoch = LocalDateTime.of(1970, 1, 2, 0, 0);
+        check(problems, StandingInstructionDAO.SQL_SELECT_BY_ID, false, 1);
+        check(problems, StandingInstructionDAO.SQL_SELECT_BY_FROM_ACCOUNT, false, sampleAccountId);
+        check(problems, StandingInstructionDAO.SQL_SELECT_DUE, false, now(), epoch, epoch, 0, 500);
+        check(problems, StandingInstructionDAO.SQL_ADVANCE_RUN, false, now(), now(), null, 1, now());
+        check(problems, StandingInstructionDAO.SQL_UPDATE_STATUS, false, "CANCELLED", 1);
+        assertNoProblems(problems);
+    }
+    
+    @Test
+    public void customerOverviewQueryUsesIndexes() throws SQLException {
+        List<String> problems = new ArrayList<>();
+        check(problems, JdbcCustomerOverviewDAO.SQL_SELECT_OVERVIEW, false, 5, sampleCustomerId);
+        check(problems, JdbcCustomerOverviewDAO.archivedSql(2), false, 5, sampleAccountId, sampleAccountId);
+        assertNoProblems(problems);
+    }
+    
+    @Test
+    public void outboxQueriesUseIndexes() throws SQLException {
+        List<String> problems = new ArrayList<>();
+        check(problems, JdbcOutboxDAO.SQL_SELECT_BATCH, false, 500);
+        check(problems, JdbcOutboxDAO.deleteSql(2), false, 1L, 2L);
+        assertNoProblems(problems);
+    }
+    
+    @Test
+    public void fxRateQueriesUseIndexes() throws SQLException {
+        List<String> problems = new ArrayList<>();
+        check(problems, JdbcFxRateDAO.SQL_SELECT_LATEST_VERSION, false);
+        // Reads the whole (small) table once per new version
+        check(problems, JdbcFxRateDAO.SQL_SELECT_LATEST_RATES, true);
+        assertNoProblems(problems);
+    }
+    
+    @Test
+    public void payoutQueriesUseIndexes() throws SQLException {
+        List<String> problems = new ArrayList<>();
+        check(problems, JdbcPayoutDAO.SQL_SELECT_UNFINISHED, false);
+        check(problems, JdbcPayoutDAO.SQL_LOCK_PAYOUT, false, 1);
+        check(problems, JdbcPayoutDAO.SQL_CLAIM_PENDING, false, 1, 0, 499);
+        check(problems, JdbcPayoutDAO.SQL_MARK_FAILED, false, "Account not found", 1, 0);
+        check(problems, JdbcPayoutDAO.SQL_MARK_CREDITED, false, 1, 0, 499);
+        check(problems, JdbcPayoutDAO.SQL_FAIL_PENDING, false, "Not credited", 1, 0, 499);
+        check(problems, JdbcPayoutDAO.SQL_SELECT_FAILED, false, 1);
+        check(problems, JdbcPayoutDAO.SQL_COMPLETE_PAYOUT, false, null, 1, 1);
+        check(problems, JdbcPayoutDAO.SQL_MARK_REFUNDED, false, 1);
+        assertNoProblems(problems);
+    }
+    
+    @Test
+    public void descriptionDictionaryQueriesUseIndexes() throws SQLException {
+        List<String> problems = new ArrayList<>();
+        check(problems, DescriptionDictionary.SQL_SELECT_ID, false, "Transfer to {}", "ACC0000000001");
+        check(problems, DescriptionDictionary.SQL_SELECT_BY_ID, false, 1);
+        assertNoProblems(problems);
+    }
+    
+    /**
+     * EXPLAIN one statement and record every plan row that scans a full
+     * table (unless allowed) or sorts outside an index
+     */
+    private static void check(List<String> problems, String sql, boolean allowFullScan, Object... params) 
+            throws SQLException {
+        Connection conn = DatabaseConnection.getConnection();
+        try (PreparedStatement pstmt = conn.prepareStatement("EXPLAIN " + sql)) {
+            for (int i = 0; i < params.length; i++) {
+                pstmt.setObject(i + 1, params[i]);
+            }
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    String table = rs.getString("table");
+                    String type = rs.getString("type");
+                    String extra = rs.getString("Extra");
+                    // Reading a materialized derived table is not a base-table scan
+                    boolean derived = table != null && table.startsWith("<derived");
+                    if (!allowFullScan && !derived && "ALL".equals(type)) {
+                        problems.add("Full scan of " + table + ": " + sql);
+                    }
+                    if (extra != null && extra.contains("Using filesort")) {
+                        problems.add("Filesort on " + table + ": " + sql);
+                    }
+                }
+            }
+        }
+    }
+    
+    private static Timestamp now() {
+        return Timestamp.valueOf(LocalDateTime.now());
+    }
+    
+    private static Timestamp monthAgo() {
+        return Timestamp.valueOf(LocalDateTime.now().minusMonths(1));
+    }
+    
+    private static void assertNoProblems(List<String> problems) {
+        if (!problems.isEmpty()) {
+            fail(String.join("\n", problems));
+        }
+    }
+    
+    private static boolean isSeeded(Connection conn) throws SQLException {
+        String sql = "SELECT COUNT(*) FROM customers WHERE email LIKE ?";
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setString(1, SEED_EMAIL_PREFIX + "%");
+            try (ResultSet rs = pstmt.executeQuery()) {
+                rs.next();
+                return rs.getInt(1) >= SEED_CUSTOMERS;
+            }
+        }
+    }
+    
+    /**
+     * Insert enough rows that the optimizer prefers indexes over table scans
+     * Ledger rows go through JdbcTransactionDAO, so the seed binds whatever
+     * columns the DAO writes.
+     */
+    private static void seed(Connection conn) throws SQLException {
+        DatabaseConnection.beginTransaction();
+        try (PreparedStatement customer = conn.prepareStatement(
+                 "INSERT INTO customers (first_name, last_name, email, phone, address, date_of_birth) " +
+                 "VALUES (?, ?, ?, ?, ?, ?)", Statement.RETURN_GENERATED_KEYS);
+             PreparedStatement account = conn.prepareStatement(
+                 "INSERT INTO accounts (customer_id, account_number, account_type, balance, status) " +
+                 "VALUES (?, ?, 'SAVINGS', ?, 'ACTIVE')", Statement.RETURN_GENERATED_KEYS)) {
+            
+            JdbcTransactionDAO transactionDAO = new JdbcTransactionDAO();
+            LocalDateTime start = LocalDateTime.now().minusDays(TRANSACTIONS_PER_ACCOUNT);
+            for (int c = 1; c <= SEED_CUSTOMERS; c++) {
+                customer.setString(1, "Plan");
+                customer.setString(2, "Seed" + c);
+                customer.setString(3, SEED_EMAIL_PREFIX + c + "@example.com");
+                customer.setString(4, "0000000000");
+                customer.setString(5, "Seed Street " + c);
+                customer.setDate(6, Date.valueOf("1990-01-01"));
+                customer.executeUpdate();
+                int customerId = generatedKey(customer);
+                
+                List<Transaction> transactions = new ArrayList<>(ACCOUNTS_PER_CUSTOMER * TRANSACTIONS_PER_ACCOUNT);
+                for (int a = 0; a < ACCOUNTS_PER_CUSTOMER; a++) {
+                    account.setInt(1, customerId);
+                    account.setString(2, "PLAN-" + c + "-" + a);
+                    account.setDouble(3, TRANSACTIONS_PER_ACCOUNT * 10.0);
+                    account.executeUpdate();
+                    int accountId = generatedKey(account);
+                    
+                    for (int t = 1; t <= TRANSACTIONS_PER_ACCOUNT; t++) {
+                        Transaction transaction = new Transaction(
+                            accountId, Transaction.TransactionType.DEPOSIT, 10.0, t * 10.0, "Deposit");
+                        transaction.setTransactionDate(start.plusDays(t));
+                        transactions.add(transaction);
+                    }
+                }
+                transactionDAO.createTransactions(transactions);
+            }
+            DatabaseConnection.commitTransaction();
+        } catch (SQLException e) {
+            DatabaseConnection.rollbackTransaction();
+            throw e;
+        }
+    }
+    
+    private static int generatedKey(PreparedStatement pstmt) throws SQLException {
+        try (ResultSet keys = pstmt.getGeneratedKeys()) {
+            keys.next();
+            return keys.getInt(1);
+        }
+    }
+    
+    private static void loadSampleIds(Connection conn) throws SQLException {
+        String sql = "SELECT c.customer_id, a.account_id, MIN(t.transaction_id) " +
+                     "FROM customers c JOIN accounts a ON a.customer_id = c.customer_id " +
+                     "JOIN transactions t ON t.account_id = a.account_id " +
+                     "WHERE a.account_number = 'PLAN-1-0' GROUP BY c.customer_id, a.account_id";
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+            rs.next();
+            sampleCustomerId = rs.getInt(1);
+            sampleAccountId = rs.getInt(2);
+            sampleTransactionId = rs.getInt(3);
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.bank.service;
+
+import static org.junit.Assert.assertEquals;
+
+import com.bank.exception.CurrencyConversionException;
+import com.bank.model.FxRate;
+import java.math.BigDecimal;
+import java.util.Arrays;
+import org.junit.Test;
+
+/**
+ * Unit tests for the fixed-point conversion in FxRateSnapshot
+ * Covers rounding to the target currency's minor units, conversion through
+ * the reverse pair and the BigInteger fallback taken when a product
+ * overflows a long.
+ */
+public class FxRateSnapshotTest {
+    
+    @Test
+    public void sameCurrencyIsNotConverted() throws CurrencyConversionException {
+        assertEquals(12.34, snapshot().convert(12.34, "USD", "USD"), 0);
+    }
+    
+    @Test
+    public void directRateRoundsToTargetMinorUnits() throws CurrencyConversionException {
+        FxRateSnapshot rates = snapshot(rate("USD", "EUR", "0.92"), rate("USD", "JPY", "149.53"));
+        assertEquals(9.25, rates.convert(10.05, "USD", "EUR"), 0); // 9.246
+        assertEquals(184, rates.convert(1.23, "USD", "JPY"), 0); // 183.9219, yen have no minor units
+        assertEquals(0.01, rates.convert(0.01, "USD", "EUR"), 0); // 0.0092
+    }
+    
+    @Test
+    public void exactHalvesRoundToEven() throws CurrencyConversionException {
+        FxRateSnapshot rates = snapshot(rate("USD", "EUR", "0.5"), rate("USD", "JPY", "0.5"));
+        assertEquals(0.02, rates.convert(0.05, "USD", "EUR"), 0); // 0.025
+        assertEquals(0.04, rates.convert(0.07, "USD", "EUR"), 0); // 0.035
+        assertEquals(2, rates.convert(5, "USD", "JPY"), 0); // 2.5
+        assertEquals(4, rates.convert(7, "USD", "JPY"), 0); // 3.5
+    }
+    
+    @Test
+    public void reverseRateIsDividedByWithOneRounding() throws CurrencyConversionException {
+        FxRateSnapshot rates = snapshot(rate("EUR", "USD", "1.25"), rate("GBP", "USD", "2"));
+        assertEquals(8, rates.convert(10, "USD", "EUR"), 0);
+        assertEquals(0.8, rates.convert(1, "USD", "EUR"), 0);
+        assertEquals(0.02, rates.convert(0.05, "USD", "GBP"), 0); // 0.025
+        assertEquals(0.04, rates.convert(0.07, "USD", "GBP"), 0); // 0.035
+        assertEquals(0.01, rates.convert(0.01, "USD", "EUR"), 0); // 0.008
+    }
+    
+    @Test(expected = CurrencyConversionException.class)
+    public void missingPairIsRejected() throws CurrencyConversionException {
+        snapshot(rate("USD", "EUR", "0.92")).convert(10, "USD", "GBP");
+    }
+    
+    @Test
+    public void largestAmountConvertsThroughBigIntegerFallback() throws CurrencyConversionException {
+        // 99999999999999900 * 100000000 overflows a long
+        FxRateSnapshot rates = snapshot(rate("USD", "EUR", "1"));
+        assertEquals(9999999999999.99, rates.convert(9999999999999.99, "USD", "EUR"), 0);
+    }
+    
+    @Test
+    public void multiplyDivideRoundsHalfEvenInBothPaths() {
+        assertEquals(2, FxRateSnapshot.multiplyDivideHalfEven(5, 1, 2, 1));
+        assertEquals(4, FxRateSnapshot.multiplyDivideHalfEven(7, 1, 2, 1));
+        assertEquals(2, FxRateSnapshot.multiplyDivideHalfEven(6, 1, 4, 1));
+        assertEquals(1, FxRateSnapshot.multiplyDivideHalfEven(4, 1, 3, 1));
+        
+        assertEquals(Long.MAX_VALUE - 1, FxRateSnapshot.multiplyDivideHalfEven(Long.MAX_VALUE / 2, 4, 2, 1));
+        // Long.MAX_VALUE / 2 is 4611686018427387903.5; the odd quotient rounds up
+        assertEquals(Long.MAX_VALUE / 2 + 1, FxRateSnapshot.multiplyDivideHalfEven(Long.MAX_VALUE, 3, 6, 1));
+        // (Long.MAX_VALUE - 1) / 2 is exact
+        assertEquals(Long.MAX_VALUE / 2, FxRateSnapshot.multiplyDivideHalfEven(Long.MAX_VALUE - 1, 3, 6, 1));
+    }
+    
+    @Test
+    public void versionIsTheNewestRateVersion() {
+        FxRateSnapshot rates = FxRateSnapshot.of(Arrays.asList(
+            new FxRate("USD", "EUR", 92_000_000L, 3), new FxRate("USD", "JPY", 14_953_000_000L, 7)));
+        assertEquals(7, rates.getVersion());
+    }
+    
+    private static FxRate rate(String from, String to, String rate) {
+        return new FxRate(from, to, new BigDecimal(rate).movePointRight(FxRate.SCALE_DIGITS).longValueExact(), 1);
+    }
+    
+    private static FxRateSnapshot snapshot(FxRate... rates) {
+        return FxRateSnapshot.of(Arrays.asList(rates));
+    }
+}
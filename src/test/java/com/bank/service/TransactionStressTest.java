@@ -0,0 +1,230 @@
+package com.bank.service;
+
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.junit.Assume.assumeTrue;
+
+import com.bank.dao.JdbcAccountDAO;
+import com.bank.dao.JdbcPayoutDAO;
+import com.bank.dao.JdbcTransactionDAO;
+import com.bank.dao.JdbcUnitOfWork;
+import com.bank.dao.memory.InMemoryStore;
+import com.bank.exception.InsufficientBalanceException;
+import com.bank.model.Account;
+import com.bank.model.Customer;
+import com.bank.model.Transaction;
+import com.bank.util.DatabaseConnection;
+import com.bank.util.RetryPolicy;
+import com.bank.util.SchemaMigrator;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.Test;
+
+/**
+ * Concurrency stress harness for TransactionService
+ * Runs random deposits, withdrawals and transfers over a small set of
+ * accounts from many threads at once, then checks that no money was created
+ * or lost, that no balance went negative and that every account's
+ * balance_after chain is continuous and ends at its balance.
+ *
+ * The in-memory engine is always tested. The JDBC path runs only when a
+ * database is named explicitly, e.g.
+ * mvn test -Ddb.url=jdbc:mysql://localhost:3306/bank_stress_test -Ddb.username=root -Ddb.password=...
+ * Use a scratch database: the harness migrates it and adds a customer and accounts on every run.
+ *
+ * The load can be changed with -Dstress.threads, -Dstress.operations (per
+ * thread) and -Dstress.seed; a failing run prints its seed so it can be
+ * repeated.
+ */
+public class TransactionStressTest {
+    private static final int ACCOUNTS = 8;
+    private static final long OPENING_CENTS = 100_000;
+    private static final int THREADS = Integer.getInteger("stress.threads", 8);
+    private static final int MEMORY_OPERATIONS = Integer.getInteger("stress.operations", 5_000);
+    private static final int DATABASE_OPERATIONS = Integer.getInteger("stress.operations", 250);
+    
+    @Test
+    public void inMemoryEngineConservesMoney() throws Exception {
+        InMemoryStore store = new InMemoryStore();
+        CustomerService customerService = new CustomerService(store.getCustomerDAO(), store.getCustomerOverviewDAO());
+        AccountService accountService = new AccountService(store.getAccountDAO(), store.getCustomerDAO(),
+            new AccountNumberGenerator(store.getAccountNumberSequenceDAO(), 100));
+        TransactionService transactionService = new TransactionService(store.getTransactionDAO(),
+            store.getAccountDAO(), store, store.getPayoutDAO(), null, stressRetryPolicy(), unlimitedVelocity(), unlimitedDailyLimits(),
+            new FxRateCache(store.getFxRateDAO(), 60));
+        
+        run(customerService, accountService, transactionService, MEMORY_OPERATIONS);
+    }
+    
+    @Test
+    public void databaseConservesMoney() throws Exception {
+        assumeTrue("Set -Ddb.url to run the database stress test", System.getProperty("db.url") != null);
+        
+        SchemaMigrator.migrate();
+        try {
+            TransactionService transactionService = new TransactionService(new JdbcTransactionDAO(),
+                new JdbcAccountDAO(), new JdbcUnitOfWork(), new JdbcPayoutDAO(), null, stressRetryPolicy(),
+                unlimitedVelocity(), unlimitedDailyLimits(), FxRateCache.fromConfig());
+            run(new CustomerService(), new AccountService(), transactionService, DATABASE_OPERATIONS);
+        } finally {
+            DatabaseConnection.closeConnection();
+        }
+    }
+    
+    private void run(CustomerService customerService, AccountService accountService,
+                     TransactionService transactionService, int operationsPerThread) throws Exception {
+        long seed = Long.getLong("stress.seed", System.nanoTime());
+        
+        int customerId = customerService.registerCustomer(new Customer("Stress", "Test",
+            "stress-" + seed + "@example.com", "0000000000", "Stress Street", LocalDate.of(1990, 1, 1)));
+        int[] accountIds = new int[ACCOUNTS];
+        for (int i = 0; i < ACCOUNTS; i++) {
+            accountIds[i] = accountService.openAccount(customerId, Account.AccountType.CURRENT).getAccountId();
+            transactionService.deposit(accountIds[i], OPENING_CENTS / 100.0, "Opening balance");
+        }
+        
+        AtomicLong netCents = new AtomicLong(ACCOUNTS * OPENING_CENTS);
+        AtomicLong rejected = new AtomicLong();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService workers = Executors.newFixedThreadPool(THREADS);
+        List<Future<Void>> results = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            Random random = new Random(seed + t);
+            results.add(workers.submit(worker(transactionService, accountIds, random, operationsPerThread,
+                netCents, rejected, start)));
+        }
+        start.countDown();
+        
+        try {
+            for (Future<Void> result : results) {
+                result.get();
+            }
+        } catch (ExecutionException e) {
+            throw new AssertionError("Operation failed unexpectedly (seed " + seed + ")", e.getCause());
+        } finally {
+            workers.shutdown();
+        }
+        
+        List<String> problems = new ArrayList<>();
+        long totalCents = 0;
+        for (int accountId : accountIds) {
+            double balance = accountService.getBalance(accountId);
+            totalCents += toCents(balance);
+            if (balance < 0) {
+                problems.add("Account " + accountId + " has a negative balance: " + balance);
+            }
+            checkChain(problems, accountId, balance, transactionService.getTransactionHistory(accountId));
+        }
+        if (totalCents != netCents.get()) {
+            problems.add("Money not conserved: expected " + netCents.get() + " cents, found " + totalCents);
+        }
+        if (!problems.isEmpty()) {
+            fail("Invariant violations (seed " + seed + "):\n  " + String.join("\n  ", problems));
+        }
+        assertTrue("Every operation was rejected (seed " + seed + ")",
+            rejected.get() < (long) THREADS * operationsPerThread);
+    }
+    
+    private static Callable<Void> worker(TransactionService transactionService, int[] accountIds, Random random,
+                                         int operations, AtomicLong netCents, AtomicLong rejected,
+                                         CountDownLatch start) {
+        return () -> {
+            start.await();
+            try {
+                for (int i = 0; i < operations; i++) {
+                    int accountId = accountIds[random.nextInt(accountIds.length)];
+                    long cents = 1 + random.nextInt(50_000);
+                    double amount = cents / 100.0;
+                    try {
+                        int choice = random.nextInt(10);
+                        if (choice < 2) {
+                            transactionService.deposit(accountId, amount, null);
+                            netCents.addAndGet(cents);
+                        } else if (choice < 4) {
+                            transactionService.withdraw(accountId, amount, null);
+                            netCents.addAndGet(-cents);
+                        } else {
+                            int toAccountId = accountIds[random.nextInt(accountIds.length)];
+                            if (toAccountId == accountId) {
+                                continue;
+                            }
+                            transactionService.transfer(accountId, toAccountId, amount, null);
+                        }
+                    } catch (InsufficientBalanceException e) {
+                        rejected.incrementAndGet();
+                    }
+                }
+                return null;
+            } finally {
+                DatabaseConnection.closeConnection();
+            }
+        };
+    }
+    
+    /**
+     * Walk an account's history from oldest to newest, checking each entry
+     * moved balance_after by exactly its amount
+     */
+    private static void checkChain(List<String> problems, int accountId, double balance, List<Transaction> history) {
+        List<Transaction> oldestFirst = new ArrayList<>(history);
+        Collections.reverse(oldestFirst);
+        
+        long runningCents = 0;
+        for (Transaction entry : oldestFirst) {
+            long amountCents = toCents(entry.getAmount());
+            switch (entry.getTransactionType()) {
+                case DEPOSIT:
+                case TRANSFER_IN:
+                    runningCents += amountCents;
+                    break;
+                default:
+                    runningCents -= amountCents;
+                    break;
+            }
+            if (toCents(entry.getBalanceAfter()) != runningCents) {
+                problems.add("Account " + accountId + ": transaction " + entry.getTransactionId() +
+                    " has balance_after " + entry.getBalanceAfter() + ", expected " + runningCents / 100.0);
+                return;
+            }
+        }
+        if (runningCents != toCents(balance)) {
+            problems.add("Account " + accountId + ": ledger ends at " + runningCents / 100.0 +
+                " but the balance is " + balance);
+        }
+    }
+    
+    private static long toCents(double amount) {
+        return Math.round(amount * 100);
+    }
+    
+    /**
+     * Enough attempts that contention alone never aborts an operation
+     */
+    private static RetryPolicy stressRetryPolicy() {
+        return new RetryPolicy(1_000, 1, 20);
+    }
+    
+    private static VelocityGuard unlimitedVelocity() {
+        return new VelocityGuard(Collections.emptyList(), 60);
+    }
+    
+    private static DailyLimits unlimitedDailyLimits() {
+        Map<Account.AccountType, long[]> caps = new EnumMap<>(Account.AccountType.class);
+        for (Account.AccountType type : Account.AccountType.values()) {
+            caps.put(type, new long[] { Long.MAX_VALUE, Long.MAX_VALUE });
+        }
+        return new DailyLimits(null, caps, 60);
+    }
+}